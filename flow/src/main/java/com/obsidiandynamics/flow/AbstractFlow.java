@@ -6,13 +6,51 @@ import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
 
+/**
+ *  Base implementation of a {@link Flow}, tracking the pending confirmations and delegating
+ *  the firing logic to a {@link FiringStrategy}. <p>
+ *
+ *  Elements begun with a {@code long} sequence number (via {@link #beginSequence(long, Runnable)}) are indexed in a
+ *  ring, addressed by the low-order bits of the sequence number, sidestepping the boxing, hashing
+ *  and node allocation of a {@link ConcurrentHashMap}. The ring accommodates up to
+ *  {@link #SEQUENCE_RING_SIZE} in-flight elements with consecutive sequence numbers; an element
+ *  whose slot is occupied by a different element (either because the window has been exceeded or
+ *  because sequence numbers arrive out of order) falls back to an overflow map. Elements begun with
+ *  an arbitrary ID (including a {@link Long}) via {@link #begin(Object, Runnable)} are held in a 
+ *  separate map, and are never serialized on the sequence lock. <p>
+ *
+ *  Beginning a sequenced element is serialized on a lock, which is uncontended in the typical case
+ *  where elements are begun from a single thread; the removal of elements upon dispatch is lock-free. <p>
+ *  
+ *  Metrics collection is disabled by default, and may be enabled with {@link #enableMetrics()}
+ *  before the first element is begun. A flow with metrics disabled incurs no timing or counting 
+ *  overhead.
+ */
 public abstract class AbstractFlow implements Flow {
+  /** The number of slots in the sequence ring; a power of two. */
+  static final int SEQUENCE_RING_SIZE = 1 << 10;
+  
+  private static final int SEQUENCE_RING_MASK = SEQUENCE_RING_SIZE - 1;
+  
   private final AtomicReference<StatefulConfirmation> tail = new AtomicReference<>(StatefulConfirmation.anchor());
   
   private final ConcurrentHashMap<Object, StatefulConfirmation> confirmations = new ConcurrentHashMap<>();
   
+  /** Guards the insertion of sequenced confirmations into the ring and the overflow map. */
+  private final Object sequenceLock = new Object();
+  
+  /** Allocated on the first use of a sequenced ID, so that flows keyed by arbitrary IDs pay nothing for it. */
+  private volatile AtomicReferenceArray<StatefulConfirmation> sequenceRing;
+  
+  private final ConcurrentHashMap<Long, StatefulConfirmation> sequenceOverflow = new ConcurrentHashMap<>();
+  
+  private final Map<Object, StatefulConfirmation> pendingConfirmations = new PendingConfirmations();
+  
+  /** Assigned if metrics are enabled. */
+  private volatile FlowMetrics metrics;
+  
   protected final FiringStrategy firingStrategy;
-
+  
   protected AbstractFlow(FiringStrategy.Factory firingStrategyFactory) {
     mustExist(firingStrategyFactory, "Firing strategy factory cannot be null");
     firingStrategy = firingStrategyFactory.create(this, tail.get());
@@ -23,7 +61,7 @@ public abstract class AbstractFlow implements Flow {
     mustExist(id, "ID cannot be null");
     mustExist(onComplete, "On-complete task cannot be null");
     final StatefulConfirmation confirmation = confirmations.computeIfAbsent(id, __ -> {
-      final StatefulConfirmation newConfirmation = new StatefulConfirmation(id, onComplete, this::fire);
+      final StatefulConfirmation newConfirmation = newConfirmation(id, 0, onComplete);
       newConfirmation.appendTo(tail);
       return newConfirmation;
     });
@@ -31,19 +69,173 @@ public abstract class AbstractFlow implements Flow {
     return confirmation;
   }
   
+  @Override
+  public final StatefulConfirmation beginSequence(long sequence, Runnable onComplete) {
+    mustExist(onComplete, "On-complete task cannot be null");
+    final StatefulConfirmation confirmation;
+    synchronized (sequenceLock) {
+      confirmation = getOrAppendSequenced(sequence, onComplete);
+    }
+    confirmation.addRequest();
+    return confirmation;
+  }
+  
+  private StatefulConfirmation getOrAppendSequenced(long sequence, Runnable onComplete) {
+    AtomicReferenceArray<StatefulConfirmation> ring = sequenceRing;
+    if (ring == null) {
+      sequenceRing = ring = new AtomicReferenceArray<>(SEQUENCE_RING_SIZE);
+    }
+    
+    final int slot = (int) sequence & SEQUENCE_RING_MASK;
+    final StatefulConfirmation occupant = ring.get(slot);
+    if (occupant != null && occupant.getSequence() == sequence) {
+      return occupant;
+    }
+    
+    if (! sequenceOverflow.isEmpty()) {
+      final StatefulConfirmation overflowed = sequenceOverflow.get(sequence);
+      if (overflowed != null) return overflowed;
+    }
+    
+    final StatefulConfirmation newConfirmation = newConfirmation(null, sequence, onComplete);
+    if (occupant == null) {
+      ring.set(slot, newConfirmation);
+    } else {
+      sequenceOverflow.put(sequence, newConfirmation);
+    }
+    newConfirmation.appendTo(tail);
+    return newConfirmation;
+  }
+  
+  private StatefulConfirmation newConfirmation(Object id, long sequence, Runnable onComplete) {
+    final FlowMetrics metrics = this.metrics;
+    if (metrics != null) {
+      metrics.onBegin();
+      return new StatefulConfirmation(id, sequence, onComplete, this::fire, true);
+    } else {
+      return new StatefulConfirmation(id, sequence, onComplete, this::fire, false);
+    }
+  }
+  
   abstract void fire();
   
-  final void removeWithoutDispatching(Object id) {
-    confirmations.remove(id);
+  final void removeWithoutDispatching(StatefulConfirmation confirmation) {
+    final FlowMetrics metrics = this.metrics;
+    if (metrics != null) {
+      metrics.onRetire(confirmation);
+    }
+    
+    if (confirmation.isSequenced()) {
+      final int slot = (int) confirmation.getSequence() & SEQUENCE_RING_MASK;
+      if (! sequenceRing.compareAndSet(slot, confirmation, null)) {
+        sequenceOverflow.remove(confirmation.getSequence(), confirmation);
+      }
+    } else {
+      confirmations.remove(confirmation.getId());
+    }
   }
   
   final void dispatch(StatefulConfirmation confirmation) {
-    confirmations.remove(confirmation.getId());
+    removeWithoutDispatching(confirmation);
     confirmation.getTask().run();
   }
- 
+  
+  /**
+   *  Enables the collection of metrics, which may subsequently be obtained with {@link #getStats()}.
+   *  Metrics must be enabled before the first element is begun; enabling metrics more than once has
+   *  no further effect.
+   */
+  public final void enableMetrics() {
+    synchronized (sequenceLock) {
+      if (metrics != null) return;
+      final StatefulConfirmation anchor = tail.get();
+      mustBeTrue(anchor.isAnchor(), illegalState("Metrics must be enabled before the first element is begun"));
+      metrics = new FlowMetrics(anchor);
+    }
+  }
+  
+  public final boolean isMetricsEnabled() {
+    return metrics != null;
+  }
+  
+  /**
+   *  Obtains a snapshot of the metrics of this flow. Unlike {@link #getPendingConfirmations()}, the
+   *  cost of this method is independent of the number of pending elements.
+   *  
+   *  @return The {@link FlowStats} snapshot.
+   */
+  public final FlowStats getStats() {
+    final FlowMetrics metrics = this.metrics;
+    mustExist(metrics, illegalState("Metrics are not enabled"));
+    return metrics.snapshot();
+  }
+  
   @Override
   public final Map<Object, StatefulConfirmation> getPendingConfirmations() {
-    return Collections.unmodifiableMap(confirmations);
+    return pendingConfirmations;
+  }
+  
+  /**
+   *  An unmodifiable view of the pending confirmations, spanning the map of arbitrary IDs, the sequence ring
+   *  and the overflow map.
+   */
+  private final class PendingConfirmations extends AbstractMap<Object, StatefulConfirmation> {
+    @Override
+    public StatefulConfirmation get(Object key) {
+      if (key instanceof Long) {
+        final long sequence = (Long) key;
+        final AtomicReferenceArray<StatefulConfirmation> ring = sequenceRing;
+        if (ring != null) {
+          final StatefulConfirmation occupant = ring.get((int) sequence & SEQUENCE_RING_MASK);
+          if (occupant != null && occupant.getSequence() == sequence) return occupant;
+        }
+        final StatefulConfirmation overflowed = sequenceOverflow.get(key);
+        if (overflowed != null) return overflowed;
+      }
+      return confirmations.get(key);
+    }
+    
+    @Override
+    public boolean containsKey(Object key) {
+      return get(key) != null;
+    }
+    
+    @Override
+    public Set<Entry<Object, StatefulConfirmation>> entrySet() {
+      return new AbstractSet<Entry<Object, StatefulConfirmation>>() {
+        @Override
+        public Iterator<Entry<Object, StatefulConfirmation>> iterator() {
+          final List<Entry<Object, StatefulConfirmation>> entries = new ArrayList<>(confirmations.size());
+          for (StatefulConfirmation confirmation : confirmations.values()) {
+            entries.add(new SimpleImmutableEntry<>(confirmation.getId(), confirmation));
+          }
+          final AtomicReferenceArray<StatefulConfirmation> ring = sequenceRing;
+          if (ring != null) {
+            for (int slot = 0; slot < SEQUENCE_RING_SIZE; slot++) {
+              final StatefulConfirmation occupant = ring.get(slot);
+              if (occupant != null) {
+                entries.add(new SimpleImmutableEntry<>(occupant.getId(), occupant));
+              }
+            }
+          }
+          for (StatefulConfirmation confirmation : sequenceOverflow.values()) {
+            entries.add(new SimpleImmutableEntry<>(confirmation.getId(), confirmation));
+          }
+          return Collections.unmodifiableList(entries).iterator();
+        }
+        
+        @Override
+        public int size() {
+          int size = confirmations.size() + sequenceOverflow.size();
+          final AtomicReferenceArray<StatefulConfirmation> ring = sequenceRing;
+          if (ring != null) {
+            for (int slot = 0; slot < SEQUENCE_RING_SIZE; slot++) {
+              if (ring.get(slot) != null) size++;
+            }
+          }
+          return size;
+        }
+      };
+    }
   }
 }
@@ -10,10 +10,11 @@ package com.obsidiandynamics.flow;
  *  
  *  A firing strategy carries internal state is <em>not</em> thread-safe. The
  *  {@link Flow} implementation must ensure that access to a {@link FiringStrategy}
- *  instance is synchronized.
+ *  instance is serialized, with a happens-before edge between successive firings.
  *  
  *  @see StrictFiringStrategy
  *  @see LazyFiringStrategy
+ *  @see RangeFiringStrategy
  *  @see Flow
  */
 public abstract class FiringStrategy {
@@ -35,7 +35,9 @@ import com.obsidiandynamics.worker.*;
  *  have completed. This behaviour is influenced by installing an appropriate {@link FiringStrategy}. 
  *  A {@link LazyFiringStrategy} will not dispatch intermediate elements in a contiguous sequence,
  *  dispatching only the last element in the sequence. Conversely, a {@link StrictFiringStrategy}
- *  will dispatch all elements a contiguous sequence of completed elements. <p>
+ *  will dispatch all elements a contiguous sequence of completed elements. A {@link RangeFiringStrategy}
+ *  dispatches each contiguous sequence of completed elements as a single range, identified by its
+ *  first and last elements. <p>
  *  
  *  Concurrency is supported not just across elements, but also for any given element. The
  *  {@link #begin(Object, Runnable)} method may be called multiple times, implying that an element
@@ -62,6 +64,23 @@ public interface Flow extends Terminable, Joinable {
    */
   StatefulConfirmation begin(Object id, Runnable onComplete);
   
+  /**
+   *  A variant of {@link #begin(Object, Runnable)} for elements identified by a {@code long} sequence
+   *  number, such as a monotonically increasing offset. Elements must be consistently begun either 
+   *  by their sequence number or by an ID; an element begun with a sequence number need not be the 
+   *  same element as one begun with the boxed equivalent of that number. <p>
+   *  
+   *  Implementations may specialise this method to avoid boxing the sequence number and hashing it
+   *  on every call; the default implementation merely delegates to {@link #begin(Object, Runnable)}.
+   *  
+   *  @param sequence The sequence number of the element.
+   *  @param onComplete The task to execute when the element is deemed as complete.
+   *  @return The accompanying {@link StatefulConfirmation} handle.
+   */
+  default StatefulConfirmation beginSequence(long sequence, Runnable onComplete) {
+    return begin((Object) sequence, onComplete);
+  }
+  
   /**
    *  Obtains the pending confirmations. The resulting {@link Map} is an unmodifiable view; changes to this
    *  {@link Flow} will be reflected in the map.
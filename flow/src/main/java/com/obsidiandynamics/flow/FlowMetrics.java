@@ -0,0 +1,50 @@
+package com.obsidiandynamics.flow;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ *  Collects the metrics of a single {@link AbstractFlow}. Elements are counted as they are begun 
+ *  and retired, where retirement occurs upon dispatch or, in the case of a {@link LazyFiringStrategy}
+ *  or a {@link RangeFiringStrategy}, when the element is covered by the dispatch of a successor. As
+ *  elements are retired strictly in flow order, the successor of the most recently retired element
+ *  is the oldest pending element.
+ */
+final class FlowMetrics {
+  private final LongAdder begun = new LongAdder();
+  
+  private final LongAdder retired = new LongAdder();
+  
+  private final LatencyHistogram latencies = new LatencyHistogram();
+  
+  /** The most recently retired element, or the anchor if none have been retired. */
+  private volatile StatefulConfirmation frontier;
+  
+  FlowMetrics(StatefulConfirmation anchor) {
+    frontier = anchor;
+  }
+  
+  void onBegin() {
+    begun.increment();
+  }
+  
+  /**
+   *  Invoked from the firing thread as each element is retired, in flow order.
+   *  
+   *  @param confirmation The retired element.
+   */
+  void onRetire(StatefulConfirmation confirmation) {
+    latencies.record(System.nanoTime() - confirmation.getConfirmedNanos());
+    retired.increment();
+    frontier = confirmation;
+  }
+  
+  FlowStats snapshot() {
+    final long retiredCount = retired.sum();
+    final long pendingDepth = Math.max(0, begun.sum() - retiredCount);
+    final StatefulConfirmation oldest = frontier.next();
+    final long timestampNanos = System.nanoTime();
+    final long oldestPendingAgeNanos = oldest != null ? Math.max(0, timestampNanos - oldest.getBeganNanos()) : 0;
+    return new FlowStats(timestampNanos, pendingDepth, oldestPendingAgeNanos, retiredCount, 
+                         latencies.getCount(), latencies.getTotal(), latencies.getMax(), latencies.getBuckets());
+  }
+}
@@ -0,0 +1,138 @@
+package com.obsidiandynamics.flow;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+/**
+ *  A point-in-time snapshot of the metrics of a {@link Flow}, obtained via 
+ *  {@link AbstractFlow#getStats()}. <p>
+ *  
+ *  The dispatch latency of an element is the time between its final
+ *  {@link StatefulConfirmation#confirm()} and its dispatch, capturing the delay due to 
+ *  head-of-line blocking and, in a {@link ThreadedFlow}, the handover to the background thread. 
+ *  Percentiles are approximated from a histogram with log-linear buckets, and are reported as the
+ *  upper bound of the bucket in which the percentile falls (capped by the observed maximum), 
+ *  overstating the true value by at most 6.25%. <p>
+ *  
+ *  An element is deemed dispatched when it is either dispatched in its own right, or covered 
+ *  by the dispatch of a successor, as is the case with a {@link LazyFiringStrategy} or a 
+ *  {@link RangeFiringStrategy}.
+ */
+public final class FlowStats {
+  private final long timestampNanos;
+  
+  private final long pendingDepth;
+  
+  private final long oldestPendingAgeNanos;
+  
+  private final long dispatchCount;
+  
+  private final long latencyCount;
+  
+  private final long latencyTotalNanos;
+  
+  private final long latencyMaxNanos;
+  
+  private final long[] latencyBuckets;
+
+  FlowStats(long timestampNanos, long pendingDepth, long oldestPendingAgeNanos, long dispatchCount, 
+            long latencyCount, long latencyTotalNanos, long latencyMaxNanos, long[] latencyBuckets) {
+    this.timestampNanos = timestampNanos;
+    this.pendingDepth = pendingDepth;
+    this.oldestPendingAgeNanos = oldestPendingAgeNanos;
+    this.dispatchCount = dispatchCount;
+    this.latencyCount = latencyCount;
+    this.latencyTotalNanos = latencyTotalNanos;
+    this.latencyMaxNanos = latencyMaxNanos;
+    this.latencyBuckets = latencyBuckets;
+  }
+  
+  /**
+   *  Obtains the time when this snapshot was taken, in the time base of {@link System#nanoTime()}.
+   *  
+   *  @return The snapshot time, in nanoseconds.
+   */
+  public long getTimestampNanos() {
+    return timestampNanos;
+  }
+
+  /**
+   *  Obtains the number of elements that have been begun but are yet to be dispatched.
+   *  
+   *  @return The pending depth.
+   */
+  public long getPendingDepth() {
+    return pendingDepth;
+  }
+
+  /**
+   *  Obtains the time since the oldest pending element was begun, being the element at the
+   *  head of the flow that is holding up the dispatch of its successors.
+   *  
+   *  @return The age of the oldest pending element, in nanoseconds, or zero if there are no pending elements.
+   */
+  public long getOldestPendingAgeNanos() {
+    return oldestPendingAgeNanos;
+  }
+
+  public long getDispatchCount() {
+    return dispatchCount;
+  }
+  
+  /**
+   *  Obtains the rate of dispatch over the interval between an earlier snapshot and this one.
+   *  
+   *  @param earlier An earlier snapshot of the same flow.
+   *  @return The number of elements dispatched per second, or zero if no time has elapsed.
+   */
+  public double getDispatchRate(FlowStats earlier) {
+    mustExist(earlier, "Earlier snapshot cannot be null");
+    final long elapsedNanos = timestampNanos - earlier.timestampNanos;
+    mustBeTrue(elapsedNanos >= 0, illegalArgument("Earlier snapshot must precede this snapshot"));
+    return elapsedNanos != 0 ? (dispatchCount - earlier.dispatchCount) * 1_000_000_000d / elapsedNanos : 0;
+  }
+
+  public long getLatencyCount() {
+    return latencyCount;
+  }
+
+  public long getLatencyMaxNanos() {
+    return latencyMaxNanos;
+  }
+  
+  public double getLatencyMeanNanos() {
+    return latencyCount != 0 ? (double) latencyTotalNanos / latencyCount : 0;
+  }
+  
+  /**
+   *  Obtains the approximate dispatch latency at the given percentile.
+   *  
+   *  @param percentile The percentile, in the range {@code [0, 100]}.
+   *  @return The approximate latency, in nanoseconds, or zero if no dispatches were recorded.
+   */
+  public long getLatencyPercentileNanos(double percentile) {
+    mustBeTrue(percentile >= 0 && percentile <= 100, illegalArgument("Percentile must be in the range [0, 100]"));
+    long bucketsTotal = 0;
+    for (long bucketCount : latencyBuckets) {
+      bucketsTotal += bucketCount;
+    }
+    if (bucketsTotal == 0) return 0;
+    
+    final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * bucketsTotal));
+    long cumulative = 0;
+    for (int bucket = 0; bucket < latencyBuckets.length; bucket++) {
+      cumulative += latencyBuckets[bucket];
+      if (cumulative >= rank) {
+        return Math.min(LatencyHistogram.upperBoundOf(bucket), latencyMaxNanos);
+      }
+    }
+    return latencyMaxNanos;
+  }
+
+  @Override
+  public String toString() {
+    return FlowStats.class.getSimpleName() + " [pendingDepth=" + pendingDepth + ", oldestPendingAgeNanos=" + oldestPendingAgeNanos + 
+        ", dispatchCount=" + dispatchCount + ", latencyMeanNanos=" + (long) getLatencyMeanNanos() + 
+        ", latencyP50Nanos=" + getLatencyPercentileNanos(50) + ", latencyP99Nanos=" + getLatencyPercentileNanos(99) + 
+        ", latencyMaxNanos=" + latencyMaxNanos + "]";
+  }
+}
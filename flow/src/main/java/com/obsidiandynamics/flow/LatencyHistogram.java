@@ -0,0 +1,79 @@
+package com.obsidiandynamics.flow;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ *  A lock-free histogram of latencies, with log-linear bucket boundaries in the manner of an
+ *  HdrHistogram. Values below {@code 32} are recorded exactly; above that, each power-of-two
+ *  range is subdivided into {@link #SUB_BUCKETS} linear buckets, bounding the relative error 
+ *  of a recorded value to {@code 1/16} (6.25%) across the entire range of {@code long}.
+ */
+final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  
+  static final int BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+  
+  private final LongAdder count = new LongAdder();
+  
+  private final LongAdder total = new LongAdder();
+  
+  private final AtomicLong max = new AtomicLong();
+  
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  
+  static int bucketOf(long value) {
+    final int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+    return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+  }
+  
+  /**
+   *  Obtains the largest value that maps to the given bucket.
+   *  
+   *  @param bucket The bucket index.
+   *  @return The inclusive upper bound of the bucket.
+   */
+  static long upperBoundOf(int bucket) {
+    if (bucket < SUB_BUCKETS * 2) return bucket;
+    final int shift = (bucket >> SUB_BUCKET_BITS) - 1;
+    final long top = bucket - ((long) shift << SUB_BUCKET_BITS);
+    return ((top + 1) << shift) - 1;
+  }
+  
+  /**
+   *  Records a latency. A negative value (which may arise from the use of unsynchronised
+   *  timestamps) is treated as zero.
+   *  
+   *  @param latencyNanos The latency, in nanoseconds.
+   */
+  void record(long latencyNanos) {
+    final long latency = Math.max(0, latencyNanos);
+    count.increment();
+    total.add(latency);
+    buckets.incrementAndGet(bucketOf(latency));
+    for (long currentMax; latency > (currentMax = max.get()); ) {
+      if (max.compareAndSet(currentMax, latency)) break;
+    }
+  }
+  
+  long getCount() {
+    return count.sum();
+  }
+  
+  long getTotal() {
+    return total.sum();
+  }
+  
+  long getMax() {
+    return max.get();
+  }
+  
+  long[] getBuckets() {
+    final long[] bucketCounts = new long[BUCKETS];
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      bucketCounts[bucket] = buckets.get(bucket);
+    }
+    return bucketCounts;
+  }
+}
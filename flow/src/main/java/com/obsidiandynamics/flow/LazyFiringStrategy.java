@@ -25,7 +25,10 @@ public final class LazyFiringStrategy extends FiringStrategy {
         if (current.isAnchor()) {
           // skip the anchor
         } else if (current.isConfirmed()) {
-          flow.removeWithoutDispatching(current.getId());
+          // the last confirmation in the sequence is removed upon its dispatch
+          if (toBeCompleted != null) {
+            flow.removeWithoutDispatching(toBeCompleted);
+          }
           toBeCompleted = current;
         } else {
           if (toBeCompleted != null) { 
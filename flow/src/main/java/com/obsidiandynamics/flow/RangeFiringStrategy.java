@@ -0,0 +1,90 @@
+package com.obsidiandynamics.flow;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+/**
+ *  Dispatches every contiguous sequence of completed {@link StatefulConfirmation}s within a 
+ *  {@link Flow} model as a single range, handing the first and last confirmations of the 
+ *  sequence, along with the number of confirmations spanned, to a {@link RangeDispatcher}. 
+ *  Preceding sequences are dispatched before their successors. <p>
+ *  
+ *  A {@link RangeFiringStrategy} is suitable where the application can act on a contiguous
+ *  range of elements more cheaply than on each element in turn, for example, by committing
+ *  the offset of the last element or acknowledging the range in one request. Unlike a 
+ *  {@link LazyFiringStrategy}, the extent of each range is preserved. The range dispatcher
+ *  supersedes the tasks supplied to {@link Flow#begin(Object, Runnable)}, which are not run.
+ *  
+ *  @see FiringStrategy
+ *  @see Flow
+ */
+public final class RangeFiringStrategy extends FiringStrategy {
+  /**
+   *  Receives contiguous ranges of completed confirmations.
+   */
+  @FunctionalInterface
+  public interface RangeDispatcher {
+    /**
+     *  Dispatches a contiguous range of completed confirmations.
+     *  
+     *  @param first The first (earliest) confirmation in the range.
+     *  @param last The last (most recent) confirmation in the range; the same as {@code first} 
+     *         if the range spans a single confirmation.
+     *  @param count The number of confirmations in the range.
+     */
+    void dispatch(StatefulConfirmation first, StatefulConfirmation last, int count);
+  }
+  
+  private final RangeDispatcher rangeDispatcher;
+  
+  public RangeFiringStrategy(AbstractFlow flow, StatefulConfirmation head, RangeDispatcher rangeDispatcher) {
+    super(flow, head);
+    this.rangeDispatcher = mustExist(rangeDispatcher, "Range dispatcher cannot be null");
+  }
+  
+  /**
+   *  Obtains a {@link FiringStrategy.Factory} for creating a {@link RangeFiringStrategy} 
+   *  with the given range dispatcher.
+   *  
+   *  @param rangeDispatcher The range dispatcher.
+   *  @return The firing strategy factory.
+   */
+  public static FiringStrategy.Factory withDispatcher(RangeDispatcher rangeDispatcher) {
+    mustExist(rangeDispatcher, "Range dispatcher cannot be null");
+    return (flow, head) -> new RangeFiringStrategy(flow, head, rangeDispatcher);
+  }
+
+  @Override
+  void fire() {
+    StatefulConfirmation first = null;
+    StatefulConfirmation last = null;
+    int count = 0;
+    
+    for (;;) {
+      if (current != null) {
+        if (current.isAnchor()) {
+          // skip the anchor
+        } else if (current.isConfirmed()) {
+          flow.removeWithoutDispatching(current);
+          if (first == null) first = current;
+          last = current;
+          count++;
+        } else {
+          if (first != null) {
+            rangeDispatcher.dispatch(first, last, count);
+          }
+          return;
+        }
+      }
+      
+      current = head.next();
+      if (current != null) {
+        head = current;
+      } else {
+        if (first != null) {
+          rangeDispatcher.dispatch(first, last, count);
+        }
+        return;
+      }
+    }
+  }
+}
@@ -19,29 +19,68 @@ public final class StatefulConfirmation implements Confirmation {
   
   private final AtomicInteger completed = new AtomicInteger();
   
+  /** The ID, or {@code null} if the confirmation is identified by its {@link #sequence}. */
   private final Object id;
   
+  private final long sequence;
+  
   private final FireController fireController;
   
-  StatefulConfirmation(Object id, Runnable onComplete, FireController fireController) {
+  /** Whether the confirmation is being timed for the purpose of collecting flow metrics. */
+  private final boolean timed;
+  
+  /** The time when the confirmation was created, if timed. */
+  private final long beganNanos;
+  
+  /** The time of the most recent confirm, if timed. */
+  private volatile long confirmedNanos;
+  
+  StatefulConfirmation(Object id, long sequence, Runnable onComplete, FireController fireController, boolean timed) {
     this.id = id;
+    this.sequence = sequence;
     this.onComplete = onComplete;
     this.fireController = fireController;
+    this.timed = timed;
+    beganNanos = timed ? System.nanoTime() : 0;
   }
   
   @Override
   public void confirm() {
+    // stamped ahead of the completion, so that it is visible to the thread that observes the completion
+    if (timed) confirmedNanos = System.nanoTime();
     final int numCompleted = completed.incrementAndGet();
     final int numRequested = requested.get();
     if (numCompleted > numRequested) {
       completed.decrementAndGet();
-      throw new IllegalStateException("Completed " + numCompleted + " of " + numRequested + " for ID " + id);
+      throw new IllegalStateException("Completed " + numCompleted + " of " + numRequested + " for ID " + getId());
     }
     fireController.fire();
   }
   
+  /**
+   *  Obtains the ID of this confirmation. A confirmation that was begun with a {@code long} 
+   *  sequence number is identified by the boxed equivalent of that sequence number.
+   *  
+   *  @return The ID.
+   */
   public Object getId() {
-    return id;
+    return isSequenced() ? Long.valueOf(sequence) : id;
+  }
+  
+  boolean isSequenced() {
+    return id == null && ! isAnchor();
+  }
+  
+  long getSequence() {
+    return sequence;
+  }
+  
+  long getBeganNanos() {
+    return beganNanos;
+  }
+  
+  long getConfirmedNanos() {
+    return confirmedNanos;
   }
   
   boolean isAnchor() {
@@ -76,11 +115,11 @@ public final class StatefulConfirmation implements Confirmation {
   
   @Override
   public String toString() {
-    return StatefulConfirmation.class.getSimpleName() + " [id=" + id + ", onComplete=" + onComplete + ", requested=" + requested + 
+    return StatefulConfirmation.class.getSimpleName() + " [id=" + getId() + ", onComplete=" + onComplete + ", requested=" + requested + 
         ", completed=" + completed + "]";
   }
 
   static StatefulConfirmation anchor() {
-    return new StatefulConfirmation(null, null, null);
+    return new StatefulConfirmation(null, 0, null, null, false);
   }
 }
@@ -1,5 +1,7 @@
 package com.obsidiandynamics.flow;
 
+import java.util.concurrent.atomic.*;
+
 import com.obsidiandynamics.worker.*;
 
 /**
@@ -14,19 +16,50 @@ import com.obsidiandynamics.worker.*;
  *  
  *  A drawback of this implementation is that it may hold up the calling application, particularly
  *  if the dispatch logic is inherently blocking or otherwise time-consuming. In these
- *  situations, the {@link ThreadedFlow} might be a more suitable alternative.
+ *  situations, the {@link ThreadedFlow} might be a more suitable alternative. <p>
+ *  
+ *  Firing is lock-free. Of the threads that concurrently confirm, only one becomes the drainer, 
+ *  advancing the firing strategy on behalf of all; the others merely register the need for another 
+ *  pass and return immediately, without waiting for their confirmation to be dispatched. The 
+ *  drainer keeps making passes until no further confirmations have been registered, so that
+ *  no confirmation goes unnoticed. As only one thread fires at any time, dispatch ordering is 
+ *  identical to that of a serial caller. Should a dispatch fail, the drainer completes its passes 
+ *  before rethrowing the exception, so that the confirmations registered with it are not lost.
  *
  *  @see Flow
  */
 public final class ThreadlessFlow extends AbstractFlow {
+  /** The number of fire requests yet to be acted upon; the thread that increments it from zero becomes the drainer. */
+  private final AtomicInteger wip = new AtomicInteger();
+  
   public ThreadlessFlow(FiringStrategy.Factory firingStrategyFactory) {
     super(firingStrategyFactory);
   }
   
   @Override
   void fire() {
-    synchronized (firingStrategy) {
-      firingStrategy.fire();
+    if (wip.getAndIncrement() != 0) return;
+    
+    int missed = 1;
+    Throwable error = null;
+    do {
+      try {
+        firingStrategy.fire();
+      } catch (RuntimeException | Error e) {
+        // keep draining on behalf of the threads that registered in the meantime, rethrowing once done
+        if (error == null) {
+          error = e;
+        } else if (error != e) {
+          error.addSuppressed(e);
+        }
+      }
+      missed = wip.addAndGet(-missed);
+    } while (missed != 0);
+    
+    if (error instanceof Error) {
+      throw (Error) error;
+    } else if (error != null) {
+      throw (RuntimeException) error;
     }
   }
   
@@ -0,0 +1,86 @@
+package com.obsidiandynamics.flow;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+/**
+ *  Determines how the background thread of a {@link ThreadedFlow} waits for confirmations, and
+ *  correspondingly, the cost borne by {@link StatefulConfirmation#confirm()} in waking it. <p>
+ *  
+ *  The {@link #monitor()} strategy waits on a monitor, requiring every confirmation to acquire 
+ *  the monitor in order to notify the waiting thread. The {@link #backoff()} strategy trades CPU 
+ *  utilisation for hand-over latency: the waiting thread spins, then yields, before finally 
+ *  parking, while a confirmation merely raises an atomic flag, only unparking the thread if it 
+ *  has progressed to parking.
+ *  
+ *  @see ThreadedFlow
+ */
+public abstract class WaitStrategy {
+  static final int DEFAULT_SPINS = 1_000;
+  
+  static final int DEFAULT_YIELDS = 100;
+  
+  static final long DEFAULT_MAX_PARK_NANOS = 1_000_000_000L;
+  
+  private static final WaitStrategy MONITOR = new WaitStrategy() {
+    @Override
+    Waiter newWaiter() {
+      return new Waiter.Monitor();
+    }
+    
+    @Override
+    public String toString() {
+      return WaitStrategy.class.getSimpleName() + ".monitor()";
+    }
+  };
+  
+  WaitStrategy() {}
+  
+  abstract Waiter newWaiter();
+  
+  /**
+   *  Obtains a strategy that waits on a monitor, with each confirmation notifying the waiting 
+   *  thread under the monitor. This is the most frugal strategy, and the default.
+   *  
+   *  @return The monitor {@link WaitStrategy}.
+   */
+  public static WaitStrategy monitor() {
+    return MONITOR;
+  }
+  
+  /**
+   *  Obtains a spin-yield-park strategy with default parameters.
+   *  
+   *  @return The backoff {@link WaitStrategy}.
+   */
+  public static WaitStrategy backoff() {
+    return backoff(DEFAULT_SPINS, DEFAULT_YIELDS, DEFAULT_MAX_PARK_NANOS);
+  }
+  
+  /**
+   *  Obtains a strategy where the waiting thread busy-spins for up to {@code spins} iterations, 
+   *  then yields for up to {@code yields} iterations, before parking for up to {@code maxParkNanos}
+   *  at a time. The waiting thread returns to spinning after each wake-up.
+   *  
+   *  @param spins The number of busy-spin iterations.
+   *  @param yields The number of yielding iterations.
+   *  @param maxParkNanos The upper bound on a single park, in nanoseconds.
+   *  @return The backoff {@link WaitStrategy}.
+   */
+  public static WaitStrategy backoff(int spins, int yields, long maxParkNanos) {
+    mustBeGreaterOrEqual(spins, 0, illegalArgument("Number of spins cannot be negative"));
+    mustBeGreaterOrEqual(yields, 0, illegalArgument("Number of yields cannot be negative"));
+    mustBeGreater(maxParkNanos, 0L, illegalArgument("Max park time must be greater than 0"));
+    return new WaitStrategy() {
+      @Override
+      Waiter newWaiter() {
+        return new Waiter.Backoff(spins, yields, maxParkNanos);
+      }
+      
+      @Override
+      public String toString() {
+        return WaitStrategy.class.getSimpleName() + ".backoff(spins=" + spins + ", yields=" + yields + 
+            ", maxParkNanos=" + maxParkNanos + ")";
+      }
+    };
+  }
+}
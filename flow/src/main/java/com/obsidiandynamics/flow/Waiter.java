@@ -0,0 +1,102 @@
+package com.obsidiandynamics.flow;
+
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+/**
+ *  Coordinates the hand-over between the confirming threads and the background thread of a 
+ *  {@link ThreadedFlow}, according to the chosen {@link WaitStrategy}. A signal raised in 
+ *  the absence of a waiting thread is retained, so that the next call to {@link #await()} 
+ *  returns immediately.
+ */
+abstract class Waiter {
+  /**
+   *  Waits until signalled, consuming the signal. Called only from the background thread.
+   *  
+   *  @throws InterruptedException If the thread was interrupted.
+   */
+  abstract void await() throws InterruptedException;
+  
+  /**
+   *  Signals the background thread.
+   */
+  abstract void signal();
+  
+  static final class Monitor extends Waiter {
+    private static final int CYCLE_WAIT_INTERVAL = 1_000;
+    
+    private final Object monitor = new Object();
+    
+    private boolean woken;
+    
+    @Override
+    void await() throws InterruptedException {
+      synchronized (monitor) {
+        while (! woken) {
+          monitor.wait(CYCLE_WAIT_INTERVAL);
+        }
+        woken = false;
+      }
+    }
+
+    @Override
+    void signal() {
+      synchronized (monitor) {
+        woken = true;
+        monitor.notify();
+      }
+    }
+  }
+  
+  static final class Backoff extends Waiter {
+    private final int spins;
+    
+    private final int yields;
+    
+    private final long maxParkNanos;
+    
+    private final AtomicBoolean woken = new AtomicBoolean();
+    
+    /** Assigned while the waiting thread is parked (or about to park), so that a signaller knows to unpark it. */
+    private volatile Thread parked;
+    
+    Backoff(int spins, int yields, long maxParkNanos) {
+      this.spins = spins;
+      this.yields = yields;
+      this.maxParkNanos = maxParkNanos;
+    }
+    
+    @Override
+    void await() throws InterruptedException {
+      int spun = 0, yielded = 0;
+      while (! woken.get()) {
+        if (spun < spins) {
+          spun++;
+        } else if (yielded < yields) {
+          yielded++;
+          Thread.yield();
+        } else {
+          // the volatile write of the parked thread, followed by the re-check of the flag, pairs with
+          // the signaller's raising of the flag, followed by the read of the parked thread
+          parked = Thread.currentThread();
+          if (! woken.get()) {
+            LockSupport.parkNanos(this, maxParkNanos);
+          }
+          parked = null;
+          if (Thread.interrupted()) throw new InterruptedException();
+        }
+      }
+      woken.set(false);
+    }
+
+    @Override
+    void signal() {
+      if (! woken.get() && woken.compareAndSet(false, true)) {
+        final Thread parked = this.parked;
+        if (parked != null) {
+          LockSupport.unpark(parked);
+        }
+      }
+    }
+  }
+}
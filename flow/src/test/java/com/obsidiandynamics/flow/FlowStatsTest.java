@@ -0,0 +1,71 @@
+package com.obsidiandynamics.flow;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import com.obsidiandynamics.assertion.*;
+import com.obsidiandynamics.func.*;
+
+public final class FlowStatsTest {
+  private static FlowStats statsOf(long timestampNanos, long dispatchCount, LatencyHistogram histogram) {
+    return new FlowStats(timestampNanos, 0, 0, dispatchCount, 
+                         histogram.getCount(), histogram.getTotal(), histogram.getMax(), histogram.getBuckets());
+  }
+  
+  @Test
+  public void testEmpty() {
+    final FlowStats stats = new FlowMetrics(StatefulConfirmation.anchor()).snapshot();
+    assertEquals(0, stats.getPendingDepth());
+    assertEquals(0, stats.getOldestPendingAgeNanos());
+    assertEquals(0, stats.getDispatchCount());
+    assertEquals(0, stats.getLatencyCount());
+    assertEquals(0, stats.getLatencyMaxNanos());
+    assertEquals(0, stats.getLatencyMeanNanos(), 0);
+    assertEquals(0, stats.getLatencyPercentileNanos(0));
+    assertEquals(0, stats.getLatencyPercentileNanos(100));
+    assertEquals(0, stats.getDispatchRate(stats), 0);
+    Assertions.assertToStringOverride(stats);
+  }
+  
+  @Test
+  public void testLatencyPercentiles() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 99; i++) {
+      histogram.record(10);
+    }
+    histogram.record(1_000_000);
+    final FlowStats stats = statsOf(0, 100, histogram);
+    
+    assertEquals(100, stats.getLatencyCount());
+    assertEquals(1_000_000, stats.getLatencyMaxNanos());
+    assertEquals((99 * 10 + 1_000_000) / 100d, stats.getLatencyMeanNanos(), 0);
+    assertEquals(10, stats.getLatencyPercentileNanos(0));
+    assertEquals(10, stats.getLatencyPercentileNanos(99));
+    assertEquals(1_000_000, stats.getLatencyPercentileNanos(99.5));
+    assertEquals(1_000_000, stats.getLatencyPercentileNanos(100));
+  }
+  
+  @Test
+  public void testDispatchRate() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    final FlowStats earlier = statsOf(1_000_000_000L, 100, histogram);
+    final FlowStats later = statsOf(3_000_000_000L, 300, histogram);
+    assertEquals(100, later.getDispatchRate(earlier), 0);
+    
+    assertThatThrownBy(() -> earlier.getDispatchRate(later))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Earlier snapshot must precede this snapshot");
+    assertThatThrownBy(() -> later.getDispatchRate(null))
+    .isExactlyInstanceOf(NullArgumentException.class).hasMessage("Earlier snapshot cannot be null");
+  }
+  
+  @Test
+  public void testInvalidPercentile() {
+    final FlowStats stats = statsOf(0, 0, new LatencyHistogram());
+    assertThatThrownBy(() -> stats.getLatencyPercentileNanos(-1))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Percentile must be in the range [0, 100]");
+    assertThatThrownBy(() -> stats.getLatencyPercentileNanos(100.1))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Percentile must be in the range [0, 100]");
+  }
+}
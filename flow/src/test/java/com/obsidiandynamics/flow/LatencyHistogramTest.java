@@ -0,0 +1,50 @@
+package com.obsidiandynamics.flow;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+public final class LatencyHistogramTest {
+  @Test
+  public void testBucketBoundaries() {
+    assertEquals(0, LatencyHistogram.bucketOf(0));
+    assertEquals(31, LatencyHistogram.bucketOf(31));
+    assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundOf(LatencyHistogram.BUCKETS - 1));
+    
+    // buckets are contiguous and each value maps to the bucket that it bounds
+    for (int bucket = 1; bucket < LatencyHistogram.BUCKETS; bucket++) {
+      final long lowerBound = LatencyHistogram.upperBoundOf(bucket - 1) + 1;
+      assertEquals(bucket, LatencyHistogram.bucketOf(lowerBound));
+      assertEquals(bucket, LatencyHistogram.bucketOf(LatencyHistogram.upperBoundOf(bucket)));
+    }
+  }
+  
+  @Test
+  public void testRelativeError() {
+    final Random random = new Random(0);
+    for (int i = 0; i < 100_000; i++) {
+      final long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+      final long upperBound = LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(value));
+      assertTrue(upperBound >= value);
+      assertTrue("value=" + value + ", upperBound=" + upperBound, 
+                 upperBound - value <= value / LatencyHistogram.SUB_BUCKETS);
+    }
+  }
+  
+  @Test
+  public void testRecord() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-1);
+    histogram.record(100);
+    histogram.record(100);
+    assertEquals(3, histogram.getCount());
+    assertEquals(200, histogram.getTotal());
+    assertEquals(100, histogram.getMax());
+    final long[] buckets = histogram.getBuckets();
+    assertEquals(1, buckets[0]);
+    assertEquals(2, buckets[LatencyHistogram.bucketOf(100)]);
+  }
+}
@@ -0,0 +1,103 @@
+package com.obsidiandynamics.flow;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+import com.obsidiandynamics.flow.FiringStrategyTests.*;
+import com.obsidiandynamics.func.*;
+
+public final class RangeFiringStrategyTest {
+  private final List<String> ranges = new ArrayList<>();
+  
+  private MockFlow flow;
+  
+  @Before
+  public void before() {
+    flow = new MockFlow(RangeFiringStrategy.withDispatcher((first, last, count) -> {
+      ranges.add(first.getId() + ".." + last.getId() + "#" + count);
+    }));
+  }
+  
+  private static String rangeOf(MockConfirmation first, MockConfirmation last, int count) {
+    return first.getId() + ".." + last.getId() + "#" + count;
+  }
+  
+  @Test
+  public void testFire_empty() {
+    flow.getFiringStrategy().fire();
+    flow.getFiringStrategy().fire();
+    assertEquals(0, ranges.size());
+  }
+  
+  @Test
+  public void testFire_neitherConfirmed() {
+    final MockConfirmation c0 = flow.begin();
+    final MockConfirmation c1 = flow.begin();
+    
+    flow.getFiringStrategy().fire();
+    flow.getFiringStrategy().fire();
+    assertEquals(0, ranges.size());
+    
+    assertTrue(flow.getPendingConfirmations().containsKey(c0.getId()));
+    assertTrue(flow.getPendingConfirmations().containsKey(c1.getId()));
+  }
+  
+  @Test
+  public void testFire_firstNotConfirmedSecondConfirmed() {
+    final MockConfirmation c0 = flow.begin();
+    final MockConfirmation c1 = flow.beginAndConfirm();
+    
+    flow.getFiringStrategy().fire();
+    flow.getFiringStrategy().fire();
+    assertEquals(0, ranges.size());
+    
+    assertTrue(flow.getPendingConfirmations().containsKey(c0.getId()));
+    assertTrue(flow.getPendingConfirmations().containsKey(c1.getId()));
+  }
+  
+  @Test
+  public void testFire_firstConfirmedSecondNotConfirmed() {
+    final MockConfirmation c0 = flow.beginAndConfirm();
+    final MockConfirmation c1 = flow.begin();
+    
+    flow.getFiringStrategy().fire();
+    flow.getFiringStrategy().fire();
+    assertEquals(Arrays.asList(rangeOf(c0, c0, 1)), ranges);
+    
+    assertFalse(flow.getPendingConfirmations().containsKey(c0.getId()));
+    assertTrue(flow.getPendingConfirmations().containsKey(c1.getId()));
+  }
+  
+  @Test
+  public void testFire_successiveRanges() {
+    final MockConfirmation c0 = flow.beginAndConfirm();
+    final MockConfirmation c1 = flow.beginAndConfirm();
+    final MockConfirmation c2 = flow.begin();
+    final MockConfirmation c3 = flow.beginAndConfirm();
+    final MockConfirmation c4 = flow.beginAndConfirm();
+    
+    flow.getFiringStrategy().fire();
+    assertEquals(Arrays.asList(rangeOf(c0, c1, 2)), ranges);
+    
+    c2.confirm();
+    flow.getFiringStrategy().fire();
+    flow.getFiringStrategy().fire();
+    assertEquals(Arrays.asList(rangeOf(c0, c1, 2), rangeOf(c2, c4, 3)), ranges);
+    
+    // the tasks supplied when beginning the elements are superseded by the range dispatcher
+    assertFalse(c0.isFired());
+    assertFalse(c4.isFired());
+    assertFalse(flow.getPendingConfirmations().containsKey(c3.getId()));
+    assertEquals(0, flow.getPendingConfirmations().size());
+  }
+  
+  @Test
+  public void testNullDispatcher() {
+    assertThatThrownBy(() -> RangeFiringStrategy.withDispatcher(null))
+    .isExactlyInstanceOf(NullArgumentException.class).hasMessage("Range dispatcher cannot be null");
+  }
+}
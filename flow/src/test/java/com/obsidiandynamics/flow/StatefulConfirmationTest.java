@@ -12,7 +12,7 @@ public final class StatefulConfirmationTest {
   @Test
   public void testToString() {
     final Runnable task = () -> {};
-    final StatefulConfirmation c = new StatefulConfirmation("testId", task, () -> {});
+    final StatefulConfirmation c = new StatefulConfirmation("testId", 0, task, () -> {}, false);
     c.addRequest();
     c.addRequest();
     c.confirm();
@@ -23,10 +23,21 @@ public final class StatefulConfirmationTest {
     toStringAssertions.contains("onComplete", task);
   }
   
+  @Test
+  public void testSequencedId() {
+    final StatefulConfirmation c = new StatefulConfirmation(null, 42, () -> {}, () -> {}, false);
+    assertEquals(42L, c.getId());
+    assertEquals(42L, c.getSequence());
+    assertTrue(c.isSequenced());
+    assertFalse(c.isAnchor());
+    assertFalse(StatefulConfirmation.anchor().isSequenced());
+    new ToStringAssertions(c).contains("id", "42");
+  }
+  
   @Test
   public void testRequestAndConfirm() {
     final FireController f = mock(FireController.class);
-    final StatefulConfirmation c = new StatefulConfirmation("testId", () -> {}, f);
+    final StatefulConfirmation c = new StatefulConfirmation("testId", 0, () -> {}, f, false);
     assertFalse(c.isConfirmed());
     assertEquals(0, c.getPendingCount());
     
@@ -44,7 +55,7 @@ public final class StatefulConfirmationTest {
   @Test
   public void testConfirm_illegalStateTooManyCompletions() {
     final FireController f = mock(FireController.class);
-    final StatefulConfirmation c = new StatefulConfirmation("testId", () -> {}, f);
+    final StatefulConfirmation c = new StatefulConfirmation("testId", 0, () -> {}, f, false);
     
     c.addRequest();
     c.confirm();
@@ -57,4 +68,21 @@ public final class StatefulConfirmationTest {
     assertTrue(c.isConfirmed());
     verifyNoMoreInteractions(f);
   }
+  
+  @Test
+  public void testConfirm_illegalStateTooManyCompletionsSequenced() {
+    final FireController f = mock(FireController.class);
+    final StatefulConfirmation c = new StatefulConfirmation(null, 42, () -> {}, f, false);
+    
+    c.addRequest();
+    c.confirm();
+    verify(f).fire();
+    reset(f);
+    assertTrue(c.isConfirmed());
+    
+    assertThatThrownBy(c::confirm).isExactlyInstanceOf(IllegalStateException.class).hasMessageEndingWith("for ID 42");
+    assertEquals(0, c.getPendingCount());
+    assertTrue(c.isConfirmed());
+    verifyNoMoreInteractions(f);
+  }
 }
@@ -0,0 +1,77 @@
+package com.obsidiandynamics.flow;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.obsidiandynamics.dyno.*;
+
+/**
+ *  Measures the round-trip latency of a {@link ThreadedFlow} under each {@link WaitStrategy}, 
+ *  where each cycle begins and confirms an element, and then waits for its dispatch on the
+ *  background thread. The JMH sample-time mode is used, reporting the latency distribution. 
+ *  Run as a standalone application.
+ */
+public final class ThreadedFlowBenchmark {
+  private static final int BENCHMARK_TIME_MILLIS = 10_000;
+  
+  abstract static class FlowTarget implements BenchmarkTarget {
+    private ThreadedFlow flow;
+    
+    private long sequence;
+    
+    private volatile long dispatched = -1;
+    
+    abstract WaitStrategy getWaitStrategy();
+    
+    @Override
+    public final void setup() {
+      flow = new ThreadedFlow(StrictFiringStrategy::new, getWaitStrategy());
+    }
+    
+    @Override
+    public final void cycle(Abyss abyss) {
+      final long sequence = this.sequence++;
+      flow.beginSequence(sequence, () -> dispatched = sequence).confirm();
+      while (dispatched != sequence);
+    }
+    
+    @Override
+    public final void tearDown() {
+      flow.terminate().joinSilently();
+    }
+  }
+  
+  public static final class Monitor extends FlowTarget {
+    @Override
+    WaitStrategy getWaitStrategy() {
+      return WaitStrategy.monitor();
+    }
+  }
+  
+  public static final class Backoff extends FlowTarget {
+    @Override
+    WaitStrategy getWaitStrategy() {
+      return WaitStrategy.backoff();
+    }
+  }
+  
+  static void run(Class<? extends FlowTarget> targetClass) {
+    new Dyno()
+    .withBenchmarkTime(BENCHMARK_TIME_MILLIS)
+    .withTarget(targetClass)
+    .withDriver(new JmhDriver(opts -> opts
+                              .mode(Mode.SampleTime)
+                              .timeUnit(TimeUnit.MICROSECONDS)
+                              .forks(1)
+                              .measurementIterations(1)))
+    .withWarmupFraction(0.2)
+    .withOutput(result -> System.out.format("%-8s %s\n", targetClass.getSimpleName(), result))
+    .run();
+  }
+
+  public static void main(String[] args) {
+    run(Monitor.class);
+    run(Backoff.class);
+  }
+}
@@ -39,6 +39,30 @@ public final class ThreadedFlowTest {
     flow = new ThreadedFlow(firingStrategyFactory);
   }
   
+  private void createFlow(FiringStrategy.Factory firingStrategyFactory, WaitStrategy waitStrategy) {
+    flow = new ThreadedFlow(firingStrategyFactory, waitStrategy);
+  }
+  
+  @Test
+  public void testMetrics() {
+    createFlow(StrictFiringStrategy::new);
+    flow.enableMetrics();
+    final int runs = 100;
+    final List<Integer> dispatched = new CopyOnWriteArrayList<>();
+    final List<StatefulConfirmation> cons = new ArrayList<>(runs);
+    increasingListOf(runs).forEach(i -> cons.add(flow.begin(i, new TestTask(dispatched, i))));
+    assertEquals(runs, flow.getStats().getPendingDepth());
+    
+    cons.forEach(StatefulConfirmation::confirm);
+    wait.until(() -> {
+      final FlowStats stats = flow.getStats();
+      assertEquals(0, stats.getPendingDepth());
+      assertEquals(runs, stats.getDispatchCount());
+      assertEquals(runs, stats.getLatencyCount());
+    });
+    assertEquals(runs, dispatched.size());
+  }
+  
   @Test
   public void testStrict_multithreaded() throws InterruptedException {
     createFlow(StrictFiringStrategy::new);
@@ -46,6 +70,35 @@ public final class ThreadedFlowTest {
     FlowTests.testMultithreadedBeginAndConfirm(flow, tasks, executorProp.getExecutor(), wait, FlowTests.ASSERT_ALL);
   }
 
+  @Test
+  public void testStrict_multithreadedBackoff() throws InterruptedException {
+    createFlow(StrictFiringStrategy::new, WaitStrategy.backoff());
+    final int tasks = 100;
+    FlowTests.testMultithreadedBeginAndConfirm(flow, tasks, executorProp.getExecutor(), wait, FlowTests.ASSERT_ALL);
+  }
+  
+  @Test
+  public void testLazy_multithreadedBackoff() throws InterruptedException {
+    createFlow(LazyFiringStrategy::new, WaitStrategy.backoff());
+    final int tasks = 100;
+    FlowTests.testMultithreadedBeginAndConfirm(flow, tasks, executorProp.getExecutor(), wait, FlowTests.ASSERT_LAST);
+  }
+  
+  @Test
+  public void testStrict_backoffUnparks() {
+    // without spinning or yielding, and with an unbounded park, the background thread relies on being unparked
+    createFlow(StrictFiringStrategy::new, WaitStrategy.backoff(0, 0, Long.MAX_VALUE));
+    final int runs = 10;
+    final List<Integer> dispatched = new CopyOnWriteArrayList<>();
+    for (int i = 0; i < runs; i++) {
+      final StatefulConfirmation confirmation = flow.begin(i, new TestTask(dispatched, i));
+      Threads.sleep(1);
+      confirmation.confirm();
+      wait.until(ListQuery.of(dispatched).isSize(i + 1));
+    }
+    assertEquals(increasingListOf(runs), dispatched);
+  }
+  
   @Test
   public void testStrict_noComplete() {
     createFlow(StrictFiringStrategy::new);
@@ -0,0 +1,111 @@
+package com.obsidiandynamics.flow;
+
+import java.util.concurrent.atomic.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.obsidiandynamics.dyno.*;
+import com.obsidiandynamics.worker.*;
+
+/**
+ *  Measures the throughput of a {@link ThreadlessFlow} under concurrent confirmation, where each
+ *  benchmark thread begins and immediately confirms a task on a flow that is shared among all
+ *  threads. For comparison, a baseline flow that fires under a monitor (the approach taken by
+ *  {@link ThreadlessFlow} prior to adopting a single drainer) is also measured, as is a flow 
+ *  whose elements are identified by {@code long} sequence numbers. Run as a standalone application.
+ */
+public final class ThreadlessFlowBenchmark {
+  private static final int BENCHMARK_TIME_MILLIS = 10_000;
+  
+  private static final Runnable NOP = () -> {};
+  
+  /**
+   *  Fires by serialising all confirming threads on the firing strategy's monitor.
+   */
+  static final class SynchronizedFlow extends AbstractFlow {
+    SynchronizedFlow(FiringStrategy.Factory firingStrategyFactory) {
+      super(firingStrategyFactory);
+    }
+    
+    @Override
+    void fire() {
+      synchronized (firingStrategy) {
+        firingStrategy.fire();
+      }
+    }
+
+    @Override
+    public Joinable terminate() {
+      return this;
+    }
+
+    @Override
+    public boolean join(long timeoutMillis) {
+      return true;
+    }
+  }
+
+  abstract static class FlowTarget implements BenchmarkTarget {
+    abstract Flow getFlow();
+    
+    @Override
+    public final void cycle(Abyss abyss) {
+      getFlow().begin(new Object(), NOP).confirm();
+    }
+  }
+  
+  /** The flow is shared among all benchmark threads, each of which receives its own target instance. */
+  public static final class Combining extends FlowTarget {
+    private static final Flow flow = new ThreadlessFlow(StrictFiringStrategy::new);
+    
+    @Override
+    Flow getFlow() {
+      return flow;
+    }
+  }
+  
+  /** The flow is shared among all benchmark threads, each of which receives its own target instance. */
+  public static final class Synchronized extends FlowTarget {
+    private static final Flow flow = new SynchronizedFlow(StrictFiringStrategy::new);
+    
+    @Override
+    Flow getFlow() {
+      return flow;
+    }
+  }
+  
+  /** The flow and the sequence are shared among all benchmark threads. */
+  public static final class Sequenced implements BenchmarkTarget {
+    private static final Flow flow = new ThreadlessFlow(StrictFiringStrategy::new);
+    
+    private static final AtomicLong sequence = new AtomicLong();
+    
+    @Override
+    public void cycle(Abyss abyss) {
+      flow.beginSequence(sequence.getAndIncrement(), NOP).confirm();
+    }
+  }
+  
+  static void run(Class<? extends BenchmarkTarget> targetClass, int threads) {
+    new Dyno()
+    .withBenchmarkTime(BENCHMARK_TIME_MILLIS)
+    .withThreads(threads)
+    .withTarget(targetClass)
+    .withDriver(new JmhDriver(opts -> opts
+                              .mode(Mode.Throughput)
+                              .forks(1)
+                              .measurementIterations(1)))
+    .withWarmupFraction(0.2)
+    .withOutput(result -> System.out.format("%-16s threads=%-3d %s\n", targetClass.getSimpleName(), threads, result))
+    .run();
+  }
+
+  public static void main(String[] args) {
+    final int maxThreads = Runtime.getRuntime().availableProcessors();
+    for (int threads = 1; threads <= maxThreads; threads *= 2) {
+      run(Synchronized.class, threads);
+      run(Combining.class, threads);
+      run(Sequenced.class, threads);
+    }
+  }
+}
@@ -2,16 +2,20 @@ package com.obsidiandynamics.flow;
 
 import static com.obsidiandynamics.flow.FlowTests.*;
 import static com.obsidiandynamics.flow.FlowTests.assertThat;
+import static org.assertj.core.api.Assertions.*;
 import static org.junit.Assert.*;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
+import org.assertj.core.api.*;
 import org.junit.*;
 import org.junit.runner.*;
 import org.junit.runners.*;
 
 import com.obsidiandynamics.junit.*;
+import com.obsidiandynamics.threads.*;
 
 @RunWith(Parameterized.class)
 public final class ThreadlessFlowTest {
@@ -38,6 +42,329 @@ public final class ThreadlessFlowTest {
     FlowTests.testMultithreadedBeginAndConfirm(flow, tasks, executorProp.getExecutor(), null, FlowTests.ASSERT_ALL);
   }
   
+  @Test
+  public void testStrict_contendedConfirm() throws InterruptedException {
+    createFlow(StrictFiringStrategy::new);
+    final int runs = 10_000;
+    final List<Integer> expected = increasingListOf(runs);
+    final List<Integer> dispatched = new ArrayList<>(runs);
+    final List<StatefulConfirmation> cons = new ArrayList<>(runs);
+    expected.forEach(i -> cons.add(flow.begin(i, new TestTask(dispatched, i))));
+    
+    confirmConcurrently(cons);
+    assertEquals(expected, dispatched);
+    assertEquals(0, flow.getPendingConfirmations().size());
+  }
+  
+  @Test
+  public void testLazy_contendedConfirm() throws InterruptedException {
+    createFlow(LazyFiringStrategy::new);
+    final int runs = 10_000;
+    final List<Integer> dispatched = new ArrayList<>(runs);
+    final List<StatefulConfirmation> cons = new ArrayList<>(runs);
+    increasingListOf(runs).forEach(i -> cons.add(flow.begin(i, new TestTask(dispatched, i))));
+    
+    confirmConcurrently(cons);
+    assertThat(ListQuery.of(dispatched).contains(runs - 1));
+    assertThat(ListQuery.of(dispatched).isOrderedBy(Integer::compare));
+    assertEquals(0, flow.getPendingConfirmations().size());
+  }
+  
+  @Test
+  public void testRange_contendedConfirm() throws InterruptedException {
+    final List<int[]> ranges = new ArrayList<>();
+    createFlow(RangeFiringStrategy.withDispatcher((first, last, count) -> {
+      ranges.add(new int[] { (Integer) first.getId(), (Integer) last.getId(), count });
+    }));
+    final int runs = 10_000;
+    final List<StatefulConfirmation> cons = new ArrayList<>(runs);
+    increasingListOf(runs).forEach(i -> cons.add(flow.begin(i, () -> {})));
+    
+    confirmConcurrently(cons);
+    
+    // the ranges must be contiguous, collectively spanning all elements
+    int expectedFirst = 0;
+    for (int[] range : ranges) {
+      assertEquals(expectedFirst, range[0]);
+      assertEquals(range[1] - range[0] + 1, range[2]);
+      expectedFirst = range[1] + 1;
+    }
+    assertEquals(runs, expectedFirst);
+    assertEquals(0, flow.getPendingConfirmations().size());
+  }
+  
+  /**
+   *  Confirms the given confirmations in a shuffled order, using a set of threads that are
+   *  released simultaneously to maximise contention, waiting for all threads to complete.
+   *  
+   *  @param cons The confirmations.
+   *  @throws InterruptedException If the thread is interrupted.
+   */
+  private static void confirmConcurrently(List<StatefulConfirmation> cons) throws InterruptedException {
+    final List<StatefulConfirmation> shuffled = new ArrayList<>(cons);
+    Collections.shuffle(shuffled);
+    final int threads = EXECUTOR_THREADS;
+    final CyclicBarrier barrier = new CyclicBarrier(threads);
+    final List<Thread> confirmers = new ArrayList<>(threads);
+    for (int t = 0; t < threads; t++) {
+      final int thread = t;
+      confirmers.add(new Thread(() -> {
+        try {
+          barrier.await();
+        } catch (InterruptedException | BrokenBarrierException e) {
+          return;
+        }
+        for (int i = thread; i < shuffled.size(); i += threads) {
+          shuffled.get(i).confirm();
+        }
+      }));
+    }
+    confirmers.forEach(Thread::start);
+    for (Thread confirmer : confirmers) {
+      confirmer.join();
+    }
+  }
+  
+  @Test
+  public void testStrict_confirmFromDispatch() {
+    createFlow(StrictFiringStrategy::new);
+    final List<Integer> dispatched = new ArrayList<>();
+    final AtomicReference<StatefulConfirmation> c1 = new AtomicReference<>();
+    final StatefulConfirmation c0 = flow.begin(0, () -> {
+      dispatched.add(0);
+      c1.get().confirm();
+    });
+    c1.set(flow.begin(1, new TestTask(dispatched, 1)));
+    flow.begin(1, new TestTask(dispatched, 1));
+    c1.get().confirm();
+    
+    // the confirmation from within the dispatch is handed to the draining thread
+    c0.confirm();
+    assertEquals(Arrays.asList(0, 1), dispatched);
+    assertEquals(0, flow.getPendingConfirmations().size());
+  }
+  
+  @Test
+  public void testStrict_dispatchFailure() {
+    createFlow(StrictFiringStrategy::new);
+    final List<Integer> dispatched = new ArrayList<>();
+    final AtomicBoolean failed = new AtomicBoolean();
+    final StatefulConfirmation c0 = flow.begin(0, () -> {
+      if (failed.compareAndSet(false, true)) {
+        throw new IllegalStateException("Boom");
+      }
+      dispatched.add(0);
+    });
+    final StatefulConfirmation c1 = flow.begin(1, new TestTask(dispatched, 1));
+    c1.confirm();
+    try {
+      c0.confirm();
+      fail("Expected exception");
+    } catch (IllegalStateException e) {
+      assertEquals("Boom", e.getMessage());
+    }
+    assertEquals(0, dispatched.size());
+    
+    // the failure must not inhibit subsequent firing
+    final StatefulConfirmation c2 = flow.begin(2, new TestTask(dispatched, 2));
+    c2.confirm();
+    assertEquals(Arrays.asList(0, 1, 2), dispatched);
+  }
+  
+  @Test
+  public void testStrict_confirmRacingDispatchFailure() throws InterruptedException {
+    createFlow(StrictFiringStrategy::new);
+    final List<Integer> dispatched = new CopyOnWriteArrayList<>();
+    final CountDownLatch dispatching = new CountDownLatch(1);
+    final CountDownLatch confirmed = new CountDownLatch(1);
+    final AtomicBoolean failed = new AtomicBoolean();
+    final StatefulConfirmation c0 = flow.begin(0, () -> {
+      if (failed.compareAndSet(false, true)) {
+        dispatching.countDown();
+        Threads.await(confirmed);
+        throw new IllegalStateException("Boom");
+      }
+      dispatched.add(0);
+    });
+    final StatefulConfirmation c1 = flow.begin(1, new TestTask(dispatched, 1));
+    
+    final AtomicReference<IllegalStateException> error = new AtomicReference<>();
+    final Thread drainer = new Thread(() -> {
+      try {
+        c0.confirm();
+      } catch (IllegalStateException e) {
+        error.set(e);
+      }
+    });
+    drainer.start();
+    dispatching.await();
+    
+    // registered with the drainer, whose failing dispatch must not lose the request
+    c1.confirm();
+    assertEquals(0, dispatched.size());
+    confirmed.countDown();
+    drainer.join();
+    
+    assertEquals("Boom", error.get().getMessage());
+    assertEquals(Arrays.asList(0, 1), dispatched);
+    assertEquals(0, flow.getPendingConfirmations().size());
+  }
+  
+  @Test
+  public void testStrict_sequenced() {
+    createFlow(StrictFiringStrategy::new);
+    // exceed the ring so that some elements overflow into the map
+    final int runs = AbstractFlow.SEQUENCE_RING_SIZE * 3;
+    final long base = Long.MAX_VALUE - runs * 2;
+    final List<Long> expected = new ArrayList<>(runs);
+    final List<Long> dispatched = new ArrayList<>(runs);
+    final List<StatefulConfirmation> cons = new ArrayList<>(runs);
+    for (long i = 0; i < runs; i++) {
+      final long sequence = base + i * 2;
+      expected.add(sequence);
+      cons.add(flow.beginSequence(sequence, () -> dispatched.add(sequence)));
+    }
+    
+    // a duplicate begin yields the same confirmation
+    assertSame(cons.get(0), flow.beginSequence(base, () -> {}));
+    assertSame(cons.get(runs - 1), flow.beginSequence(base + (runs - 1) * 2, () -> {}));
+    assertEquals(Long.valueOf(base), cons.get(0).getId());
+    assertEquals(runs, flow.getPendingConfirmations().size());
+    assertSame(cons.get(runs / 2), flow.getPendingConfirmations().get(base + runs));
+    assertEquals(new HashSet<>(expected), flow.getPendingConfirmations().keySet());
+    
+    cons.get(0).confirm();
+    cons.get(runs - 1).confirm();
+    ListQuery.of(cons).transform(Collections::shuffle).list().forEach(StatefulConfirmation::confirm);
+    assertEquals(expected, dispatched);
+    assertEquals(0, flow.getPendingConfirmations().size());
+  }
+  
+  @Test
+  public void testStrict_longIdNotSequenced() {
+    createFlow(StrictFiringStrategy::new);
+    final List<Long> dispatched = new ArrayList<>();
+    final StatefulConfirmation sequenced = flow.beginSequence(0, () -> dispatched.add(0L));
+    
+    // a Long ID passed to begin() is hashed like any other ID, rather than being sequenced
+    final StatefulConfirmation hashed = flow.begin(1L, () -> dispatched.add(1L));
+    assertTrue(sequenced.isSequenced());
+    assertFalse(hashed.isSequenced());
+    assertEquals(1L, hashed.getId());
+    assertSame(sequenced, flow.getPendingConfirmations().get(0L));
+    assertSame(hashed, flow.getPendingConfirmations().get(1L));
+    
+    hashed.confirm();
+    sequenced.confirm();
+    assertEquals(Arrays.asList(0L, 1L), dispatched);
+    assertEquals(0, flow.getPendingConfirmations().size());
+  }
+  
+  @Test
+  public void testStrict_sequencedOutOfOrder() {
+    createFlow(StrictFiringStrategy::new);
+    final List<Long> dispatched = new ArrayList<>();
+    final StatefulConfirmation c0 = flow.beginSequence(AbstractFlow.SEQUENCE_RING_SIZE, () -> dispatched.add(1L));
+    // shares a slot with the previous element
+    final StatefulConfirmation c1 = flow.beginSequence(0, () -> dispatched.add(0L));
+    assertNotSame(c0, c1);
+    assertSame(c1, flow.beginSequence(0, () -> {}));
+    assertEquals(2, flow.getPendingConfirmations().size());
+    
+    c0.confirm();
+    assertEquals(Arrays.asList(1L), dispatched);
+    
+    // the overflowed element must still be found after its slot has been vacated
+    assertSame(c1, flow.beginSequence(0, () -> {}));
+    c1.confirm();
+    c1.confirm();
+    assertEquals(Arrays.asList(1L), dispatched);
+    c1.confirm();
+    assertEquals(Arrays.asList(1L, 0L), dispatched);
+    assertEquals(0, flow.getPendingConfirmations().size());
+  }
+  
+  @Test
+  public void testLazy_sequenced() {
+    createFlow(LazyFiringStrategy::new);
+    final int runs = AbstractFlow.SEQUENCE_RING_SIZE * 2;
+    final List<Long> dispatched = new ArrayList<>();
+    final List<StatefulConfirmation> cons = new ArrayList<>(runs);
+    for (long i = 0; i < runs; i++) {
+      final long sequence = i;
+      cons.add(flow.beginSequence(sequence, () -> dispatched.add(sequence)));
+    }
+    
+    ListQuery.of(cons).transform(Collections::reverse).list().forEach(StatefulConfirmation::confirm);
+    assertEquals(Arrays.asList(runs - 1L), dispatched);
+    assertEquals(0, flow.getPendingConfirmations().size());
+  }
+  
+  @Test
+  public void testMetrics() {
+    createFlow(StrictFiringStrategy::new);
+    assertFalse(flow.isMetricsEnabled());
+    assertThatThrownBy(flow::getStats).isExactlyInstanceOf(IllegalStateException.class).hasMessage("Metrics are not enabled");
+    flow.enableMetrics();
+    flow.enableMetrics();
+    assertTrue(flow.isMetricsEnabled());
+    
+    final FlowStats initial = flow.getStats();
+    assertEquals(0, initial.getPendingDepth());
+    assertEquals(0, initial.getOldestPendingAgeNanos());
+    
+    final List<Integer> dispatched = new ArrayList<>();
+    final StatefulConfirmation c0 = flow.begin(0, new TestTask(dispatched, 0));
+    final StatefulConfirmation c1 = flow.beginSequence(1, new TestTask(dispatched, 1));
+    final StatefulConfirmation c2 = flow.begin(2, new TestTask(dispatched, 2));
+    c1.confirm();
+    Threads.sleep(1);
+    final FlowStats blocked = flow.getStats();
+    assertEquals(3, blocked.getPendingDepth());
+    Assertions.assertThat(blocked.getOldestPendingAgeNanos()).isGreaterThanOrEqualTo(1_000_000);
+    assertEquals(0, blocked.getDispatchCount());
+    
+    c0.confirm();
+    final FlowStats unblocked = flow.getStats();
+    assertEquals(1, unblocked.getPendingDepth());
+    assertEquals(2, unblocked.getDispatchCount());
+    assertEquals(2, unblocked.getLatencyCount());
+    // the dispatch of the second element was held up by the first
+    Assertions.assertThat(unblocked.getLatencyMaxNanos()).isGreaterThanOrEqualTo(1_000_000);
+    Assertions.assertThat(unblocked.getOldestPendingAgeNanos()).isGreaterThan(0);
+    Assertions.assertThat(unblocked.getDispatchRate(initial)).isGreaterThan(0);
+    
+    c2.confirm();
+    final FlowStats drained = flow.getStats();
+    assertEquals(0, drained.getPendingDepth());
+    assertEquals(0, drained.getOldestPendingAgeNanos());
+    assertEquals(3, drained.getDispatchCount());
+    assertEquals(Arrays.asList(0, 1, 2), dispatched);
+    
+    assertThatThrownBy(() -> {
+      final ThreadlessFlow anotherFlow = new ThreadlessFlow(StrictFiringStrategy::new);
+      anotherFlow.begin(0, () -> {});
+      anotherFlow.enableMetrics();
+    }).isExactlyInstanceOf(IllegalStateException.class).hasMessage("Metrics must be enabled before the first element is begun");
+  }
+  
+  @Test
+  public void testMetrics_lazy() {
+    createFlow(LazyFiringStrategy::new);
+    flow.enableMetrics();
+    final List<Integer> dispatched = new ArrayList<>();
+    final List<StatefulConfirmation> cons = new ArrayList<>();
+    increasingListOf(10).forEach(i -> cons.add(flow.begin(i, new TestTask(dispatched, i))));
+    ListQuery.of(cons).transform(Collections::reverse).list().forEach(StatefulConfirmation::confirm);
+    
+    // elements covered by a lazy dispatch are counted as dispatched
+    assertEquals(Arrays.asList(9), dispatched);
+    final FlowStats stats = flow.getStats();
+    assertEquals(10, stats.getDispatchCount());
+    assertEquals(10, stats.getLatencyCount());
+    assertEquals(0, stats.getPendingDepth());
+  }
+  
   @Test
   public void testTerminateAndJoin() throws InterruptedException {
     createFlow(StrictFiringStrategy::new);
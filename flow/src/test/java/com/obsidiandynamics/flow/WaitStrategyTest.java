@@ -0,0 +1,51 @@
+package com.obsidiandynamics.flow;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import com.obsidiandynamics.assertion.*;
+
+public final class WaitStrategyTest {
+  @Test
+  public void testMonitor() {
+    assertSame(WaitStrategy.monitor(), WaitStrategy.monitor());
+    assertTrue(WaitStrategy.monitor().newWaiter() instanceof Waiter.Monitor);
+    Assertions.assertToStringOverride(WaitStrategy.monitor());
+  }
+  
+  @Test
+  public void testBackoff() {
+    assertTrue(WaitStrategy.backoff().newWaiter() instanceof Waiter.Backoff);
+    assertEquals("WaitStrategy.backoff(spins=1, yields=2, maxParkNanos=3)", WaitStrategy.backoff(1, 2, 3).toString());
+  }
+  
+  @Test
+  public void testBackoffInvalidArguments() {
+    assertThatThrownBy(() -> WaitStrategy.backoff(-1, 0, 1))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Number of spins cannot be negative");
+    assertThatThrownBy(() -> WaitStrategy.backoff(0, -1, 1))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Number of yields cannot be negative");
+    assertThatThrownBy(() -> WaitStrategy.backoff(0, 0, 0))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Max park time must be greater than 0");
+  }
+  
+  @Test
+  public void testSignalBeforeAwait() throws InterruptedException {
+    for (Waiter waiter : new Waiter[] { new Waiter.Monitor(), new Waiter.Backoff(0, 0, Long.MAX_VALUE) }) {
+      // a signal raised ahead of the wait is retained, and consumed by the wait
+      waiter.signal();
+      waiter.signal();
+      waiter.await();
+    }
+  }
+  
+  @Test
+  public void testBackoffInterrupted() {
+    final Waiter waiter = new Waiter.Backoff(0, 0, Long.MAX_VALUE);
+    Thread.currentThread().interrupt();
+    assertThatThrownBy(waiter::await).isExactlyInstanceOf(InterruptedException.class);
+    assertFalse(Thread.interrupted());
+  }
+}
@@ -3,7 +3,13 @@ package com.obsidiandynamics.flux;
 import static com.obsidiandynamics.func.Functions.*;
 
 import java.io.*;
-import java.util.concurrent.locks.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
 
 import com.esotericsoftware.kryo.*;
 import com.esotericsoftware.kryo.io.*;
@@ -14,126 +20,297 @@ import com.obsidiandynamics.func.*;
 import com.obsidiandynamics.io.*;
 import com.obsidiandynamics.random.*;
 
+import net.openhft.chronicle.bytes.*;
 import net.openhft.chronicle.queue.*;
+import net.openhft.chronicle.queue.impl.*;
 import net.openhft.chronicle.queue.impl.single.*;
 import net.openhft.chronicle.wire.*;
 
 final class OffHeapBackingQueue<E> implements BackingQueue<E> {
-  private static final long MAX_BLOCK_MILLIS = 10;
   private static final int MIN_KRYO_BUFFER_SIZE = 1 << 8;
   private static final int MAX_KRYO_BUFFER_SIZE = 1 << 20;
 
+  /** Per-thread serialization buffer, reused across puts. */
+  private static final ThreadLocal<Output> threadOutput = 
+      ThreadLocal.withInitial(() -> new Output(MIN_KRYO_BUFFER_SIZE, MAX_KRYO_BUFFER_SIZE));
+
+  /** Per-thread deserialization buffer, reused across polls and grown on demand. */
+  private static final ThreadLocal<Input> threadInput = 
+      ThreadLocal.withInitial(() -> new Input(MIN_KRYO_BUFFER_SIZE));
+
+  /** Name of the file holding the index of the last acknowledged excerpt of a durable queue. */
+  static final String CHECKPOINT_FILE_NAME = "tailer.checkpoint";
+
+  /** 
+   *  Denotes the absence of an acknowledged excerpt. (Zero is never a valid index, as cycle 
+   *  zero predates any queue.)
+   */
+  private static final long NO_CHECKPOINT = 0;
+
   private static final LockRoot lockRoot = 
       new LockRoot(new File(System.getProperty("java.io.tmpdir") + File.separator + OffHeapBackingQueue.class.getSimpleName()));
 
+  /** Lock roots of durable queues, keyed by the canonical root directory; each root must be a singleton. */
+  private static final Map<File, LockRoot> durableLockRoots = new ConcurrentHashMap<>();
+
   private final Pool<Kryo> pool;
 
   private final int capacity;
 
-  private int queued;
+  /** 
+   *  The number of claimed slots. A producer claims a slot before appending its element, 
+   *  and the consumer releases it after reading the element back.
+   */
+  private final AtomicInteger queued = new AtomicInteger();
+
+  /** The number of threads currently accessing the Chronicle queue, which must not be closed under them. */
+  private final AtomicInteger accessors = new AtomicInteger();
+
+  /** Waited on by the consumer. */
+  private final RingWaiter notEmpty = new RingWaiter.Parking();
 
-  private final Object mutex = new Object();
+  /** Waited on by the producer(s). */
+  private final RingWaiter notFull = new RingWaiter.Parking();
+
+  private final BooleanSupplier hasQueued = this::hasQueued;
+
+  private final BooleanSupplier hasCapacity = this::hasCapacity;
 
   private final ReentrantDirectoryLock nodeLock;
 
   private final SingleChronicleQueue queue;
 
-  private final ReentrantReadWriteLock queueAccessLock = new ReentrantReadWriteLock();
-
   private volatile boolean closed;
 
   private final ExcerptAppender appender;
 
   private final ExcerptTailer tailer;
 
+  /** Holds the index of the last acknowledged excerpt; {@code null} for a transient queue. */
+  private final MappedByteBuffer checkpoint;
+
+  /** The roll cycle of a durable queue, used to determine the cycle of an acknowledged excerpt. */
+  private final RollCycle rollCycle;
+
+  /** The index of the last excerpt read by the consumer, pending acknowledgement. */
+  private volatile long unacknowledgedIndex = NO_CHECKPOINT;
+
+  /** The cycle of the last acknowledged excerpt; older cycles are subject to retention. */
+  private volatile int acknowledgedCycle;
+
   OffHeapBackingQueue(Pool<Kryo> pool, int capacity) {
+    this(pool, capacity, null);
+  }
+
+  OffHeapBackingQueue(Pool<Kryo> pool, int capacity, OffHeapDurability durability) {
     mustExist(pool, "Kryo pool cannot be null");
     mustBeGreater(capacity, 0, illegalArgument("Capacity must be greater than 0"));
     this.pool = pool;
     this.capacity = capacity;
 
-    Exceptions.wrapStrict(lockRoot::vacuumAll, RuntimeIOException::new);
-    final String nodeName = Binary.toHex(Randomness.nextBytes(8));
-    nodeLock = Exceptions.wrapStrict(() -> lockRoot.tryAcquire(nodeName), RuntimeIOException::new);
-    mustExist(nodeLock, withMessage(SafeFormat.supply("Could not acquire node lock %s", nodeName), IllegalStateException::new));
-    final File queueDir = new File(nodeLock.getLock().getAbsolutePath());
-    queue = ChronicleQueue.singleBuilder(queueDir).build();
-    appender = queue.acquireAppender();
-    tailer = queue.createTailer();
+    if (durability == null) {
+      Exceptions.wrapStrict(lockRoot::vacuumAll, RuntimeIOException::new);
+      final String nodeName = Binary.toHex(Randomness.nextBytes(8));
+      nodeLock = Exceptions.wrapStrict(() -> lockRoot.tryAcquire(nodeName), RuntimeIOException::new);
+      mustExist(nodeLock, withMessage(SafeFormat.supply("Could not acquire node lock %s", nodeName), IllegalStateException::new));
+      final File queueDir = new File(nodeLock.getLock().getAbsolutePath());
+      queue = ChronicleQueue.singleBuilder(queueDir).build();
+      appender = queue.acquireAppender();
+      tailer = queue.createTailer();
+      checkpoint = null;
+      rollCycle = null;
+    } else {
+      mustExist(durability.getDirectory(), "Durable directory cannot be null");
+      final String queueName = mustExist(durability.getQueueName(), "Durable queue name cannot be null");
+      rollCycle = mustExist(durability.getRollCycle(), "Roll cycle cannot be null");
+      final int retainedCycles = durability.getRetainedCycles();
+      mustBeGreaterOrEqual(retainedCycles, 0, illegalArgument("Retained cycles cannot be negative"));
+      
+      final File rootDir = Exceptions.wrapStrict(durability.getDirectory()::getCanonicalFile, RuntimeIOException::new);
+      final LockRoot durableLockRoot = durableLockRoots.computeIfAbsent(rootDir, LockRoot::new);
+      nodeLock = Exceptions.wrapStrict(() -> durableLockRoot.tryAcquire(queueName), RuntimeIOException::new);
+      mustExist(nodeLock, withMessage(SafeFormat.supply("Could not acquire lock for durable queue %s", queueName), IllegalStateException::new));
+      if (nodeLock.getLock().getCount() != 1) {
+        // node locks are reentrant; a queue that is already open in this thread must not be reopened
+        Exceptions.wrapStrict(() -> nodeLock.release(), RuntimeIOException::new);
+        throw new IllegalStateException("Could not acquire lock for durable queue " + queueName);
+      }
+      final File queueDir = new File(nodeLock.getLock().getAbsolutePath());
+      checkpoint = Exceptions.wrapStrict(() -> mapCheckpoint(new File(queueDir, CHECKPOINT_FILE_NAME)), RuntimeIOException::new);
+      
+      final StoreFileListener retentionListener = (cycle, file) -> {
+        if (retainedCycles != 0 && cycle < acknowledgedCycle - retainedCycles) {
+          //noinspection ResultOfMethodCallIgnored
+          file.delete();
+        }
+      };
+      queue = ChronicleQueue.singleBuilder(queueDir).rollCycle(rollCycle).storeFileListener(retentionListener).build();
+      appender = queue.acquireAppender();
+      
+      final long checkpointIndex = checkpoint.getLong(0);
+      if (checkpointIndex != NO_CHECKPOINT) {
+        acknowledgedCycle = rollCycle.toCycle(checkpointIndex);
+      }
+      tailer = resumeTailer(checkpointIndex);
+      queued.set(countRemaining(resumeTailer(checkpointIndex)));
+    }
+  }
+  
+  private static MappedByteBuffer mapCheckpoint(File checkpointFile) throws IOException {
+    try (RandomAccessFile file = new RandomAccessFile(checkpointFile, "rw");
+         FileChannel channel = file.getChannel()) {
+      return channel.map(MapMode.READ_WRITE, 0, Long.BYTES);
+    }
+  }
+  
+  /**
+   *  Creates a tailer positioned immediately after the acknowledged excerpt, or at the start of the 
+   *  queue if no excerpt has been acknowledged (or the acknowledged excerpt is no longer retained).
+   *  
+   *  @param checkpointIndex The index of the last acknowledged excerpt.
+   *  @return The tailer.
+   */
+  private ExcerptTailer resumeTailer(long checkpointIndex) {
+    final ExcerptTailer tailer = queue.createTailer();
+    if (checkpointIndex != NO_CHECKPOINT && tailer.moveToIndex(checkpointIndex)) {
+      try (DocumentContext dc = tailer.readingDocument()) {
+        // skips over the acknowledged excerpt
+      }
+    }
+    return tailer;
+  }
+  
+  private static int countRemaining(ExcerptTailer tailer) {
+    int remaining = 0;
+    for (;;) {
+      try (DocumentContext dc = tailer.readingDocument()) {
+        if (dc.isPresent() && remaining != Integer.MAX_VALUE) {
+          remaining++;
+        } else {
+          return remaining;
+        }
+      }
+    }
+  }
+  
+  /**
+   *  Checkpoints the last excerpt read by the consumer, if one is pending acknowledgement. Only 
+   *  applicable to durable queues, and must only be called while the queue is open.
+   */
+  private void checkpointUnacknowledged() {
+    final long index = unacknowledgedIndex;
+    if (index != NO_CHECKPOINT) {
+      checkpoint.putLong(0, index);
+      acknowledgedCycle = rollCycle.toCycle(index);
+      unacknowledgedIndex = NO_CHECKPOINT;
+    }
+  }
+
+  /**
+   *  Checkpoints the excerpts read by the consumer thus far. A consumer that does not acknowledge
+   *  explicitly implicitly acknowledges the previously read excerpt(s) when it next calls 
+   *  {@link #poll(int)} or {@link #drainTo(Collection, int, int)}. Excerpts read but not 
+   *  acknowledged at the time of disposal are redelivered upon reopening.
+   */
+  @Override
+  public void acknowledge() {
+    if (checkpoint != null && tryEnter()) {
+      try {
+        checkpointUnacknowledged();
+      } finally {
+        exit();
+      }
+    }
   }
 
   @Override
   public E poll(int timeoutMillis) throws InterruptedException {
-    final long pollExpiry = System.currentTimeMillis() + timeoutMillis;
+    // the consumer has come back for more, implying that the previous excerpt was processed 
+    acknowledge();
+    return take(timeoutMillis);
+  }
+
+  /**
+   *  Drains the available elements, up to {@code maxElements}, acknowledging the previously drained 
+   *  batch in one go. The elements of the current batch remain unacknowledged until the next 
+   *  call (or an explicit {@link #acknowledge()}), so that a crash midway through the processing of 
+   *  a batch leads to the redelivery of the entire batch.
+   */
+  @Override
+  public int drainTo(Collection<? super E> sink, int maxElements, int timeoutMillis) throws InterruptedException {
+    acknowledge();
+    if (maxElements <= 0) return 0;
+    
+    final E first = take(timeoutMillis);
+    if (first == null) return 0;
+    
+    sink.add(first);
+    int drained = 1;
+    for (E next; drained < maxElements && (next = tryTake()) != null; drained++) {
+      sink.add(next);
+    }
+    return drained;
+  }
+
+  private E take(int timeoutMillis) throws InterruptedException {
+    final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
     for (;;) {
-      final E taken = tryReadFromQueue();
+      final E taken = tryTake();
       if (taken != null) {
-        synchronized (mutex) {
-          queued--;
-          mutex.notify();
-        }
         return taken;
-      } else if (! closed) {
-        synchronized (mutex) {
-          if (queued > 0) {
-            // there's at least one pending item; don't bother going into a wait loop
-            continue;
-          }
-        }
-        
-        for (;;) {
-          final long remainingTimeMillis = pollExpiry - System.currentTimeMillis();
-          if (remainingTimeMillis > 0) {
-            final long waitTime = Math.min(MAX_BLOCK_MILLIS, remainingTimeMillis);
-            synchronized (mutex) {
-              if (queued == 0) {
-                mutex.wait(waitTime);
-              } else {
-                break;
-              }
-            }
-          } else {
-            return null;
-          }
-        }
-      } else {
+      } else if (closed) {
+        return null;
+      } else if (queued.get() > 0) {
+        // a slot has been claimed, but its element is still being appended; it will be readable momentarily
+        Thread.yield();
+      } else if (! notEmpty.await(hasQueued, deadlineNanos)) {
         return null;
       }
     }
   }
 
+  private E tryTake() throws InterruptedException {
+    final E taken = tryReadFromQueue();
+    if (taken != null) {
+      queued.decrementAndGet();
+      notFull.signal();
+    }
+    return taken;
+  }
+
   private E tryReadFromQueue() throws InterruptedException {
     if (Thread.interrupted()) {
       throw new InterruptedException();
     }
     
-    final class BytesHolder {
-      byte[] bytes;
-    }
-    final BytesHolder bytesHolder = new BytesHolder();
+    final Input input = threadInput.get();
+    boolean present = false;
 
-    queueAccessLock.readLock().lock();
-    try {
-      if (! closed) {
+    if (tryEnter()) {
+      try {
         try (DocumentContext dc = tailer.readingDocument()) {
           if (dc.isPresent()) {
-            final Wire wire = Functions.mustExist(dc.wire());
-            wire.readBytes(in -> {
-              final int length = in.readInt();
-              bytesHolder.bytes = new byte[length];
-              in.read(bytesHolder.bytes);
-            });
+            if (checkpoint != null) {
+              unacknowledgedIndex = dc.index();
+            }
+
+            final Bytes<?> bytes = Functions.mustExist(dc.wire()).bytes();
+            final int length = bytes.readInt();
+            byte[] buffer = input.getBuffer();
+            if (buffer.length < length) {
+              buffer = new byte[Math.max(length, buffer.length << 1)];
+            }
+            bytes.read(buffer, 0, length);
+            input.setBuffer(buffer, 0, length);
+            present = true;
           }
         } 
-      } else {
-        return null;
+      } finally {
+        exit();
       }
-    } finally {
-      queueAccessLock.readLock().unlock();
     }
 
-    if (bytesHolder.bytes != null) {
-      final ByteBufferInput input = new ByteBufferInput(bytesHolder.bytes);
+    if (present) {
       final Kryo kryo = pool.obtain();
       try {
         return Classes.cast(kryo.readClassAndObject(input));
@@ -147,69 +324,113 @@ final class OffHeapBackingQueue<E> implements BackingQueue<E> {
 
   @Override
   public void put(E element) throws InterruptedException {
+    // serialize before claiming a slot, so that a serialization failure leaves no claimed slot behind
+    final Output output = serialize(element);
+    final long deadlineNanos = System.nanoTime() + Long.MAX_VALUE;
     for (;;) {
-      final boolean atCapacity;
-      synchronized (mutex) {
-        atCapacity = queued == capacity;
-        if (atCapacity) {
-          if (! closed) {
-            mutex.wait(MAX_BLOCK_MILLIS);
-          } else {
-            return;
+      if (closed) return;
+      
+      final int queuedNow = queued.get();
+      if (queuedNow < capacity) {
+        if (queued.compareAndSet(queuedNow, queuedNow + 1)) {
+          try {
+            writeToQueue(output);
+          } catch (Throwable e) {
+            // release the slot, lest the consumer waits indefinitely for an element that will never be appended
+            queued.decrementAndGet();
+            notFull.signal();
+            throw e;
           }
-        } else {
-          queued++;
-          mutex.notify();
+          notEmpty.signal();
+          return;
         }
+      } else {
+        notFull.await(hasCapacity, deadlineNanos);
       }
+    }
+  }
 
-      if (! atCapacity) {
-        writeToQueue(element);
-        return;
-      }
+  /**
+   *  Serializes the given element into the calling thread's reusable {@link Output} buffer.
+   *  
+   *  @param element The element to serialize.
+   *  @return The {@link Output} buffer.
+   */
+  private Output serialize(E element) {
+    final Output output = threadOutput.get();
+    output.reset();
+    final Kryo kryo = pool.obtain();
+    try {
+      kryo.writeClassAndObject(output, element);
+    } finally {
+      pool.free(kryo);
     }
+    return output;
   }
 
-  private void writeToQueue(E element) {
-    final byte[] bytes;
-    try (ByteBufferOutput output = new ByteBufferOutput(MIN_KRYO_BUFFER_SIZE, MAX_KRYO_BUFFER_SIZE)) {
-      final Kryo kryo = pool.obtain();
+  private void writeToQueue(Output output) {
+    if (tryEnter()) {
       try {
-        kryo.writeClassAndObject(output, element);
-      } finally {
-        pool.free(kryo);
-      }
-  
-      bytes = output.toBytes();
-    }
-    
-    queueAccessLock.readLock().lock();
-    try {
-      if (! closed) {
         try (DocumentContext dc = appender.writingDocument()) {
-          final Wire wire = Functions.mustExist(dc.wire());
-          wire.writeBytes(out -> {
-            out.writeInt(bytes.length);
-            out.write(bytes);
-          });
+          final Bytes<?> bytes = Functions.mustExist(dc.wire()).bytes();
+          final int length = output.position();
+          bytes.writeInt(length);
+          bytes.write(output.getBuffer(), 0, length);
         }
+      } finally {
+        exit();
       }
-    } finally {
-      queueAccessLock.readLock().unlock();
     }
   }
   
+  private boolean hasQueued() {
+    return closed || queued.get() > 0;
+  }
+
+  private boolean hasCapacity() {
+    return closed || queued.get() < capacity;
+  }
+  
+  /**
+   *  Registers the calling thread as an accessor of the Chronicle queue, provided that the 
+   *  latter has not been closed. A successful call must be paired with a call to {@link #exit()}.
+   *  
+   *  @return True if the queue may be accessed.
+   */
+  private boolean tryEnter() {
+    accessors.incrementAndGet();
+    if (closed) {
+      accessors.decrementAndGet();
+      return false;
+    } else {
+      return true;
+    }
+  }
+  
+  private void exit() {
+    accessors.decrementAndGet();
+  }
+  
   @Override
-  public void dispose() {
-    queueAccessLock.writeLock().lock();
-    try {
-      if (! closed) {
-        closed = true;
-        queue.close();
-        Exceptions.wrapStrict(() -> nodeLock.release(false), RuntimeIOException::new);
+  public int remainingCapacity() {
+    return Math.max(0, capacity - queued.get());
+  }
+  
+  @Override
+  public synchronized void dispose() {
+    if (! closed) {
+      closed = true;
+      notEmpty.signal();
+      notFull.signal();
+      while (accessors.get() != 0) {
+        Thread.yield();
       }
-    } finally {
-      queueAccessLock.writeLock().unlock();
+      if (checkpoint != null) {
+        // excerpts pending acknowledgement are not checkpointed, as their processing may have failed
+        checkpoint.force();
+      }
+      queue.close();
+      Exceptions.wrapStrict(() -> nodeLock.release(false), RuntimeIOException::new);
     }
   }
 }
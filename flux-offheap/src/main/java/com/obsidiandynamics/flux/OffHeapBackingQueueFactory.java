@@ -3,24 +3,41 @@ package com.obsidiandynamics.flux;
 import com.esotericsoftware.kryo.*;
 import com.esotericsoftware.kryo.util.*;
 
+/**
+ *  Creates {@link OffHeapBackingQueue} instances. By default, the queues are transient — 
+ *  housed in a temporary directory and discarded upon disposal or restart. Supplying an 
+ *  {@link OffHeapDurability} makes the queue durable, in which case the factory should
+ *  only be used to create a single queue (as the queue name is fixed).
+ */
 public final class OffHeapBackingQueueFactory implements BackingQueueFactory {
   private final Pool<Kryo> pool;
   
+  private final OffHeapDurability durability;
+  
   public Pool<Kryo> getPool() {
     return pool;
   }
+  
+  public OffHeapDurability getDurability() {
+    return durability;
+  }
 
   public OffHeapBackingQueueFactory(Pool<Kryo> pool) {
+    this(pool, null);
+  }
+
+  public OffHeapBackingQueueFactory(Pool<Kryo> pool, OffHeapDurability durability) {
     this.pool = pool;
+    this.durability = durability;
   }
 
   @Override
   public <E> BackingQueue<E> create(int capacity) {
-    return new OffHeapBackingQueue<>(pool, capacity);
+    return new OffHeapBackingQueue<>(pool, capacity, durability);
   }
 
   @Override
   public String toString() {
-    return OffHeapBackingQueueFactory.class.getSimpleName() + " [pool=" + pool + "]";
+    return OffHeapBackingQueueFactory.class.getSimpleName() + " [pool=" + pool + ", durability=" + durability + "]";
   }
 }
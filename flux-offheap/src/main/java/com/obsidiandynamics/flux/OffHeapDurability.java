@@ -0,0 +1,80 @@
+package com.obsidiandynamics.flux;
+
+import java.io.*;
+
+import net.openhft.chronicle.queue.*;
+
+/**
+ *  Options for a durable {@link OffHeapBackingQueue}, which survives a process restart. <p>
+ *  
+ *  A durable queue resides in a named subdirectory of a user-chosen root directory, and is 
+ *  locked for the lifetime of the queue to guard against concurrent use by another process. Upon 
+ *  reopening, the queue resumes from the excerpt following the last acknowledged one. (Excerpts 
+ *  are acknowledged explicitly by the consumer — a {@link BufferedChannel} does so once the 
+ *  downstream stage has processed them — or implicitly, when the consumer polls or drains the next 
+ *  one(s). Disposing the queue does not acknowledge the excerpts in flight.) The backlog is thereby 
+ *  delivered at least once; excerpts that were in flight at the time of a crash or a failure of 
+ *  the consumer will be redelivered. <p>
+ *  
+ *  The root directory is dedicated to durable queues; it must not be shared with transient queues,
+ *  nor nest other data.
+ */
+public final class OffHeapDurability {
+  private File directory;
+  
+  private String queueName;
+  
+  private RollCycle rollCycle = RollCycles.DAILY;
+  
+  private int retainedCycles;
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  public OffHeapDurability withDirectory(File directory) {
+    this.directory = directory;
+    return this;
+  }
+
+  public String getQueueName() {
+    return queueName;
+  }
+
+  public OffHeapDurability withQueueName(String queueName) {
+    this.queueName = queueName;
+    return this;
+  }
+
+  public RollCycle getRollCycle() {
+    return rollCycle;
+  }
+
+  public OffHeapDurability withRollCycle(RollCycle rollCycle) {
+    this.rollCycle = rollCycle;
+    return this;
+  }
+
+  public int getRetainedCycles() {
+    return retainedCycles;
+  }
+
+  /**
+   *  Sets the number of fully acknowledged cycles to retain on disk, behind the cycle of the last 
+   *  acknowledged excerpt. Older cycle files are deleted as they are released. A value of 
+   *  {@code 0} (the default) retains all cycles.
+   *  
+   *  @param retainedCycles The number of retained cycles.
+   *  @return This {@link OffHeapDurability} instance for fluent chaining.
+   */
+  public OffHeapDurability withRetainedCycles(int retainedCycles) {
+    this.retainedCycles = retainedCycles;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return OffHeapDurability.class.getSimpleName() + " [directory=" + directory + ", queueName=" + queueName + 
+        ", rollCycle=" + rollCycle + ", retainedCycles=" + retainedCycles + "]";
+  }
+}
@@ -0,0 +1,33 @@
+package com.obsidiandynamics.flux;
+
+import com.esotericsoftware.kryo.*;
+import com.esotericsoftware.kryo.util.*;
+
+/**
+ *  Measures the throughput and the allocation rate of {@link OffHeapBackingQueue}, using the 
+ *  harness in {@link BackingQueueBenchmark}. In the steady state, the reported 
+ *  {@code gc.alloc.rate.norm} should approach zero, as neither the serialization buffers nor
+ *  the (cached) deserialized {@link Integer} elements are allocated afresh. Run as a standalone 
+ *  application.
+ */
+public final class OffHeapBackingQueueBenchmark {
+  public static final class OffHeap extends BackingQueueBenchmark.QueueTarget {
+    @Override
+    BackingQueueFactory getFactory() {
+      return new OffHeapBackingQueueFactory(new Pool<Kryo>(true, false) {
+        @Override
+        protected Kryo create() {
+          final Kryo kryo = new Kryo();
+          kryo.setReferences(false);
+          kryo.setRegistrationRequired(false);
+          return kryo;
+        }
+      });
+    }
+  }
+
+  public static void main(String[] args) {
+    BackingQueueBenchmark.run(BackingQueueBenchmark.Heap.class);
+    BackingQueueBenchmark.run(OffHeap.class);
+  }
+}
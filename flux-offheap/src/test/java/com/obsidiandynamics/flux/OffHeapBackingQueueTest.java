@@ -2,9 +2,12 @@ package com.obsidiandynamics.flux;
 
 import static org.junit.Assert.*;
 
+import java.io.*;
 import java.lang.Thread.*;
+import java.nio.file.*;
 import java.util.*;
 import java.util.concurrent.atomic.*;
+import java.util.stream.*;
 
 import org.assertj.core.api.*;
 import org.junit.*;
@@ -12,6 +15,8 @@ import org.junit.*;
 import com.esotericsoftware.kryo.*;
 import com.esotericsoftware.kryo.util.*;
 import com.obsidiandynamics.await.*;
+import com.obsidiandynamics.format.*;
+import com.obsidiandynamics.random.*;
 import com.obsidiandynamics.threads.*;
 
 public final class OffHeapBackingQueueTest {
@@ -40,18 +45,46 @@ public final class OffHeapBackingQueueTest {
   }
 
   private final List<OffHeapBackingQueue<?>> queues = new ArrayList<>();
+  
+  private final List<File> durableDirectories = new ArrayList<>();
 
   @After
-  public void after() {
+  public void after() throws IOException {
     queues.forEach(BackingQueue::dispose);
+    for (File durableDirectory : durableDirectories) {
+      deleteRecursively(durableDirectory);
+    }
+  }
+  
+  private static void deleteRecursively(File directory) throws IOException {
+    if (directory.exists()) {
+      try (Stream<Path> paths = Files.walk(directory.toPath()).sorted(Comparator.reverseOrder())) {
+        //noinspection ResultOfMethodCallIgnored
+        paths.map(Path::toFile).forEach(File::delete);
+      }
+    }
   }
   
   private OffHeapBackingQueue<String> newQueue(int capacity) {
-    final OffHeapBackingQueue<String> queue = new OffHeapBackingQueue<>(pool, capacity);
+    return newQueue(capacity, null);
+  }
+  
+  private OffHeapBackingQueue<String> newQueue(int capacity, OffHeapDurability durability) {
+    final OffHeapBackingQueue<String> queue = new OffHeapBackingQueue<>(pool, capacity, durability);
     queues.add(queue);
     return queue;
   }
   
+  private OffHeapDurability newDurability() {
+    final File directory = new File(System.getProperty("java.io.tmpdir") + File.separator + 
+                                    OffHeapBackingQueueTest.class.getSimpleName());
+    final String queueName = Binary.toHex(Randomness.nextBytes(8));
+    durableDirectories.add(new File(directory, queueName));
+    return new OffHeapDurability()
+        .withDirectory(directory)
+        .withQueueName(queueName);
+  }
+  
   @Test
   public void testPoll_empty() throws InterruptedException {
     final OffHeapBackingQueue<String> queue = newQueue(1);
@@ -99,6 +132,56 @@ public final class OffHeapBackingQueueTest {
     assertEquals(elements, pulled);
   }
   
+  private static final class Unserializable {}
+  
+  @Test
+  public void testPut_serializationFailureReleasesSlot() throws InterruptedException {
+    final Pool<Kryo> failingPool = new Pool<Kryo>(true, false) {
+      @Override
+      protected Kryo create() {
+        final Kryo kryo = new Kryo();
+        kryo.setReferences(false);
+        kryo.setRegistrationRequired(false);
+        kryo.addDefaultSerializer(Unserializable.class, new Serializer<Unserializable>() {
+          @Override
+          public void write(Kryo kryo, com.esotericsoftware.kryo.io.Output output, Unserializable object) {
+            throw new KryoException("Simulated");
+          }
+
+          @Override
+          public Unserializable read(Kryo kryo, com.esotericsoftware.kryo.io.Input input, Class<? extends Unserializable> type) {
+            throw new UnsupportedOperationException();
+          }
+        });
+        return kryo;
+      }
+    };
+    final OffHeapBackingQueue<Object> queue = new OffHeapBackingQueue<>(failingPool, 1);
+    queues.add(queue);
+    
+    Assertions.assertThatThrownBy(() -> {
+      queue.put(new Unserializable());
+    }).isInstanceOf(KryoException.class).hasMessage("Simulated");
+    assertEquals(1, queue.remainingCapacity());
+    assertNull(queue.poll(1));
+    
+    queue.put("zero");
+    assertEquals("zero", queue.poll(10));
+  }
+  
+  @Test
+  public void testPutPoll_growingElements() throws InterruptedException {
+    final OffHeapBackingQueue<String> queue = newQueue(3);
+    final List<String> elements = Arrays.asList("small", String.join("", Collections.nCopies(10_000, "x")), "small again");
+    for (String element : elements) {
+      queue.put(element);
+    }
+    
+    for (String element : elements) {
+      assertEquals(element, queue.poll(10));
+    }
+  }
+  
   @Test
   public void testPut_full() throws Throwable {
     final OffHeapBackingQueue<String> queue = newQueue(1);
@@ -148,6 +231,146 @@ public final class OffHeapBackingQueueTest {
     assertNull(queue.poll(Integer.MAX_VALUE));
   }
   
+  @Test
+  public void testPoll_disposedWhileWaiting() throws Throwable {
+    final OffHeapBackingQueue<String> queue = newQueue(1);
+    
+    final AtomicReference<Throwable> errorRef = new AtomicReference<>();
+    final Thread t = new Thread(() -> {
+      try {
+        assertNull(queue.poll(Integer.MAX_VALUE));
+      } catch (Throwable e) {
+        e.printStackTrace();
+        errorRef.set(e);
+      }
+    });
+    t.start();
+    
+    Timesert.wait(30_000).untilTrue(() -> t.getState() == State.TIMED_WAITING);
+    queue.dispose();
+    t.join();
+    
+    if (errorRef.get() != null) throw errorRef.get();
+  }
+  
+  @Test
+  public void testDurable_resumeAfterRestart() throws InterruptedException {
+    final OffHeapDurability durability = newDurability();
+    final OffHeapBackingQueue<String> first = newQueue(10, durability);
+    for (String element : Arrays.asList("zero", "one", "two", "three")) {
+      first.put(element);
+    }
+    assertEquals("zero", first.poll(10));
+    assertEquals("one", first.poll(10));
+    first.dispose();
+    
+    // the last polled element was never acknowledged, and is redelivered
+    final OffHeapBackingQueue<String> second = newQueue(10, durability);
+    assertEquals("one", second.poll(10));
+    assertEquals("two", second.poll(10));
+    second.put("four");
+    assertEquals("three", second.poll(10));
+    assertEquals("four", second.poll(10));
+    assertNull(second.poll(1));
+    second.dispose();
+    
+    final OffHeapBackingQueue<String> third = newQueue(10, durability);
+    assertNull(third.poll(1));
+  }
+  
+  @Test
+  public void testDurable_explicitAcknowledgement() throws InterruptedException {
+    final OffHeapDurability durability = newDurability();
+    final OffHeapBackingQueue<String> first = newQueue(10, durability);
+    first.put("zero");
+    first.put("one");
+    assertEquals("zero", first.poll(10));
+    first.acknowledge();
+    first.dispose();
+    
+    final OffHeapBackingQueue<String> second = newQueue(10, durability);
+    assertEquals("one", second.poll(10));
+  }
+  
+  @Test
+  public void testDurable_redeliverBatchAfterMidBatchCrash() throws InterruptedException {
+    final OffHeapDurability durability = newDurability();
+    final OffHeapBackingQueue<String> first = newQueue(10, durability);
+    for (String element : Arrays.asList("zero", "one", "two", "three", "four", "five")) {
+      first.put(element);
+    }
+    final List<String> batch = new ArrayList<>();
+    assertEquals(3, first.drainTo(batch, 3, 10));
+    assertEquals(Arrays.asList("zero", "one", "two"), batch);
+    // crash midway through processing the batch
+    first.dispose();
+    
+    // none of the batch was acknowledged, including its leading elements
+    final OffHeapBackingQueue<String> second = newQueue(10, durability);
+    batch.clear();
+    assertEquals(3, second.drainTo(batch, 3, 10));
+    assertEquals(Arrays.asList("zero", "one", "two"), batch);
+    
+    // draining the next batch acknowledges the previous one
+    batch.clear();
+    assertEquals(3, second.drainTo(batch, 3, 10));
+    assertEquals(Arrays.asList("three", "four", "five"), batch);
+    second.dispose();
+    
+    final OffHeapBackingQueue<String> third = newQueue(10, durability);
+    batch.clear();
+    assertEquals(3, third.drainTo(batch, 10, 10));
+    assertEquals(Arrays.asList("three", "four", "five"), batch);
+    third.acknowledge();
+    third.dispose();
+    
+    final OffHeapBackingQueue<String> fourth = newQueue(10, durability);
+    batch.clear();
+    assertEquals(0, fourth.drainTo(batch, 10, 1));
+  }
+  
+  @Test
+  public void testDurable_backlogCountsTowardsCapacity() throws InterruptedException {
+    final OffHeapDurability durability = newDurability();
+    final OffHeapBackingQueue<String> first = newQueue(2, durability);
+    first.put("zero");
+    first.put("one");
+    first.dispose();
+    
+    final OffHeapBackingQueue<String> second = newQueue(2, durability);
+    final Thread putter = new Thread(() -> {
+      try {
+        second.put("two");
+      } catch (InterruptedException e) {
+        // expected
+      }
+    });
+    putter.start();
+    Timesert.wait(30_000).untilTrue(() -> putter.getState() == State.TIMED_WAITING);
+    
+    assertEquals("zero", second.poll(10));
+    putter.join();
+    assertEquals("one", second.poll(10));
+    assertEquals("two", second.poll(10));
+  }
+  
+  @Test
+  public void testDurable_alreadyLocked() {
+    final OffHeapDurability durability = newDurability();
+    newQueue(1, durability);
+    
+    Assertions.assertThatThrownBy(() -> {
+      newQueue(1, durability);
+    }).isInstanceOf(IllegalStateException.class).hasMessage("Could not acquire lock for durable queue " + durability.getQueueName());
+  }
+  
+  @Test
+  public void testDurable_negativeRetainedCycles() {
+    Assertions.assertThatThrownBy(() -> {
+      newQueue(1, newDurability().withRetainedCycles(-1));
+    }).isInstanceOf(IllegalArgumentException.class).hasMessage("Retained cycles cannot be negative");
+  }
+  
   @Test
   public void testPutPoll_bounded_slowConsumer() throws Throwable {
     testPutPoll_separateConsumerThread(5, 10, 10);
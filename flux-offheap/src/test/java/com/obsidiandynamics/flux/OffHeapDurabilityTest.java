@@ -0,0 +1,36 @@
+package com.obsidiandynamics.flux;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.assertj.core.api.*;
+import org.junit.*;
+
+import net.openhft.chronicle.queue.*;
+
+public final class OffHeapDurabilityTest {
+  @Test
+  public void testDefaults() {
+    final OffHeapDurability durability = new OffHeapDurability();
+    assertNull(durability.getDirectory());
+    assertNull(durability.getQueueName());
+    assertEquals(RollCycles.DAILY, durability.getRollCycle());
+    assertEquals(0, durability.getRetainedCycles());
+  }
+  
+  @Test
+  public void testFluent() {
+    final File directory = new File("durable");
+    final OffHeapDurability durability = new OffHeapDurability()
+        .withDirectory(directory)
+        .withQueueName("queue")
+        .withRollCycle(RollCycles.HOURLY)
+        .withRetainedCycles(3);
+    assertEquals(directory, durability.getDirectory());
+    assertEquals("queue", durability.getQueueName());
+    assertEquals(RollCycles.HOURLY, durability.getRollCycle());
+    assertEquals(3, durability.getRetainedCycles());
+    Assertions.assertThat(durability.toString()).contains("queueName=queue").contains("retainedCycles=3");
+  }
+}
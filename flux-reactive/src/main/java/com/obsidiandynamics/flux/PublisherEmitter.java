@@ -0,0 +1,160 @@
+package com.obsidiandynamics.flux;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import com.obsidiandynamics.worker.*;
+
+/**
+ *  An {@link Emitter} that sources its events from a Reactive Streams {@link Publisher}, acting
+ *  as the publisher's {@link Subscriber}. <p>
+ *
+ *  Rather than requesting an unbounded number of events, the emitter extends credit to the
+ *  publisher in line with the demand reported by the downstream stage (see
+ *  {@link Sink#getDemand()}), requesting at least one event at a time. Further events are
+ *  requested only once the previously requested events have been delivered, thereby
+ *  propagating backpressure from the pipeline to the publisher. <p>
+ *
+ *  The emitter is passive, in that events are delivered downstream from the publisher's
+ *  thread. The emitter completes when the publisher signals completion or an error, or when
+ *  the emitter is terminated — in which case the subscription is cancelled.
+ *
+ *  @param <E> Event type.
+ */
+public final class PublisherEmitter<E> implements Emitter<E>, Subscriber<E> {
+  private final Publisher<? extends E> publisher;
+
+  private final StageCompletionHandlerHolder completionHandlerHolder = new StageCompletionHandlerHolder();
+
+  private final AtomicBoolean completed = new AtomicBoolean();
+
+  private final CountDownLatch completionLatch = new CountDownLatch(1);
+
+  private StageController controller;
+
+  private Sink<E> downstream;
+
+  private volatile Subscription subscription;
+
+  /** The number of requested events that are yet to be delivered; only accessed from the publisher's thread. */
+  private long outstanding;
+
+  public PublisherEmitter(Publisher<? extends E> publisher) {
+    this.publisher = mustExist(publisher, "Publisher cannot be null");
+  }
+
+  public PublisherEmitter<E> onComplete(StageCompletionHandler completionHandler) {
+    completionHandlerHolder.setHandler(completionHandler);
+    return this;
+  }
+
+  @Override
+  public void assignDownstream(Sink<E> downstream) {
+    mustBeNull(this.downstream, illegalState("Downstream stage already assigned"));
+    this.downstream = downstream;
+  }
+
+  @Override
+  public void start(StageController controller) {
+    mustExist(controller);
+    mustBeNull(this.controller, illegalArgument("Already started"));
+    mustExist(downstream, illegalState("No downstream stage assigned"));
+
+    this.controller = controller;
+    publisher.subscribe(this);
+  }
+
+  @Override
+  public void onSubscribe(Subscription subscription) {
+    mustExist(subscription, "Subscription cannot be null");
+    if (this.subscription != null || completed.get()) {
+      subscription.cancel();
+      return;
+    }
+
+    this.subscription = subscription;
+    requestMore();
+  }
+
+  private void requestMore() {
+    outstanding = Math.max(1, downstream.getDemand());
+    subscription.request(outstanding);
+  }
+
+  @Override
+  public void onNext(E event) {
+    mustExist(event, "Event cannot be null");
+    if (completed.get()) return;
+
+    try {
+      downstream.onNext(event);
+    } catch (FluxException e) {
+      subscription.cancel();
+      complete(e);
+      return;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      subscription.cancel();
+      complete(null);
+      return;
+    } catch (Throwable e) {
+      subscription.cancel();
+      complete(e);
+      return;
+    }
+
+    if (outstanding != Long.MAX_VALUE && --outstanding == 0 && ! completed.get()) {
+      requestMore();
+    }
+  }
+
+  @Override
+  public void onError(Throwable error) {
+    mustExist(error, "Error cannot be null");
+    complete(error);
+  }
+
+  @Override
+  public void onComplete() {
+    complete(null);
+  }
+
+  private void complete(Throwable error) {
+    if (completed.compareAndSet(false, true)) {
+      controller.complete(error);
+      completionHandlerHolder.fire();
+      completionLatch.countDown();
+    }
+  }
+
+  @Override
+  public Joinable terminate() {
+    final Subscription subscription = this.subscription;
+    if (subscription != null) {
+      subscription.cancel();
+    }
+    if (controller != null) {
+      complete(null);
+    }
+    return this;
+  }
+
+  @Override
+  public boolean join(long timeoutMillis) throws InterruptedException {
+    return controller == null || completionLatch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void onDownstreamComplete() {
+    mustBeStarted();
+    terminate();
+  }
+
+  private void mustBeStarted() {
+    mustExist(controller, illegalState("Emitter not started"));
+  }
+}
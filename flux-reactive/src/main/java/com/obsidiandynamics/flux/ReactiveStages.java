@@ -0,0 +1,18 @@
+package com.obsidiandynamics.flux;
+
+import org.reactivestreams.*;
+
+/**
+ *  Adapts Reactive Streams publishers and subscribers to {@link Flux} stages.
+ */
+public final class ReactiveStages {
+  private ReactiveStages() {}
+
+  public static <E> PublisherEmitter<E> publisher(Publisher<? extends E> publisher) {
+    return new PublisherEmitter<>(publisher);
+  }
+
+  public static <E> SubscriberSink<E> subscriber(Subscriber<? super E> subscriber) {
+    return new SubscriberSink<>(subscriber);
+  }
+}
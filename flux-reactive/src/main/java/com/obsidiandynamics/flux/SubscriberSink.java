@@ -0,0 +1,220 @@
+package com.obsidiandynamics.flux;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+import java.util.concurrent.*;
+
+import org.reactivestreams.*;
+
+import com.obsidiandynamics.worker.*;
+
+/**
+ *  A {@link Sink} that republishes the events it receives to a Reactive Streams
+ *  {@link Subscriber}, acting as its {@link Publisher}. <p>
+ *
+ *  Events are only delivered against credit extended by the subscriber through
+ *  {@link Subscription#request(long)}; in the absence of credit, {@link #onNext(Object)} blocks
+ *  the upstream stage until more events are requested. The outstanding credit is reported as
+ *  this sink's demand (see {@link Sink#getDemand()}), which allows a demand-aware upstream stage
+ *  to avoid producing events that the subscriber is not yet prepared to take. <p>
+ *
+ *  The subscriber is signalled {@link Subscriber#onComplete()} when the upstream stage completes
+ *  normally, and {@link Subscriber#onError(Throwable)} when the upstream stage fails or the sink
+ *  is terminated before the upstream has completed. Signals are serialised: a terminal signal 
+ *  that arrives while {@link Subscriber#onNext(Object)} is in progress is deferred until the 
+ *  latter returns. Cancelling the subscription terminates the sink (without a terminal signal), 
+ *  which in turn terminates the pipeline.
+ *
+ *  @param <E> Event type.
+ */
+public final class SubscriberSink<E> implements Sink<E> {
+  private final Subscriber<? super E> subscriber;
+
+  private final StageCompletionHandlerHolder completionHandlerHolder = new StageCompletionHandlerHolder();
+
+  /** Guards {@link #credit} and the delivery and termination state, and is signalled whenever they change. */
+  private final Object lock = new Object();
+
+  private final Subscription subscription = new Subscription() {
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        SubscriberSink.this.terminate(new IllegalArgumentException("Requested number of events must be greater than 0"));
+        return;
+      }
+
+      synchronized (lock) {
+        credit = credit + n < 0 ? Long.MAX_VALUE : credit + n;
+        lock.notifyAll();
+      }
+    }
+
+    @Override
+    public void cancel() {
+      SubscriberSink.this.cancel();
+    }
+  };
+
+  private StageController controller;
+
+  /** The number of events that the subscriber is prepared to accept; {@link Long#MAX_VALUE} is unbounded. */
+  private long credit;
+
+  private boolean cancelled;
+
+  private boolean terminated;
+
+  /** Whether {@link Subscriber#onNext(Object)} is in progress. */
+  private boolean delivering;
+
+  /** The error to signal upon termination, or {@code null} to signal completion. */
+  private Throwable terminalError;
+
+  public SubscriberSink(Subscriber<? super E> subscriber) {
+    this.subscriber = mustExist(subscriber, "Subscriber cannot be null");
+  }
+
+  public SubscriberSink<E> onComplete(StageCompletionHandler completionHandler) {
+    completionHandlerHolder.setHandler(completionHandler);
+    return this;
+  }
+
+  @Override
+  public void start(StageController controller) {
+    mustExist(controller);
+    mustBeNull(this.controller, illegalArgument("Already started"));
+    this.controller = controller;
+    subscriber.onSubscribe(subscription);
+  }
+
+  @Override
+  public void onNext(E event) throws InterruptedException {
+    synchronized (lock) {
+      while (credit == 0 && ! terminated) {
+        lock.wait();
+      }
+      if (terminated) return;
+
+      if (credit != Long.MAX_VALUE) {
+        credit--;
+      }
+      delivering = true;
+    }
+
+    try {
+      subscriber.onNext(event);
+    } finally {
+      final boolean terminatedWhileDelivering;
+      synchronized (lock) {
+        delivering = false;
+        terminatedWhileDelivering = terminated;
+      }
+      if (terminatedWhileDelivering) {
+        // the terminal signal was deferred until the delivery of this event completed
+        complete();
+      }
+    }
+  }
+
+  @Override
+  public long getDemand() {
+    synchronized (lock) {
+      return terminated ? 0 : credit;
+    }
+  }
+
+  @Override
+  public boolean awaitDemand(long timeoutMillis) throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    synchronized (lock) {
+      for (;;) {
+        if (terminated) return false;
+        if (credit != 0) return true;
+
+        final long remainingNanos = deadline - System.nanoTime();
+        if (remainingNanos <= 0) return false;
+        TimeUnit.NANOSECONDS.timedWait(lock, remainingNanos);
+      }
+    }
+  }
+
+  /**
+   *  Cancels the subscription, terminating the sink without signalling the subscriber.
+   */
+  private void cancel() {
+    synchronized (lock) {
+      if (terminated) return;
+      cancelled = true;
+    }
+    terminate(null);
+  }
+
+  /**
+   *  Terminates the sink before the upstream stage has completed, signalling an error to the 
+   *  subscriber.
+   */
+  @Override
+  public Joinable terminate() {
+    terminate(new FluxException("Sink terminated before the upstream stage completed"));
+    return this;
+  }
+
+  /**
+   *  Terminates the sink, signalling the subscriber unless the subscription was cancelled. If an 
+   *  event is being delivered, the terminal signal is left to the delivering thread.
+   *
+   *  @param error The error to signal, or {@code null} to signal completion.
+   */
+  private void terminate(Throwable error) {
+    synchronized (lock) {
+      if (terminated) return;
+      terminated = true;
+      terminalError = error;
+      lock.notifyAll();
+      if (delivering) return;
+    }
+    complete();
+  }
+
+  private void complete() {
+    final boolean signal;
+    final Throwable error;
+    synchronized (lock) {
+      signal = ! cancelled;
+      error = terminalError;
+    }
+
+    if (signal) {
+      if (error != null) {
+        subscriber.onError(error);
+      } else {
+        subscriber.onComplete();
+      }
+    }
+    if (controller != null) {
+      controller.complete(null);
+    }
+    completionHandlerHolder.fire();
+  }
+
+  @Override
+  public boolean join(long timeoutMillis) {
+    return true;
+  }
+
+  @Override
+  public void onUpstreamComplete() {
+    mustBeStarted();
+    terminate(null);
+  }
+
+  @Override
+  public void onUpstreamError(Throwable error) {
+    mustBeStarted();
+    terminate(error);
+  }
+
+  private void mustBeStarted() {
+    mustExist(controller, illegalState("Sink not started"));
+  }
+}
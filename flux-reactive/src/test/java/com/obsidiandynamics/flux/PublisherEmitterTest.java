@@ -0,0 +1,115 @@
+package com.obsidiandynamics.flux;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+
+import org.assertj.core.api.*;
+import org.junit.*;
+
+import com.obsidiandynamics.await.*;
+import com.obsidiandynamics.func.*;
+
+public final class PublisherEmitterTest {
+  @Test
+  public void testComplete_unboundedDemand() throws InterruptedException {
+    final RangePublisher publisher = new RangePublisher(100);
+    final List<Integer> collected = new CopyOnWriteArrayList<>();
+    final StageCompletionHandler completionHandler = mock(StageCompletionHandler.class);
+
+    final Flux flux = new Flux()
+        .cascade(ReactiveStages.publisher(publisher).onComplete(completionHandler))
+        .cascade(Sinks.collection(collected))
+        .start();
+    flux.joinSilently();
+    publisher.join();
+
+    assertTrue(flux.isComplete());
+    assertNull(flux.getError());
+    assertEquals(IntStream.range(0, 100).boxed().collect(Collectors.toList()), collected);
+    assertEquals(Collections.singletonList(Long.MAX_VALUE), publisher.requests);
+    verify(completionHandler).onComplete();
+  }
+
+  @Test
+  public void testComplete_boundedDemand() throws InterruptedException {
+    final int capacity = 4;
+    final RangePublisher publisher = new RangePublisher(100);
+    final List<Integer> collected = new CopyOnWriteArrayList<>();
+
+    final Flux flux = new Flux()
+        .cascade(ReactiveStages.publisher(publisher))
+        .cascade(Channels.buffered(capacity))
+        .cascade(Sinks.collection(collected))
+        .start();
+    flux.joinSilently();
+    publisher.join();
+
+    assertTrue(flux.isComplete());
+    assertNull(flux.getError());
+    assertEquals(IntStream.range(0, 100).boxed().collect(Collectors.toList()), collected);
+    Assertions.assertThat(publisher.requests).isNotEmpty().allMatch(n -> n >= 1 && n <= capacity);
+  }
+
+  @Test
+  public void testPublisherError() throws InterruptedException {
+    final RuntimeException cause = new RuntimeException("Simulated");
+    final RangePublisher publisher = new RangePublisher(10, cause);
+
+    final Flux flux = new Flux()
+        .onError(ExceptionHandler.nop())
+        .cascade(ReactiveStages.publisher(publisher))
+        .cascade(Sinks.nop())
+        .start();
+    flux.joinSilently();
+    publisher.join();
+
+    assertTrue(flux.isComplete());
+    assertSame(cause, flux.getError());
+  }
+
+  @Test
+  public void testCheckedExceptionInSink() throws InterruptedException {
+    final FluxException cause = new FluxException("Simulated");
+    final RangePublisher publisher = new RangePublisher(10);
+
+    final Flux flux = new Flux()
+        .onError(ExceptionHandler.nop())
+        .cascade(ReactiveStages.publisher(publisher))
+        .cascade(Sinks.consumer((__context, __event) -> {
+          throw cause;
+        }))
+        .start();
+    flux.joinSilently();
+    publisher.join();
+
+    assertTrue(flux.isComplete());
+    assertSame(cause, flux.getError());
+    assertTrue(publisher.cancelled);
+  }
+
+  @Test
+  public void testTerminatePipeline() throws InterruptedException {
+    final RangePublisher publisher = new RangePublisher(Integer.MAX_VALUE);
+
+    final Flux flux = new Flux()
+        .cascade(ReactiveStages.publisher(publisher))
+        .cascade(Channels.buffered(1))
+        .cascade(Sinks.nop())
+        .start();
+    flux.terminate().joinSilently();
+
+    assertTrue(flux.isComplete());
+    assertNull(flux.getError());
+    Timesert.wait(10_000).untilTrue(() -> publisher.cancelled);
+  }
+
+  @Test
+  public void testNullPublisher() {
+    Assertions.assertThatThrownBy(() -> ReactiveStages.publisher(null))
+    .isInstanceOf(NullArgumentException.class).hasMessage("Publisher cannot be null");
+  }
+}
@@ -0,0 +1,83 @@
+package com.obsidiandynamics.flux;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.reactivestreams.*;
+
+/**
+ *  A minimal {@link Publisher} that emits a range of integers from a dedicated thread, honouring
+ *  the requested demand, and records the individual requests for later inspection.
+ */
+final class RangePublisher implements Publisher<Integer> {
+  private final int count;
+
+  private final RuntimeException error;
+
+  final List<Long> requests = new CopyOnWriteArrayList<>();
+
+  volatile boolean cancelled;
+
+  private volatile Thread thread;
+
+  RangePublisher(int count) {
+    this(count, null);
+  }
+
+  RangePublisher(int count, RuntimeException error) {
+    this.count = count;
+    this.error = error;
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super Integer> subscriber) {
+    final Object lock = new Object();
+    final long[] requested = new long[1];
+    subscriber.onSubscribe(new Subscription() {
+      @Override
+      public void request(long n) {
+        requests.add(n);
+        synchronized (lock) {
+          requested[0] = requested[0] + n < 0 ? Long.MAX_VALUE : requested[0] + n;
+          lock.notifyAll();
+        }
+      }
+
+      @Override
+      public void cancel() {
+        cancelled = true;
+        synchronized (lock) {
+          lock.notifyAll();
+        }
+      }
+    });
+
+    thread = new Thread(() -> {
+      try {
+        for (int i = 0; i < count; i++) {
+          synchronized (lock) {
+            while (requested[0] == 0 && ! cancelled) {
+              lock.wait();
+            }
+            if (cancelled) return;
+            requested[0]--;
+          }
+          subscriber.onNext(i);
+        }
+        if (error != null) {
+          subscriber.onError(error);
+        } else {
+          subscriber.onComplete();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }, "publisher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  void join() throws InterruptedException {
+    thread.join();
+  }
+}
@@ -0,0 +1,210 @@
+package com.obsidiandynamics.flux;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.stream.*;
+
+import org.assertj.core.api.*;
+import org.junit.*;
+import org.reactivestreams.*;
+
+import com.obsidiandynamics.func.*;
+import com.obsidiandynamics.threads.*;
+
+public final class SubscriberSinkTest {
+  /**
+   *  A subscriber that requests a fixed number of events up front, and then a single event
+   *  after each one it receives.
+   */
+  private static class TestSubscriber implements Subscriber<Integer> {
+    private final long initialRequest;
+
+    final List<Integer> received = new CopyOnWriteArrayList<>();
+
+    final AtomicInteger completions = new AtomicInteger();
+
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+
+    Subscription subscription;
+
+    TestSubscriber(long initialRequest) {
+      this.initialRequest = initialRequest;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(initialRequest);
+    }
+
+    @Override
+    public void onNext(Integer event) {
+      received.add(event);
+      subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable error) {
+      this.error.set(error);
+    }
+
+    @Override
+    public void onComplete() {
+      completions.incrementAndGet();
+    }
+  }
+
+  @Test
+  public void testComplete_singleCredit() {
+    final TestSubscriber subscriber = new TestSubscriber(1);
+    final StageCompletionHandler completionHandler = mock(StageCompletionHandler.class);
+
+    final Flux flux = new Flux()
+        .cascade(Emitters.stream(IntStream.range(0, 100).boxed()))
+        .cascade(Channels.buffered(10))
+        .cascade(ReactiveStages.subscriber(subscriber).onComplete(completionHandler))
+        .start();
+    flux.joinSilently();
+
+    assertTrue(flux.isComplete());
+    assertNull(flux.getError());
+    assertEquals(IntStream.range(0, 100).boxed().collect(Collectors.toList()), subscriber.received);
+    assertEquals(1, subscriber.completions.get());
+    assertNull(subscriber.error.get());
+    verify(completionHandler).onComplete();
+  }
+
+  @Test
+  public void testGetDemand() throws InterruptedException {
+    final SubscriberSink<Integer> sink = ReactiveStages.subscriber(new Subscriber<Integer>() {
+      @Override public void onSubscribe(Subscription subscription) {
+        subscription.request(2);
+      }
+      @Override public void onNext(Integer event) {}
+      @Override public void onError(Throwable error) {}
+      @Override public void onComplete() {}
+    });
+    assertEquals(0, sink.getDemand());
+
+    sink.start(__error -> {});
+    assertEquals(2, sink.getDemand());
+    sink.onNext(0);
+    assertEquals(1, sink.getDemand());
+
+    sink.terminate();
+    assertEquals(0, sink.getDemand());
+  }
+
+  @Test
+  public void testTerminate_signalsErrorAfterInFlightOnNext() throws Exception {
+    final CountDownLatch delivering = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicBoolean overlapped = new AtomicBoolean();
+    final AtomicBoolean inOnNext = new AtomicBoolean();
+    final TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE) {
+      @Override
+      public void onNext(Integer event) {
+        inOnNext.set(true);
+        delivering.countDown();
+        Threads.await(release);
+        inOnNext.set(false);
+      }
+
+      @Override
+      public void onError(Throwable error) {
+        if (inOnNext.get()) overlapped.set(true);
+        super.onError(error);
+      }
+    };
+    final StageController controller = mock(StageController.class);
+    final SubscriberSink<Integer> sink = ReactiveStages.subscriber(subscriber);
+    sink.start(controller);
+
+    final Thread upstream = new Thread(() -> {
+      try {
+        sink.onNext(0);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    upstream.start();
+    delivering.await();
+
+    sink.terminate();
+    assertNull(subscriber.error.get());
+    verify(controller, never()).complete(any());
+
+    release.countDown();
+    upstream.join();
+    assertFalse(overlapped.get());
+    Assertions.assertThat(subscriber.error.get()).isInstanceOf(FluxException.class)
+    .hasMessage("Sink terminated before the upstream stage completed");
+    assertEquals(0, subscriber.completions.get());
+    verify(controller).complete(isNull());
+  }
+
+  @Test
+  public void testUpstreamError_signalsError() {
+    final TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE);
+    final Exception cause = new Exception("Simulated");
+
+    final Flux flux = new Flux()
+        .cascade(Emitters.supplier(context -> {
+          throw new FluxException(cause);
+        }))
+        .cascade(ReactiveStages.subscriber(subscriber))
+        .start();
+    flux.joinSilently();
+
+    assertTrue(flux.isComplete());
+    assertEquals(0, subscriber.completions.get());
+    Assertions.assertThat(subscriber.error.get()).isInstanceOf(FluxException.class).hasCause(cause);
+  }
+
+  @Test
+  public void testCancel_terminatesPipeline() {
+    final AtomicInteger received = new AtomicInteger();
+    final Flux flux = new Flux()
+        .cascade(Emitters.supplier(() -> 0))
+        .cascade(ReactiveStages.subscriber(new TestSubscriber(Long.MAX_VALUE) {
+          @Override
+          public void onNext(Integer event) {
+            if (received.incrementAndGet() == 10) {
+              subscription.cancel();
+            }
+          }
+        }))
+        .start();
+    flux.joinSilently();
+
+    assertTrue(flux.isComplete());
+    assertNull(flux.getError());
+    assertEquals(10, received.get());
+  }
+
+  @Test
+  public void testRequest_nonPositive() throws InterruptedException {
+    final TestSubscriber subscriber = new TestSubscriber(0);
+    final StageController controller = mock(StageController.class);
+    final SubscriberSink<Integer> sink = ReactiveStages.subscriber(subscriber);
+    sink.start(controller);
+
+    verify(controller).complete(isNull());
+    sink.onNext(0);
+    assertEquals(Collections.emptyList(), subscriber.received);
+    assertEquals(0, subscriber.completions.get());
+    Assertions.assertThat(subscriber.error.get()).isInstanceOf(IllegalArgumentException.class)
+    .hasMessage("Requested number of events must be greater than 0");
+  }
+
+  @Test
+  public void testNullSubscriber() {
+    Assertions.assertThatThrownBy(() -> ReactiveStages.subscriber(null))
+    .isInstanceOf(NullArgumentException.class).hasMessage("Subscriber cannot be null");
+  }
+}
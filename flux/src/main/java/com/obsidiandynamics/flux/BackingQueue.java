@@ -1,9 +1,53 @@
 package com.obsidiandynamics.flux;
 
+import java.util.*;
+
 public interface BackingQueue<E> {
   E poll(int timeoutMillis) throws InterruptedException;
   
+  /**
+   *  Removes up to {@code maxElements} elements from the queue, adding them to the given
+   *  collection in queue order. Waits up to {@code timeoutMillis} for the first element to 
+   *  become available; subsequent elements are only removed if they are immediately available. <p>
+   *  
+   *  The default implementation delegates to {@link #poll(int)}; implementations are encouraged 
+   *  to override it with a more efficient bulk transfer.
+   *  
+   *  @param sink The collection to transfer the elements to.
+   *  @param maxElements The maximum number of elements to transfer.
+   *  @param timeoutMillis The time to wait for the first element, in milliseconds.
+   *  @return The number of elements transferred.
+   *  @throws InterruptedException If the thread was interrupted.
+   */
+  default int drainTo(Collection<? super E> sink, int maxElements, int timeoutMillis) throws InterruptedException {
+    int drained = 0;
+    for (E element; drained < maxElements && (element = poll(drained == 0 ? timeoutMillis : 0)) != null; drained++) {
+      sink.add(element);
+    }
+    return drained;
+  }
+  
+  /**
+   *  Signals that the elements obtained by prior calls to {@link #poll(int)} and 
+   *  {@link #drainTo(Collection, int, int)} have been processed, and need not be redelivered. 
+   *  Only meaningful to durable queues, which may otherwise redeliver unacknowledged elements 
+   *  after a restart; the default implementation does nothing. Must only be called from the 
+   *  consuming thread.
+   */
+  default void acknowledge() {}
+  
   void put(E element) throws InterruptedException;
   
+  /**
+   *  Obtains the number of elements that may be put into the queue without blocking. The result 
+   *  is only an estimate if the queue is being concurrently modified. The default implementation 
+   *  reports an unbounded capacity.
+   *  
+   *  @return The approximate remaining capacity.
+   */
+  default int remainingCapacity() {
+    return Integer.MAX_VALUE;
+  }
+  
   void dispose();
 }
@@ -10,14 +10,24 @@ public final class BufferedChannel<E> implements Channel<E, E> {
   /** The default queue poll interval, in milliseconds. */
   private static final int DEF_QUEUE_POLL_INTERVAL = 10;
   
+  /** The default batch size; a batch of one preserves per-event delivery via {@link Sink#onNext(Object)}. */
+  private static final int DEF_BATCH_SIZE = 1;
+  
   private static final WorkerOptions DEF_WORKER_OPTIONS = new WorkerOptions().withName(BufferedChannel.class, "driver").daemon();
   
   private final BackingQueue<E> queue;
   
+  private final DemandSignal demandSignal = new DemandSignal();
+  
   private WorkerOptions workerOptions = DEF_WORKER_OPTIONS;
   
   private int queuePollInterval = DEF_QUEUE_POLL_INTERVAL;
   
+  private int batchSize = DEF_BATCH_SIZE;
+  
+  /** Reused across cycles to accumulate a batch; only accessed from the driver thread. */
+  private List<E> batch;
+  
   private StageController controller;
   
   private WorkerThread thread;
@@ -42,6 +52,20 @@ public final class BufferedChannel<E> implements Channel<E, E> {
     return this;
   }
 
+  /**
+   *  Sets the maximum number of events that the driver thread will drain from the queue
+   *  in one cycle. When greater than one, the drained events are delivered to the downstream 
+   *  stage via {@link Sink#onNextBatch(List)}.
+   *  
+   *  @param batchSize The maximum batch size.
+   *  @return This {@link BufferedChannel} instance for fluent chaining.
+   */
+  public BufferedChannel<E> withBatchSize(int batchSize) {
+    mustBeGreater(batchSize, 0, illegalArgument("Batch size must be greater than 0"));
+    this.batchSize = batchSize;
+    return this;
+  }
+
   @Override
   public void assignDownstream(Sink<E> downstream) {
     mustBeNull(this.downstream, illegalState("Downstream stage already assigned"));
@@ -56,10 +80,18 @@ public final class BufferedChannel<E> implements Channel<E, E> {
     
     this.controller = controller;
     
+    final WorkerCycle onCycle;
+    if (batchSize > 1) {
+      batch = new ArrayList<>(batchSize);
+      onCycle = this::onBatchCycle;
+    } else {
+      onCycle = this::onCycle;
+    }
+    
     thread = WorkerThread
         .builder()
         .withOptions(workerOptions)
-        .onCycle(this::onCycle)
+        .onCycle(onCycle)
         .onShutdown(this::onShutdown)
         .onUncaughtException(WorkerExceptionHandler.nop())
         .build();
@@ -70,11 +102,31 @@ public final class BufferedChannel<E> implements Channel<E, E> {
     final boolean wasDraining = draining;
     final E next = queue.poll(queuePollInterval);
     if (next != null) {
+      demandSignal.signal();
       try {
         downstream.onNext(next);
       } catch (FluxException e) {
         throw new RuntimeWorkerException(e);
       }
+      queue.acknowledge();
+    } else if (wasDraining) {
+      thread.terminate();
+    }
+  }
+  
+  private void onBatchCycle(WorkerThread thread) throws InterruptedException {
+    final boolean wasDraining = draining;
+    queue.drainTo(batch, batchSize, queuePollInterval);
+    if (! batch.isEmpty()) {
+      demandSignal.signal();
+      try {
+        downstream.onNextBatch(batch);
+      } catch (FluxException e) {
+        throw new RuntimeWorkerException(e);
+      } finally {
+        batch.clear();
+      }
+      queue.acknowledge();
     } else if (wasDraining) {
       thread.terminate();
     }
@@ -91,6 +143,16 @@ public final class BufferedChannel<E> implements Channel<E, E> {
     queue.put(event);
   }
 
+  @Override
+  public long getDemand() {
+    return queue.remainingCapacity();
+  }
+
+  @Override
+  public boolean awaitDemand(long timeoutMillis) throws InterruptedException {
+    return demandSignal.await(this::getDemand, timeoutMillis);
+  }
+
   @Override
   public Joinable terminate() {
     ifPresentVoid(thread, WorkerThread::terminate);
@@ -22,6 +22,18 @@ public final class Channels {
     return new BufferedChannel<>(queueFactory, capacity);
   }
   
+  public static <I, O> PartitionedChannel<I, O> partitioned(int lanes, 
+                                                            Function<? super I, ?> keyExtractor, 
+                                                            Supplier<? extends EventMapper<? super I, ? extends O>> eventMapperFactory) {
+    return partitioned(lanes, Integer.MAX_VALUE, HeapBackingQueueFactory.getInstance(), keyExtractor, eventMapperFactory);
+  }
+  
+  public static <I, O> PartitionedChannel<I, O> partitioned(int lanes, int capacity, BackingQueueFactory queueFactory, 
+                                                            Function<? super I, ?> keyExtractor, 
+                                                            Supplier<? extends EventMapper<? super I, ? extends O>> eventMapperFactory) {
+    return new PartitionedChannel<>(queueFactory, capacity, lanes, keyExtractor, eventMapperFactory);
+  }
+  
   public static <I, O> MappingChannel<I, O> map(EventMapper<? super I, ? extends O> eventMapper) {
     return new MappingChannel<>(eventMapper);
   }
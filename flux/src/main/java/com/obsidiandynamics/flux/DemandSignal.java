@@ -0,0 +1,53 @@
+package com.obsidiandynamics.flux;
+
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ *  Allows an upstream thread to await the demand of a {@link Sink}, which signals whenever its
+ *  demand may have increased (typically upon taking events off its queue). Signalling is a single
+ *  volatile read in the absence of waiters.
+ */
+final class DemandSignal {
+  private final Object lock = new Object();
+
+  /** The number of threads awaiting demand; only mutated while holding {@link #lock}. */
+  private volatile int waiters;
+
+  void signal() {
+    if (waiters != 0) {
+      synchronized (lock) {
+        lock.notifyAll();
+      }
+    }
+  }
+
+  /**
+   *  Waits until the given demand becomes non-zero, or the timeout elapses.
+   *
+   *  @param demand Supplies the current demand.
+   *  @param timeoutMillis The maximum time to wait, in milliseconds.
+   *  @return True if there is demand, or false if the wait timed out.
+   *  @throws InterruptedException If the thread was interrupted.
+   */
+  boolean await(LongSupplier demand, long timeoutMillis) throws InterruptedException {
+    if (demand.getAsLong() != 0) return true;
+
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    synchronized (lock) {
+      // registering before re-checking the demand ensures that a concurrent signal is not missed
+      waiters++;
+      try {
+        for (;;) {
+          if (demand.getAsLong() != 0) return true;
+
+          final long remainingNanos = deadline - System.nanoTime();
+          if (remainingNanos <= 0) return false;
+          TimeUnit.NANOSECONDS.timedWait(lock, remainingNanos);
+        }
+      } finally {
+        waiters--;
+      }
+    }
+  }
+}
@@ -31,7 +31,8 @@ import com.obsidiandynamics.worker.Terminator;
  *  The completion of any stage will trigger a cascade of events, starting from its
  *  immediate neighbours. The sink immediately downstream of a completed emitter 
  *  (or channel) will have
- *  its {@link Sink#onUpstreamComplete()} lifecycle method invoked. This should trigger
+ *  its {@link Sink#onUpstreamComplete()} lifecycle method invoked (or 
+ *  {@link Sink#onUpstreamError(Throwable)}, if the upstream stage completed with an error). This should trigger
  *  any cleanup preparation within the downstream sink, but may not terminate the sink
  *  immediately — not until it has a chance to work through the backlog of upstream events
  *  (if any). The emitter immediately upstream of a completed sink (or channel) will have its
@@ -86,10 +87,14 @@ public final class Flux implements Terminable, Joinable {
       }
     }
     
-    void signalFromUpstream() {
+    void signalFromUpstream(Throwable error) {
       if (signalled.compareAndSet(false, true)) {
         synchronized (lifecycleLock) {
-          ((Sink<?>) stage).onUpstreamComplete();
+          if (error != null) {
+            ((Sink<?>) stage).onUpstreamError(error);
+          } else {
+            ((Sink<?>) stage).onUpstreamComplete();
+          }
         }
       }
     }
@@ -102,7 +107,7 @@ public final class Flux implements Terminable, Joinable {
         }
         
         if (next != null) {
-          next.signalFromUpstream();
+          next.signalFromUpstream(error);
         }
         
         ifPresentVoid(error, Flux.this::setError);
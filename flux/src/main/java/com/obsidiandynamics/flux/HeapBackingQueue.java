@@ -1,5 +1,6 @@
 package com.obsidiandynamics.flux;
 
+import java.util.*;
 import java.util.concurrent.*;
 
 final class HeapBackingQueue<E> implements BackingQueue<E> {
@@ -14,11 +15,25 @@ final class HeapBackingQueue<E> implements BackingQueue<E> {
     return queue.poll(timeoutMillis, TimeUnit.MILLISECONDS);
   }
 
+  @Override
+  public int drainTo(Collection<? super E> sink, int maxElements, int timeoutMillis) throws InterruptedException {
+    if (maxElements <= 0) return 0;
+    final E first = queue.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    if (first == null) return 0;
+    sink.add(first);
+    return 1 + queue.drainTo(sink, maxElements - 1);
+  }
+
   @Override
   public void put(E element) throws InterruptedException {
     queue.put(element);
   }
 
+  @Override
+  public int remainingCapacity() {
+    return queue.remainingCapacity();
+  }
+
   @Override
   public void dispose() {}
 }
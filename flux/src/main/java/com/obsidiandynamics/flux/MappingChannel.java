@@ -2,6 +2,8 @@ package com.obsidiandynamics.flux;
 
 import static com.obsidiandynamics.func.Functions.*;
 
+import java.util.*;
+
 import com.obsidiandynamics.worker.*;
 
 public final class MappingChannel<I, O> implements Channel<I, O> {
@@ -10,10 +12,26 @@ public final class MappingChannel<I, O> implements Channel<I, O> {
   private final AbstractEmissionContext<O> context = new AbstractEmissionContext<O>() {
     @Override
     public void terminateImpl() {
-      MappingChannel.this.terminate();
+      if (batching) {
+        terminationDeferred = true;
+      } else {
+        MappingChannel.this.terminate();
+      }
     }
   };
   
+  /** Accumulates the mapped events of a batch; only accessed from the upstream thread. */
+  private final List<O> mappedBatch = new ArrayList<>();
+  
+  /** Whether a batch is being mapped; only accessed from the upstream thread. */
+  private boolean batching;
+  
+  /** 
+   *  Whether the mapper terminated the context mid-batch, in which case termination is deferred
+   *  until the events mapped thus far have been handed downstream.
+   */
+  private boolean terminationDeferred;
+  
   private final StageCompletionHandlerHolder completionHandlerHolder = new StageCompletionHandlerHolder();
   
   private StageController controller;
@@ -56,6 +74,71 @@ public final class MappingChannel<I, O> implements Channel<I, O> {
     }
   }
 
+  @Override
+  public void onNextBatch(List<I> batch) throws InterruptedException, FluxException {
+    if (terminating) return;
+    
+    batching = true;
+    try {
+      try {
+        for (I next : batch) {
+          eventMapper.apply(context, next);
+          while (context.hasNext()) {
+            mappedBatch.add(context.next());
+          }
+          if (terminationDeferred || terminating) break;
+        }
+      } catch (Throwable e) {
+        // hand over the events mapped prior to the failure, as per-element mapping would have done
+        deliverMappedPrefix(e);
+        throw e;
+      }
+      
+      if (! mappedBatch.isEmpty()) {
+        downstream.onNextBatch(mappedBatch);
+      }
+    } finally {
+      mappedBatch.clear();
+      batching = false;
+      if (terminationDeferred) {
+        terminationDeferred = false;
+        terminate();
+      }
+    }
+  }
+
+  /**
+   *  Delivers the events mapped thus far, following a failure of the mapper. An exception thrown
+   *  by the downstream stage is suppressed in favour of the mapper's, preserving the interrupt
+   *  status of the thread.
+   *  
+   *  @param mapperError The error thrown by the mapper.
+   */
+  private void deliverMappedPrefix(Throwable mapperError) {
+    if (! mappedBatch.isEmpty()) {
+      try {
+        downstream.onNextBatch(mappedBatch);
+      } catch (Throwable e) {
+        if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+        mapperError.addSuppressed(e);
+      }
+    }
+  }
+
+  /**
+   *  Passes through the demand of the downstream stage, as mapping is performed synchronously. 
+   *  (The demand is approximate when the mapper emits more or fewer events than it receives.)
+   */
+  @Override
+  public long getDemand() {
+    return terminating ? 0 : downstream.getDemand();
+  }
+
+  @Override
+  public boolean awaitDemand(long timeoutMillis) throws InterruptedException {
+    return ! terminating && downstream.awaitDemand(timeoutMillis);
+  }
+
   @Override
   public Joinable terminate() {
     terminating = true;
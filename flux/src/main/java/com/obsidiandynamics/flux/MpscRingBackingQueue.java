@@ -0,0 +1,32 @@
+package com.obsidiandynamics.flux;
+
+/**
+ *  A {@link RingBackingQueue} for multiple producers and a single consumer. Producers
+ *  claim slots by CAS-incrementing the producer index, and then publish their element into 
+ *  the claimed slot.
+ *
+ *  @param <E> Element type.
+ */
+final class MpscRingBackingQueue<E> extends RingBackingQueue<E> {
+  MpscRingBackingQueue(int capacity, RingWaitStrategy waitStrategy) {
+    super(capacity, waitStrategy);
+  }
+
+  @Override
+  boolean offer(E element) {
+    long producerIndex;
+    do {
+      producerIndex = lvProducerIndex();
+      if (producerIndex >= lvProducerLimit()) {
+        final long producerLimit = lvConsumerIndex() + capacity;
+        if (producerIndex >= producerLimit) {
+          return false;
+        }
+        svProducerLimit(producerLimit);
+      }
+    } while (! casProducerIndex(producerIndex, producerIndex + 1));
+
+    publishElement(index(producerIndex), element);
+    return true;
+  }
+}
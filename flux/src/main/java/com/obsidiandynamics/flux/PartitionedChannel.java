@@ -0,0 +1,253 @@
+package com.obsidiandynamics.flux;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+import com.obsidiandynamics.threads.*;
+import com.obsidiandynamics.worker.*;
+
+/**
+ *  A channel that fans events out across a fixed number of <b>lanes</b>, each comprising
+ *  its own {@link BackingQueue}, driver thread and {@link EventMapper} instance. An event is
+ *  routed to a lane by hashing a key extracted from the event, using
+ *  {@link Striped#resolveStripe(int, int)}; events sharing a key are thereby mapped in the
+ *  order they were received, while events with different keys may be mapped in parallel.
+ *  The mapped events of all lanes are merged into the downstream sink, which is never
+ *  invoked by more than one lane at a time. <p>
+ *
+ *  The completion semantics match those of a {@link BufferedChannel}: the completion of the
+ *  upstream stage causes each lane to drain its backlog before the channel completes, while
+ *  the completion of the downstream stage terminates the lanes immediately. An error thrown
+ *  from any lane terminates the entire channel. Similarly, an {@link EventMapper} calling
+ *  {@link EmissionContext#terminate()} terminates all lanes.
+ *
+ *  @param <I> Input event type.
+ *  @param <O> Output event type.
+ */
+public final class PartitionedChannel<I, O> implements Channel<I, O> {
+  /** The default queue poll interval, in milliseconds. */
+  private static final int DEF_QUEUE_POLL_INTERVAL = 10;
+
+  private static final WorkerOptions DEF_WORKER_OPTIONS = new WorkerOptions().withName(PartitionedChannel.class, "lane").daemon();
+
+  private final class Lane {
+    private final int index;
+
+    private final BackingQueue<I> queue;
+
+    private final EventMapper<? super I, ? extends O> eventMapper;
+
+    private final AbstractEmissionContext<O> context = new AbstractEmissionContext<O>() {
+      @Override
+      public void terminateImpl() {
+        PartitionedChannel.this.terminate();
+      }
+    };
+
+    private WorkerThread thread;
+
+    Lane(int index, BackingQueue<I> queue, EventMapper<? super I, ? extends O> eventMapper) {
+      this.index = index;
+      this.queue = queue;
+      this.eventMapper = mustExist(eventMapper, "Event mapper cannot be null");
+    }
+
+    void start() {
+      thread = WorkerThread
+          .builder()
+          .withOptions(new WorkerOptions()
+                       .withName(workerOptions.getName() + "-" + index)
+                       .withDaemon(workerOptions.isDaemon())
+                       .withPriority(workerOptions.getPriority())
+                       .withExecution(workerOptions.getExecution()))
+          .onCycle(this::onCycle)
+          .onShutdown(this::onShutdown)
+          .onUncaughtException(WorkerExceptionHandler.nop())
+          .build();
+      thread.start();
+    }
+
+    private void onCycle(WorkerThread thread) throws InterruptedException {
+      final boolean wasDraining = draining;
+      final I next = queue.poll(queuePollInterval);
+      if (next != null) {
+        demandSignal.signal();
+        if (terminating) return;
+
+        try {
+          eventMapper.apply(context, next);
+          if (context.hasNext()) {
+            synchronized (downstreamLock) {
+              while (context.hasNext()) {
+                downstream.onNext(context.next());
+              }
+            }
+          }
+        } catch (FluxException e) {
+          throw new RuntimeWorkerException(e);
+        }
+      } else if (wasDraining) {
+        thread.terminate();
+      }
+    }
+
+    private void onShutdown(WorkerThread thread, Throwable exception) {
+      queue.dispose();
+      onLaneShutdown(RuntimeWorkerException.unpackConditional(exception));
+    }
+  }
+
+  private final List<Lane> lanes;
+
+  private final Function<? super I, ?> keyExtractor;
+
+  /** Serialises the delivery of mapped events to the downstream sink. */
+  private final Object downstreamLock = new Object();
+
+  private final DemandSignal demandSignal = new DemandSignal();
+
+  private final AtomicInteger activeLanes = new AtomicInteger();
+
+  private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+  private WorkerOptions workerOptions = DEF_WORKER_OPTIONS;
+
+  private int queuePollInterval = DEF_QUEUE_POLL_INTERVAL;
+
+  private StageController controller;
+
+  private Sink<O> downstream;
+
+  private volatile boolean draining;
+
+  private volatile boolean terminating;
+
+  /**
+   *  Creates a new partitioned channel.
+   *
+   *  @param queueFactory Creates the backing queue for each lane.
+   *  @param capacity The capacity of each lane's queue.
+   *  @param lanes The number of lanes.
+   *  @param keyExtractor Extracts the partitioning key from an event; a {@code null} key is permitted.
+   *  @param eventMapperFactory Creates the event mapper for each lane.
+   */
+  public PartitionedChannel(BackingQueueFactory queueFactory, int capacity, int lanes,
+                            Function<? super I, ?> keyExtractor,
+                            Supplier<? extends EventMapper<? super I, ? extends O>> eventMapperFactory) {
+    mustExist(queueFactory, "Queue factory cannot be null");
+    mustBeGreater(lanes, 0, illegalArgument("Number of lanes must be greater than 0"));
+    this.keyExtractor = mustExist(keyExtractor, "Key extractor cannot be null");
+    mustExist(eventMapperFactory, "Event mapper factory cannot be null");
+
+    this.lanes = new ArrayList<>(lanes);
+    for (int lane = 0; lane < lanes; lane++) {
+      this.lanes.add(new Lane(lane, queueFactory.create(capacity), eventMapperFactory.get()));
+    }
+  }
+
+  public PartitionedChannel<I, O> withWorkerOptions(WorkerOptions workerOptions) {
+    mustExist(workerOptions, "Worker options cannot be null");
+    this.workerOptions = workerOptions;
+    return this;
+  }
+
+  public PartitionedChannel<I, O> withQueuePollInterval(int queuePollIntervalMillis) {
+    mustBeGreaterOrEqual(queuePollIntervalMillis, 0, illegalArgument("Poll interval must be non-negative"));
+    this.queuePollInterval = queuePollIntervalMillis;
+    return this;
+  }
+
+  public int getLanes() {
+    return lanes.size();
+  }
+
+  @Override
+  public void assignDownstream(Sink<O> downstream) {
+    mustBeNull(this.downstream, illegalState("Downstream stage already assigned"));
+    this.downstream = downstream;
+  }
+
+  @Override
+  public void start(StageController controller) {
+    mustExist(controller);
+    mustBeNull(this.controller, illegalArgument("Already started"));
+    mustExist(downstream, illegalState("No downstream stage assigned"));
+
+    this.controller = controller;
+    activeLanes.set(lanes.size());
+    lanes.forEach(Lane::start);
+  }
+
+  private void onLaneShutdown(Throwable laneError) {
+    if (laneError != null) {
+      error.compareAndSet(null, laneError);
+      terminate();
+    }
+
+    if (activeLanes.decrementAndGet() == 0) {
+      controller.complete(error.get());
+    }
+  }
+
+  @Override
+  public void onNext(I event) throws InterruptedException {
+    mustBeStarted();
+    final int keyHash = Objects.hashCode(keyExtractor.apply(event));
+    lanes.get(Striped.resolveStripe(keyHash, lanes.size())).queue.put(event);
+  }
+
+  /**
+   *  Reports the smallest remaining capacity of any lane, as the lane that the next event will 
+   *  be routed to cannot be known in advance.
+   */
+  @Override
+  public long getDemand() {
+    long demand = Long.MAX_VALUE;
+    for (Lane lane : lanes) {
+      demand = Math.min(demand, lane.queue.remainingCapacity());
+    }
+    return demand;
+  }
+
+  @Override
+  public boolean awaitDemand(long timeoutMillis) throws InterruptedException {
+    return demandSignal.await(this::getDemand, timeoutMillis);
+  }
+
+  @Override
+  public Joinable terminate() {
+    terminating = true;
+    for (Lane lane : lanes) {
+      ifPresentVoid(lane.thread, WorkerThread::terminate);
+    }
+    return this;
+  }
+
+  @Override
+  public boolean join(long timeoutMillis) throws InterruptedException {
+    final Joiner joiner = Joiner.blank();
+    for (Lane lane : lanes) {
+      joiner.add(Optional.ofNullable(lane.thread));
+    }
+    return joiner.join(timeoutMillis);
+  }
+
+  @Override
+  public void onUpstreamComplete() {
+    mustBeStarted();
+    draining = true;
+  }
+
+  @Override
+  public void onDownstreamComplete() {
+    mustBeStarted();
+    terminate();
+  }
+
+  private void mustBeStarted() {
+    mustExist(controller, illegalState("Channel not started"));
+  }
+}
@@ -107,7 +107,9 @@ public final class PeriodicEmitter<E> implements Emitter<E> {
       final long totalEventsRequired = Math.min(rate.computeVolume(elapsedSeconds), expectedEvents);
       final int eventBacklog = capIntRange(totalEventsRequired - emittedEvents);
       
-      context.setLimit(eventBacklog);
+      // emit no more than the downstream can absorb; the shortfall is carried over to the next cycle
+      final int eventsToEmit = capIntRange(Math.min(eventBacklog, downstream.getDemand()));
+      context.setLimit(eventsToEmit);
       while (context.remainingCapacity() > 0 && ! context.isTerminated()) {
         eventSupplier.get(context);
         while (context.hasNext()) {
@@ -115,7 +117,7 @@ public final class PeriodicEmitter<E> implements Emitter<E> {
           context.decrementLimit();
         }
       }
-      emittedEvents += eventBacklog;
+      emittedEvents += eventsToEmit - context.remainingCapacity();
       
       final double updatedElapsedSeconds = getElapsedSeconds(System.nanoTime() - startTime);
       final double currentRate = rate.computeRate(updatedElapsedSeconds);
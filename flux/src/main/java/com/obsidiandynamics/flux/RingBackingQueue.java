@@ -0,0 +1,287 @@
+package com.obsidiandynamics.flux;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ *  Pads the head of the object, keeping the producer fields off the cache line(s) occupied
+ *  by the object header and any neighbouring objects.
+ */
+abstract class RingHeadPad {
+  long p00, p01, p02, p03, p04, p05, p06, p07;
+  long p08, p09, p10, p11, p12, p13, p14, p15;
+}
+
+/**
+ *  Fields written to by the producer(s).
+ */
+abstract class RingProducerFields extends RingHeadPad {
+  private static final AtomicLongFieldUpdater<RingProducerFields> PRODUCER_INDEX =
+      AtomicLongFieldUpdater.newUpdater(RingProducerFields.class, "producerIndex");
+
+  /** The index of the next slot to be claimed by a producer. */
+  private volatile long producerIndex;
+
+  /**
+   *  A cached upper bound on the producer index, sparing producers from reading the
+   *  consumer index (and contending for its cache line) on every put.
+   */
+  private volatile long producerLimit;
+
+  final long lvProducerIndex() {
+    return producerIndex;
+  }
+
+  final void soProducerIndex(long newValue) {
+    PRODUCER_INDEX.lazySet(this, newValue);
+  }
+
+  final boolean casProducerIndex(long expect, long newValue) {
+    return PRODUCER_INDEX.compareAndSet(this, expect, newValue);
+  }
+
+  final long lvProducerLimit() {
+    return producerLimit;
+  }
+
+  final void svProducerLimit(long newValue) {
+    producerLimit = newValue;
+  }
+}
+
+/**
+ *  Separates the producer and consumer fields.
+ */
+abstract class RingMidPad extends RingProducerFields {
+  long p00, p01, p02, p03, p04, p05, p06, p07;
+  long p08, p09, p10, p11, p12, p13, p14, p15;
+}
+
+/**
+ *  Fields written to by the consumer.
+ */
+abstract class RingConsumerFields extends RingMidPad {
+  private static final AtomicLongFieldUpdater<RingConsumerFields> CONSUMER_INDEX =
+      AtomicLongFieldUpdater.newUpdater(RingConsumerFields.class, "consumerIndex");
+
+  /** The index of the next slot to be consumed. */
+  private volatile long consumerIndex;
+
+  final long lvConsumerIndex() {
+    return consumerIndex;
+  }
+
+  final void soConsumerIndex(long newValue) {
+    CONSUMER_INDEX.lazySet(this, newValue);
+  }
+
+  final void svConsumerIndex(long newValue) {
+    consumerIndex = newValue;
+  }
+}
+
+/**
+ *  Pads the tail of the object, keeping the consumer fields off the cache line(s) occupied
+ *  by the fields below and any neighbouring objects.
+ */
+abstract class RingTailPad extends RingConsumerFields {
+  long p00, p01, p02, p03, p04, p05, p06, p07;
+  long p08, p09, p10, p11, p12, p13, p14, p15;
+}
+
+/**
+ *  A bounded, preallocated, array-backed {@link BackingQueue}, supporting a single
+ *  consumer and either one or many producers, depending on the subclass. <p>
+ *
+ *  The backing array is sized to the smallest power of two that will accommodate the
+ *  requested capacity, replacing the modulo operation with a bitwise mask. The capacity
+ *  bound is nonetheless enforced exactly. The producer and consumer indexes are padded
+ *  to occupy separate cache lines, avoiding false sharing between the two sides. <p>
+ *
+ *  A slot is cleared once its element has been consumed; a {@code null} slot at the
+ *  consumer index indicates that the queue is empty (or, in the multi-producer case, that
+ *  the element is still being published), allowing the consumer to poll without reading
+ *  the producer index.
+ *
+ *  @param <E> Element type.
+ */
+abstract class RingBackingQueue<E> extends RingTailPad implements BackingQueue<E> {
+  /** The largest supported capacity. */
+  static final int MAX_CAPACITY = 1 << 30;
+
+  final AtomicReferenceArray<E> buffer;
+
+  final int mask;
+
+  final int capacity;
+
+  /** Whether the counterparty must be signalled, requiring writes to be fenced. */
+  private final boolean signalling;
+
+  /** Waited on by the consumer. */
+  private final RingWaiter notEmpty;
+
+  /** Waited on by the producer(s). */
+  private final RingWaiter notFull;
+
+  private final BooleanSupplier hasElement = this::hasElement;
+
+  private final BooleanSupplier hasCapacity = this::hasCapacity;
+
+  private volatile boolean disposed;
+
+  RingBackingQueue(int capacity, RingWaitStrategy waitStrategy) {
+    mustBeGreater(capacity, 0, illegalArgument("Capacity must be greater than 0"));
+    mustBeLessOrEqual(capacity, MAX_CAPACITY, illegalArgument("Capacity cannot exceed " + MAX_CAPACITY));
+    mustExist(waitStrategy, "Wait strategy cannot be null");
+    this.capacity = capacity;
+    final int length = roundToPowerOfTwo(capacity);
+    buffer = new AtomicReferenceArray<>(length);
+    mask = length - 1;
+    notEmpty = waitStrategy.newWaiter();
+    notFull = waitStrategy.newWaiter();
+    signalling = notEmpty.isSignalling();
+  }
+
+  static int roundToPowerOfTwo(int value) {
+    return 1 << (32 - Integer.numberOfLeadingZeros(value - 1));
+  }
+
+  final int index(long sequence) {
+    return (int) sequence & mask;
+  }
+
+  /**
+   *  Publishes an element into the given slot, making it visible to the consumer.
+   *
+   *  @param index The slot index.
+   *  @param element The element.
+   */
+  final void publishElement(int index, E element) {
+    if (signalling) {
+      buffer.set(index, element);
+    } else {
+      buffer.lazySet(index, element);
+    }
+  }
+
+  /**
+   *  Attempts to enqueue an element without waiting.
+   *
+   *  @param element The element.
+   *  @return True if the element was enqueued, or false if the queue is at capacity.
+   */
+  abstract boolean offer(E element);
+
+  /**
+   *  Attempts to dequeue an element without waiting. Must only be called from the consumer thread.
+   *
+   *  @return The dequeued element, or {@code null} if the queue is empty.
+   */
+  final E tryPoll() {
+    final long consumerIndex = lvConsumerIndex();
+    final int index = index(consumerIndex);
+    E element = buffer.get(index);
+    if (element == null) {
+      if (consumerIndex == lvProducerIndex()) {
+        return null;
+      }
+
+      // the slot has been claimed but the element is yet to be published; the wait is brief
+      do {
+        element = buffer.get(index);
+      } while (element == null);
+    }
+
+    buffer.lazySet(index, null);
+    if (signalling) {
+      svConsumerIndex(consumerIndex + 1);
+    } else {
+      soConsumerIndex(consumerIndex + 1);
+    }
+    return element;
+  }
+
+  private boolean hasElement() {
+    return disposed || buffer.get(index(lvConsumerIndex())) != null;
+  }
+
+  private boolean hasCapacity() {
+    return disposed || lvProducerIndex() - lvConsumerIndex() < capacity;
+  }
+
+  /**
+   *  Obtains the number of queued elements. The result is only an estimate if the queue is
+   *  being concurrently modified.
+   *
+   *  @return The approximate number of queued elements.
+   */
+  final int size() {
+    for (;;) {
+      final long consumerIndexBefore = lvConsumerIndex();
+      final long producerIndex = lvProducerIndex();
+      final long consumerIndexAfter = lvConsumerIndex();
+      if (consumerIndexBefore == consumerIndexAfter) {
+        return (int) Math.min(producerIndex - consumerIndexAfter, capacity);
+      }
+    }
+  }
+
+  @Override
+  public final E poll(int timeoutMillis) throws InterruptedException {
+    final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    for (;;) {
+      final E element = tryPoll();
+      if (element != null) {
+        notFull.signal();
+        return element;
+      } else if (disposed || ! notEmpty.await(hasElement, deadlineNanos)) {
+        return null;
+      }
+    }
+  }
+
+  @Override
+  public final int drainTo(Collection<? super E> sink, int maxElements, int timeoutMillis) throws InterruptedException {
+    if (maxElements <= 0) return 0;
+    final E first = poll(timeoutMillis);
+    if (first == null) return 0;
+    sink.add(first);
+    
+    int drained = 1;
+    for (E element; drained < maxElements && (element = tryPoll()) != null; drained++) {
+      sink.add(element);
+    }
+    if (drained > 1) {
+      notFull.signal();
+    }
+    return drained;
+  }
+
+  @Override
+  public final void put(E element) throws InterruptedException {
+    mustExist(element, "Element cannot be null");
+    final long deadlineNanos = System.nanoTime() + Long.MAX_VALUE;
+    while (! offer(element)) {
+      if (disposed) return;
+      notFull.await(hasCapacity, deadlineNanos);
+    }
+    notEmpty.signal();
+  }
+
+  @Override
+  public final int remainingCapacity() {
+    return Math.max(0, capacity - size());
+  }
+
+  @Override
+  public final void dispose() {
+    disposed = true;
+    notEmpty.signal();
+    notFull.signal();
+  }
+}
@@ -0,0 +1,83 @@
+package com.obsidiandynamics.flux;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+/**
+ *  Creates bounded, preallocated ring buffer queues, avoiding the per-element allocation and
+ *  the locking inherent in {@link HeapBackingQueueFactory}. <p>
+ *
+ *  By default, the queue admits multiple producers; calling {@link #singleProducer()} 
+ *  switches to a cheaper single-producer variant, which is safe for a {@link BufferedChannel}
+ *  that is fed from a single upstream stage — as is the case for a linear {@link Flux} pipeline. 
+ *  The consumer side is always single-threaded. <p>
+ *
+ *  Because the buffer is preallocated, it cannot be unbounded; a requested capacity 
+ *  exceeding {@link #getMaxCapacity()} is capped at that value. This applies notably 
+ *  to {@link Channels#buffered(BackingQueueFactory)}, which requests an unbounded buffer.
+ */
+public final class RingBackingQueueFactory implements BackingQueueFactory {
+  /** The default upper bound on the capacity of the queues created by this factory. */
+  private static final int DEF_MAX_CAPACITY = 65_536;
+  
+  private boolean singleProducer;
+  
+  private int maxCapacity = DEF_MAX_CAPACITY;
+  
+  private RingWaitStrategy waitStrategy = RingWaitStrategy.PARK;
+  
+  public boolean isSingleProducer() {
+    return singleProducer;
+  }
+  
+  /**
+   *  A shortcut way of calling {@code withSingleProducer(true)}.
+   *  
+   *  @return This {@link RingBackingQueueFactory} instance for fluent chaining.
+   */
+  public RingBackingQueueFactory singleProducer() {
+    return withSingleProducer(true);
+  }
+
+  public RingBackingQueueFactory withSingleProducer(boolean singleProducer) {
+    this.singleProducer = singleProducer;
+    return this;
+  }
+  
+  public RingWaitStrategy getWaitStrategy() {
+    return waitStrategy;
+  }
+
+  public RingBackingQueueFactory withWaitStrategy(RingWaitStrategy waitStrategy) {
+    mustExist(waitStrategy, "Wait strategy cannot be null");
+    this.waitStrategy = waitStrategy;
+    return this;
+  }
+
+  public int getMaxCapacity() {
+    return maxCapacity;
+  }
+
+  public RingBackingQueueFactory withMaxCapacity(int maxCapacity) {
+    mustBeGreater(maxCapacity, 0, illegalArgument("Max capacity must be greater than 0"));
+    mustBeLessOrEqual(maxCapacity, RingBackingQueue.MAX_CAPACITY, 
+                      illegalArgument("Max capacity cannot exceed " + RingBackingQueue.MAX_CAPACITY));
+    this.maxCapacity = maxCapacity;
+    return this;
+  }
+
+  @Override
+  public <E> BackingQueue<E> create(int capacity) {
+    capacity = Math.min(capacity, maxCapacity);
+    if (singleProducer) {
+      return new SpscRingBackingQueue<>(capacity, waitStrategy);
+    } else {
+      return new MpscRingBackingQueue<>(capacity, waitStrategy);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return RingBackingQueueFactory.class.getSimpleName() + " [singleProducer=" + singleProducer + 
+        ", maxCapacity=" + maxCapacity + ", waitStrategy=" + waitStrategy + "]";
+  }
+}
@@ -0,0 +1,57 @@
+package com.obsidiandynamics.flux;
+
+/**
+ *  Determines how a thread waits on a {@link RingBackingQueueFactory}-produced queue
+ *  when the queue is empty (on the consumer side) or at capacity (on the producer side). <p>
+ *
+ *  The strategies trade CPU utilisation for hand-over latency, in the order they are listed
+ *  below: {@link #BLOCK} is the most frugal and the slowest to react, while {@link #BUSY_SPIN}
+ *  reacts the fastest, at the cost of permanently occupying a core.
+ */
+public enum RingWaitStrategy {
+  /**
+   *  Waits on a monitor, relying on the counterparty to notify the waiting thread.
+   *  Notification is only issued when a thread is known to be waiting.
+   */
+  BLOCK {
+    @Override
+    RingWaiter newWaiter() {
+      return new RingWaiter.Blocking();
+    }
+  },
+
+  /**
+   *  Parks the waiting thread using {@link java.util.concurrent.locks.LockSupport}, relying
+   *  on the counterparty to unpark it. Cheaper than {@link #BLOCK}, as no monitor is acquired
+   *  on either side.
+   */
+  PARK {
+    @Override
+    RingWaiter newWaiter() {
+      return new RingWaiter.Parking();
+    }
+  },
+
+  /**
+   *  Spins on the queue, yielding the CPU between successive checks.
+   */
+  YIELD {
+    @Override
+    RingWaiter newWaiter() {
+      return new RingWaiter.Yielding();
+    }
+  },
+
+  /**
+   *  Spins on the queue without ever releasing the CPU. Only appropriate where the number of
+   *  waiting threads is strictly less than the number of available cores.
+   */
+  BUSY_SPIN {
+    @Override
+    RingWaiter newWaiter() {
+      return new RingWaiter.Spinning();
+    }
+  };
+
+  abstract RingWaiter newWaiter();
+}
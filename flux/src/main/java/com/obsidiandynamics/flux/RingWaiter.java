@@ -0,0 +1,168 @@
+package com.obsidiandynamics.flux;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+import java.util.function.*;
+
+/**
+ *  Waits for a condition on a {@link RingBackingQueue}, according to the chosen
+ *  {@link RingWaitStrategy}. Each queue uses two independent waiters — one for its consumer and
+ *  one for its producers.
+ */
+abstract class RingWaiter {
+  /**
+   *  Waits until the given condition is met or the deadline elapses, whichever occurs first.
+   *
+   *  @param condition The condition to wait for.
+   *  @param deadlineNanos The deadline, in terms of {@link System#nanoTime()}.
+   *  @return The state of the condition upon return.
+   *  @throws InterruptedException If the thread was interrupted.
+   */
+  abstract boolean await(BooleanSupplier condition, long deadlineNanos) throws InterruptedException;
+
+  /**
+   *  Wakes any threads that might be waiting on this instance. Must be called by the counterparty
+   *  after altering the state that the waiting thread's condition depends on.
+   */
+  abstract void signal();
+
+  /**
+   *  Determines whether this waiter relies on {@link #signal()} to wake waiting threads, in
+   *  which case the counterparty must publish its state changes with a full fence (a volatile
+   *  write) prior to signalling, rather than a lazy (ordered) write.
+   *
+   *  @return True if this waiter must be signalled.
+   */
+  abstract boolean isSignalling();
+
+  static boolean isDeadlineElapsed(long deadlineNanos) {
+    return System.nanoTime() - deadlineNanos >= 0;
+  }
+
+  static void checkInterrupted() throws InterruptedException {
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+  }
+
+  static final class Blocking extends RingWaiter {
+    private final Object monitor = new Object();
+
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    @Override
+    boolean await(BooleanSupplier condition, long deadlineNanos) throws InterruptedException {
+      if (condition.getAsBoolean()) return true;
+
+      synchronized (monitor) {
+        waiters.incrementAndGet();
+        try {
+          while (! condition.getAsBoolean()) {
+            final long remainingNanos = deadlineNanos - System.nanoTime();
+            if (remainingNanos <= 0) return false;
+            TimeUnit.NANOSECONDS.timedWait(monitor, remainingNanos);
+          }
+          return true;
+        } finally {
+          waiters.decrementAndGet();
+        }
+      }
+    }
+
+    @Override
+    void signal() {
+      if (waiters.get() != 0) {
+        synchronized (monitor) {
+          monitor.notifyAll();
+        }
+      }
+    }
+
+    @Override
+    boolean isSignalling() {
+      return true;
+    }
+  }
+
+  static final class Parking extends RingWaiter {
+    /** Upper bound on a single park when the waiter could not register itself for an unpark. */
+    private static final long MAX_UNREGISTERED_PARK_NANOS = 100_000;
+
+    /** The thread registered to be unparked; only one waiter may be registered at any given time. */
+    private final AtomicReference<Thread> parked = new AtomicReference<>();
+
+    @Override
+    boolean await(BooleanSupplier condition, long deadlineNanos) throws InterruptedException {
+      if (condition.getAsBoolean()) return true;
+
+      final Thread current = Thread.currentThread();
+      final boolean registered = parked.compareAndSet(null, current);
+      try {
+        while (! condition.getAsBoolean()) {
+          checkInterrupted();
+          final long remainingNanos = deadlineNanos - System.nanoTime();
+          if (remainingNanos <= 0) return false;
+          LockSupport.parkNanos(this, registered ? remainingNanos : Math.min(remainingNanos, MAX_UNREGISTERED_PARK_NANOS));
+        }
+        return true;
+      } finally {
+        if (registered) {
+          parked.lazySet(null);
+        }
+      }
+    }
+
+    @Override
+    void signal() {
+      final Thread waiter = parked.get();
+      if (waiter != null) {
+        LockSupport.unpark(waiter);
+      }
+    }
+
+    @Override
+    boolean isSignalling() {
+      return true;
+    }
+  }
+
+  static final class Yielding extends RingWaiter {
+    @Override
+    boolean await(BooleanSupplier condition, long deadlineNanos) throws InterruptedException {
+      while (! condition.getAsBoolean()) {
+        checkInterrupted();
+        if (isDeadlineElapsed(deadlineNanos)) return false;
+        Thread.yield();
+      }
+      return true;
+    }
+
+    @Override
+    void signal() {}
+
+    @Override
+    boolean isSignalling() {
+      return false;
+    }
+  }
+
+  static final class Spinning extends RingWaiter {
+    @Override
+    boolean await(BooleanSupplier condition, long deadlineNanos) throws InterruptedException {
+      while (! condition.getAsBoolean()) {
+        checkInterrupted();
+        if (isDeadlineElapsed(deadlineNanos)) return false;
+      }
+      return true;
+    }
+
+    @Override
+    void signal() {}
+
+    @Override
+    boolean isSignalling() {
+      return false;
+    }
+  }
+}
@@ -1,7 +1,70 @@
 package com.obsidiandynamics.flux;
 
+import java.util.*;
+
 public interface Sink<I> extends DiscreteStage {
   void onNext(I next) throws InterruptedException, FluxException;
   
+  /**
+   *  Processes a batch of events, in list order. The default implementation feeds each event 
+   *  to {@link #onNext(Object)} in turn; batch-aware sinks may override it to process the
+   *  entire batch in one pass. <p>
+   *  
+   *  The batch list is owned by the caller, and may be reused once this method returns; 
+   *  the sink must not modify or retain it.
+   *  
+   *  @param batch The events.
+   *  @throws InterruptedException If the thread was interrupted.
+   *  @throws FluxException If an error occurred while processing an event.
+   */
+  default void onNextBatch(List<I> batch) throws InterruptedException, FluxException {
+    for (I next : batch) {
+      onNext(next);
+    }
+  }
+  
+  /**
+   *  Obtains the number of events that this sink can currently absorb without blocking the 
+   *  calling thread — the <em>demand</em> (or credit) extended to the upstream stage. An 
+   *  emitter may consult the demand to avoid pulling more events from its source than the 
+   *  downstream is able to take, as opposed to blocking in {@link #onNext(Object)}. <p>
+   *  
+   *  The demand is a hint rather than a binding limit; an upstream stage may still submit
+   *  events in excess of the demand, in which case the sink will block until the events can be
+   *  absorbed. The default implementation reports an unlimited demand, which is appropriate 
+   *  for sinks that never block.
+   *  
+   *  @return The current demand, between {@code 0} and {@link Long#MAX_VALUE} (inclusive).
+   */
+  default long getDemand() {
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   *  Waits until this sink extends a non-zero demand (see {@link #getDemand()}), or the timeout
+   *  elapses — allowing a demand-aware emitter to idle without polling. Sinks that may report
+   *  a zero demand should signal waiting threads when their demand increases; the default
+   *  implementation does not wait, returning whether the demand is non-zero at the time of the
+   *  call.
+   *
+   *  @param timeoutMillis The maximum time to wait, in milliseconds.
+   *  @return True if there is demand, or false if the wait timed out.
+   *  @throws InterruptedException If the thread was interrupted.
+   */
+  default boolean awaitDemand(long timeoutMillis) throws InterruptedException {
+    return getDemand() != 0;
+  }
+
   void onUpstreamComplete();
+
+  /**
+   *  Invoked in lieu of {@link #onUpstreamComplete()} when the upstream stage completed with an
+   *  error. The default implementation treats the error as a normal completion, deferring to
+   *  {@link #onUpstreamComplete()}.
+   *
+   *  @param error The error that the upstream stage completed with.
+   */
+  default void onUpstreamError(Throwable error) {
+    onUpstreamComplete();
+  }
 }
@@ -0,0 +1,29 @@
+package com.obsidiandynamics.flux;
+
+/**
+ *  A {@link RingBackingQueue} for a single producer and a single consumer. Neither side
+ *  performs a CAS; the producer and consumer indexes are each written by one thread only.
+ *
+ *  @param <E> Element type.
+ */
+final class SpscRingBackingQueue<E> extends RingBackingQueue<E> {
+  SpscRingBackingQueue(int capacity, RingWaitStrategy waitStrategy) {
+    super(capacity, waitStrategy);
+  }
+
+  @Override
+  boolean offer(E element) {
+    final long producerIndex = lvProducerIndex();
+    if (producerIndex >= lvProducerLimit()) {
+      final long producerLimit = lvConsumerIndex() + capacity;
+      if (producerIndex >= producerLimit) {
+        return false;
+      }
+      svProducerLimit(producerLimit);
+    }
+
+    publishElement(index(producerIndex), element);
+    soProducerIndex(producerIndex + 1);
+    return true;
+  }
+}
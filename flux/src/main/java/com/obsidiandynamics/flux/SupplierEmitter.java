@@ -9,6 +9,9 @@ import com.obsidiandynamics.worker.*;
 public final class SupplierEmitter<E> implements Emitter<E> {
   private static final WorkerOptions DEF_WORKER_OPTIONS = new WorkerOptions().withName(SupplierEmitter.class, "driver").daemon();
   
+  /** The default maximum time to wait for downstream demand, in milliseconds. */
+  private static final int DEF_MAX_DEMAND_WAIT = 100;
+  
   private final EventSupplier<? extends E> eventSupplier;
   
   private final AbstractEmissionContext<E> context = new AbstractEmissionContext<E>() {
@@ -19,6 +22,8 @@ public final class SupplierEmitter<E> implements Emitter<E> {
   };
   
   private WorkerOptions workerOptions = DEF_WORKER_OPTIONS;
+  
+  private int maxDemandWait = DEF_MAX_DEMAND_WAIT;
 
   private final StageCompletionHandlerHolder completionHandlerHolder = new StageCompletionHandlerHolder();
   
@@ -38,6 +43,22 @@ public final class SupplierEmitter<E> implements Emitter<E> {
     return this;
   }
   
+  /**
+   *  Sets the maximum time that the emitter will wait for the downstream stage to extend demand 
+   *  (see {@link Sink#awaitDemand(long)}) before pulling from the supplier regardless, blocking in
+   *  {@link Sink#onNext(Object)} if an event is emitted. The bound ensures that a supplier is 
+   *  eventually consulted — and is thereby able to terminate the emitter — even when the 
+   *  downstream has stalled indefinitely.
+   *  
+   *  @param maxDemandWaitMillis The maximum demand wait time, in milliseconds.
+   *  @return This {@link SupplierEmitter} instance for fluent chaining.
+   */
+  public SupplierEmitter<E> withMaxDemandWait(int maxDemandWaitMillis) {
+    mustBeGreaterOrEqual(maxDemandWaitMillis, 0, illegalArgument("Max demand wait must be non-negative"));
+    this.maxDemandWait = maxDemandWaitMillis;
+    return this;
+  }
+  
   public SupplierEmitter<E> onComplete(StageCompletionHandler completionHandler) {
     completionHandlerHolder.setHandler(completionHandler);
     return this;
@@ -67,6 +88,9 @@ public final class SupplierEmitter<E> implements Emitter<E> {
   }
   
   private void onCycle(WorkerThread thread) throws InterruptedException {
+    // avoid pulling from the supplier until the downstream stage is able to absorb the event
+    downstream.awaitDemand(maxDemandWait);
+    
     try {
       eventSupplier.get(context);
       while (context.hasNext()) {
@@ -5,6 +5,7 @@ import static org.junit.Assert.*;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
+import java.util.stream.*;
 
 import org.assertj.core.api.*;
 import org.junit.*;
@@ -57,6 +58,92 @@ public abstract class AbstractBufferedChannelTest {
     assertEquals(1, sinkInvoked.get());
   }
 
+  /**
+   *  A decorator over a factory-supplied queue, counting acknowledgements.
+   */
+  private static final class AcknowledgementCountingQueue<E> implements BackingQueue<E> {
+    private final BackingQueue<E> delegate;
+    
+    private final AtomicInteger acknowledgements;
+    
+    AcknowledgementCountingQueue(BackingQueue<E> delegate, AtomicInteger acknowledgements) {
+      this.delegate = delegate;
+      this.acknowledgements = acknowledgements;
+    }
+
+    @Override
+    public E poll(int timeoutMillis) throws InterruptedException {
+      return delegate.poll(timeoutMillis);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> sink, int maxElements, int timeoutMillis) throws InterruptedException {
+      return delegate.drainTo(sink, maxElements, timeoutMillis);
+    }
+
+    @Override
+    public void acknowledge() {
+      acknowledgements.incrementAndGet();
+      delegate.acknowledge();
+    }
+
+    @Override
+    public void put(E element) throws InterruptedException {
+      delegate.put(element);
+    }
+
+    @Override
+    public int remainingCapacity() {
+      return delegate.remainingCapacity();
+    }
+
+    @Override
+    public void dispose() {
+      delegate.dispose();
+    }
+  }
+  
+  private BackingQueueFactory acknowledgementCountingFactory(AtomicInteger acknowledgements) {
+    return new BackingQueueFactory() {
+      @Override
+      public <E> BackingQueue<E> create(int capacity) {
+        return new AcknowledgementCountingQueue<>(getBackingQueueFactory().create(capacity), acknowledgements);
+      }
+    };
+  }
+  
+  @Test
+  public void testAcknowledge_onlyAfterSuccessfulDelivery() {
+    final AtomicInteger acknowledgements = new AtomicInteger();
+    final Flux flux = new Flux()
+        .onError(ExceptionHandler.nop())
+        .cascade(Emitters.array(0, 1, 2))
+        .cascade(Channels.buffered(10, acknowledgementCountingFactory(acknowledgements)))
+        .cascade(Sinks.consumer(event -> {
+          if (event == 1) throw new RuntimeException("Simulated");
+        }))
+        .start();
+    flux.joinSilently();
+    assertTrue(flux.isError());
+    assertEquals(1, acknowledgements.get());
+  }
+  
+  @Test
+  public void testAcknowledge_batchedFailure() {
+    final AtomicInteger acknowledgements = new AtomicInteger();
+    final Flux flux = new Flux()
+        .onError(ExceptionHandler.nop())
+        .cascade(Emitters.array(0, 1, 2))
+        .cascade(Channels.<Integer>buffered(10, acknowledgementCountingFactory(acknowledgements)).withBatchSize(4))
+        .cascade(Sinks.consumer(event -> {
+          if (event == 0) throw new RuntimeException("Simulated");
+        }))
+        .start();
+    flux.joinSilently();
+    assertTrue(flux.isError());
+    assertEquals(0, acknowledgements.get());
+  }
+  
   @Test
   public void testTerminate_starvedEmitter() {
     final AtomicInteger collected = new AtomicInteger();
@@ -169,6 +256,83 @@ public abstract class AbstractBufferedChannelTest {
     assertEquals(Arrays.asList(0, 1, 2), collected);
   }
   
+  @Test
+  public void testComplete_batched() {
+    final List<Integer> collected = new ArrayList<>();
+    final List<Integer> expected = IntStream.range(0, 1_000).boxed().collect(Collectors.toList());
+    
+    final Flux flux = new Flux()
+        .cascade(Emitters.stream(expected.stream()))
+        .cascade(Channels.<Integer>buffered(10, getBackingQueueFactory()).withBatchSize(4))
+        .cascade(Channels.map(event -> event))
+        .cascade(Sinks.collection(collected))
+        .start();
+    flux.joinSilently();
+    
+    assertTrue(flux.isComplete());
+    assertNull(flux.getError());
+    assertEquals(expected, collected);
+  }
+  
+  @Test
+  public void testWithBatchSize_invalid() {
+    Assertions.assertThatThrownBy(() -> Channels.buffered(1, getBackingQueueFactory()).withBatchSize(0))
+    .isInstanceOf(IllegalArgumentException.class).hasMessage("Batch size must be greater than 0");
+  }
+  
+  @Test
+  public void testGetDemand_backpressure() {
+    final int capacity = 4;
+    final CountDownLatch sinkRelease = new CountDownLatch(1);
+    final AtomicInteger supplied = new AtomicInteger();
+    final BufferedChannel<Integer> channel = Channels.buffered(capacity, getBackingQueueFactory());
+    assertEquals(capacity, channel.getDemand());
+    
+    final Flux flux = new Flux()
+        .onError(ExceptionHandler.forPrintStream(System.err))
+        .cascade(Emitters.supplier(supplied::getAndIncrement))
+        .cascade(channel)
+        .cascade(Sinks.consumer((__context, __event) -> sinkRelease.await()))
+        .start();
+    
+    // with the sink blocked, the emitter should stop pulling once the channel's queue is full
+    Timesert.wait(10_000).untilTrue(() -> channel.getDemand() == 0);
+    Threads.sleep(50);
+    Assertions.assertThat(supplied.get()).isBetween(capacity, capacity + 2);
+    
+    sinkRelease.countDown();
+    flux.terminate().joinSilently();
+    assertTrue(flux.isComplete());
+    assertNull(flux.getError());
+  }
+  
+  @Test
+  public void testAwaitDemand_signalledWhenDrained() throws InterruptedException {
+    final CountDownLatch sinkRelease = new CountDownLatch(1);
+    final AtomicInteger invocations = new AtomicInteger();
+    final BufferedChannel<Integer> channel = Channels.buffered(1, getBackingQueueFactory());
+    final Flux flux = new Flux()
+        .cascade(Emitters.<Integer>supplier(context -> {
+          final int next = invocations.getAndIncrement();
+          if (next < 2) {
+            context.emit(next);
+          } else {
+            Thread.sleep(1);
+          }
+        }))
+        .cascade(channel)
+        .cascade(Sinks.consumer((__context, __event) -> sinkRelease.await()))
+        .start();
+
+    // the first event is taken by the (blocked) sink, the second fills the queue
+    Timesert.wait(10_000).untilTrue(() -> channel.getDemand() == 0);
+    assertFalse(channel.awaitDemand(10));
+
+    sinkRelease.countDown();
+    assertTrue(channel.awaitDemand(10_000));
+    flux.terminate().joinSilently();
+  }
+
   @Test
   public void testTerminatePipeline() {
     final Flux flux = new Flux()
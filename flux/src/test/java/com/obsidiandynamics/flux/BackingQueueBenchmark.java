@@ -0,0 +1,125 @@
+package com.obsidiandynamics.flux;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.*;
+
+import com.obsidiandynamics.dyno.*;
+
+/**
+ *  Compares the throughput of {@link HeapBackingQueueFactory} with that of the
+ *  {@link RingBackingQueueFactory} variants, with a single producer feeding a bounded queue
+ *  that is drained by a dedicated consumer thread. The GC profiler is enabled, reporting the
+ *  allocation rate (normalised per operation) alongside the throughput. Run as a standalone 
+ *  application.
+ */
+public final class BackingQueueBenchmark {
+  private static final int CAPACITY = 1_024;
+
+  private static final int BENCHMARK_TIME_MILLIS = 10_000;
+
+  abstract static class QueueTarget implements BenchmarkTarget {
+    private final Integer element = 0;
+
+    private BackingQueue<Integer> queue;
+
+    private Thread consumer;
+
+    private volatile boolean running = true;
+
+    abstract BackingQueueFactory getFactory();
+
+    @Override
+    public final void setup() {
+      queue = getFactory().create(CAPACITY);
+      consumer = new Thread(() -> {
+        try {
+          while (running) {
+            queue.poll(10);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }, "consumer");
+      consumer.setDaemon(true);
+      consumer.start();
+    }
+
+    @Override
+    public final void cycle(Abyss abyss) throws InterruptedException {
+      queue.put(element);
+    }
+
+    @Override
+    public final void tearDown() throws InterruptedException {
+      running = false;
+      queue.dispose();
+      consumer.join();
+    }
+  }
+
+  public static final class Heap extends QueueTarget {
+    @Override
+    BackingQueueFactory getFactory() {
+      return HeapBackingQueueFactory.getInstance();
+    }
+  }
+
+  public static final class MpscRingPark extends QueueTarget {
+    @Override
+    BackingQueueFactory getFactory() {
+      return new RingBackingQueueFactory().withWaitStrategy(RingWaitStrategy.PARK);
+    }
+  }
+
+  public static final class SpscRingBlock extends QueueTarget {
+    @Override
+    BackingQueueFactory getFactory() {
+      return new RingBackingQueueFactory().singleProducer().withWaitStrategy(RingWaitStrategy.BLOCK);
+    }
+  }
+
+  public static final class SpscRingPark extends QueueTarget {
+    @Override
+    BackingQueueFactory getFactory() {
+      return new RingBackingQueueFactory().singleProducer().withWaitStrategy(RingWaitStrategy.PARK);
+    }
+  }
+
+  public static final class SpscRingYield extends QueueTarget {
+    @Override
+    BackingQueueFactory getFactory() {
+      return new RingBackingQueueFactory().singleProducer().withWaitStrategy(RingWaitStrategy.YIELD);
+    }
+  }
+
+  public static final class SpscRingBusySpin extends QueueTarget {
+    @Override
+    BackingQueueFactory getFactory() {
+      return new RingBackingQueueFactory().singleProducer().withWaitStrategy(RingWaitStrategy.BUSY_SPIN);
+    }
+  }
+
+  static void run(Class<? extends QueueTarget> targetClass) {
+    new Dyno()
+    .withBenchmarkTime(BENCHMARK_TIME_MILLIS)
+    .withTarget(targetClass)
+    .withDriver(new JmhDriver(opts -> opts
+                              .mode(Mode.Throughput)
+                              .forks(1)
+                              .addProfiler(GCProfiler.class)
+                              .shouldDoGC(true)
+                              .measurementIterations(1)))
+    .withWarmupFraction(0.2)
+    .withOutput(result -> System.out.format("%-16s %s\n", targetClass.getSimpleName(), result))
+    .run();
+  }
+
+  public static void main(String[] args) {
+    run(Heap.class);
+    run(MpscRingPark.class);
+    run(SpscRingBlock.class);
+    run(SpscRingPark.class);
+    run(SpscRingYield.class);
+    run(SpscRingBusySpin.class);
+  }
+}
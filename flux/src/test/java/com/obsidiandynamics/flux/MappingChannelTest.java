@@ -1,6 +1,7 @@
 package com.obsidiandynamics.flux;
 
 import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import java.util.*;
@@ -113,6 +114,74 @@ public final class MappingChannelTest {
     assertEquals(Arrays.asList(3, 4, 5, 6, 7), collected);
   }
 
+  @Test
+  public void testComplete_skipAndTake_batched() {
+    final List<Integer> collected = new ArrayList<>();
+
+    final Flux flux = new Flux()
+        .cascade(Emitters.stream(IntStream.range(0, 100).boxed()))
+        .cascade(Channels.<Integer>buffered(100).withBatchSize(8))
+        .cascade(Channels.skip(3))
+        .cascade(Channels.take(5))
+        .cascade(Sinks.collection(collected))
+        .start();
+    flux.joinSilently();
+
+    assertTrue(flux.isComplete());
+    assertFalse(flux.isError());
+    assertEquals(Arrays.asList(3, 4, 5, 6, 7), collected);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testOnNextBatch_deferredTermination() throws InterruptedException, FluxException {
+    final Sink<Integer> downstream = mock(Sink.class);
+    final StageController controller = mock(StageController.class);
+    final List<List<Integer>> batches = new ArrayList<>();
+    doAnswer(invocation -> {
+      batches.add(new ArrayList<>(invocation.<List<Integer>>getArgument(0)));
+      return null;
+    }).when(downstream).onNextBatch(any());
+    
+    final MappingChannel<Integer, Integer> channel = Channels.take(2);
+    channel.assignDownstream(downstream);
+    channel.start(controller);
+    channel.onNextBatch(Arrays.asList(0, 1, 2, 3));
+    
+    assertEquals(Collections.singletonList(Arrays.asList(0, 1)), batches);
+    verify(controller).complete(isNull());
+    
+    channel.onNextBatch(Arrays.asList(4, 5));
+    assertEquals(1, batches.size());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testOnNextBatch_mapperErrorDeliversMappedPrefix() throws InterruptedException, FluxException {
+    final Sink<Integer> downstream = mock(Sink.class);
+    final StageController controller = mock(StageController.class);
+    final List<List<Integer>> batches = new ArrayList<>();
+    doAnswer(invocation -> {
+      batches.add(new ArrayList<>(invocation.<List<Integer>>getArgument(0)));
+      return null;
+    }).when(downstream).onNextBatch(any());
+    
+    final MappingChannel<Integer, Integer> channel = Channels.map(i -> {
+      if (i == 2) throw new IllegalStateException("Simulated");
+      return i * 10;
+    });
+    channel.assignDownstream(downstream);
+    channel.start(controller);
+    
+    Assertions.assertThatThrownBy(() -> channel.onNextBatch(Arrays.asList(0, 1, 2, 3)))
+    .isExactlyInstanceOf(IllegalStateException.class).hasMessage("Simulated");
+    assertEquals(Collections.singletonList(Arrays.asList(0, 10)), batches);
+    
+    // the batch buffer is cleared, and subsequent batches are unaffected
+    channel.onNextBatch(Arrays.asList(3));
+    assertEquals(Arrays.asList(Arrays.asList(0, 10), Arrays.asList(30)), batches);
+  }
+
   @Test
   public void testComplete_reduction() {
     final List<Integer> collected = new ArrayList<>();
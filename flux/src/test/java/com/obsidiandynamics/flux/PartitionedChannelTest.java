@@ -0,0 +1,121 @@
+package com.obsidiandynamics.flux;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.stream.*;
+
+import org.assertj.core.api.*;
+import org.junit.*;
+
+import com.obsidiandynamics.func.*;
+import com.obsidiandynamics.worker.*;
+
+public final class PartitionedChannelTest {
+  @Test
+  public void testComplete_perKeyOrder() {
+    final int events = 1_000;
+    final int keys = 10;
+    final List<Integer> collected = new ArrayList<>();
+    final Set<String> laneThreads = new ConcurrentSkipListSet<>();
+
+    final Flux flux = new Flux()
+        .cascade(Emitters.stream(IntStream.range(0, events).boxed()))
+        .cascade(Channels.<Integer, Integer>partitioned(4, event -> event % keys, () -> EventMapper.map(event -> {
+          laneThreads.add(Thread.currentThread().getName());
+          return event;
+        })).withWorkerOptions(new WorkerOptions().withName("Lane")))
+        .cascade(Sinks.collection(collected))
+        .start();
+    flux.joinSilently();
+
+    assertTrue(flux.isComplete());
+    assertNull(flux.getError());
+    assertEquals(events, collected.size());
+    for (int key = 0; key < keys; key++) {
+      final int _key = key;
+      final List<Integer> forKey = collected.stream().filter(event -> event % keys == _key).collect(Collectors.toList());
+      Assertions.assertThat(forKey).isSorted().hasSize(events / keys);
+    }
+    Assertions.assertThat(laneThreads).isNotEmpty().allMatch(name -> name.startsWith("Lane-"));
+  }
+
+  @Test
+  public void testComplete_nullKey() {
+    final List<Integer> collected = new ArrayList<>();
+
+    final Flux flux = new Flux()
+        .cascade(Emitters.array(0, 1, 2))
+        .cascade(Channels.<Integer, Integer>partitioned(2, __event -> null, () -> EventMapper.map(event -> event)))
+        .cascade(Sinks.collection(collected))
+        .start();
+    flux.joinSilently();
+
+    assertTrue(flux.isComplete());
+    assertNull(flux.getError());
+    assertEquals(Arrays.asList(0, 1, 2), collected);
+  }
+
+  @Test
+  public void testUncheckedExceptionInMapper() {
+    final RuntimeException cause = new RuntimeException("Simulated");
+
+    final Flux flux = new Flux()
+        .onError(ExceptionHandler.nop())
+        .cascade(Emitters.stream(IntStream.range(0, 1_000).boxed()))
+        .cascade(Channels.<Integer, Integer>partitioned(4, event -> event, () -> EventMapper.map(event -> {
+          if (event == 500) throw cause;
+          return event;
+        })))
+        .cascade(Sinks.nop())
+        .start();
+    flux.joinSilently();
+
+    assertTrue(flux.isComplete());
+    assertTrue(flux.isError());
+    assertSame(cause, flux.getError());
+  }
+
+  @Test
+  public void testTerminateStage_fromMapper() {
+    final AtomicInteger collected = new AtomicInteger();
+
+    final Flux flux = new Flux()
+        .cascade(Emitters.stream(IntStream.range(0, 100_000).boxed()))
+        .cascade(Channels.<Integer, Integer>partitioned(4, event -> event, () -> EventMapper.take(5)))
+        .cascade(Sinks.consumer(__event -> collected.incrementAndGet()))
+        .start();
+    flux.joinSilently();
+
+    assertTrue(flux.isComplete());
+    assertNull(flux.getError());
+    Assertions.assertThat(collected.get()).isBetween(5, 20);
+  }
+
+  @Test
+  public void testTerminatePipeline() {
+    final Flux flux = new Flux()
+        .cascade(Emitters.supplier(() -> "foo"))
+        .cascade(Channels.<String, String>partitioned(2, 1, HeapBackingQueueFactory.getInstance(),
+                                                     event -> event, () -> EventMapper.map(event -> event)))
+        .cascade(Sinks.nop())
+        .start();
+    flux.terminate().joinSilently();
+
+    assertTrue(flux.isComplete());
+    assertNull(flux.getError());
+  }
+
+  @Test
+  public void testInvalidLanes() {
+    Assertions.assertThatThrownBy(() -> Channels.partitioned(0, event -> event, () -> EventMapper.map(event -> event)))
+    .isInstanceOf(IllegalArgumentException.class).hasMessage("Number of lanes must be greater than 0");
+  }
+
+  @Test
+  public void testGetLanes() {
+    assertEquals(3, Channels.partitioned(3, event -> event, () -> EventMapper.map(event -> event)).getLanes());
+  }
+}
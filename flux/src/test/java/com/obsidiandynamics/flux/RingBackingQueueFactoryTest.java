@@ -0,0 +1,53 @@
+package com.obsidiandynamics.flux;
+
+import static org.junit.Assert.*;
+
+import org.assertj.core.api.*;
+import org.junit.*;
+
+public final class RingBackingQueueFactoryTest {
+  @Test
+  public void testToString() {
+    Assertions.assertThat(new RingBackingQueueFactory().toString())
+    .contains("singleProducer=false").contains("maxCapacity=65536").contains("waitStrategy=PARK");
+  }
+  
+  @Test
+  public void testDefaults() {
+    final RingBackingQueueFactory factory = new RingBackingQueueFactory();
+    assertFalse(factory.isSingleProducer());
+    assertEquals(RingWaitStrategy.PARK, factory.getWaitStrategy());
+    assertEquals(65_536, factory.getMaxCapacity());
+  }
+  
+  @Test
+  public void testCreate_multiProducer() {
+    final BackingQueue<String> queue = new RingBackingQueueFactory().withWaitStrategy(RingWaitStrategy.BLOCK).create(3);
+    Assertions.assertThat(queue).isInstanceOf(MpscRingBackingQueue.class);
+    assertEquals(3, ((RingBackingQueue<?>) queue).capacity);
+    assertEquals(3, ((RingBackingQueue<?>) queue).mask);
+  }
+  
+  @Test
+  public void testCreate_singleProducer() {
+    final BackingQueue<String> queue = new RingBackingQueueFactory().singleProducer().create(4);
+    Assertions.assertThat(queue).isInstanceOf(SpscRingBackingQueue.class);
+    assertEquals(4, ((RingBackingQueue<?>) queue).capacity);
+    assertEquals(3, ((RingBackingQueue<?>) queue).mask);
+  }
+  
+  @Test
+  public void testCreate_cappedAtMaxCapacity() {
+    final BackingQueue<String> queue = new RingBackingQueueFactory().withMaxCapacity(100).create(Integer.MAX_VALUE);
+    assertEquals(100, ((RingBackingQueue<?>) queue).capacity);
+    assertEquals(127, ((RingBackingQueue<?>) queue).mask);
+  }
+  
+  @Test
+  public void testWithMaxCapacity_invalid() {
+    Assertions.assertThatThrownBy(() -> new RingBackingQueueFactory().withMaxCapacity(0))
+    .isInstanceOf(IllegalArgumentException.class).hasMessage("Max capacity must be greater than 0");
+    Assertions.assertThatThrownBy(() -> new RingBackingQueueFactory().withMaxCapacity(RingBackingQueue.MAX_CAPACITY + 1))
+    .isInstanceOf(IllegalArgumentException.class).hasMessage("Max capacity cannot exceed " + RingBackingQueue.MAX_CAPACITY);
+  }
+}
@@ -0,0 +1,208 @@
+package com.obsidiandynamics.flux;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.assertj.core.api.*;
+import org.junit.*;
+import org.junit.runner.*;
+import org.junit.runners.*;
+
+import com.obsidiandynamics.func.*;
+import com.obsidiandynamics.threads.*;
+
+@RunWith(Parameterized.class)
+public final class RingBackingQueueTest {
+  @Parameterized.Parameters(name = "singleProducer={0}, waitStrategy={1}")
+  public static List<Object[]> data() {
+    final List<Object[]> data = new ArrayList<>();
+    for (boolean singleProducer : new boolean[] {false, true}) {
+      for (RingWaitStrategy waitStrategy : RingWaitStrategy.values()) {
+        data.add(new Object[] {singleProducer, waitStrategy});
+      }
+    }
+    return data;
+  }
+
+  @Parameterized.Parameter(0)
+  public boolean singleProducer;
+
+  @Parameterized.Parameter(1)
+  public RingWaitStrategy waitStrategy;
+
+  private final List<BackingQueue<?>> queues = new ArrayList<>();
+
+  @After
+  public void after() {
+    queues.forEach(BackingQueue::dispose);
+  }
+
+  private BackingQueue<String> newQueue(int capacity) {
+    final BackingQueue<String> queue = new RingBackingQueueFactory()
+        .withSingleProducer(singleProducer)
+        .withWaitStrategy(waitStrategy)
+        .create(capacity);
+    queues.add(queue);
+    return queue;
+  }
+
+  @Test
+  public void testCreate_invalidCapacity() {
+    Assertions.assertThatThrownBy(() -> newQueue(0))
+    .isInstanceOf(IllegalArgumentException.class).hasMessage("Capacity must be greater than 0");
+  }
+
+  @Test
+  public void testRoundToPowerOfTwo() {
+    assertEquals(1, RingBackingQueue.roundToPowerOfTwo(1));
+    assertEquals(2, RingBackingQueue.roundToPowerOfTwo(2));
+    assertEquals(4, RingBackingQueue.roundToPowerOfTwo(3));
+    assertEquals(1024, RingBackingQueue.roundToPowerOfTwo(1000));
+    assertEquals(RingBackingQueue.MAX_CAPACITY, RingBackingQueue.roundToPowerOfTwo(RingBackingQueue.MAX_CAPACITY));
+  }
+
+  @Test
+  public void testPoll_empty() throws InterruptedException {
+    final BackingQueue<String> queue = newQueue(1);
+    assertNull(queue.poll(0));
+    assertNull(queue.poll(1));
+  }
+
+  @Test
+  public void testPoll_empty_interrupted() {
+    final BackingQueue<String> queue = newQueue(1);
+    Thread.currentThread().interrupt();
+    Assertions.assertThatThrownBy(() -> {
+      queue.poll(Integer.MAX_VALUE);
+    }).isInstanceOf(InterruptedException.class);
+    assertFalse(Thread.interrupted());
+  }
+
+  @Test
+  public void testPut_null() {
+    final BackingQueue<String> queue = newQueue(1);
+    Assertions.assertThatThrownBy(() -> {
+      queue.put(null);
+    }).isInstanceOf(NullArgumentException.class).hasMessage("Element cannot be null");
+  }
+
+  @Test
+  public void testPutPoll_withinCapacity() throws InterruptedException {
+    final List<String> elements = Arrays.asList("zero", "one", "two");
+    final RingBackingQueue<String> queue = (RingBackingQueue<String>) newQueue(elements.size());
+    for (String element : elements) {
+      queue.put(element);
+    }
+    assertEquals(elements.size(), queue.size());
+    assertFalse(queue.offer("three"));
+
+    final List<String> pulled = new ArrayList<>(elements.size());
+    for (;;) {
+      final String element = queue.poll(10);
+      if (element != null) {
+        pulled.add(element);
+      } else {
+        break;
+      }
+    }
+    assertEquals(elements, pulled);
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  public void testPut_full_interrupted() throws Throwable {
+    final BackingQueue<String> queue = newQueue(1);
+    queue.put("zero");
+
+    final AtomicReference<Throwable> errorRef = new AtomicReference<>();
+    final Thread t = new Thread(() -> {
+      try {
+        queue.put("one");
+        fail("Expected interrupt");
+      } catch (InterruptedException e) {
+        // expected
+      } catch (Throwable e) {
+        e.printStackTrace();
+        errorRef.set(e);
+      }
+    });
+    t.start();
+
+    Threads.sleep(10);
+    t.interrupt();
+    t.join();
+
+    if (errorRef.get() != null) throw errorRef.get();
+
+    assertEquals("zero", queue.poll(10));
+    queue.put("one");
+    assertEquals("one", queue.poll(10));
+  }
+
+  @Test
+  public void testPutPoll_disposed_overCapacity() throws InterruptedException {
+    final BackingQueue<String> queue = newQueue(1);
+    queue.put("zero");
+
+    queue.dispose();
+    queue.put("one");
+
+    assertEquals("zero", queue.poll(Integer.MAX_VALUE));
+    assertNull(queue.poll(Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testPutPoll_bounded_separateConsumerThread() throws Throwable {
+    final int producers = singleProducer ? 1 : 4;
+    // busy-spinning is only viable when every thread has a core to itself
+    Assume.assumeTrue(waitStrategy != RingWaitStrategy.BUSY_SPIN || Runtime.getRuntime().availableProcessors() > producers);
+    final int elementsPerProducer = 10_000;
+    final BackingQueue<String> queue = newQueue(10);
+
+    final AtomicReference<Throwable> errorRef = new AtomicReference<>();
+    final Thread consumer = new Thread(() -> {
+      try {
+        final int[] lastPolled = new int[producers];
+        Arrays.fill(lastPolled, -1);
+        for (int i = 0; i < producers * elementsPerProducer; i++) {
+          final String polled = queue.poll(Integer.MAX_VALUE);
+          assertNotNull(polled);
+          final String[] frags = polled.split(":");
+          final int producer = Integer.parseInt(frags[0]);
+          final int sequence = Integer.parseInt(frags[1]);
+          assertEquals(lastPolled[producer] + 1, sequence);
+          lastPolled[producer] = sequence;
+        }
+      } catch (Throwable e) {
+        e.printStackTrace();
+        errorRef.set(e);
+      }
+    }, "consumer");
+    consumer.start();
+
+    final List<Thread> producerThreads = new ArrayList<>(producers);
+    for (int p = 0; p < producers; p++) {
+      final int producer = p;
+      final Thread t = new Thread(() -> {
+        try {
+          for (int i = 0; i < elementsPerProducer; i++) {
+            queue.put(producer + ":" + i);
+          }
+        } catch (Throwable e) {
+          e.printStackTrace();
+          errorRef.set(e);
+        }
+      }, "producer-" + producer);
+      producerThreads.add(t);
+      t.start();
+    }
+
+    for (Thread t : producerThreads) {
+      t.join();
+    }
+    consumer.join();
+    if (errorRef.get() != null) throw errorRef.get();
+  }
+}
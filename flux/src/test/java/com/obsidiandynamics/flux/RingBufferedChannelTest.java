@@ -0,0 +1,8 @@
+package com.obsidiandynamics.flux;
+
+public final class RingBufferedChannelTest extends AbstractBufferedChannelTest {
+  @Override
+  protected BackingQueueFactory getBackingQueueFactory() {
+    return new RingBackingQueueFactory().withMaxCapacity(1_024);
+  }
+}
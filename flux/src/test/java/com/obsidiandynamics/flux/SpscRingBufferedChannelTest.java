@@ -0,0 +1,8 @@
+package com.obsidiandynamics.flux;
+
+public final class SpscRingBufferedChannelTest extends AbstractBufferedChannelTest {
+  @Override
+  protected BackingQueueFactory getBackingQueueFactory() {
+    return new RingBackingQueueFactory().singleProducer().withWaitStrategy(RingWaitStrategy.YIELD).withMaxCapacity(1_024);
+  }
+}
@@ -0,0 +1,86 @@
+package com.obsidiandynamics.nodequeue;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ *  A bounded variant of the {@link NodeQueue}, with a single consumer. Producers are admitted
+ *  using a striped counter, which avoids contending on a single memory location; the consumer
+ *  releases capacity as it consumes elements. <p>
+ *  
+ *  The bound is strict: the number of unconsumed elements never exceeds the capacity. However,
+ *  under heavy contention an {@link #offer(Object)} may be spuriously rejected while the queue is
+ *  marginally short of capacity, as concurrent producers may transiently observe each other's
+ *  admissions.
+ *  
+ *  @param <E> Element type.
+ */
+public final class BoundedNodeQueue<E> {
+  private final NodeQueue<E> queue;
+  
+  private final int capacity;
+  
+  /** The number of admitted elements, striped across producers. */
+  private final LongAdder admitted = new LongAdder();
+  
+  /** The number of elements consumed, published by the consumer. */
+  private final AtomicLong released = new AtomicLong();
+  
+  private final QueueConsumer<E> consumer;
+  
+  public BoundedNodeQueue(int capacity) {
+    this(capacity, false);
+  }
+  
+  /**
+   *  Creates a bounded queue, optionally recycling its nodes (see {@link NodeQueue#recycling()}).
+   *  With recycling, the number of nodes in circulation is limited by the capacity, allowing the
+   *  queue to operate without allocating once its node pool has warmed up.
+   *  
+   *  @param capacity The maximum number of unconsumed elements.
+   *  @param recycleNodes Whether nodes should be recycled.
+   */
+  public BoundedNodeQueue(int capacity, boolean recycleNodes) {
+    if (capacity <= 0) throw new IllegalArgumentException("Capacity must be greater than 0");
+    this.capacity = capacity;
+    queue = recycleNodes ? NodeQueue.recycling() : new NodeQueue<>();
+    consumer = new QueueConsumer<>(queue, queue.getTail(), released);
+  }
+  
+  /**
+   *  Adds an element to the queue if there is capacity for it.
+   *  
+   *  @param item The element to add.
+   *  @return Whether the element was added.
+   */
+  public boolean offer(E item) {
+    admitted.increment();
+    if (admitted.sum() - released.get() > capacity) {
+      admitted.decrement();
+      return false;
+    }
+    queue.add(item);
+    return true;
+  }
+  
+  public int getCapacity() {
+    return capacity;
+  }
+  
+  /**
+   *  Obtains the approximate number of elements that have been admitted but not yet consumed.
+   *  
+   *  @return The number of elements.
+   */
+  public long size() {
+    return Math.max(0, admitted.sum() - released.get());
+  }
+  
+  /**
+   *  Obtains the sole consumer of this queue. The consumer may only be used by one thread at a time.
+   *  
+   *  @return The {@link QueueConsumer}.
+   */
+  public QueueConsumer<E> consumer() {
+    return consumer;
+  }
+}
@@ -2,10 +2,15 @@ package com.obsidiandynamics.nodequeue;
 
 import java.util.concurrent.atomic.*;
 
-public final class LinkedNode<E> extends AtomicReference<LinkedNode<E>> {
-  private static final long serialVersionUID = 1L;
-
-  public final E element;
+public final class LinkedNode<E> {
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<LinkedNode, LinkedNode> nextUpdater = 
+      AtomicReferenceFieldUpdater.newUpdater(LinkedNode.class, LinkedNode.class, "next");
+  
+  /** The element; only ever reassigned by a {@link NodePool} when recycling the node. */
+  private E element;
+  
+  private volatile LinkedNode<E> next;
 
   public LinkedNode(E element) { this.element = element; }
   
@@ -13,8 +18,41 @@ public final class LinkedNode<E> extends AtomicReference<LinkedNode<E>> {
     return new LinkedNode<>(null);
   }
   
+  /**
+   *  Obtains the successor of this node.
+   *  
+   *  @return The next node, or {@code null} if no node has been linked yet.
+   */
+  public LinkedNode<E> next() {
+    return next;
+  }
+  
   public void appendTo(AtomicReference<LinkedNode<E>> tail) {
     final LinkedNode<E> t1 = tail.getAndSet(this);
-    t1.lazySet(this);
+    nextUpdater.lazySet(t1, this);
+  }
+  
+  public E getElement() {
+    return element;
+  }
+  
+  /**
+   *  Reassigns the element of a node that is being recycled or reused. Must only be called by 
+   *  {@link NodePool}, while the node is unreachable by the queue's consumer.
+   *  
+   *  @param element The new element, or {@code null} to release the current one.
+   */
+  void setElement(E element) {
+    this.element = element;
+  }
+  
+  /**
+   *  Relinks a node that is unreachable by the queue's consumer — either chaining it to a list of 
+   *  free nodes, or clearing its successor prior to it being appended.
+   *  
+   *  @param next The new successor, or {@code null}.
+   */
+  void relink(LinkedNode<E> next) {
+    nextUpdater.lazySet(this, next);
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+package com.obsidiandynamics.nodequeue;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ *  Recycles the nodes of a single-consumer {@link NodeQueue}. <p>
+ *  
+ *  The consumer returns nodes that it has moved past, accumulating them into batches which are 
+ *  published to a shared lock-free stack. Each producer thread keeps a cache of free nodes, 
+ *  replenishing it one batch at a time; only when no batch is available is a new node allocated. 
+ *  Thus, producers and the consumer only contend once per batch. As a published batch is never
+ *  re-pushed, the stack is immune to ABA.
+ *  
+ *  @param <E> Element type.
+ */
+final class NodePool<E> {
+  static final int BATCH_SIZE = 64;
+  
+  private static final class Batch<E> {
+    final LinkedNode<E> head;
+    
+    Batch<E> next;
+    
+    Batch(LinkedNode<E> head) {
+      this.head = head;
+    }
+  }
+  
+  private static final class Cache<E> {
+    LinkedNode<E> free;
+  }
+  
+  private final AtomicReference<Batch<E>> batches = new AtomicReference<>();
+  
+  private final ThreadLocal<Cache<E>> caches = ThreadLocal.withInitial(Cache::new);
+  
+  /** Nodes returned by the consumer that are yet to be published as a batch; confined to the consumer thread. */
+  private LinkedNode<E> recycled;
+  
+  private int recycledCount;
+  
+  /**
+   *  Obtains a node for the given element, reusing a free node if one is available.
+   *  
+   *  @param element The element.
+   *  @return The node.
+   */
+  LinkedNode<E> acquire(E element) {
+    final Cache<E> cache = caches.get();
+    LinkedNode<E> node = cache.free;
+    if (node == null) {
+      final Batch<E> batch = pop();
+      if (batch == null) {
+        return new LinkedNode<>(element);
+      }
+      node = batch.head;
+    }
+    cache.free = node.next();
+    node.setElement(element);
+    node.relink(null);
+    return node;
+  }
+  
+  /**
+   *  Returns a node that the consumer has moved past. Must only be called from the consumer thread.
+   *  
+   *  @param node The node to recycle.
+   */
+  void recycle(LinkedNode<E> node) {
+    node.setElement(null);
+    node.relink(recycled);
+    recycled = node;
+    if (++recycledCount == BATCH_SIZE) {
+      push(new Batch<>(recycled));
+      recycled = null;
+      recycledCount = 0;
+    }
+  }
+  
+  private void push(Batch<E> batch) {
+    for (;;) {
+      final Batch<E> top = batches.get();
+      batch.next = top;
+      if (batches.compareAndSet(top, batch)) return;
+    }
+  }
+  
+  private Batch<E> pop() {
+    for (;;) {
+      final Batch<E> top = batches.get();
+      if (top == null || batches.compareAndSet(top, top.next)) return top;
+    }
+  }
+}
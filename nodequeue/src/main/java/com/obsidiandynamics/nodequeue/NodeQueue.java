@@ -1,11 +1,21 @@
 package com.obsidiandynamics.nodequeue;
 
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
 
 /**
  *  A high-performance, wait-free, unbounded MPMC (multi-producer, multi-consumer) queue
  *  implementation, adapted from Indigo's actor scheduler.<p>
  *  
+ *  Consumers may either poll the queue, or block until an element is added (see 
+ *  {@link QueueConsumer#take()}). Producers only incur the cost of waking consumers if
+ *  at least one consumer is parked.<p>
+ *  
+ *  A queue created with {@link #recycling()} reuses the nodes that its consumer has moved past, 
+ *  rather than allocating a node for every element. Such a queue supports only a single consumer.
+ *  
  *  @see <a href="https://github.com/obsidiandynamics/indigo/blob/4b13815d1aefb0e5a5a45ad89444ced9f6584e20/src/main/java/com/obsidiandynamics/indigo/NodeQueueActivation.java">NodeQueueActivation</a>
  *  
  *  @param <E> Element type.
@@ -13,11 +23,85 @@ import java.util.concurrent.atomic.*;
 public final class NodeQueue<E> {
   private final AtomicReference<LinkedNode<E>> tail = new AtomicReference<>(LinkedNode.anchor());
   
+  /** Consumer threads that are parked, awaiting the addition of an element. */
+  private final Queue<Thread> parked = new ConcurrentLinkedQueue<>();
+  
+  /** Recycles consumed nodes; {@code null} if recycling is disabled. */
+  private final NodePool<E> pool;
+  
+  /** Whether the sole consumer of a recycling queue has been created. */
+  private final AtomicBoolean consumerCreated = new AtomicBoolean();
+  
+  public NodeQueue() {
+    this(null);
+  }
+  
+  private NodeQueue(NodePool<E> pool) {
+    this.pool = pool;
+  }
+  
+  /**
+   *  Creates a queue that recycles its nodes once they have been consumed, substantially
+   *  reducing the allocation rate. The queue supports a single consumer.
+   *  
+   *  @param <E> Element type.
+   *  @return A new recycling {@link NodeQueue}.
+   */
+  public static <E> NodeQueue<E> recycling() {
+    return new NodeQueue<>(new NodePool<>());
+  }
+  
   public void add(E item) {
-    new LinkedNode<>(item).appendTo(tail);
+    final LinkedNode<E> node = pool != null ? pool.acquire(item) : new LinkedNode<>(item);
+    node.appendTo(tail);
+    if (! parked.isEmpty()) {
+      for (Thread thread : parked) {
+        LockSupport.unpark(thread);
+      }
+    }
   }
   
   public QueueConsumer<E> consumer() {
-    return new QueueConsumer<>(tail.get());
+    if (pool != null && ! consumerCreated.compareAndSet(false, true)) {
+      throw new IllegalStateException("A recycling queue supports only a single consumer");
+    }
+    return new QueueConsumer<>(this, tail.get(), null);
+  }
+  
+  LinkedNode<E> getTail() {
+    return tail.get();
+  }
+  
+  NodePool<E> getPool() {
+    return pool;
+  }
+  
+  /**
+   *  Parks the calling consumer thread until an element is appended after the given node, the
+   *  timeout elapses, or the thread is interrupted. May return spuriously.
+   *  
+   *  @param last The last node seen by the consumer.
+   *  @param timeoutNanos The maximum time to wait for.
+   *  @throws InterruptedException If the thread was interrupted.
+   */
+  void await(LinkedNode<E> last, long timeoutNanos) throws InterruptedException {
+    final Thread thread = Thread.currentThread();
+    parked.add(thread);
+    try {
+      // the tail is advanced (with a full fence) before producers check for parked consumers, so
+      // either the producer will see this thread or this thread will see the advanced tail
+      if (tail.get() == last) {
+        LockSupport.parkNanos(this, timeoutNanos);
+      } else {
+        // an element has been appended, but the producer may not have linked it yet
+        Thread.yield();
+      }
+    } finally {
+      parked.remove(thread);
+    }
+    
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
   }
 }
@@ -1,40 +1,139 @@
 package com.obsidiandynamics.nodequeue;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
+import java.util.function.*;
 
 public final class QueueConsumer<E> implements Iterable<E> {
-  private AtomicReference<LinkedNode<E>> head;
+  private final NodeQueue<E> queue;
   
-  QueueConsumer(AtomicReference<LinkedNode<E>> head) {
+  /** Recycles the nodes that the consumer has moved past; {@code null} if recycling is disabled. */
+  private final NodePool<E> pool;
+  
+  /** The last consumed node; its successor (if linked) is the next element. */
+  private LinkedNode<E> head;
+  
+  /** Publishes the number of consumed elements, so that a bounded queue may admit further elements; 
+   *  {@code null} if the queue is unbounded. */
+  private final AtomicLong released;
+  
+  /** The number of consumed elements; only maintained if {@code released} is set. */
+  private long consumed;
+  
+  QueueConsumer(NodeQueue<E> queue, LinkedNode<E> head, AtomicLong released) {
+    this.queue = queue;
+    this.pool = queue.getPool();
     this.head = head;
+    this.released = released;
   }
   
   public E peek() {
-    final LinkedNode<E> n = head.get();
+    final LinkedNode<E> n = head.next();
     if (n != null) {
-      return n.element;
+      return n.getElement();
     } else {
       return null;
     } 
   }
   
   public E poll() {
-    final LinkedNode<E> n = head.get();
+    final LinkedNode<E> n = head.next();
     if (n != null) {
+      final LinkedNode<E> passed = head;
       head = n;
-      return n.element;
+      release(1);
+      if (pool != null) {
+        pool.recycle(passed);
+      }
+      return n.getElement();
     } else {
       return null;
     }
   }
   
+  /**
+   *  Retrieves the next element, waiting for up to the given timeout for one to be added.
+   *  
+   *  @param timeout The maximum time to wait for.
+   *  @param unit The unit of the timeout.
+   *  @return The next element, or {@code null} if the timeout elapsed.
+   *  @throws InterruptedException If the thread was interrupted while waiting.
+   */
+  public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (;;) {
+      final E item = poll();
+      if (item != null) return item;
+      
+      final long remainingNanos = deadline - System.nanoTime();
+      if (remainingNanos <= 0) return null;
+      queue.await(head, remainingNanos);
+    }
+  }
+  
+  /**
+   *  Retrieves the next element, parking the calling thread until one is added.
+   *  
+   *  @return The next element.
+   *  @throws InterruptedException If the thread was interrupted while waiting.
+   */
+  public E take() throws InterruptedException {
+    for (;;) {
+      final E item = poll();
+      if (item != null) return item;
+      queue.await(head, Long.MAX_VALUE);
+    }
+  }
+  
   public int drain(List<E> sink) {
     int drained = 0;
     for (E item; (item = poll()) != null; sink.add(item), drained++);
     return drained;
   }
   
+  /**
+   *  Detaches the segment of elements that have been added up to this point, by taking a single
+   *  snapshot of the queue's tail, and feeds the segment to the given sink. Unlike {@link #drain(List)},
+   *  the consumer's position (and, for a bounded queue, the released capacity) is updated once for 
+   *  the entire segment, rather than for each element. Elements added after the snapshot are left
+   *  for a subsequent drain.
+   *  
+   *  @param sink The sink to feed the elements to.
+   *  @return The number of drained elements.
+   */
+  public int drainSegment(Consumer<? super E> sink) {
+    final LinkedNode<E> last = queue.getTail();
+    LinkedNode<E> n = head;
+    int drained = 0;
+    try {
+      while (n != last) {
+        LinkedNode<E> next;
+        while ((next = n.next()) == null) {
+          // the node has been appended, but the producer may not have linked it yet
+          Thread.yield();
+        }
+        if (pool != null) {
+          pool.recycle(n);
+        }
+        n = next;
+        drained++;
+        sink.accept(n.getElement());
+      }
+    } finally {
+      head = n;
+      release(drained);
+    }
+    return drained;
+  }
+  
+  private void release(int elements) {
+    if (released != null) {
+      consumed += elements;
+      released.lazySet(consumed);
+    }
+  }
+  
   @Override
   public Iterator<E> iterator() {
     return new Iterator<E>() {
@@ -55,4 +154,4 @@ public final class QueueConsumer<E> implements Iterable<E> {
       }
     };
   }
-}
\ No newline at end of file
+}
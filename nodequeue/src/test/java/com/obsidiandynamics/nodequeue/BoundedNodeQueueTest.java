@@ -0,0 +1,89 @@
+package com.obsidiandynamics.nodequeue;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.junit.*;
+
+public final class BoundedNodeQueueTest {
+  @Test
+  public void testInvalidCapacity() {
+    try {
+      new BoundedNodeQueue<>(0);
+      fail("Expected exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Capacity must be greater than 0", e.getMessage());
+    }
+  }
+  
+  @Test
+  public void testOfferAndRelease() throws InterruptedException {
+    final BoundedNodeQueue<Integer> q = new BoundedNodeQueue<>(3);
+    assertEquals(3, q.getCapacity());
+    assertSame(q.consumer(), q.consumer());
+    assertTrue(q.offer(0));
+    assertTrue(q.offer(1));
+    assertTrue(q.offer(2));
+    assertEquals(3, q.size());
+    assertFalse(q.offer(3));
+    
+    assertEquals(Integer.valueOf(0), q.consumer().poll());
+    assertEquals(2, q.size());
+    assertTrue(q.offer(3));
+    assertFalse(q.offer(4));
+    
+    final List<Integer> items = new ArrayList<>();
+    assertEquals(3, q.consumer().drainSegment(items::add));
+    assertEquals(Arrays.asList(1, 2, 3), items);
+    assertEquals(0, q.size());
+    assertTrue(q.offer(4));
+    assertEquals(Integer.valueOf(4), q.consumer().take());
+  }
+  
+  @Test
+  public void testConcurrentBound() throws InterruptedException {
+    testConcurrentBound(false);
+  }
+  
+  @Test
+  public void testConcurrentBoundRecycling() throws InterruptedException {
+    testConcurrentBound(true);
+  }
+  
+  private static void testConcurrentBound(boolean recycleNodes) throws InterruptedException {
+    final int capacity = 16;
+    final int producers = 4;
+    final int offersPerProducer = 10_000;
+    final BoundedNodeQueue<Integer> q = new BoundedNodeQueue<>(capacity, recycleNodes);
+    final AtomicInteger admitted = new AtomicInteger();
+    final AtomicInteger maxOutstanding = new AtomicInteger();
+    final AtomicInteger consumed = new AtomicInteger();
+    final CountDownLatch producersDone = new CountDownLatch(producers);
+    
+    for (int p = 0; p < producers; p++) {
+      new Thread(() -> {
+        for (int i = 0; i < offersPerProducer; i++) {
+          if (q.offer(i)) {
+            final int outstanding = admitted.incrementAndGet() - consumed.get();
+            maxOutstanding.accumulateAndGet(outstanding, Math::max);
+          }
+        }
+        producersDone.countDown();
+      }).start();
+    }
+    
+    final QueueConsumer<Integer> consumer = q.consumer();
+    while (producersDone.getCount() != 0 || consumed.get() != admitted.get()) {
+      // count each element before it is released, so that the producers' view is conservative
+      consumed.incrementAndGet();
+      if (consumer.poll(1, TimeUnit.MILLISECONDS) == null) {
+        consumed.decrementAndGet();
+      }
+    }
+    assertTrue("maxOutstanding=" + maxOutstanding.get(), maxOutstanding.get() <= capacity);
+    assertEquals(0, q.size());
+  }
+}
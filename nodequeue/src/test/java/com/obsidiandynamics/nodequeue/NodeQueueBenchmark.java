@@ -0,0 +1,92 @@
+package com.obsidiandynamics.nodequeue;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.*;
+
+import com.obsidiandynamics.dyno.*;
+
+/**
+ *  Compares the throughput and allocation rate of a {@link BoundedNodeQueue} with and without
+ *  node recycling, with a single producer feeding a queue that is drained by a dedicated 
+ *  consumer thread. The GC profiler is enabled, reporting the allocation rate (normalised per
+ *  operation) alongside the throughput. Run as a standalone application.
+ */
+public final class NodeQueueBenchmark {
+  private static final int CAPACITY = 1_024;
+
+  private static final int BENCHMARK_TIME_MILLIS = 10_000;
+
+  abstract static class QueueTarget implements BenchmarkTarget {
+    private final Integer element = 0;
+
+    private BoundedNodeQueue<Integer> queue;
+
+    private Thread consumer;
+
+    private volatile boolean running = true;
+
+    abstract boolean isRecycling();
+
+    @Override
+    public final void setup() {
+      queue = new BoundedNodeQueue<>(CAPACITY, isRecycling());
+      final QueueConsumer<Integer> queueConsumer = queue.consumer();
+      consumer = new Thread(() -> {
+        while (running) {
+          if (queueConsumer.drainSegment(__ -> {}) == 0) {
+            Thread.yield();
+          }
+        }
+      }, "consumer");
+      consumer.setDaemon(true);
+      consumer.start();
+    }
+
+    @Override
+    public final void cycle(Abyss abyss) {
+      while (! queue.offer(element)) {
+        Thread.yield();
+      }
+    }
+
+    @Override
+    public final void tearDown() throws InterruptedException {
+      running = false;
+      consumer.join();
+    }
+  }
+
+  public static final class Allocating extends QueueTarget {
+    @Override
+    boolean isRecycling() {
+      return false;
+    }
+  }
+
+  public static final class Recycling extends QueueTarget {
+    @Override
+    boolean isRecycling() {
+      return true;
+    }
+  }
+
+  static void run(Class<? extends QueueTarget> targetClass) {
+    new Dyno()
+    .withBenchmarkTime(BENCHMARK_TIME_MILLIS)
+    .withTarget(targetClass)
+    .withDriver(new JmhDriver(opts -> opts
+                              .mode(Mode.Throughput)
+                              .forks(1)
+                              .addProfiler(GCProfiler.class)
+                              .shouldDoGC(true)
+                              .measurementIterations(1)))
+    .withWarmupFraction(0.2)
+    .withOutput(result -> System.out.format("%-16s %s\n", targetClass.getSimpleName(), result))
+    .run();
+  }
+
+  public static void main(String[] args) {
+    run(Allocating.class);
+    run(Recycling.class);
+  }
+}
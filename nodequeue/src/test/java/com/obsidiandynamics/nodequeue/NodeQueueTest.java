@@ -3,6 +3,8 @@ package com.obsidiandynamics.nodequeue;
 import static org.junit.Assert.*;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 import java.util.stream.*;
 
 import org.junit.*;
@@ -34,6 +36,168 @@ public final class NodeQueueTest {
     assertEquals(messages, consumed1.size());
   }
   
+  @Test
+  public void testDrainSegment() {
+    final NodeQueue<Long> q = new NodeQueue<>();
+    final QueueConsumer<Long> consumer = q.consumer();
+    assertEquals(0, consumer.drainSegment(item -> fail("Unexpected item " + item)));
+    
+    LongStream.range(0, 10).forEach(q::add);
+    final List<Long> items = new ArrayList<>();
+    assertEquals(10, consumer.drainSegment(items::add));
+    assertEquals(LongStream.range(0, 10).boxed().collect(Collectors.toList()), items);
+    assertNull(consumer.poll());
+    
+    q.add(10L);
+    assertEquals(1, consumer.drainSegment(items::add));
+    assertEquals(Long.valueOf(10), items.get(10));
+  }
+  
+  @Test
+  public void testDrainSegmentSinkException() {
+    final NodeQueue<Long> q = new NodeQueue<>();
+    final QueueConsumer<Long> consumer = q.consumer();
+    LongStream.range(0, 10).forEach(q::add);
+    final RuntimeException cause = new RuntimeException("Boom");
+    try {
+      consumer.drainSegment(item -> {
+        if (item == 4) throw cause;
+      });
+      fail("Expected exception");
+    } catch (RuntimeException e) {
+      assertSame(cause, e);
+    }
+    
+    // the element that caused the exception is considered consumed
+    assertEquals(Long.valueOf(5), consumer.poll());
+  }
+  
+  @Test
+  public void testPollTimeout() throws InterruptedException {
+    final NodeQueue<Long> q = new NodeQueue<>();
+    final QueueConsumer<Long> consumer = q.consumer();
+    assertNull(consumer.poll(1, TimeUnit.MILLISECONDS));
+    q.add(0L);
+    assertEquals(Long.valueOf(0), consumer.poll(1, TimeUnit.MILLISECONDS));
+  }
+  
+  @Test
+  public void testTake() throws InterruptedException {
+    final int messages = 1_000;
+    final NodeQueue<Long> q = new NodeQueue<>();
+    final QueueConsumer<Long> c0 = q.consumer();
+    final QueueConsumer<Long> c1 = q.consumer();
+    final List<Long> consumed0 = new CopyOnWriteArrayList<>();
+    final List<Long> consumed1 = new CopyOnWriteArrayList<>();
+    final Thread t0 = takeInBackground(c0, messages, consumed0);
+    final Thread t1 = takeInBackground(c1, messages, consumed1);
+    
+    for (long i = 0; i < messages; i++) {
+      q.add(i);
+      if (i % 100 == 0) {
+        Thread.sleep(1);
+      }
+    }
+    t0.join(10_000);
+    t1.join(10_000);
+    final List<Long> expected = LongStream.range(0, messages).boxed().collect(Collectors.toList());
+    assertEquals(expected, consumed0);
+    assertEquals(expected, consumed1);
+  }
+  
+  private static Thread takeInBackground(QueueConsumer<Long> consumer, int messages, List<Long> sink) {
+    final Thread thread = new Thread(() -> {
+      try {
+        for (int i = 0; i < messages; i++) {
+          sink.add(consumer.take());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    thread.start();
+    return thread;
+  }
+  
+  @Test
+  public void testTakeInterrupted() throws InterruptedException {
+    final NodeQueue<Long> q = new NodeQueue<>();
+    final QueueConsumer<Long> consumer = q.consumer();
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    final Thread thread = new Thread(() -> {
+      try {
+        consumer.take();
+      } catch (Throwable e) {
+        error.set(e);
+      }
+    });
+    thread.start();
+    thread.interrupt();
+    thread.join(10_000);
+    assertTrue(error.get() instanceof InterruptedException);
+  }
+  
+  @Test
+  public void testRecyclingSingleConsumer() {
+    final NodeQueue<Long> q = NodeQueue.recycling();
+    q.consumer();
+    try {
+      q.consumer();
+      fail("Expected exception");
+    } catch (IllegalStateException e) {
+      assertEquals("A recycling queue supports only a single consumer", e.getMessage());
+    }
+  }
+  
+  @Test
+  public void testRecyclingReusesNodes() {
+    final NodeQueue<Long> q = NodeQueue.recycling();
+    final QueueConsumer<Long> consumer = q.consumer();
+    final Set<LinkedNode<Long>> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+    final int messages = NodePool.BATCH_SIZE * 4;
+    for (long i = 0; i < messages; i++) {
+      q.add(i);
+      nodes.add(q.getTail());
+      assertEquals(Long.valueOf(i), consumer.poll());
+    }
+    
+    // once the consumer has moved past a full batch, that batch is handed back to the producer, 
+    // so that only one batch (plus the node still referenced by the consumer) is ever allocated
+    assertEquals(NodePool.BATCH_SIZE + 1, nodes.size());
+  }
+  
+  @Test
+  public void testRecyclingConcurrent() throws InterruptedException {
+    final int producers = 4;
+    final int messagesPerProducer = 100_000;
+    final NodeQueue<long[]> q = NodeQueue.recycling();
+    final QueueConsumer<long[]> consumer = q.consumer();
+    for (int p = 0; p < producers; p++) {
+      final int producer = p;
+      new Thread(() -> {
+        for (long i = 0; i < messagesPerProducer; i++) {
+          q.add(new long[] { producer, i });
+        }
+      }).start();
+    }
+    
+    // elements from each producer must arrive intact and in order
+    final long[] nextExpected = new long[producers];
+    for (int received = 0; received < producers * messagesPerProducer; ) {
+      if (received % 2 == 0) {
+        received += consumer.drainSegment(item -> assertEquals(nextExpected[(int) item[0]]++, item[1]));
+      } else {
+        final long[] item = consumer.poll(10, TimeUnit.SECONDS);
+        assertNotNull(item);
+        assertEquals(nextExpected[(int) item[0]]++, item[1]);
+        received++;
+      }
+    }
+    for (long expected : nextExpected) {
+      assertEquals(messagesPerProducer, expected);
+    }
+  }
+  
   private static List<Long> consumeByDrain(QueueConsumer<Long> consumer) {
     final List<Long> items = new ArrayList<>();
     final int drained = consumer.drain(items);
@@ -1,12 +1,21 @@
 package com.obsidiandynamics.scheduler;
 
+import java.util.concurrent.atomic.*;
+
 public abstract class AbstractTask<I extends Comparable<I>> implements Task {
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<AbstractTask, TimingWheelTaskQueue.Node> nodeUpdater =
+      AtomicReferenceFieldUpdater.newUpdater(AbstractTask.class, TimingWheelTaskQueue.Node.class, "node");
+  
   /** The scheduled execution time, in absolute nanoseconds. See {@link System#nanoTime()}. */
   private final long time;
   
   /** The task's unique identifier. */
   private final I id;
   
+  /** The most recent scheduling of this task on a timing wheel, allowing for its O(1) cancellation. */
+  volatile TimingWheelTaskQueue.Node node;
+  
   public AbstractTask(long time, I id) {
     this.time = time;
     this.id = id;
@@ -22,6 +31,10 @@ public abstract class AbstractTask<I extends Comparable<I>> implements Task {
     return id;
   }
   
+  final boolean casNode(TimingWheelTaskQueue.Node expect, TimingWheelTaskQueue.Node update) {
+    return nodeUpdater.compareAndSet(this, expect, update);
+  }
+  
   protected final String baseToString() {
     return "time=" + time + ", id=" + id;
   }
@@ -0,0 +1,54 @@
+package com.obsidiandynamics.scheduler;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ *  Accumulates the lateness of task executions (the actual execution time less the scheduled time),
+ *  in a power-of-two histogram. Recording is thread-safe and lock-free, as executions may be
+ *  recorded concurrently from the threads of an executor.
+ */
+final class LatenessRecorder {
+  /** Bucket {@code b} holds the lateness values {@code v} where {@code 2^(b-1) <= v < 2^b}; bucket 0 holds zero. */
+  static final int BUCKETS = 64;
+
+  private final LongAdder count = new LongAdder();
+
+  private final LongAdder total = new LongAdder();
+
+  private final AtomicLong max = new AtomicLong();
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+  /**
+   *  Records the lateness of an execution. A negative lateness (which may arise if the scheduler
+   *  wakes marginally early) is treated as zero.
+   *
+   *  @param latenessNanos The lateness, in nanoseconds.
+   */
+  void record(long latenessNanos) {
+    final long lateness = Math.max(0, latenessNanos);
+    count.increment();
+    total.add(lateness);
+    buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(lateness)));
+    for (long currentMax; lateness > (currentMax = max.get()); ) {
+      if (max.compareAndSet(currentMax, lateness)) break;
+    }
+  }
+
+  void reset() {
+    count.reset();
+    total.reset();
+    max.set(0);
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      buckets.set(bucket, 0);
+    }
+  }
+
+  LatenessStats snapshot() {
+    final long[] bucketCounts = new long[BUCKETS];
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      bucketCounts[bucket] = buckets.get(bucket);
+    }
+    return new LatenessStats(count.sum(), total.sum(), max.get(), bucketCounts);
+  }
+}
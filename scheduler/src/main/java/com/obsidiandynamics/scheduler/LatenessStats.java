@@ -0,0 +1,84 @@
+package com.obsidiandynamics.scheduler;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+/**
+ *  A point-in-time snapshot of the lateness of task executions on a {@link TaskScheduler}, where
+ *  the lateness of an execution is the time when the task actually began executing, less its
+ *  scheduled time. When the scheduler hands tasks to an executor, the lateness includes the
+ *  time that the task spent queued in the executor. <p>
+ *
+ *  Percentiles are approximated from a histogram with power-of-two bucket boundaries, and
+ *  are reported as the upper bound of the bucket in which the percentile falls (capped by
+ *  the observed maximum).
+ */
+public final class LatenessStats {
+  private final long count;
+
+  private final long totalNanos;
+
+  private final long maxNanos;
+
+  private final long[] buckets;
+
+  LatenessStats(long count, long totalNanos, long maxNanos, long[] buckets) {
+    this.count = count;
+    this.totalNanos = totalNanos;
+    this.maxNanos = maxNanos;
+    this.buckets = buckets;
+  }
+
+  /**
+   *  Obtains the number of task executions.
+   *
+   *  @return The number of executions.
+   */
+  public long getCount() {
+    return count;
+  }
+
+  public long getTotalNanos() {
+    return totalNanos;
+  }
+
+  public long getMaxNanos() {
+    return maxNanos;
+  }
+
+  public double getMeanNanos() {
+    return count != 0 ? (double) totalNanos / count : 0;
+  }
+
+  /**
+   *  Obtains the approximate lateness at the given percentile.
+   *
+   *  @param percentile The percentile, in the range {@code [0, 100]}.
+   *  @return The approximate lateness, in nanoseconds, or zero if no executions were recorded.
+   */
+  public long getPercentileNanos(double percentile) {
+    mustBeTrue(percentile >= 0 && percentile <= 100, illegalArgument("Percentile must be in the range [0, 100]"));
+    long bucketsTotal = 0;
+    for (long bucketCount : buckets) {
+      bucketsTotal += bucketCount;
+    }
+    if (bucketsTotal == 0) return 0;
+
+    final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * bucketsTotal));
+    long cumulative = 0;
+    for (int bucket = 0; bucket < buckets.length; bucket++) {
+      cumulative += buckets[bucket];
+      if (cumulative >= rank) {
+        final long upperBound = bucket == 0 ? 0 : bucket == buckets.length - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+        return Math.min(upperBound, maxNanos);
+      }
+    }
+    return maxNanos;
+  }
+
+  @Override
+  public String toString() {
+    return LatenessStats.class.getSimpleName() + " [count=" + count + ", meanNanos=" + (long) getMeanNanos() +
+        ", p50Nanos=" + getPercentileNanos(50) + ", p99Nanos=" + getPercentileNanos(99) +
+        ", maxNanos=" + maxNanos + "]";
+  }
+}
@@ -0,0 +1,42 @@
+package com.obsidiandynamics.scheduler;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ *  Keeps pending tasks in a {@link ConcurrentSkipListSet}, ordered by time and ID, executing
+ *  at most one task (the most immediate) per wake-up.
+ */
+final class SkipListTaskQueue extends TaskQueue {
+  /** List of pending tasks, ordered with the most immediate at the head. */
+  private final NavigableSet<Task> tasks = new ConcurrentSkipListSet<>(TaskScheduler::compareByTimeAndId);
+
+  @Override
+  void add(Task task) {
+    tasks.add(task);
+  }
+
+  @Override
+  boolean remove(Task task) {
+    return tasks.remove(task);
+  }
+
+  @Override
+  void clear() {
+    tasks.clear();
+  }
+
+  @Override
+  long getWakeTime(long now, long maxSleepNanos) {
+    try {
+      return tasks.first().getTime();
+    } catch (NoSuchElementException e) {
+      return now + maxSleepNanos;
+    }
+  }
+
+  @Override
+  void executeDue(TaskScheduler scheduler, boolean forceExecute) {
+    TaskScheduler.scheduleSingle(tasks, scheduler, forceExecute);
+  }
+}
@@ -0,0 +1,44 @@
+package com.obsidiandynamics.scheduler;
+
+/**
+ *  Holds the pending tasks on behalf of a {@link TaskScheduler}, determining when the
+ *  scheduler thread should next wake and which tasks are due for execution. <p>
+ *
+ *  Tasks may be added and removed from any thread; the remaining methods are only invoked
+ *  from the scheduler thread.
+ */
+abstract class TaskQueue {
+  /**
+   *  Adds a task to the queue. Adding a task that is already pending has no effect.
+   *
+   *  @param task The task to add.
+   */
+  abstract void add(Task task);
+
+  /**
+   *  Removes a pending task. Once removed, the task will not be executed.
+   *
+   *  @param task The task to remove.
+   *  @return Whether the task was pending (and hence was removed).
+   */
+  abstract boolean remove(Task task);
+
+  abstract void clear();
+
+  /**
+   *  Obtains the time when the scheduler thread should next wake.
+   *
+   *  @param now The current time, in absolute nanoseconds (see {@link System#nanoTime()}).
+   *  @param maxSleepNanos The maximum time to sleep for if no task is pending.
+   *  @return The wake time, in absolute nanoseconds.
+   */
+  abstract long getWakeTime(long now, long maxSleepNanos);
+
+  /**
+   *  Executes the tasks that are due.
+   *
+   *  @param scheduler The executing scheduler.
+   *  @param forceExecute Whether all tasks should be executed, regardless of time.
+   */
+  abstract void executeDue(TaskScheduler scheduler, boolean forceExecute);
+}
@@ -1,5 +1,7 @@
 package com.obsidiandynamics.scheduler;
 
+import static com.obsidiandynamics.func.Functions.*;
+
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.*;
@@ -7,7 +9,17 @@ import java.util.concurrent.atomic.*;
 import com.obsidiandynamics.worker.*;
 
 /**
- *  A scheduler for dispatching arbitrary tasks.
+ *  A scheduler for dispatching arbitrary tasks. <p>
+ *  
+ *  By default, pending tasks are held in a skip list, executing one task per wake-up. 
+ *  Alternatively, the scheduler may be configured to use a hierarchical hashed timing wheel
+ *  (see {@link #withTimingWheel(TimingWheelOptions)}), which schedules and cancels tasks in 
+ *  O(1) time and executes all due tasks in a single wake-up, at the expense of rounding 
+ *  the execution time up to the resolution of the wheel's tick. <p>
+ *  
+ *  Tasks are executed on the scheduler thread unless an {@link Executor} is supplied (see
+ *  {@link #withExecutor(Executor)}), in which case the scheduler thread is dedicated to timekeeping.
+ *  In either case, the scheduler records the lateness of each execution (see {@link #getLateness()}).
  */
 public final class TaskScheduler implements Terminable, Joinable {
   /** Maximum sleep time. If the next task's time is longer, the sleep will be performed in a loop.
@@ -21,8 +33,14 @@ public final class TaskScheduler implements Terminable, Joinable {
    *  are coming in later than desired. */
   private static final long ADJ_NANOS = 0L;
   
-  /** List of pending tasks, ordered with the most immediate at the head. */
-  private final NavigableSet<Task> tasks = new ConcurrentSkipListSet<>(TaskScheduler::compareByTimeAndId);
+  /** The pending tasks. */
+  private TaskQueue tasks = new SkipListTaskQueue();
+  
+  /** Executes due tasks on behalf of the scheduler; {@code null} if tasks are executed on the scheduler thread. */
+  private Executor taskExecutor;
+  
+  /** Records the lateness of task executions. */
+  private final LatenessRecorder lateness = new LatenessRecorder();
   
   @SuppressWarnings("unchecked")
   static int compareByTimeAndId(Task t1, Task t2) {
@@ -64,6 +82,59 @@ public final class TaskScheduler implements Terminable, Joinable {
         .build();
   }
   
+  /**
+   *  Switches the scheduler to use a hierarchical hashed timing wheel for holding pending tasks,
+   *  rather than a skip list. Must be called before the scheduler is started. <p>
+   *  
+   *  For an {@link AbstractTask}, the wheel tracks the task's scheduling within the task itself;
+   *  such a task should not be pending on more than one scheduler at any given time.
+   *  
+   *  @param options The timing wheel options.
+   *  @return This {@link TaskScheduler} instance for fluent chaining.
+   */
+  public TaskScheduler withTimingWheel(TimingWheelOptions options) {
+    mustExist(options, "Options cannot be null");
+    mustBeEqual(WorkerState.CONCEIVED, executor.getState(), 
+                illegalState("Timing wheel must be configured before starting the scheduler"));
+    tasks = new TimingWheelTaskQueue(options);
+    return this;
+  }
+  
+  /**
+   *  Hands due tasks to the given {@link Executor} for execution, rather than executing them on the 
+   *  scheduler thread, so that a slow task cannot hold up other due tasks. Must be called before the
+   *  scheduler is started. <p>
+   *  
+   *  Tasks are submitted in the order of their scheduled time, but may be executed concurrently
+   *  and out of order, subject to the executor. Should the executor reject a task, it is executed 
+   *  on the scheduler thread instead. The executor remains owned by the caller, and is not shut 
+   *  down upon the scheduler's termination.
+   *  
+   *  @param executor The executor.
+   *  @return This {@link TaskScheduler} instance for fluent chaining.
+   */
+  public TaskScheduler withExecutor(Executor executor) {
+    mustExist(executor, "Executor cannot be null");
+    mustBeEqual(WorkerState.CONCEIVED, this.executor.getState(), 
+                illegalState("Executor must be configured before starting the scheduler"));
+    taskExecutor = executor;
+    return this;
+  }
+  
+  /**
+   *  Obtains a snapshot of the lateness of task executions since the scheduler was created or
+   *  the lateness statistics were last reset.
+   *  
+   *  @return The {@link LatenessStats}.
+   */
+  public LatenessStats getLateness() {
+    return lateness.snapshot();
+  }
+  
+  public void resetLateness() {
+    lateness.reset();
+  }
+  
   public void start() {
     executor.start();
   }
@@ -91,14 +162,10 @@ public final class TaskScheduler implements Terminable, Joinable {
   
   private void cycle(WorkerThread thread) {
     synchronized (sleepLock) {
-      try {
-        delay(tasks.first().getTime());
-      } catch (NoSuchElementException e) {
-        delay(System.nanoTime() + MAX_SLEEP_NANOS);
-      }
+      delay(tasks.getWakeTime(System.nanoTime(), MAX_SLEEP_NANOS));
     }
 
-    scheduleSingle(tasks, this, forceExecute);
+    tasks.executeDue(this, forceExecute);
   }
   
   /**
@@ -118,12 +185,36 @@ public final class TaskScheduler implements Terminable, Joinable {
       final Task first = tasks.first();
       if (forceExecute || System.nanoTime() >= first.getTime() - ADJ_NANOS) {
         if (tasks.remove(first)) {
-          first.execute(scheduler);
+          scheduler.dispatch(first);
         }
       }
     } catch (NoSuchElementException ignored) {} // in case the task was aborted in the meantime
   }
   
+  /**
+   *  Executes a due task, either directly on the calling (scheduler) thread or by handing it to
+   *  the executor, recording the lateness of the execution.
+   *  
+   *  @param task The task to execute.
+   */
+  void dispatch(Task task) {
+    final Executor taskExecutor = this.taskExecutor;
+    if (taskExecutor != null) {
+      try {
+        taskExecutor.execute(() -> executeAndRecord(task));
+        return;
+      } catch (RejectedExecutionException e) {
+        // fall through to execute on the scheduler thread
+      }
+    }
+    executeAndRecord(task);
+  }
+  
+  private void executeAndRecord(Task task) {
+    lateness.record(System.nanoTime() - task.getTime());
+    task.execute(this);
+  }
+  
   /**
    *  Schedules a task for execution.
    *  
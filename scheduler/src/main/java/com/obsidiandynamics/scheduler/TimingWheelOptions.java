@@ -0,0 +1,66 @@
+package com.obsidiandynamics.scheduler;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+import java.util.concurrent.*;
+
+/**
+ *  Configuration of the hierarchical hashed timing wheel used by a {@link TaskScheduler}
+ *  when operating in timing wheel mode (see {@link TaskScheduler#withTimingWheel(TimingWheelOptions)}). <p>
+ *
+ *  The wheel comprises a number of {@code levels}, each having {@code wheelSize} slots. A slot on
+ *  the first level spans a single tick; a slot on each subsequent level spans the entire
+ *  preceding level. The tick resolution bounds the precision of the scheduler: a task is never
+ *  executed before its scheduled time, but may be executed up to one tick after it.
+ */
+public final class TimingWheelOptions {
+  private long tickNanos = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private int wheelSize = 512;
+
+  private int levels = 4;
+
+  public long getTickNanos() {
+    return tickNanos;
+  }
+
+  public TimingWheelOptions withTickResolution(long duration, TimeUnit unit) {
+    final long tickNanos = unit.toNanos(duration);
+    mustBeGreater(tickNanos, 0L, illegalArgument("Tick resolution must be greater than 0"));
+    this.tickNanos = tickNanos;
+    return this;
+  }
+
+  public int getWheelSize() {
+    return wheelSize;
+  }
+
+  /**
+   *  Sets the number of slots on each level of the wheel.
+   *
+   *  @param wheelSize The wheel size, being a power of two no smaller than 64 and no larger than 65,536.
+   *  @return This {@link TimingWheelOptions} instance for fluent chaining.
+   */
+  public TimingWheelOptions withWheelSize(int wheelSize) {
+    mustBeTrue(wheelSize >= 64 && wheelSize <= 65_536 && Integer.bitCount(wheelSize) == 1,
+               illegalArgument("Wheel size must be a power of two between 64 and 65536"));
+    this.wheelSize = wheelSize;
+    return this;
+  }
+
+  public int getLevels() {
+    return levels;
+  }
+
+  public TimingWheelOptions withLevels(int levels) {
+    mustBeGreater(levels, 0, illegalArgument("Number of levels must be greater than 0"));
+    this.levels = levels;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return TimingWheelOptions.class.getSimpleName() + " [tickNanos=" + tickNanos + ", wheelSize=" + wheelSize +
+        ", levels=" + levels + "]";
+  }
+}
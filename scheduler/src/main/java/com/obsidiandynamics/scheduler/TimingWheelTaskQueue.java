@@ -0,0 +1,504 @@
+package com.obsidiandynamics.scheduler;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ *  A hierarchical hashed timing wheel, offering O(1) scheduling and cancellation of tasks. <p>
+ *
+ *  The wheel is confined to the scheduler thread. Other threads hand their tasks to the scheduler
+ *  thread by pushing onto lock-free pending and cancellation stacks, which are drained by the
+ *  scheduler thread before it advances the wheel. Each scheduling is represented by a single-use
+ *  {@link Node}, whose state is resolved by CAS, so that a cancelled task is never executed
+ *  and an executed task cannot be cancelled. <p>
+ *
+ *  Level 0 of the wheel has a slot for each tick; a slot on level {@code L} spans all ticks of
+ *  level {@code L - 1}. A task is placed on the lowest level whose span (relative to the current
+ *  tick) accommodates its deadline, and is cascaded down to a lower level once the wheel reaches
+ *  the start of its slot. The top level wraps around; tasks that are further out than a full
+ *  revolution of the top level are parked in its last slot to be visited, and re-evaluated from
+ *  there. Rather than ticking
+ *  through empty slots, the wheel advances directly to the next tick of interest, being either the
+ *  next occupied slot on level 0 or the next slot boundary of a higher level that is occupied. <p>
+ *
+ *  All tasks that become due in a single pass are executed in order of their time and ID.
+ */
+final class TimingWheelTaskQueue extends TaskQueue {
+  private static final int PENDING = 0;
+
+  private static final int EXPIRED = 1;
+
+  private static final int CANCELLED = 2;
+
+  /** A single scheduling of a task. */
+  static final class Node {
+    private static final AtomicIntegerFieldUpdater<Node> stateUpdater =
+        AtomicIntegerFieldUpdater.newUpdater(Node.class, "state");
+
+    final TimingWheelTaskQueue owner;
+
+    final Task task;
+
+    /** The generation of the queue at the time of scheduling; used to lazily purge cleared nodes. */
+    final int generation;
+
+    /** The scheduled time, captured when the task was added. */
+    final long time;
+
+    private volatile int state;
+
+    /** Link in the pending stack. */
+    private Node nextPending;
+
+    /** Link in the cancellation stack. */
+    private Node nextCancelled;
+
+    /** The following fields are confined to the scheduler thread. */
+    private Node prev, next;
+
+    private int level = -1;
+
+    private int slot;
+
+    private long deadlineTick;
+
+    Node(TimingWheelTaskQueue owner, Task task, int generation, long time) {
+      this.owner = owner;
+      this.task = task;
+      this.generation = generation;
+      this.time = time;
+    }
+
+    boolean isPending() {
+      return state == PENDING;
+    }
+
+    private boolean transition(int expect, int update) {
+      return stateUpdater.compareAndSet(this, expect, update);
+    }
+  }
+
+  private final long tickNanos;
+
+  private final int wheelBits;
+
+  private final int wheelMask;
+
+  private final int levels;
+
+  /** The reference time that corresponds to tick 0. */
+  private final long origin;
+
+  /** Slot list heads, indexed by level and slot. */
+  private final Node[][] slots;
+
+  /** Occupancy bitmap of level 0, for quickly locating the next occupied slot. */
+  private final long[] occupancy;
+
+  /** The number of nodes on each level. */
+  private final int[] levelCounts;
+
+  /** The total number of nodes on the wheel. */
+  private int size;
+
+  /** The last tick that the wheel has been advanced to. */
+  private long currentTick;
+
+  /** Nodes that have become due, awaiting execution. */
+  private final List<Node> due = new ArrayList<>();
+
+  private final AtomicReference<Node> pendingStack = new AtomicReference<>();
+
+  private final AtomicReference<Node> cancelledStack = new AtomicReference<>();
+
+  /** Tracks the scheduling of tasks that are not derived from {@link AbstractTask}. */
+  private final ConcurrentMap<Task, Node> foreignNodes = new ConcurrentHashMap<>();
+
+  /** Incremented on each {@link #clear()}, invalidating all nodes of prior generations. */
+  private final AtomicInteger generation = new AtomicInteger();
+
+  /** The generation last observed by the scheduler thread. */
+  private int observedGeneration;
+
+  private static final Comparator<Node> dueOrder = (n1, n2) -> {
+    final int timeComp = Long.compare(n1.time, n2.time);
+    if (timeComp != 0) {
+      return timeComp;
+    } else {
+      return TaskScheduler.compareByTimeAndId(n1.task, n2.task);
+    }
+  };
+
+  TimingWheelTaskQueue(TimingWheelOptions options) {
+    this(options, System.nanoTime());
+  }
+
+  TimingWheelTaskQueue(TimingWheelOptions options, long origin) {
+    this.origin = origin;
+    final int wheelSize = options.getWheelSize();
+    tickNanos = options.getTickNanos();
+    wheelBits = Integer.numberOfTrailingZeros(wheelSize);
+    wheelMask = wheelSize - 1;
+    levels = Math.min(options.getLevels(), 62 / wheelBits);
+    slots = new Node[levels][wheelSize];
+    occupancy = new long[wheelSize >>> 6];
+    levelCounts = new int[levels];
+  }
+
+  @Override
+  void add(Task task) {
+    final int generation = this.generation.get();
+    final Node node = new Node(this, task, generation, task.getTime());
+    if (task instanceof AbstractTask) {
+      final AbstractTask<?> abstractTask = (AbstractTask<?>) task;
+      for (;;) {
+        final Node existing = abstractTask.node;
+        if (existing != null && existing.owner == this && existing.generation == generation && existing.isPending()) {
+          return;
+        } else if (abstractTask.casNode(existing, node)) {
+          break;
+        }
+      }
+    } else {
+      final Node existing = foreignNodes.putIfAbsent(task, node);
+      if (existing != null) {
+        if (existing.generation == generation && existing.isPending() || ! foreignNodes.replace(task, existing, node)) {
+          return;
+        }
+      }
+    }
+    for (;;) {
+      final Node head = pendingStack.get();
+      node.nextPending = head;
+      if (pendingStack.compareAndSet(head, node)) return;
+    }
+  }
+
+  @Override
+  boolean remove(Task task) {
+    final Node node = task instanceof AbstractTask ? ((AbstractTask<?>) task).node : foreignNodes.get(task);
+    if (node != null && node.owner == this && node.generation == generation.get() && node.transition(PENDING, CANCELLED)) {
+      if (! (task instanceof AbstractTask)) {
+        foreignNodes.remove(task, node);
+      }
+      for (;;) {
+        final Node head = cancelledStack.get();
+        node.nextCancelled = head;
+        if (cancelledStack.compareAndSet(head, node)) return true;
+      }
+    } else {
+      return false;
+    }
+  }
+
+  @Override
+  void clear() {
+    generation.incrementAndGet();
+    foreignNodes.clear();
+  }
+
+  @Override
+  long getWakeTime(long now, long maxSleepNanos) {
+    housekeep();
+    if (! due.isEmpty()) return now;
+
+    final long nextTick = nextTickOfInterest();
+    if (nextTick == Long.MAX_VALUE || nextTick - currentTick > (maxSleepNanos / tickNanos) + 1) {
+      return now + maxSleepNanos;
+    } else {
+      return origin + nextTick * tickNanos;
+    }
+  }
+
+  @Override
+  void executeDue(TaskScheduler scheduler, boolean forceExecute) {
+    executeDue(scheduler, forceExecute, System.nanoTime());
+  }
+
+  /**
+   *  Executes the tasks that are due as of the given time. <p>
+   *
+   *  This overload has been extracted to facilitate deterministic unit testing of the wheel.
+   *
+   *  @param scheduler The executing scheduler.
+   *  @param forceExecute Whether all tasks should be executed, regardless of time.
+   *  @param now The current time, in absolute nanoseconds.
+   */
+  void executeDue(TaskScheduler scheduler, boolean forceExecute, long now) {
+    housekeep();
+    if (forceExecute) {
+      drainWheel();
+    } else {
+      advance(Math.floorDiv(now - origin, tickNanos));
+    }
+    if (due.isEmpty()) return;
+
+    if (due.size() > 1) {
+      due.sort(dueOrder);
+    }
+    try {
+      for (Node node : due) {
+        // the generation is re-read as a task may clear the scheduler during execution
+        if (node.generation == generation.get() && node.transition(PENDING, EXPIRED)) {
+          if (! (node.task instanceof AbstractTask)) {
+            foreignNodes.remove(node.task, node);
+          }
+          scheduler.dispatch(node.task);
+        }
+      }
+    } finally {
+      due.clear();
+    }
+  }
+
+  /**
+   *  Purges the wheel of cleared tasks, unlinks cancelled tasks and inserts newly scheduled
+   *  tasks.
+   */
+  private void housekeep() {
+    final int generation = this.generation.get();
+    if (generation != observedGeneration) {
+      observedGeneration = generation;
+      purge(generation);
+    }
+
+    for (Node node = cancelledStack.getAndSet(null); node != null;) {
+      final Node next = node.nextCancelled;
+      node.nextCancelled = null;
+      unlink(node);
+      node = next;
+    }
+
+    for (Node node = pendingStack.getAndSet(null); node != null;) {
+      final Node next = node.nextPending;
+      node.nextPending = null;
+      if (node.generation == generation && node.isPending()) {
+        node.deadlineTick = toDeadlineTick(node.time);
+        insert(node);
+      }
+      node = next;
+    }
+  }
+
+  private void purge(int generation) {
+    if (size != 0) {
+      for (int level = 0; level < levels; level++) {
+        if (levelCounts[level] == 0) continue;
+        for (int slot = 0; slot <= wheelMask; slot++) {
+          for (Node node = slots[level][slot]; node != null;) {
+            final Node next = node.next;
+            if (node.generation != generation) {
+              unlink(node);
+            }
+            node = next;
+          }
+        }
+      }
+    }
+    due.removeIf(node -> node.generation != generation);
+  }
+
+  /**
+   *  Converts an absolute time to the earliest tick that is no earlier than the given time, so that
+   *  tasks are never executed ahead of their time.
+   *
+   *  @param time The time, in absolute nanoseconds.
+   *  @return The corresponding tick.
+   */
+  private long toDeadlineTick(long time) {
+    final long delta = time - origin;
+    if (((time ^ origin) & (time ^ delta)) < 0) {
+      // the subtraction has overflowed; saturate
+      return time > origin ? Long.MAX_VALUE : Long.MIN_VALUE;
+    }
+    return -Math.floorDiv(-delta, tickNanos);
+  }
+
+  private void insert(Node node) {
+    final long deadlineTick = node.deadlineTick;
+    if (deadlineTick <= currentTick) {
+      due.add(node);
+      return;
+    }
+
+    final long diff = deadlineTick ^ currentTick;
+    final int topLevel = levels - 1;
+    for (int level = 0; level < topLevel; level++) {
+      final int shift = wheelBits * level;
+      if (diff >>> (shift + wheelBits) == 0) {
+        link(node, level, (int) (deadlineTick >>> shift) & wheelMask);
+        return;
+      }
+    }
+
+    // the top level wraps around, accommodating any deadline within one revolution of the current slot
+    final int topShift = wheelBits * topLevel;
+    final long currentTopSlot = currentTick >>> topShift;
+    if ((deadlineTick >>> topShift) - currentTopSlot <= wheelMask) {
+      link(node, topLevel, (int) (deadlineTick >>> topShift) & wheelMask);
+    } else {
+      // beyond the span of the top level; park in the slot that will be visited last
+      link(node, topLevel, (int) (currentTopSlot - 1) & wheelMask);
+    }
+  }
+
+  private void link(Node node, int level, int slot) {
+    final Node head = slots[level][slot];
+    node.prev = null;
+    node.next = head;
+    if (head != null) {
+      head.prev = node;
+    }
+    slots[level][slot] = node;
+    node.level = level;
+    node.slot = slot;
+    levelCounts[level]++;
+    size++;
+    if (level == 0) {
+      occupancy[slot >>> 6] |= 1L << slot;
+    }
+  }
+
+  private void unlink(Node node) {
+    final int level = node.level;
+    if (level == -1) return;
+
+    final int slot = node.slot;
+    if (node.prev != null) {
+      node.prev.next = node.next;
+    } else {
+      slots[level][slot] = node.next;
+    }
+    if (node.next != null) {
+      node.next.prev = node.prev;
+    }
+    node.prev = node.next = null;
+    node.level = -1;
+    levelCounts[level]--;
+    size--;
+    if (level == 0 && slots[0][slot] == null) {
+      occupancy[slot >>> 6] &= ~(1L << slot);
+    }
+  }
+
+  /**
+   *  Detaches the entire list of nodes in the given slot.
+   *
+   *  @param level The level.
+   *  @param slot The slot.
+   *  @return The head of the detached list, or {@code null} if the slot is empty.
+   */
+  private Node detach(int level, int slot) {
+    final Node head = slots[level][slot];
+    if (head == null) return null;
+
+    slots[level][slot] = null;
+    int count = 0;
+    for (Node node = head; node != null; node = node.next) {
+      node.level = -1;
+      count++;
+    }
+    levelCounts[level] -= count;
+    size -= count;
+    if (level == 0) {
+      occupancy[slot >>> 6] &= ~(1L << slot);
+    }
+    return head;
+  }
+
+  /**
+   *  Determines the next tick (after the current tick) at which there is work to be done.
+   *
+   *  @return The next tick of interest, or {@link Long#MAX_VALUE} if the wheel is empty.
+   */
+  private long nextTickOfInterest() {
+    if (size == 0) return Long.MAX_VALUE;
+
+    long nextTick = Long.MAX_VALUE;
+    if (levelCounts[0] != 0) {
+      nextTick = nextOccupiedLevel0Tick();
+    }
+    for (int level = 1; level < levels; level++) {
+      if (levelCounts[level] != 0) {
+        final int shift = wheelBits * level;
+        nextTick = Math.min(nextTick, ((currentTick >>> shift) + 1) << shift);
+      }
+    }
+    return nextTick;
+  }
+
+  private long nextOccupiedLevel0Tick() {
+    final int currentSlot = (int) currentTick & wheelMask;
+    final long revolution = currentTick & ~(long) wheelMask;
+    int word = currentSlot >>> 6;
+    long bits = occupancy[word] & (-2L << (currentSlot & 63));
+    for (int words = 0; words <= occupancy.length; words++) {
+      if (bits != 0) {
+        final int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+        // a slot behind the current one can only be occupied if level 0 is the (wrapping) top level
+        return revolution + slot + (slot <= currentSlot ? wheelMask + 1 : 0);
+      }
+      word = (word + 1) % occupancy.length;
+      bits = occupancy[word];
+    }
+    throw new IllegalStateException("Level 0 is inconsistent with its occupancy bitmap");
+  }
+
+  /**
+   *  Advances the wheel up to the given tick, moving all expired nodes to the due list.
+   *
+   *  @param nowTick The current tick.
+   */
+  private void advance(long nowTick) {
+    for (;;) {
+      final long nextTick = nextTickOfInterest();
+      if (nextTick > nowTick) break;
+      processTick(nextTick);
+    }
+    if (nowTick > currentTick) {
+      currentTick = nowTick;
+    }
+  }
+
+  private void processTick(long tick) {
+    currentTick = tick;
+    for (int level = levels - 1; level > 0; level--) {
+      final int shift = wheelBits * level;
+      if (levelCounts[level] != 0 && (tick & ((1L << shift) - 1)) == 0) {
+        cascade(detach(level, (int) (tick >>> shift) & wheelMask));
+      }
+    }
+
+    // nodes parked on a single-level wheel may not yet be due, in which case they are reinserted
+    cascade(detach(0, (int) tick & wheelMask));
+  }
+
+  private void cascade(Node node) {
+    while (node != null) {
+      final Node next = node.next;
+      node.prev = node.next = null;
+      insert(node);
+      node = next;
+    }
+  }
+
+  /**
+   *  Moves all nodes on the wheel to the due list, regardless of their time.
+   */
+  private void drainWheel() {
+    if (size == 0) return;
+
+    for (int level = 0; level < levels; level++) {
+      if (levelCounts[level] == 0) continue;
+      for (int slot = 0; slot <= wheelMask; slot++) {
+        for (Node node = detach(level, slot); node != null;) {
+          final Node next = node.next;
+          node.prev = node.next = null;
+          due.add(node);
+          node = next;
+        }
+      }
+    }
+  }
+}
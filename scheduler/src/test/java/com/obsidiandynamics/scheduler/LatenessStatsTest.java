@@ -0,0 +1,66 @@
+package com.obsidiandynamics.scheduler;
+
+import static junit.framework.TestCase.*;
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.*;
+
+import com.obsidiandynamics.assertion.*;
+
+public final class LatenessStatsTest {
+  @Test
+  public void testEmpty() {
+    final LatenessStats stats = new LatenessRecorder().snapshot();
+    assertEquals(0, stats.getCount());
+    assertEquals(0, stats.getTotalNanos());
+    assertEquals(0, stats.getMaxNanos());
+    assertEquals(0, stats.getMeanNanos(), 0);
+    assertEquals(0, stats.getPercentileNanos(0));
+    assertEquals(0, stats.getPercentileNanos(100));
+    Assertions.assertToStringOverride(stats);
+  }
+
+  @Test
+  public void testRecord() {
+    final LatenessRecorder recorder = new LatenessRecorder();
+    recorder.record(-5); // treated as zero
+    for (int i = 1; i <= 98; i++) {
+      recorder.record(100);
+    }
+    recorder.record(1_000_000);
+
+    final LatenessStats stats = recorder.snapshot();
+    assertEquals(100, stats.getCount());
+    assertEquals(98 * 100 + 1_000_000, stats.getTotalNanos());
+    assertEquals(1_000_000, stats.getMaxNanos());
+    assertEquals((98 * 100 + 1_000_000) / 100d, stats.getMeanNanos(), 0);
+
+    assertEquals(0, stats.getPercentileNanos(0));
+    assertEquals(0, stats.getPercentileNanos(1));
+    // 100 lies in the bucket [64, 128)
+    assertEquals(127, stats.getPercentileNanos(50));
+    assertEquals(127, stats.getPercentileNanos(99));
+    // the upper bound of the bucket is capped by the maximum
+    assertEquals(1_000_000, stats.getPercentileNanos(100));
+
+    recorder.reset();
+    assertEquals(0, recorder.snapshot().getCount());
+    assertEquals(0, recorder.snapshot().getMaxNanos());
+  }
+
+  @Test
+  public void testRecordExtremes() {
+    final LatenessRecorder recorder = new LatenessRecorder();
+    recorder.record(Long.MAX_VALUE);
+    assertEquals(Long.MAX_VALUE, recorder.snapshot().getPercentileNanos(50));
+  }
+
+  @Test
+  public void testInvalidPercentile() {
+    final LatenessStats stats = new LatenessRecorder().snapshot();
+    assertThatThrownBy(() -> stats.getPercentileNanos(-1))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Percentile must be in the range [0, 100]");
+    assertThatThrownBy(() -> stats.getPercentileNanos(100.1))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Percentile must be in the range [0, 100]");
+  }
+}
@@ -1,6 +1,7 @@
 package com.obsidiandynamics.scheduler;
 
 import static junit.framework.TestCase.*;
+import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -13,6 +14,7 @@ import org.junit.*;
 import org.junit.runner.*;
 import org.junit.runners.*;
 
+import com.obsidiandynamics.assertion.*;
 import com.obsidiandynamics.await.*;
 import com.obsidiandynamics.junit.*;
 import com.obsidiandynamics.testmark.*;
@@ -276,11 +278,72 @@ public final class TaskSchedulerTest {
     Collections.sort(sorted);
     assertEquals(sorted, receiver.ids);
   }
-  
+
+  @Test
+  public void testExecutor() {
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      resetTaskScheduler(new TaskScheduler().withExecutor(executor));
+
+      // a blocked task should not hold up subsequent tasks
+      final CountDownLatch release = new CountDownLatch(1);
+      scheduler.schedule(new TestTask(System.nanoTime(), new UUID(0, 0), task -> {
+        Threads.await(release);
+        receiver.receive(task);
+      }));
+      final int tasks = 10;
+      for (int i = 1; i <= tasks; i++) {
+        scheduler.schedule(doIn(new UUID(0, i), i));
+      }
+      wait.until(receiver.isSize(tasks));
+      release.countDown();
+      wait.until(receiver.isSize(tasks + 1));
+      wait.until(() -> assertEquals(tasks + 1, scheduler.getLateness().getCount()));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testExecutorRejected() {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    executor.shutdown();
+    resetTaskScheduler(new TaskScheduler().withExecutor(executor));
+
+    // the task falls back to executing on the scheduler thread
+    scheduler.schedule(doIn(0));
+    wait.until(receiver.isSize(1));
+  }
+
+  @Test
+  public void testConfigureExecutorAfterStart() {
+    assertThatThrownBy(() -> scheduler.withExecutor(Runnable::run))
+    .isExactlyInstanceOf(IllegalStateException.class).hasMessage("Executor must be configured before starting the scheduler");
+  }
+
+  @Test
+  public void testLateness() {
+    final int tasks = 10;
+    for (int i = 0; i < tasks; i++) {
+      scheduler.schedule(doIn(i));
+    }
+    wait.until(receiver.isSize(tasks));
+
+    final LatenessStats lateness = scheduler.getLateness();
+    assertEquals(tasks, lateness.getCount());
+    assertTrue(lateness.getMaxNanos() >= lateness.getMeanNanos());
+    assertTrue(lateness.getPercentileNanos(50) <= lateness.getMaxNanos());
+    Assertions.assertToStringOverride(lateness);
+
+    scheduler.resetLateness();
+    assertEquals(0, scheduler.getLateness().getCount());
+    assertEquals(0, scheduler.getLateness().getPercentileNanos(99));
+  }
+
   @Test
   public void testScheduleSingleNoTasks() {
     final NavigableSet<Task> tasks = new ConcurrentSkipListSet<>(TaskScheduler::compareByTimeAndId);
-    TaskScheduler.scheduleSingle(tasks, null, true);
+    TaskScheduler.scheduleSingle(tasks, new TaskScheduler(), true);
   }
   
   private static class MockTask implements Task {
@@ -313,7 +376,7 @@ public final class TaskSchedulerTest {
     final MockTask task = new MockTask(0, 1);
     final MockTask spied = spy(task);
     tasks.add(spied);
-    TaskScheduler.scheduleSingle(tasks, null, false);
+    TaskScheduler.scheduleSingle(tasks, new TaskScheduler(), false);
     verify(spied).execute(any());
   }
   
@@ -323,7 +386,7 @@ public final class TaskSchedulerTest {
     final MockTask task = new MockTask(Long.MAX_VALUE, 1);
     final MockTask spied = spy(task);
     tasks.add(spied);
-    TaskScheduler.scheduleSingle(tasks, null, true);
+    TaskScheduler.scheduleSingle(tasks, new TaskScheduler(), true);
     verify(spied).execute(any());
   }
   
@@ -333,7 +396,7 @@ public final class TaskSchedulerTest {
     final MockTask task = new MockTask(Long.MAX_VALUE, 1);
     final MockTask spied = spy(task);
     tasks.add(spied);
-    TaskScheduler.scheduleSingle(tasks, null, false);
+    TaskScheduler.scheduleSingle(tasks, new TaskScheduler(), false);
     verify(spied, never()).execute(any());
   }
   
@@ -347,7 +410,7 @@ public final class TaskSchedulerTest {
       tasks.clear();
       return 0L;
     });
-    TaskScheduler.scheduleSingle(tasks, null, false);
+    TaskScheduler.scheduleSingle(tasks, new TaskScheduler(), false);
     verify(spied, never()).execute(any());
   }
   
@@ -0,0 +1,366 @@
+package com.obsidiandynamics.scheduler;
+
+import static junit.framework.TestCase.*;
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.junit.*;
+import org.junit.runner.*;
+import org.junit.runners.*;
+
+import com.obsidiandynamics.assertion.*;
+import com.obsidiandynamics.await.*;
+import com.obsidiandynamics.junit.*;
+import com.obsidiandynamics.threads.*;
+
+@RunWith(Parameterized.class)
+public final class TimingWheelTaskQueueTest {
+  @Parameterized.Parameters
+  public static List<Object[]> data() {
+    return TestCycle.timesQuietly(1);
+  }
+
+  private static final long TICK_NANOS = 1_000L;
+
+  private static final long MAX_SLEEP_NANOS = 1_000_000_000L;
+
+  /** Arbitrary reference time, chosen close to overflow to exercise the tick arithmetic. */
+  private static final long ORIGIN = Long.MAX_VALUE - 1_000_000_000_000L;
+
+  private final TaskScheduler scheduler = new TaskScheduler();
+
+  private final List<TestTask> executed = new ArrayList<>();
+
+  private long now = ORIGIN;
+
+  private final class TestTask extends AbstractTask<Integer> {
+    private long executedAt = -1;
+
+    TestTask(long delayNanos, int id) {
+      super(ORIGIN + delayNanos, id);
+    }
+
+    @Override
+    public void execute(TaskScheduler scheduler) {
+      assertEquals(-1, executedAt);
+      executedAt = now;
+      executed.add(this);
+    }
+  }
+
+  private static final class ForeignTask implements Task {
+    private final long time;
+
+    private final int id;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    ForeignTask(long delayNanos, int id) {
+      time = ORIGIN + delayNanos;
+      this.id = id;
+    }
+
+    @Override
+    public long getTime() {
+      return time;
+    }
+
+    @Override
+    public Integer getId() {
+      return id;
+    }
+
+    @Override
+    public void execute(TaskScheduler scheduler) {
+      executions.incrementAndGet();
+    }
+  }
+
+  private static TimingWheelTaskQueue newQueue(int wheelSize, int levels) {
+    return new TimingWheelTaskQueue(new TimingWheelOptions()
+                                    .withTickResolution(TICK_NANOS, TimeUnit.NANOSECONDS)
+                                    .withWheelSize(wheelSize)
+                                    .withLevels(levels),
+                                    ORIGIN);
+  }
+
+  private void advanceTo(TimingWheelTaskQueue queue, long delayNanos) {
+    now = ORIGIN + delayNanos;
+    queue.executeDue(scheduler, false, now);
+  }
+
+  @Test
+  public void testExecuteInOrderWhenDue() {
+    final TimingWheelTaskQueue queue = newQueue(64, 4);
+    final TestTask t0 = new TestTask(5_500, 0);
+    final TestTask t1 = new TestTask(5_000, 1);
+    final TestTask t2 = new TestTask(5_000, 2);
+    queue.add(t2);
+    queue.add(t0);
+    queue.add(t1);
+    queue.add(t1); // adding a pending task again has no effect
+
+    // the wake time is rounded up to the tick
+    assertEquals(ORIGIN + 5_000, queue.getWakeTime(ORIGIN, MAX_SLEEP_NANOS));
+    advanceTo(queue, 4_999);
+    assertEquals(0, executed.size());
+
+    // t0 is in the same tick as t1 and t2, but is not yet due
+    advanceTo(queue, 5_000);
+    assertEquals(Arrays.asList(t1, t2), executed);
+    assertEquals(ORIGIN + 6_000, queue.getWakeTime(now, MAX_SLEEP_NANOS));
+
+    advanceTo(queue, 6_000);
+    assertEquals(Arrays.asList(t1, t2, t0), executed);
+    assertEquals(now + MAX_SLEEP_NANOS, queue.getWakeTime(now, MAX_SLEEP_NANOS));
+  }
+
+  @Test
+  public void testPastTaskIsDueImmediately() {
+    final TimingWheelTaskQueue queue = newQueue(64, 2);
+    advanceTo(queue, 10_000);
+    final TestTask task = new TestTask(-1, 0);
+    queue.add(task);
+    assertEquals(now, queue.getWakeTime(now, MAX_SLEEP_NANOS));
+    queue.executeDue(scheduler, false, now);
+    assertEquals(Collections.singletonList(task), executed);
+  }
+
+  @Test
+  public void testRemove() {
+    final TimingWheelTaskQueue queue = newQueue(64, 2);
+    final TestTask task = new TestTask(1_000_000, 0);
+    assertFalse(queue.remove(task));
+    queue.add(task);
+    assertTrue(queue.remove(task));
+    assertFalse(queue.remove(task));
+
+    // removal is also effective once the task has been placed on the wheel
+    queue.add(task);
+    queue.getWakeTime(now, MAX_SLEEP_NANOS);
+    assertTrue(queue.remove(task));
+    advanceTo(queue, 2_000_000);
+    assertEquals(0, executed.size());
+
+    // the task may be scheduled again after removal
+    queue.add(task);
+    advanceTo(queue, 3_000_000);
+    assertEquals(Collections.singletonList(task), executed);
+    assertFalse(queue.remove(task));
+  }
+
+  @Test
+  public void testForeignTask() {
+    final TimingWheelTaskQueue queue = newQueue(64, 2);
+    final ForeignTask task = new ForeignTask(5_000, 0);
+    queue.add(task);
+    queue.add(task);
+    advanceTo(queue, 5_000);
+    assertEquals(1, task.executions.get());
+    assertFalse(queue.remove(task));
+
+    queue.add(task);
+    assertTrue(queue.remove(task));
+    queue.add(task);
+    advanceTo(queue, 6_000);
+    assertEquals(2, task.executions.get());
+  }
+
+  @Test
+  public void testClear() {
+    final TimingWheelTaskQueue queue = newQueue(64, 2);
+    final TestTask cleared = new TestTask(5_000, 0);
+    final ForeignTask clearedForeign = new ForeignTask(5_000, 1);
+    queue.add(cleared);
+    queue.add(clearedForeign);
+    queue.getWakeTime(now, MAX_SLEEP_NANOS);
+    queue.clear();
+    assertFalse(queue.remove(cleared));
+    assertFalse(queue.remove(clearedForeign));
+    assertEquals(now + MAX_SLEEP_NANOS, queue.getWakeTime(now, MAX_SLEEP_NANOS));
+
+    // a cleared task may be scheduled again
+    final TestTask rescheduled = new TestTask(6_000, 2);
+    queue.add(rescheduled);
+    queue.add(cleared);
+    advanceTo(queue, 10_000);
+    assertEquals(Arrays.asList(cleared, rescheduled), executed);
+    assertEquals(0, clearedForeign.executions.get());
+  }
+
+  @Test
+  public void testForceExecute() {
+    final TimingWheelTaskQueue queue = newQueue(64, 2);
+    final TestTask t0 = new TestTask(Long.MAX_VALUE - ORIGIN, 0);
+    final TestTask t1 = new TestTask(1_000_000_000, 1);
+    final TestTask t2 = new TestTask(1_000, 2);
+    queue.add(t0);
+    queue.add(t1);
+    queue.getWakeTime(now, MAX_SLEEP_NANOS);
+    queue.add(t2);
+    queue.executeDue(scheduler, true, now);
+    assertEquals(Arrays.asList(t2, t1, t0), executed);
+  }
+
+  @Test
+  public void testRescheduleFromExecution() {
+    final TimingWheelTaskQueue queue = newQueue(64, 2);
+    final AtomicInteger executions = new AtomicInteger();
+    final Task task = new AbstractTask<Integer>(ORIGIN, 0) {
+      @Override
+      public void execute(TaskScheduler scheduler) {
+        if (executions.incrementAndGet() < 3) {
+          queue.add(this);
+        }
+      }
+    };
+    queue.add(task);
+    for (int i = 0; i < 5; i++) {
+      queue.executeDue(scheduler, false, ORIGIN);
+    }
+    assertEquals(3, executions.get());
+  }
+
+  /**
+   *  Randomly schedules and removes tasks over a range of wheel geometries, including those where
+   *  tasks cascade through multiple levels and those where the tasks lie well beyond the span
+   *  of the top level, verifying that tasks are never executed early, nor later than the tick
+   *  in which they fall.
+   */
+  @Test
+  public void testRandomSchedule() {
+    final Random random = new Random(0);
+    for (int levels = 1; levels <= 3; levels++) {
+      for (int wheelSize = 64; wheelSize <= 256; wheelSize <<= 1) {
+        executed.clear();
+        now = ORIGIN;
+        testRandomSchedule(random, newQueue(wheelSize, levels), (long) Math.pow(wheelSize, levels) * TICK_NANOS * 3);
+      }
+    }
+  }
+
+  private void testRandomSchedule(Random random, TimingWheelTaskQueue queue, long spanNanos) {
+    final List<TestTask> tasks = new ArrayList<>();
+    final Set<TestTask> removed = new HashSet<>();
+    for (int step = 0; step < 200; step++) {
+      for (int i = random.nextInt(20); --i >= 0; ) {
+        final long delay = now - ORIGIN + (long) (random.nextDouble() * random.nextDouble() * spanNanos) - 1_000;
+        final TestTask task = new TestTask(delay, tasks.size());
+        tasks.add(task);
+        queue.add(task);
+      }
+      if (! tasks.isEmpty()) {
+        final TestTask toRemove = tasks.get(random.nextInt(tasks.size()));
+        if (queue.remove(toRemove)) {
+          assertEquals(-1, toRemove.executedAt);
+          assertTrue(removed.add(toRemove));
+        }
+      }
+
+      final long wakeTime = queue.getWakeTime(now, Long.MAX_VALUE / 4);
+      advanceTo(queue, now - ORIGIN + (long) (random.nextDouble() * random.nextDouble() * spanNanos / 50));
+      final long currentTick = Math.floorDiv(now - ORIGIN, TICK_NANOS);
+      for (TestTask task : tasks) {
+        final long deadlineTick = -Math.floorDiv(ORIGIN - task.getTime(), TICK_NANOS);
+        if (task.executedAt != -1) {
+          assertTrue(task.executedAt >= task.getTime());
+        } else if (! removed.contains(task)) {
+          assertTrue("task=" + task + ", currentTick=" + currentTick, deadlineTick > currentTick);
+          assertTrue(ORIGIN + deadlineTick * TICK_NANOS >= wakeTime);
+        }
+      }
+    }
+
+    queue.executeDue(scheduler, true, now);
+    for (TestTask task : tasks) {
+      assertTrue(task.executedAt != -1 ^ removed.contains(task));
+    }
+    for (int i = 1; i < executed.size(); i++) {
+      assertTrue(executed.get(i - 1).executedAt <= executed.get(i).executedAt);
+    }
+  }
+
+  @Test
+  public void testScheduler() {
+    final TaskScheduler scheduler = new TaskScheduler().withTimingWheel(new TimingWheelOptions());
+    scheduler.start();
+    try {
+      // park the scheduler until we're ready to execute
+      final CyclicBarrier barrier = new CyclicBarrier(2);
+      scheduler.schedule(new AbstractTask<Integer>(0, -1) {
+        @Override
+        public void execute(TaskScheduler scheduler) {
+          Threads.await(barrier);
+        }
+      });
+
+      final int tasks = 100;
+      final List<Integer> ids = new CopyOnWriteArrayList<>();
+      final long referenceNanos = System.nanoTime();
+      for (int i = tasks; --i >= 0; ) {
+        final int id = i;
+        scheduler.schedule(new AbstractTask<Integer>(referenceNanos + i * 100_000L, id) {
+          @Override
+          public void execute(TaskScheduler scheduler) {
+            assertTrue(System.nanoTime() >= getTime());
+            ids.add(id);
+          }
+        });
+      }
+      Threads.await(barrier); // resume scheduling
+
+      Timesert.wait(10_000).until(() -> assertEquals(tasks, ids.size()));
+      for (int i = 0; i < tasks; i++) {
+        assertEquals(i, (int) ids.get(i));
+      }
+    } finally {
+      scheduler.terminate().joinSilently();
+    }
+  }
+
+  @Test
+  public void testConfigureAfterStart() {
+    final TaskScheduler scheduler = new TaskScheduler();
+    scheduler.start();
+    try {
+      assertThatThrownBy(() -> scheduler.withTimingWheel(new TimingWheelOptions()))
+      .isExactlyInstanceOf(IllegalStateException.class).hasMessage("Timing wheel must be configured before starting the scheduler");
+    } finally {
+      scheduler.terminate().joinSilently();
+    }
+  }
+
+  @Test
+  public void testOptions() {
+    final TimingWheelOptions options = new TimingWheelOptions()
+        .withTickResolution(10, TimeUnit.MICROSECONDS)
+        .withWheelSize(1024)
+        .withLevels(3);
+    assertEquals(10_000, options.getTickNanos());
+    assertEquals(1024, options.getWheelSize());
+    assertEquals(3, options.getLevels());
+    Assertions.assertToStringOverride(options);
+
+    assertThatThrownBy(() -> options.withTickResolution(0, TimeUnit.NANOSECONDS))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Tick resolution must be greater than 0");
+    assertThatThrownBy(() -> options.withWheelSize(100))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Wheel size must be a power of two between 64 and 65536");
+    assertThatThrownBy(() -> options.withWheelSize(32))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Wheel size must be a power of two between 64 and 65536");
+    assertThatThrownBy(() -> options.withLevels(0))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Number of levels must be greater than 0");
+  }
+
+  @Test
+  public void testWakeTimeCappedForDistantTasks() {
+    final TimingWheelTaskQueue queue = new TimingWheelTaskQueue(new TimingWheelOptions()
+                                                                .withTickResolution(1, TimeUnit.MILLISECONDS)
+                                                                .withWheelSize(64),
+                                                                ORIGIN);
+    queue.add(new TestTask(MAX_SLEEP_NANOS * 10, 0));
+    assertEquals(now + MAX_SLEEP_NANOS, queue.getWakeTime(now, MAX_SLEEP_NANOS));
+  }
+}
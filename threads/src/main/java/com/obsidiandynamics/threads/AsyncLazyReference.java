@@ -0,0 +1,155 @@
+package com.obsidiandynamics.threads;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import com.obsidiandynamics.func.*;
+
+/**
+ *  A lazily instantiated reference whose referent is created asynchronously, on a given
+ *  {@link Executor}, with callers obtaining a {@link CompletableFuture} of the referent. <p>
+ *  
+ *  The first call to {@link #get()} (or {@link #warm()}) installs a future with a CAS and
+ *  submits the supplier to the executor; concurrent and subsequent callers obtain the same future.
+ *  Neither the caller nor the executor ever enters a monitor, and the supplier is invoked at most
+ *  once at any given time — the reference is only ever reset by the task that invoked the
+ *  supplier, once the supplier has returned. Calling {@link #warm()} at startup moves the cost of
+ *  instantiation off the path of the first request. <p>
+ *  
+ *  If the supplier throws an exception (or the executor rejects the task), the future is
+ *  completed exceptionally, and the reference is reset, so that a subsequent call will retry the
+ *  instantiation. After successful instantiation, the supplier reference will be released,
+ *  allowing for it to be garbage-collected. <p>
+ *  
+ *  A caller may cancel (or otherwise exceptionally complete) the shared future. If this happens 
+ *  before the supplier has been invoked, the reference is reset when the task is dequeued by the 
+ *  executor, without invoking the supplier. Otherwise, the cancelled future continues to be 
+ *  returned until the supplier returns, whereupon a referent created in the meantime is retained 
+ *  in a new future (rather than being discarded), and a failure resets the reference. <p>
+ *  
+ *  This class is thread-safe.
+ *  
+ *  @param <T> Reference type.
+ */
+public final class AsyncLazyReference<T> {
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<AsyncLazyReference, CompletableFuture> futureUpdater = 
+      AtomicReferenceFieldUpdater.newUpdater(AsyncLazyReference.class, CompletableFuture.class, "future");
+  
+  private final Executor executor;
+  
+  /** Released once the referent has been created. */
+  private volatile CheckedSupplier<? extends T, ?> supplier;
+  
+  private volatile CompletableFuture<T> future;
+  
+  public AsyncLazyReference(Executor executor, CheckedSupplier<? extends T, ?> supplier) {
+    this.executor = mustExist(executor, "Executor cannot be null");
+    this.supplier = mustExist(supplier, "Supplier cannot be null");
+  }
+  
+  /**
+   *  Obtains a future of the referent, commencing instantiation if it is neither complete nor
+   *  in progress. <p>
+   *  
+   *  The returned future is shared among all callers; its completion (or cancellation) by a
+   *  caller will be observed by others.
+   *  
+   *  @return The {@link CompletableFuture} of the referent.
+   */
+  public CompletableFuture<T> get() {
+    for (;;) {
+      final CompletableFuture<T> existing = future;
+      if (existing != null) {
+        return existing;
+      }
+      
+      final CompletableFuture<T> created = new CompletableFuture<>();
+      if (futureUpdater.compareAndSet(this, null, created)) {
+        instantiate(created);
+        return created;
+      }
+    }
+  }
+  
+  /**
+   *  Commences instantiation ahead of first use, if it is neither complete nor in progress.
+   *  
+   *  @return The {@link CompletableFuture} of the referent.
+   */
+  public CompletableFuture<T> warm() {
+    return get();
+  }
+  
+  private void instantiate(CompletableFuture<T> future) {
+    final CheckedSupplier<? extends T, ?> supplier = this.supplier;
+    try {
+      executor.execute(() -> {
+        if (future.isDone()) {
+          // completed by a caller before the supplier was invoked
+          futureUpdater.compareAndSet(this, future, null);
+          return;
+        }
+        
+        final T created;
+        try {
+          created = supplier.get();
+        } catch (Throwable e) {
+          reset(future, e);
+          return;
+        }
+        
+        if (future.complete(created) || futureUpdater.compareAndSet(this, future, CompletableFuture.completedFuture(created))) {
+          this.supplier = null;
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      reset(future, e);
+    }
+  }
+  
+  /**
+   *  Resets the reference ahead of completing the future exceptionally, so that a caller reacting 
+   *  to the failure is able to retry straight away.
+   *  
+   *  @param future The future to reset.
+   *  @param error The cause of the failure.
+   */
+  private void reset(CompletableFuture<T> future, Throwable error) {
+    futureUpdater.compareAndSet(this, future, null);
+    future.completeExceptionally(error);
+  }
+  
+  /**
+   *  Obtains the referent without attempting instantiation.
+   *  
+   *  @return The referent, or {@code null} if it has yet to be instantiated.
+   */
+  public T peek() {
+    final CompletableFuture<T> future = this.future;
+    return future != null && future.isDone() && ! future.isCompletedExceptionally() ? future.join() : null;
+  }
+  
+  @Override
+  public String toString() {
+    return AsyncLazyReference.class.getSimpleName() + " [reference=" + peek() + "]";
+  }
+  
+  /**
+   *  Creates an {@link AsyncLazyReference} that instantiates its referent on the
+   *  {@link ForkJoinPool#commonPool()}.
+   *  
+   *  @param <T> Reference type.
+   *  @param supplier The supplier of the referent.
+   *  @return The {@link AsyncLazyReference}.
+   */
+  public static <T> AsyncLazyReference<T> from(CheckedSupplier<? extends T, ?> supplier) {
+    return from(ForkJoinPool.commonPool(), supplier);
+  }
+  
+  public static <T> AsyncLazyReference<T> from(Executor executor, CheckedSupplier<? extends T, ?> supplier) {
+    return new AsyncLazyReference<>(executor, supplier);
+  }
+}
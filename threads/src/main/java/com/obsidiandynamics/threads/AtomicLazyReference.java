@@ -0,0 +1,87 @@
+package com.obsidiandynamics.threads;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+import java.util.concurrent.atomic.*;
+
+import com.obsidiandynamics.func.*;
+
+/**
+ *  A lock-free variant of {@link LazyReference}, for referents that are safe to instantiate
+ *  more than once. <p>
+ *  
+ *  Rather than serialising instantiation on a monitor, threads that find the reference unset
+ *  invoke the supplier concurrently, and publish the outcome with a CAS. The first publication
+ *  wins; the referents created by the losing threads are discarded, and the losing threads
+ *  return the published referent instead. Thus, all callers observe the same referent, but the
+ *  supplier may be called more than once (at most once per racing thread). Once the referent
+ *  has been published, {@link #get()} amounts to a single volatile read. <p>
+ *  
+ *  As with {@link LazyReference}, an exception thrown by the supplier is propagated to the
+ *  caller of {@link #get()}, leaving the reference unset, and the supplier is released once the
+ *  referent has been published. <p>
+ *  
+ *  This class is thread-safe.
+ *  
+ *  @param <T> Reference type.
+ *  @param <X> Exception type.
+ */
+public final class AtomicLazyReference<T, X extends Throwable> {
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<AtomicLazyReference, Object> referenceUpdater = 
+      AtomicReferenceFieldUpdater.newUpdater(AtomicLazyReference.class, Object.class, "reference");
+  
+  /** Released once the referent has been published. */
+  private volatile CheckedSupplier<? extends T, ? extends X> supplier;
+  
+  private volatile T reference;
+  
+  public AtomicLazyReference(CheckedSupplier<? extends T, ? extends X> supplier) {
+    this.supplier = mustExist(supplier, "Supplier cannot be null");
+  }
+  
+  /**
+   *  Obtains the underlying referent, instantiating it if it hasn't yet been published.
+   *  
+   *  @return The referent.
+   *  @throws X If an error occurs in the supplier.
+   */
+  public T get() throws X {
+    final T firstCheck = reference;
+    if (firstCheck != null) {
+      return firstCheck;
+    } else {
+      final CheckedSupplier<? extends T, ? extends X> supplier = this.supplier;
+      if (supplier == null) {
+        // the supplier is only released after the referent has been published
+        return reference;
+      }
+      
+      final T created = supplier.get();
+      if (referenceUpdater.compareAndSet(this, null, created)) {
+        this.supplier = null;
+        return created;
+      } else {
+        return reference;
+      }
+    }
+  }
+  
+  /**
+   *  Obtains the referent without attempting instantiation.
+   *  
+   *  @return The referent, or {@code null}.
+   */
+  public T peek() {
+    return reference;
+  }
+  
+  @Override
+  public String toString() {
+    return AtomicLazyReference.class.getSimpleName() + " [reference=" + reference + "]";
+  }
+  
+  public static <T, X extends Throwable> AtomicLazyReference<T, X> from(CheckedSupplier<? extends T, ? extends X> supplier) {
+    return new AtomicLazyReference<>(supplier);
+  }
+}
@@ -2,6 +2,9 @@ package com.obsidiandynamics.threads;
 
 import static com.obsidiandynamics.func.Functions.*;
 
+import java.util.*;
+import java.util.concurrent.locks.*;
+
 /**
  *  High precision parking behaviour for threads. Chrono can park a thread to a level
  *  of granularity that isn't possible with {@link Thread#sleep}. <p>
@@ -26,6 +29,12 @@ import static com.obsidiandynamics.func.Functions.*;
  *  more frequent thread state changes. Consequently, use Chrono only where consistent 
  *  sub-millisecond precision is required. <p>
  *  
+ *  Where the defaults are unsuitable — for example, in a container subject to CPU quotas,
+ *  where sleeps overshoot considerably — {@link #calibrate()} measures the overshoot of each
+ *  blocking strategy on the host, deriving the thresholds from the measurements. The
+ *  {@link ChronoCounters} of an instance show the resulting trade-off between the accuracy of
+ *  the wake-up time and the CPU cost of achieving it. <p>
+ *  
  *  This class is thread-safe.
  */
 public final class Chrono {
@@ -41,6 +50,22 @@ public final class Chrono {
   
   private static final Chrono DEFAULT = new Chrono(DEF_SLEEP_GRANULARITY, DEF_YIELD_GRANULARITY);
   
+  /** The percentile of the measured overshoot that a granularity threshold is derived from. */
+  static final double CALIBRATION_PERCENTILE = 0.99;
+  
+  /** The duration of each park issued during calibration. */
+  static final long CALIBRATION_PARK_NANOS = 50 * NANOS_IN_MICROSECOND;
+  
+  private static final int DEF_CALIBRATION_SLEEP_SAMPLES = 20;
+  
+  private static final int DEF_CALIBRATION_PARK_SAMPLES = 200;
+  
+  private static final int DEF_CALIBRATION_YIELD_SAMPLES = 1_000;
+  
+  private static final class CalibratedHolder {
+    static final Chrono CALIBRATED = calibrate();
+  }
+  
   /**
    *  Obtains the default {@link Chrono} instance, configured with sleep and yield granularity
    *  thresholds suitable for Linux and macOS.
@@ -51,10 +76,25 @@ public final class Chrono {
     return DEFAULT;
   }
   
+  /**
+   *  Obtains a shared {@link Chrono} instance, calibrated for the host upon first use. The
+   *  first caller blocks for the duration of the calibration (typically several tens of
+   *  milliseconds); subsequent callers obtain the same instance.
+   *  
+   *  @return The calibrated {@link Chrono} instance.
+   */
+  public static Chrono getCalibrated() {
+    return CalibratedHolder.CALIBRATED;
+  }
+  
   private final long sleepGranularity;
   
+  private final long parkGranularity;
+  
   private final long yieldGranularity;
   
+  private final ChronoCounters counters = new ChronoCounters();
+  
   /**
    *  Constructor.
    *  
@@ -64,10 +104,107 @@ public final class Chrono {
    *                               remaining time is less than {@code yieldGranularityNanos * 2}.
    */
   public Chrono(long sleepGranularityNanos, long yieldGranularityNanos) {
+    this(sleepGranularityNanos, 0, yieldGranularityNanos);
+  }
+  
+  /**
+   *  Constructor.
+   *  
+   *  @param sleepGranularityNanos The sleep threshold; a sleep state will not be entered unless the
+   *                               remaining time is less than {@code sleepGranularityNanos * 2}.
+   *  @param parkGranularityNanos The park threshold; a park will not be issued unless the
+   *                              remaining time is less than {@code parkGranularityNanos * 2}.
+   *                              A zero or negative value disables parking.
+   *  @param yieldGranularityNanos The yield threshold; a yield will not be issued unless the
+   *                               remaining time is less than {@code yieldGranularityNanos * 2}.
+   */
+  public Chrono(long sleepGranularityNanos, long parkGranularityNanos, long yieldGranularityNanos) {
     this.sleepGranularity = sleepGranularityNanos;
+    this.parkGranularity = parkGranularityNanos;
     this.yieldGranularity = yieldGranularityNanos;
   }
   
+  /**
+   *  Creates a {@link Chrono} instance with granularity thresholds derived from the measured
+   *  overshoot of {@link Thread#sleep}, {@link LockSupport#parkNanos(long)} and
+   *  {@link Thread#yield()} on the current host. Each threshold is set to the 99th
+   *  percentile of the overshoot of the corresponding strategy;
+   *  the sleep threshold is additionally bounded below by one millisecond — the resolution of
+   *  {@link Thread#sleep}. <p>
+   *  
+   *  Calibration blocks the caller for several tens of milliseconds (or longer, if sleeps
+   *  overshoot considerably), and should be performed once, typically at startup. If the calling
+   *  thread is interrupted, the calibration completes and the interrupt flag is restored.
+   *  
+   *  @return A calibrated {@link Chrono} instance.
+   */
+  public static Chrono calibrate() {
+    return calibrate(DEF_CALIBRATION_SLEEP_SAMPLES, DEF_CALIBRATION_PARK_SAMPLES, DEF_CALIBRATION_YIELD_SAMPLES);
+  }
+  
+  /**
+   *  A variant of {@link #calibrate()} that takes the number of samples for each strategy.
+   *  
+   *  @param sleepSamples The number of sleeps to measure.
+   *  @param parkSamples The number of parks to measure.
+   *  @param yieldSamples The number of yields to measure.
+   *  @return A calibrated {@link Chrono} instance.
+   */
+  public static Chrono calibrate(int sleepSamples, int parkSamples, int yieldSamples) {
+    mustBeGreater(sleepSamples, 0, illegalArgument("Number of sleep samples must be greater than 0"));
+    mustBeGreater(parkSamples, 0, illegalArgument("Number of park samples must be greater than 0"));
+    mustBeGreater(yieldSamples, 0, illegalArgument("Number of yield samples must be greater than 0"));
+    
+    boolean interrupted = false;
+    final long[] sleepOvershoots = new long[sleepSamples];
+    for (int i = 0; i < sleepSamples; i++) {
+      final long start = System.nanoTime();
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+      sleepOvershoots[i] = System.nanoTime() - start - NANOS_IN_MILLISECOND;
+    }
+    
+    // park ignores a pending interrupt, returning immediately; clear it for the duration of the measurement
+    interrupted |= Thread.interrupted();
+    final long[] parkOvershoots = new long[parkSamples];
+    for (int i = 0; i < parkSamples; i++) {
+      final long start = System.nanoTime();
+      LockSupport.parkNanos(CALIBRATION_PARK_NANOS);
+      parkOvershoots[i] = System.nanoTime() - start - CALIBRATION_PARK_NANOS;
+      interrupted |= Thread.interrupted();
+    }
+    
+    final long[] yieldDurations = new long[yieldSamples];
+    for (int i = 0; i < yieldSamples; i++) {
+      final long start = System.nanoTime();
+      Thread.yield();
+      yieldDurations[i] = System.nanoTime() - start;
+    }
+    
+    if (interrupted) Thread.currentThread().interrupt();
+    
+    final long sleepGranularity = Math.max(NANOS_IN_MILLISECOND, percentile(sleepOvershoots, CALIBRATION_PERCENTILE));
+    final long parkGranularity = Math.max(1, percentile(parkOvershoots, CALIBRATION_PERCENTILE));
+    final long yieldGranularity = Math.max(1, percentile(yieldDurations, CALIBRATION_PERCENTILE));
+    return new Chrono(sleepGranularity, parkGranularity, yieldGranularity);
+  }
+  
+  /**
+   *  Obtains the nearest-rank percentile of the given samples, sorting the samples in place.
+   *  
+   *  @param samples The samples.
+   *  @param percentile The percentile, in the range {@code (0, 1]}.
+   *  @return The sample at the given percentile.
+   */
+  static long percentile(long[] samples, double percentile) {
+    Arrays.sort(samples);
+    final int rank = (int) Math.ceil(percentile * samples.length);
+    return samples[Math.max(0, rank - 1)];
+  }
+  
   /**
    *  Obtains the configured sleep granularity.
    *  
@@ -77,6 +214,15 @@ public final class Chrono {
     return sleepGranularity;
   }
 
+  /**
+   *  Obtains the configured park granularity; zero or negative if parking is disabled.
+   *  
+   *  @return The park granularity (in nanoseconds).
+   */
+  public long getParkGranularity() {
+    return parkGranularity;
+  }
+
   /**
    *  Obtains the configured yield granularity. <p>
    *  
@@ -87,6 +233,15 @@ public final class Chrono {
   public long getYieldGranularity() {
     return yieldGranularity;
   }
+  
+  /**
+   *  Obtains the counters of the park operations performed by this instance.
+   *  
+   *  @return The {@link ChronoCounters}.
+   */
+  public ChronoCounters getCounters() {
+    return counters;
+  }
 
   /**
    *  Blocks the caller for a specified number of seconds. <p>
@@ -97,7 +252,7 @@ public final class Chrono {
    *  @throws InterruptedException If the thread was interrupted.
    */
   public void parkSeconds(double seconds) throws InterruptedException {
-    parkSeconds(seconds, sleepGranularity, yieldGranularity);
+    parkNanos((long) (seconds * NANOS_IN_SECOND));
   }
   
   /**
@@ -107,7 +262,21 @@ public final class Chrono {
    *  @throws InterruptedException If the thread was interrupted.
    */
   public void parkNanos(long nanos) throws InterruptedException {
-    parkNanos(nanos, sleepGranularity, yieldGranularity);
+    parkUntil(System.nanoTime() + nanos);
+  }
+  
+  /**
+   *  Blocks the caller until the given deadline, expressed in terms of {@link System#nanoTime()}.
+   *  Unlike a relative park, a deadline does not drift when the caller blocks repeatedly,
+   *  e.g. when emitting at a fixed rate. <p>
+   *  
+   *  No blocking occurs if the deadline has already passed.
+   *  
+   *  @param deadlineNanoTime The deadline, as an absolute {@link System#nanoTime()} value.
+   *  @throws InterruptedException If the thread was interrupted.
+   */
+  public void parkUntil(long deadlineNanoTime) throws InterruptedException {
+    parkUntil(deadlineNanoTime, sleepGranularity, parkGranularity, yieldGranularity, counters);
   }
 
   public static void parkSeconds(double seconds, long sleepGranularityNanos, long yieldGranularityNanos) throws InterruptedException {
@@ -115,7 +284,13 @@ public final class Chrono {
   }
   
   public static void parkNanos(long nanos, long sleepGranularityNanos, long yieldGranularityNanos) throws InterruptedException {
-    final long wakeTime = System.nanoTime() + nanos;
+    parkUntil(System.nanoTime() + nanos, sleepGranularityNanos, 0, yieldGranularityNanos, null);
+  }
+  
+  private static void parkUntil(long wakeTime, long sleepGranularityNanos, long parkGranularityNanos, long yieldGranularityNanos, 
+                                ChronoCounters counters) throws InterruptedException {
+    int sleeps = 0, parks = 0, yields = 0;
+    long spins = 0;
     for (;;) {
       mustBeFalse(Thread.interrupted(), InterruptedException::new);
       final long remainingNanos = wakeTime - System.nanoTime();
@@ -124,12 +299,20 @@ public final class Chrono {
         final long sleepMillis = round(remainingNanos - sleepGranularityNanos, sleepGranularityNanos) / NANOS_IN_MILLISECOND;
         //noinspection BusyWait
         Thread.sleep(sleepMillis);
+        sleeps++;
+      } else if (parkGranularityNanos > 0 && remainingNanos >= 2 * parkGranularityNanos) {
+        // medium-grained — park, allowing for the expected overshoot
+        LockSupport.parkNanos(remainingNanos - parkGranularityNanos);
+        parks++;
       } else if (remainingNanos >= 2 * yieldGranularityNanos) {
-        // mid-grained — yield
+        // fine-grained — yield
         Thread.yield();
+        yields++;
       } else if (remainingNanos > 0) {
-        // fine-grained — busy wait
+        // finest-grained — busy wait
+        spins++;
       } else {
+        if (counters != null) counters.record(sleeps, parks, yields, spins, -remainingNanos);
         break;
       }
     }
@@ -142,6 +325,7 @@ public final class Chrono {
 
   @Override
   public String toString() {
-    return Chrono.class.getSimpleName() + " [sleepGranularity=" + sleepGranularity + ", yieldGranularity=" + yieldGranularity + "]";
+    return Chrono.class.getSimpleName() + " [sleepGranularity=" + sleepGranularity + ", parkGranularity=" + parkGranularity + 
+        ", yieldGranularity=" + yieldGranularity + ", counters=" + counters + "]";
   }
 }
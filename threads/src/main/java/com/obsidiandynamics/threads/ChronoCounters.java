@@ -0,0 +1,105 @@
+package com.obsidiandynamics.threads;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ *  Cumulative counters of a {@link Chrono} instance, exposing the trade-off between the accuracy
+ *  of the wake-up time and the CPU cost of achieving it. The overshoot (the time elapsed past the
+ *  requested wake time) measures accuracy; the number of yields and spin iterations (relative to
+ *  the number of sleeps and parks) is indicative of the CPU cost. <p>
+ *
+ *  This class is thread-safe. Counters are updated once per completed park operation.
+ */
+public final class ChronoCounters {
+  private final LongAdder calls = new LongAdder();
+
+  private final LongAdder sleeps = new LongAdder();
+
+  private final LongAdder parks = new LongAdder();
+
+  private final LongAdder yields = new LongAdder();
+
+  private final LongAdder spins = new LongAdder();
+
+  private final LongAdder overshootNanos = new LongAdder();
+
+  private final AtomicLong maxOvershootNanos = new AtomicLong();
+
+  void record(int sleeps, int parks, int yields, long spins, long overshootNanos) {
+    calls.increment();
+    if (sleeps != 0) this.sleeps.add(sleeps);
+    if (parks != 0) this.parks.add(parks);
+    if (yields != 0) this.yields.add(yields);
+    if (spins != 0) this.spins.add(spins);
+    this.overshootNanos.add(overshootNanos);
+    for (long max; overshootNanos > (max = maxOvershootNanos.get()) && ! maxOvershootNanos.compareAndSet(max, overshootNanos););
+  }
+
+  /**
+   *  Obtains the number of completed park operations.
+   *
+   *  @return The number of park operations.
+   */
+  public long getCalls() {
+    return calls.sum();
+  }
+
+  public long getSleeps() {
+    return sleeps.sum();
+  }
+
+  public long getParks() {
+    return parks.sum();
+  }
+
+  public long getYields() {
+    return yields.sum();
+  }
+
+  /**
+   *  Obtains the number of busy-wait iterations.
+   *
+   *  @return The number of spins.
+   */
+  public long getSpins() {
+    return spins.sum();
+  }
+
+  /**
+   *  Obtains the total time elapsed past the requested wake times.
+   *
+   *  @return The total overshoot, in nanoseconds.
+   */
+  public long getOvershootNanos() {
+    return overshootNanos.sum();
+  }
+
+  public long getMaxOvershootNanos() {
+    return maxOvershootNanos.get();
+  }
+
+  public double getMeanOvershootNanos() {
+    final long calls = getCalls();
+    return calls != 0 ? (double) getOvershootNanos() / calls : 0;
+  }
+
+  /**
+   *  Resets all counters.
+   */
+  public void reset() {
+    calls.reset();
+    sleeps.reset();
+    parks.reset();
+    yields.reset();
+    spins.reset();
+    overshootNanos.reset();
+    maxOvershootNanos.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return ChronoCounters.class.getSimpleName() + " [calls=" + getCalls() + ", sleeps=" + getSleeps() + ", parks=" + getParks() +
+        ", yields=" + getYields() + ", spins=" + getSpins() + ", meanOvershootNanos=" + getMeanOvershootNanos() +
+        ", maxOvershootNanos=" + getMaxOvershootNanos() + "]";
+  }
+}
@@ -14,6 +14,10 @@ import com.obsidiandynamics.func.*;
  *  
  *  @param <T> Reference type.
  *  @param <X> Exception type.
+ *  
+ *  @see AtomicLazyReference
+ *  @see StripedLazyReference
+ *  @see AsyncLazyReference
  */
 public class LazyReference<T, X extends Throwable> {
   private CheckedSupplier<T, X> supplier;
@@ -0,0 +1,222 @@
+package com.obsidiandynamics.threads;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ *  A concurrent, automatic reference-counting map, offering the same contract as
+ *  {@link ReferenceCountingMap}, but optimised for keys that are scoped and de-scoped at a high
+ *  rate by multiple threads. <p>
+ *
+ *  Whereas a {@link ReferenceCountingMap} updates the reference count within a
+ *  {@link ConcurrentHashMap#compute} operation (locking the bin of the key and allocating a
+ *  capturing lambda on every use), this implementation keeps the reference count in an atomic
+ *  field of the mapped slot. Scoping a key with an existing mapping, and de-scoping a key without
+ *  reducing its count to zero, are lock-free and allocation-free, amounting to a map lookup and a
+ *  CAS on the count. The map is only locked when a mapping is inserted or removed. <p>
+ *
+ *  A slot whose count reaches zero becomes a tombstone, and is never revived: a scoping thread
+ *  that encounters a tombstone assists in its removal and retries, inserting a fresh mapping in
+ *  its place. A tombstone may be briefly visible to {@link #size()}, {@link #isEmpty()} and
+ *  {@link #keySet()}, but not to {@link #containsKey(Object)}. <p>
+ *
+ *  The caveats in {@link ReferenceCountingMap} regarding the use of values outside of a scope
+ *  boundary apply equally here.
+ *
+ *  @param <K> Key type.
+ *  @param <V> Value type.
+ */
+public final class LockFreeReferenceCountingMap<K, V> {
+  private static final int DEF_CAPACITY = 16;
+  private static final float DEF_LOAD_FACTOR = 0.75f;
+  private static final int DEF_CONCURRENCY_LEVEL = 16;
+
+  private static final class Slot<V> {
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<Slot> usesUpdater = AtomicIntegerFieldUpdater.newUpdater(Slot.class, "uses");
+
+    private final V value;
+
+    /** The reference count; {@code 0} denotes a tombstone. */
+    private volatile int uses = 1;
+
+    Slot(V value) {
+      this.value = value;
+    }
+
+    boolean isLive() {
+      return uses != 0;
+    }
+
+    /**
+     *  Increments the reference count, unless the slot is a tombstone.
+     *
+     *  @return True if a reference was acquired, or false if the slot is a tombstone.
+     */
+    boolean tryAcquire() {
+      for (;;) {
+        final int uses = this.uses;
+        if (uses == 0) return false;
+        if (usesUpdater.compareAndSet(this, uses, uses + 1)) return true;
+      }
+    }
+
+    /**
+     *  Decrements the reference count, unless the slot is a tombstone.
+     *
+     *  @return True if this was the last reference, rendering the slot a tombstone.
+     */
+    boolean release() {
+      for (;;) {
+        final int uses = this.uses;
+        if (uses == 0) return false;
+        if (usesUpdater.compareAndSet(this, uses, uses - 1)) return uses == 1;
+      }
+    }
+  }
+
+  private final ConcurrentHashMap<K, Slot<V>> map;
+
+  /**
+   *  Creates a reference-counting map with the default capacity, load factor and concurrency level.
+   */
+  public LockFreeReferenceCountingMap() {
+    this(DEF_CAPACITY, DEF_LOAD_FACTOR, DEF_CONCURRENCY_LEVEL);
+  }
+
+  /**
+   *  Creates a reference-counting map with the specified capacity, load factor and concurrency level. The
+   *  interpretation of these values is equivalent to their namesakes in {@link ConcurrentHashMap}.
+   *
+   *  @param initialCapacity The initial capacity.
+   *  @param loadFactor The load factor.
+   *  @param concurrencyLevel The concurrency level.
+   */
+  public LockFreeReferenceCountingMap(int initialCapacity, float loadFactor, int concurrencyLevel) {
+    map = new ConcurrentHashMap<>(initialCapacity, loadFactor, concurrencyLevel);
+  }
+
+  /**
+   *  Determines whether this map is empty.
+   *
+   *  @return True if this map is empty.
+   */
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  /**
+   *  Obtains the present size of this map.
+   *
+   *  @return The size of this map.
+   */
+  public int size() {
+    return map.size();
+  }
+
+  /**
+   *  Determines whether the map contains a live mapping for the given key.
+   *
+   *  @param key The key to query.
+   *  @return True if a mapping is present.
+   */
+  public boolean containsKey(K key) {
+    final Slot<V> slot = map.get(key);
+    return slot != null && slot.isLive();
+  }
+
+  /**
+   *  Obtains an immutable set of keys contained in this map. <p>
+   *  The set is backed by the map, so changes to the map are reflected in the set If the map is modified
+   *  while an iteration over the set is in progress, the results of the iteration are undefined.
+   *
+   *  @return An unmodifiable set of keys.
+   */
+  public Set<K> keySet() {
+    return Collections.unmodifiableSet(map.keySet());
+  }
+
+  /**
+   *  Attempts to atomically scope a reference to a value mapped by the given key, if such a mapping
+   *  is present. Failure will return a {@code null} without inserting the mapping.
+   *
+   *  @param key The key.
+   *  @return The value if one is present, or {@code null} otherwise.
+   */
+  public V tryScope(K key) {
+    for (;;) {
+      final Slot<V> slot = map.get(key);
+      if (slot == null) {
+        return null;
+      } else if (slot.tryAcquire()) {
+        return slot.value;
+      } else {
+        map.remove(key, slot);
+      }
+    }
+  }
+
+  /**
+   *  Atomically scopes a reference to a value mapped by the given key, instantiating a value using
+   *  the given {@code valueMaker} if no prior mapping exists.
+   *
+   *  @param key The key.
+   *  @param valueMaker A way of creating the value.
+   *  @return The mapped value.
+   */
+  public V scope(K key, Supplier<? extends V> valueMaker) {
+    final Slot<V> slot = map.get(key);
+    if (slot != null && slot.tryAcquire()) {
+      return slot.value;
+    }
+
+    // the mapping is either absent or a tombstone: replace it
+    return map.compute(key, (__, existingSlot) -> {
+      if (existingSlot != null && existingSlot.tryAcquire()) {
+        return existingSlot;
+      } else {
+        return new Slot<>(valueMaker.get());
+      }
+    }).value;
+  }
+
+  /**
+   *  Atomically de-scopes the mapping for the given key, if one exists. Attempting to call
+   *  this method for a non-existent mapping will not have any further impact.
+   *
+   *  @param key The key.
+   */
+  public void descope(K key) {
+    final Slot<V> slot = map.get(key);
+    if (slot != null && slot.release()) {
+      map.remove(key, slot);
+    }
+  }
+
+  /**
+   *  A scope-aware iterator of the mapped entries. The given {@code action} is invoked sequentially
+   *  for each entry, acquiring a scope reference before calling the action, and de-scoping
+   *  the entry afterwards.
+   *
+   *  @param action The action to call for each entry.
+   */
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    for (K key : map.keySet()) {
+      final V value = tryScope(key);
+      if (value != null) {
+        try {
+          action.accept(key, value);
+        } finally {
+          descope(key);
+        }
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return LockFreeReferenceCountingMap.class.getSimpleName() + " [keySet=" + keySet() + "]";
+  }
+}
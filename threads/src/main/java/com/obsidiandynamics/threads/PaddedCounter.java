@@ -0,0 +1,68 @@
+package com.obsidiandynamics.threads;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ *  Pads the head of the object, keeping the value off the cache line(s) occupied by the object
+ *  header and any preceding objects.
+ */
+abstract class PaddedCounterHeadPad {
+  long p00, p01, p02, p03, p04, p05, p06, p07;
+  long p08, p09, p10, p11, p12, p13, p14, p15;
+}
+
+/**
+ *  The counter value.
+ */
+abstract class PaddedCounterValue extends PaddedCounterHeadPad {
+  static final AtomicLongFieldUpdater<PaddedCounterValue> VALUE =
+      AtomicLongFieldUpdater.newUpdater(PaddedCounterValue.class, "value");
+
+  volatile long value;
+}
+
+/**
+ *  A {@code long} counter, equivalent to an {@link AtomicLong}, whose value is padded to occupy
+ *  a cache line (or an adjacent pair of lines) of its own. <p>
+ *
+ *  Counters that are created together — for example, when the stripes of a {@link PaddedStriped}
+ *  container are warmed from a single thread — are allocated adjacently, and would otherwise
+ *  share cache lines, so that an update to one counter invalidates its neighbours in the caches
+ *  of other cores. The padding makes the counter immune to the placement of neighbouring objects,
+ *  at the cost of some 256 bytes of memory per counter.
+ */
+public final class PaddedCounter extends PaddedCounterValue {
+  long p00, p01, p02, p03, p04, p05, p06, p07;
+  long p08, p09, p10, p11, p12, p13, p14, p15;
+
+  public PaddedCounter() {}
+
+  public PaddedCounter(long initialValue) {
+    value = initialValue;
+  }
+
+  public long get() {
+    return value;
+  }
+
+  public void set(long newValue) {
+    value = newValue;
+  }
+
+  public long incrementAndGet() {
+    return VALUE.incrementAndGet(this);
+  }
+
+  public long addAndGet(long delta) {
+    return VALUE.addAndGet(this, delta);
+  }
+
+  public boolean compareAndSet(long expect, long update) {
+    return VALUE.compareAndSet(this, expect, update);
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(value);
+  }
+}
@@ -0,0 +1,131 @@
+package com.obsidiandynamics.threads;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/**
+ *  A {@link Striped} implementation that lazily initialises the striped values, suited to
+ *  stripes that are frequently updated from multiple threads, such as counters and small locks. <p>
+ *
+ *  The slots holding the striped values are spaced {@link #SLOT_SPACING_BYTES} apart (assuming
+ *  compressed references, and twice that otherwise), so that the installation of a value does not
+ *  invalidate the cache line holding its neighbour. Values are created by the first thread to
+ *  access their stripe, and are typically allocated from that thread's local allocation buffer,
+ *  rather than adjacently to one another as they would in an {@link EagerStriped} container.
+ *  The values themselves are not padded, however; values created together from one thread (for
+ *  example, when warming the stripes ahead of use) are allocated adjacently, and will share cache
+ *  lines. Values that are mutated in place should therefore pad their hot fields, as does a
+ *  {@link PaddedCounter}. <p>
+ *
+ *  The number of stripes is rounded up to a power of two, which allows for a key hash to be
+ *  reduced to a stripe by masking. <p>
+ *
+ *  In addition to keyed access, a stripe may be selected by a per-thread probe (see
+ *  {@link #getForCurrentThread()}), in the manner of {@link LongAdder}.
+ *  This suits values that aggregate contributions from multiple threads, where it is immaterial
+ *  which stripe a thread updates, as long as threads are spread across stripes. A thread that
+ *  detects contention on its stripe may move to another by calling {@link #advanceProbe()}.
+ *
+ *  @param <S> The type of striped value.
+ */
+public final class PaddedStriped<S> implements Striped<S> {
+  /** The minimum distance between adjacent slots, in bytes. */
+  static final int SLOT_SPACING_BYTES = 128;
+
+  /** The maximum number of stripes, bounding the size of the padded slot array. */
+  public static final int MAX_STRIPES = 1 << 16;
+
+  /** The distance between adjacent slots, in references, assuming 4-byte compressed references. */
+  private static final int SLOT_SPACING_SHIFT = 5;
+
+  private static final class Probe {
+    int hash;
+
+    Probe(int hash) {
+      this.hash = hash;
+    }
+  }
+
+  /** Shared among all instances; the probe hash is never zero. */
+  private static final ThreadLocal<Probe> probes = ThreadLocal.withInitial(() -> new Probe(ThreadLocalRandom.current().nextInt() | 1));
+
+  private final Supplier<? extends S> valueSupplier;
+
+  private final int mask;
+
+  /** Slot {@code i} resides at index {@code (i + 1) << SLOT_SPACING_SHIFT}, leaving padding at either end. */
+  private final AtomicReferenceArray<S> slots;
+
+  public PaddedStriped(int stripes, Supplier<? extends S> valueSupplier) {
+    this.valueSupplier = mustExist(valueSupplier, "Value supplier cannot be null");
+    mustBeGreater(stripes, 0, illegalArgument("Number of stripes must be greater than 0"));
+    mustBeLessOrEqual(stripes, MAX_STRIPES, illegalArgument("Number of stripes cannot exceed " + MAX_STRIPES));
+    final int roundedStripes = roundUpToPowerOfTwo(stripes);
+    mask = roundedStripes - 1;
+    slots = new AtomicReferenceArray<>((roundedStripes + 1) << SLOT_SPACING_SHIFT);
+  }
+
+  static int roundUpToPowerOfTwo(int value) {
+    return value == 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+  }
+
+  /**
+   *  Obtains the number of stripes, which is the requested number rounded up to a power of two.
+   *
+   *  @return The number of stripes.
+   */
+  public int getStripes() {
+    return mask + 1;
+  }
+
+  @Override
+  public S get(int keyHash) {
+    final int spreadHash = keyHash ^ (keyHash >>> 16);
+    return getStripe(spreadHash & mask);
+  }
+
+  /**
+   *  Obtains the striped value assigned to the current thread by its probe.
+   *
+   *  @return The corresponding striped value.
+   */
+  public S getForCurrentThread() {
+    return getStripe(probes.get().hash & mask);
+  }
+
+  /**
+   *  Moves the current thread's probe to a pseudo-randomly chosen stripe; to be called when a
+   *  thread experiences contention on the stripe obtained from {@link #getForCurrentThread()}. As
+   *  the probe is shared among all {@link PaddedStriped} instances, this affects the current
+   *  thread's choice of stripe in each of them.
+   */
+  public static void advanceProbe() {
+    final Probe probe = probes.get();
+    // xorshift, as per ThreadLocalRandom.advanceProbe()
+    int hash = probe.hash;
+    hash ^= hash << 13;
+    hash ^= hash >>> 17;
+    hash ^= hash << 5;
+    probe.hash = hash;
+  }
+
+  S getStripe(int stripe) {
+    final int index = (stripe + 1) << SLOT_SPACING_SHIFT;
+    final S existing = slots.get(index);
+    if (existing != null) {
+      return existing;
+    } else {
+      final S newValue = valueSupplier.get();
+
+      // note: when upgrading to JDK 11, replace compareAndSet() with compareAndExchange()
+      if (slots.compareAndSet(index, null, newValue)) {
+        return newValue;
+      } else {
+        return slots.get(index);
+      }
+    }
+  }
+}
@@ -1,19 +1,37 @@
 package com.obsidiandynamics.threads;
 
+import static com.obsidiandynamics.func.Functions.*;
+
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 import java.util.function.*;
 
+/**
+ *  Runs a task on several threads, starting the threads from a barrier when {@link #run()} is
+ *  called. <p>
+ *
+ *  The {@link #blocking} and {@link #blockingSlice} family of methods create a dedicated thread
+ *  for each unit of work, with the list slices being of equal size. The work-stealing mode
+ *  ({@link #forRange}, {@link #forEach} and {@link #forEachChunk}) instead submits a bounded
+ *  number of workers to a reusable executor, each initially owning an equal share of the range.
+ *  A worker claims chunks from the front of its share, starting with large chunks and
+ *  progressively claiming smaller ones as the share drains. A worker that runs out of work
+ *  steals the upper half of the unclaimed remainder of the largest share, so that skewed work
+ *  is rebalanced towards idle workers.
+ */
 public final class Parallel implements Runnable {
   private static final boolean BLOCKING = true;
   private static final boolean NON_BLOCKING = false;
   
   private final CountDownLatch latch;
-  private final CyclicBarrier barrier;
+  private final Runnable start;
+  private final AtomicReference<Throwable> error;
   
-  private Parallel(CountDownLatch latch, CyclicBarrier barrier) {
+  private Parallel(CountDownLatch latch, Runnable start, AtomicReference<Throwable> error) {
     this.latch = latch;
-    this.barrier = barrier;
+    this.start = start;
+    this.error = error;
   }
   
   public static Parallel blocking(int threads, IntConsumer r) {
@@ -40,7 +58,7 @@ public final class Parallel implements Runnable {
       }, String.format(threadNameFormat, i));
       t.start();
     }
-    return new Parallel(latch, barrier);
+    return new Parallel(latch, () -> Threads.await(barrier), null);
   }
   
   private static int numDigits(int num) {
@@ -81,9 +99,289 @@ public final class Parallel implements Runnable {
     });
   }
   
+  /**
+   *  A task operating on a chunk of a range, from {@code from} (inclusive) to {@code to} (exclusive),
+   *  the bounds being relative to the start of the range.
+   */
+  @FunctionalInterface
+  private interface ChunkTask {
+    void run(int from, int to);
+  }
+  
+  /**
+   *  Processes a range of integers in the work-stealing mode (see {@link Parallel}), invoking the
+   *  {@code task} once for each integer.
+   *  
+   *  @param startInclusive The start of the range (inclusive).
+   *  @param endExclusive The end of the range (exclusive).
+   *  @param options The work-stealing options.
+   *  @param task The task to invoke for each integer.
+   *  @return The {@link Parallel} instance, to be {@link #run()} by the caller.
+   */
+  public static Parallel forRange(int startInclusive, int endExclusive, WorkStealingOptions options, IntConsumer task) {
+    mustBeGreaterOrEqual(endExclusive, startInclusive, illegalArgument("End of range cannot precede its start"));
+    final long size = (long) endExclusive - startInclusive;
+    mustBeLessOrEqual(size, Integer.MAX_VALUE, illegalArgument("Range cannot exceed " + Integer.MAX_VALUE + " elements"));
+    mustExist(task, "Task cannot be null");
+    return steal((int) size, options, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        task.accept(startInclusive + i);
+      }
+    });
+  }
+  
+  /**
+   *  Processes a list in the work-stealing mode (see {@link Parallel}), invoking the {@code task}
+   *  once for each element. A list that does not support efficient random access is first copied.
+   *  
+   *  @param <T> Element type.
+   *  @param list The list.
+   *  @param options The work-stealing options.
+   *  @param task The task to invoke for each element.
+   *  @return The {@link Parallel} instance, to be {@link #run()} by the caller.
+   */
+  public static <T> Parallel forEach(List<T> list, WorkStealingOptions options, Consumer<? super T> task) {
+    final List<T> indexed = randomAccess(list);
+    mustExist(task, "Task cannot be null");
+    return steal(indexed.size(), options, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        task.accept(indexed.get(i));
+      }
+    });
+  }
+  
+  /**
+   *  Processes a list in the work-stealing mode (see {@link Parallel}), invoking the {@code task}
+   *  once for each claimed chunk, presented as a sublist. Chunks are no smaller than the
+   *  configured minimum, unless the list itself is smaller.
+   *  
+   *  @param <T> Element type.
+   *  @param list The list.
+   *  @param options The work-stealing options.
+   *  @param task The task to invoke for each chunk.
+   *  @return The {@link Parallel} instance, to be {@link #run()} by the caller.
+   */
+  public static <T> Parallel forEachChunk(List<T> list, WorkStealingOptions options, Consumer<List<T>> task) {
+    final List<T> indexed = randomAccess(list);
+    mustExist(task, "Task cannot be null");
+    return steal(indexed.size(), options, (from, to) -> task.accept(indexed.subList(from, to)));
+  }
+  
+  private static <T> List<T> randomAccess(List<T> list) {
+    mustExist(list, "List cannot be null");
+    return list instanceof RandomAccess ? list : new ArrayList<>(list);
+  }
+  
+  private static Parallel steal(int size, WorkStealingOptions options, ChunkTask task) {
+    mustExist(options, "Options cannot be null");
+    final int minChunkSize = options.getMinChunkSize();
+    final int workers = size == 0 ? 0 : Math.max(1, Math.min(options.getParallelism(), size / minChunkSize));
+    final boolean blocking = options.isBlocking();
+    final CountDownLatch latch = blocking ? new CountDownLatch(workers) : null;
+    final StartGate gate = options.isBarrierStart() ? new StartGate(workers) : null;
+    final WorkStealingRanges ranges = new WorkStealingRanges(size, workers, minChunkSize);
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    
+    for (int i = 0; i < workers; i++) {
+      final int worker = i;
+      try {
+        options.getExecutor().execute(() -> {
+          try {
+            if (gate != null) gate.arriveAndAwait();
+            for (long chunk; error.get() == null && (chunk = ranges.claimOrSteal(worker)) != WorkStealingRanges.NONE;) {
+              task.run(WorkStealingRanges.from(chunk), WorkStealingRanges.to(chunk));
+            }
+          } catch (Throwable e) {
+            error.compareAndSet(null, e);
+            if (! blocking) throw e;
+          } finally {
+            if (latch != null) latch.countDown();
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        // stop the workers submitted thus far, including those yet to reach the gate
+        error.compareAndSet(null, e);
+        if (gate != null) gate.open();
+        throw e;
+      }
+    }
+    return new Parallel(latch, gate != null ? gate::awaitArrivalsAndOpen : null, error);
+  }
+  
+  /**
+   *  Holds back the work-stealing workers until all of them have arrived and {@link #run()} has
+   *  been called. Unlike a {@link CyclicBarrier}, the gate is one-shot: once opened, it admits
+   *  workers that arrive late, such as those still queued in the executor when a subsequent
+   *  submission was rejected.
+   */
+  private static final class StartGate {
+    private final CountDownLatch arrivals;
+    
+    private final CountDownLatch opened = new CountDownLatch(1);
+    
+    StartGate(int workers) {
+      arrivals = new CountDownLatch(workers);
+    }
+    
+    /**
+     *  Registers the arrival of a worker and awaits the opening of the gate, allowing a 
+     *  {@link ForkJoinPool} to compensate for the blocked worker, so that the pool is not starved
+     *  of threads while the workers are assembling.
+     */
+    void arriveAndAwait() {
+      arrivals.countDown();
+      Threads.deferInterrupt(() -> ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+        @Override
+        public boolean block() throws InterruptedException {
+          opened.await();
+          return true;
+        }
+        
+        @Override
+        public boolean isReleasable() {
+          return opened.getCount() == 0;
+        }
+      }));
+    }
+    
+    void awaitArrivalsAndOpen() {
+      Threads.await(arrivals);
+      open();
+    }
+    
+    void open() {
+      opened.countDown();
+    }
+  }
+  
+  /**
+   *  The unclaimed shares of a range, one per worker, each packed into a {@code long} as a pair
+   *  of relative bounds that are updated by CAS. The owner claims chunks from the front of its
+   *  share; thieves split off the back. The shares are spaced apart to avoid false sharing.
+   */
+  static final class WorkStealingRanges {
+    /** Denotes the absence of a chunk; never a valid packed range, as bounds are non-negative. */
+    static final long NONE = -1L;
+    
+    /** A worker claims this fraction of the remainder of its share, subject to the minimum chunk size. */
+    static final int CHUNK_DIVISOR = 8;
+    
+    /** The distance between adjacent shares, in {@code long}s, amounting to 128 bytes. */
+    private static final int SHARE_SPACING_SHIFT = 4;
+    
+    private final AtomicLongArray shares;
+    
+    private final int workers;
+    
+    private final int minChunkSize;
+    
+    WorkStealingRanges(int size, int workers, int minChunkSize) {
+      this.workers = workers;
+      this.minChunkSize = minChunkSize;
+      shares = new AtomicLongArray((workers + 1) << SHARE_SPACING_SHIFT);
+      for (int worker = 0; worker < workers; worker++) {
+        final int from = (int) ((long) size * worker / workers);
+        final int to = (int) ((long) size * (worker + 1) / workers);
+        shares.set(index(worker), pack(from, to));
+      }
+    }
+    
+    private static int index(int worker) {
+      return (worker + 1) << SHARE_SPACING_SHIFT;
+    }
+    
+    static long pack(int from, int to) {
+      return (long) to << 32 | from;
+    }
+    
+    static int from(long range) {
+      return (int) range;
+    }
+    
+    static int to(long range) {
+      return (int) (range >>> 32);
+    }
+    
+    /**
+     *  Claims the next chunk for the given worker, from its own share if it has unclaimed work,
+     *  or by stealing from another worker's share otherwise.
+     *  
+     *  @param worker The worker.
+     *  @return The packed chunk, or {@link #NONE} if no work remains that could be claimed.
+     */
+    long claimOrSteal(int worker) {
+      for (;;) {
+        final long chunk = claim(worker);
+        if (chunk != NONE) return chunk;
+        if (! steal(worker)) return NONE;
+      }
+    }
+    
+    long claim(int worker) {
+      final int index = index(worker);
+      for (;;) {
+        final long share = shares.get(index);
+        final int from = from(share), to = to(share);
+        final int remaining = to - from;
+        if (remaining <= 0) return NONE;
+        
+        final int chunkSize = Math.max(minChunkSize, remaining / CHUNK_DIVISOR);
+        // don't leave behind a remainder that is smaller than the minimum chunk size
+        final int claimTo = remaining - chunkSize < minChunkSize ? to : from + chunkSize;
+        if (shares.compareAndSet(index, share, pack(claimTo, to))) {
+          return pack(from, claimTo);
+        }
+      }
+    }
+    
+    /**
+     *  Moves the upper half of the largest remaining share to the thief's (empty) share. Only
+     *  shares that can be halved without either half falling below the minimum chunk size are
+     *  eligible.
+     *  
+     *  @param thief The stealing worker.
+     *  @return True if work was stolen, or false if no eligible share could be found.
+     */
+    boolean steal(int thief) {
+      for (;;) {
+        int victimIndex = -1;
+        long victimShare = 0;
+        int victimRemaining = 2 * minChunkSize - 1;
+        for (int worker = 0; worker < workers; worker++) {
+          if (worker == thief) continue;
+          final int index = index(worker);
+          final long share = shares.get(index);
+          final int remaining = to(share) - from(share);
+          if (remaining > victimRemaining) {
+            victimIndex = index;
+            victimShare = share;
+            victimRemaining = remaining;
+          }
+        }
+        
+        if (victimIndex == -1) return false;
+        
+        final int from = from(victimShare), to = to(victimShare);
+        final int mid = from + victimRemaining / 2;
+        if (shares.compareAndSet(victimIndex, victimShare, pack(from, mid))) {
+          // an empty share is never updated by other workers; a plain write suffices
+          shares.set(index(thief), pack(mid, to));
+          return true;
+        }
+      }
+    }
+  }
+  
   @Override
   public void run() {
-    Threads.await(barrier);
-    if (latch != null) Threads.await(latch);
+    if (start != null) start.run();
+    if (latch != null && Threads.await(latch) && error != null) {
+      final Throwable cause = error.get();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+    }
   }
 }
\ No newline at end of file
@@ -2,86 +2,410 @@ package com.obsidiandynamics.threads;
 
 import static com.obsidiandynamics.func.Functions.*;
 
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
 /**
  *  A reentrant lock that can be affiliated with an arbitrary object for the purpose of tracking
  *  ownership. <p>
- *  
+ *
  *  Unlike a conventional {@link java.util.concurrent.locks.ReentrantLock} that is owned by the
  *  acquiring thread, a {@link ReentrantAffiliateLock} allows the caller to specify any object that
  *  makes sense in the context of how the lock is being utilised. Naturally, the constraint is that
- *  the same affiliate that was used during {@link #tryLock(int, Object)} is also passed to the
- *  subsequent {@link #unlock(Object)} call. Equality is determined by invoking the {@code equals()}
- *  method on the affiliate pairs. <p>
- *  
+ *  the same affiliate that was used during {@link #tryLock(long, TimeUnit, Object)} is also passed
+ *  to the subsequent {@link #unlock(Object)} call. Equality is determined by invoking the
+ *  {@code equals()} method on the affiliate pairs. <p>
+ *
  *  As a special case, the affiliate may be assigned to {@link Thread#currentThread()}. This makes
- *  an {@link ReentrantAffiliateLock} behave like a conventional thread-bound reentrant lock.
+ *  an {@link ReentrantAffiliateLock} behave like a conventional thread-bound reentrant lock. <p>
+ *
+ *  The lock is non-blocking in its uncontended case, being acquired and released with a single
+ *  CAS. Contending acquirers are placed in a FIFO wait queue, parking until signalled; a release
+ *  only ever signals the waiter at the head of the queue, rather than waking all waiters. <p>
+ *
+ *  A lock may optionally be fair, in which case the lock is handed off to the waiters in the order
+ *  of their arrival, and a newly arriving acquirer will not barge ahead of a queued waiter. A
+ *  non-fair lock (the default) permits barging, which generally results in a higher throughput.
+ *  In either mode, asynchronous acquirers (see {@link #tryLockAsync(Object)}) are handed the lock
+ *  directly as they reach the head of the queue.
  */
 public final class ReentrantAffiliateLock {
-  private final Object monitor = new Object();
+  /** An immutable ownership record; replaced with every change in the acquisition depth. */
+  private static final class Hold {
+    final Object affiliate;
+
+    final int depth;
+
+    Hold(Object affiliate, int depth) {
+      this.affiliate = affiliate;
+      this.depth = depth;
+    }
+  }
+
+  private abstract static class Waiter {
+    private static final int WAITING = 0;
+    private static final int ACQUIRED = 1;
+    private static final int WITHDRAWN = 2;
+
+    private static final AtomicIntegerFieldUpdater<Waiter> statusUpdater =
+        AtomicIntegerFieldUpdater.newUpdater(Waiter.class, "status");
+
+    final Object affiliate;
+
+    private volatile int status;
+
+    Waiter(Object affiliate) {
+      this.affiliate = affiliate;
+    }
+
+    /**
+     *  Transfers the ownership of the lock to this waiter, which must presently be held by the
+     *  waiter's affiliate.
+     *
+     *  @return True if the lock was transferred, or false if the waiter had since withdrawn.
+     */
+    boolean grant() {
+      return statusUpdater.compareAndSet(this, WAITING, ACQUIRED);
+    }
+
+    /**
+     *  Withdraws the waiter from contention, unless the lock has already been granted.
+     *
+     *  @return True if the waiter was withdrawn, or false if the lock had already been granted.
+     */
+    final boolean withdraw() {
+      return statusUpdater.compareAndSet(this, WAITING, WITHDRAWN);
+    }
+
+    final boolean isAcquired() {
+      return status == ACQUIRED;
+    }
+
+    final boolean isWithdrawn() {
+      return status == WITHDRAWN;
+    }
+  }
+
+  private static final class ThreadWaiter extends Waiter {
+    final Thread thread;
+
+    ThreadWaiter(Object affiliate, Thread thread) {
+      super(affiliate);
+      this.thread = thread;
+    }
+
+    @Override
+    boolean grant() {
+      if (super.grant()) {
+        LockSupport.unpark(thread);
+        return true;
+      } else {
+        return false;
+      }
+    }
+  }
+
+  private static final class AsyncWaiter extends Waiter {
+    final CompletableFuture<Void> future = new CompletableFuture<>();
 
-  /** The affiliate object that is bound to the lock; {@code null} being the equivalent of unlocked. */
-  private Object affiliate;
+    AsyncWaiter(Object affiliate) {
+      super(affiliate);
+    }
+
+    @Override
+    boolean grant() {
+      // the future may have been completed externally before the waiter had a chance to withdraw
+      return super.grant() && future.complete(null);
+    }
+  }
+
+  private final boolean fair;
+
+  /** The present ownership of the lock; {@code null} being the equivalent of unlocked. */
+  private final AtomicReference<Hold> hold = new AtomicReference<>();
+
+  private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+  /**
+   *  Creates a non-fair lock.
+   */
+  public ReentrantAffiliateLock() {
+    this(false);
+  }
+
+  /**
+   *  Creates a lock with the given fairness policy.
+   *
+   *  @param fair Whether the lock should be handed to the waiters in their order of arrival.
+   */
+  public ReentrantAffiliateLock(boolean fair) {
+    this.fair = fair;
+  }
+
+  public boolean isFair() {
+    return fair;
+  }
+
+  /**
+   *  Determines whether the lock is presently held by some affiliate. The result is inherently
+   *  racy, being intended for monitoring and testing.
+   *
+   *  @return True if the lock is held.
+   */
+  public boolean isLocked() {
+    return hold.get() != null;
+  }
 
-  /** Present acquisition depth, {@code 0} being the equivalent of an unlocked state. */
-  private int depth;
+  /**
+   *  Estimates the number of acquirers that are presently queued behind the lock. This method
+   *  traverses the queue; it is intended for monitoring and testing.
+   *
+   *  @return The approximate number of queued acquirers.
+   */
+  public int getQueueLength() {
+    int length = 0;
+    for (Waiter waiter : waiters) {
+      if (! waiter.isWithdrawn()) length++;
+    }
+    return length;
+  }
+
+  /**
+   *  Attempts to acquire the lock for the given {@code affiliate}, blocking up to the specified
+   *  upper bound. <p>
+   *
+   *  This is equivalent to invoking {@link #tryLock(long, TimeUnit, Object)} with a timeout
+   *  specified in milliseconds.
+   *
+   *  @param timeoutMillis The acquisition timeout, in milliseconds.
+   *  @param affiliate The affiliate object to use.
+   *  @return True if the lock was acquired within the time bound; false if the acquisition timed out.
+   *  @throws InterruptedException If the thread is interrupted.
+   */
+  public boolean tryLock(int timeoutMillis, Object affiliate) throws InterruptedException {
+    return tryLock(timeoutMillis, TimeUnit.MILLISECONDS, affiliate);
+  }
 
   /**
    *  Attempts to acquire the lock for the given {@code affiliate}, blocking up to the specified
    *  upper bound. <p>
-   *  
+   *
    *  Once a lock has been successfully acquired, subsequent acquisition attempts using the same
    *  affiliate will succeed immediately without blocking (irrespective of the timeout value). The
    *  expectation is that the caller will invoke {@link #unlock(Object)} precisely as many times as
-   *  it had acquired the lock.
-   *  
-   *  @param timeoutMillis The acquisition timeout, in milliseconds.
+   *  it had acquired the lock. <p>
+   *
+   *  A lock that can be acquired without waiting is acquired irrespective of the interrupt status
+   *  of the calling thread; otherwise, an interrupt raised before or during the wait will result in
+   *  an {@link InterruptedException}.
+   *
+   *  @param timeout The acquisition timeout.
+   *  @param unit The unit of the timeout.
    *  @param affiliate The affiliate object to use.
    *  @return True if the lock was acquired within the time bound; false if the acquisition timed out.
    *  @throws InterruptedException If the thread is interrupted.
    */
-  public boolean tryLock(int timeoutMillis, Object affiliate) throws InterruptedException {
+  public boolean tryLock(long timeout, TimeUnit unit, Object affiliate) throws InterruptedException {
+    mustExist(unit, "Time unit cannot be null");
     mustExist(affiliate, "Affiliate cannot be null");
+    if (tryAcquire(affiliate)) return true;
 
-    for (final long deadline = System.currentTimeMillis() + timeoutMillis;;) {
-      synchronized (monitor) {
-        if (this.affiliate != null && ! this.affiliate.equals(affiliate)) {
-          final long timeRemaining = deadline - System.currentTimeMillis();
-          if (timeRemaining > 0) {
-            monitor.wait(timeRemaining);
-          } else {
-            return false;
-          }
-        }
+    final long timeoutNanos = unit.toNanos(timeout);
+    if (timeoutNanos <= 0) return false;
+    if (Thread.interrupted()) throw new InterruptedException();
+
+    final long deadline = System.nanoTime() + timeoutNanos;
+    final ThreadWaiter waiter = new ThreadWaiter(affiliate, Thread.currentThread());
+    enqueue(waiter);
+    for (;;) {
+      if (fair) {
+        if (waiter.isAcquired()) return true;
+      } else if (acquire(affiliate)) {
+        // a non-fair waiter is only ever signalled; having acquired the lock, it leaves the queue
+        waiters.remove(waiter);
+        return true;
+      }
+
+      final long remainingNanos = deadline - System.nanoTime();
+      if (remainingNanos <= 0) {
+        return ! withdraw(waiter);
+      }
 
-        if (this.affiliate == null || this.affiliate.equals(affiliate)) {
-          this.affiliate = affiliate;
-          depth++;
-          return true;
+      LockSupport.parkNanos(this, remainingNanos);
+      if (Thread.interrupted()) {
+        if (! withdraw(waiter)) {
+          // the lock was handed to us at the same time as we were interrupted
+          unlock(affiliate);
         }
+        throw new InterruptedException();
       }
     }
   }
 
+  /**
+   *  Asynchronously acquires the lock for the given {@code affiliate}, returning a
+   *  {@link CompletableFuture} that completes once the lock has been acquired. If the lock
+   *  can be acquired without waiting, the returned future will already have been completed.
+   *  Reentrancy rules are as per {@link #tryLock(long, TimeUnit, Object)}. <p>
+   *
+   *  The attempt may be abandoned at any point by cancelling (or exceptionally completing) the
+   *  returned future, which withdraws the request from the wait queue; this is also the means of
+   *  applying a timeout. If the future is cancelled after it had already been completed, the caller
+   *  owns the lock and must release it as usual. <p>
+   *
+   *  Note, the future is typically completed from within the {@link #unlock(Object)} call of the
+   *  previous owner; actions that are dependent on the future will execute on the unlocking thread
+   *  unless they are chained asynchronously.
+   *
+   *  @param affiliate The affiliate object to use.
+   *  @return A {@link CompletableFuture} that completes once the lock is acquired.
+   */
+  public CompletableFuture<Void> tryLockAsync(Object affiliate) {
+    mustExist(affiliate, "Affiliate cannot be null");
+    if (tryAcquire(affiliate)) return CompletableFuture.completedFuture(null);
+
+    final AsyncWaiter waiter = new AsyncWaiter(affiliate);
+    waiter.future.whenComplete((__, error) -> {
+      if (error != null) withdraw(waiter);
+    });
+    enqueue(waiter);
+    return waiter.future;
+  }
+
   /**
    *  Unlocks a previously acquired lock using a given {@code affiliate}. <p>
-   *  
+   *
    *  The expectation is that the lock must be in a locked state for this method invocation to be permitted;
    *  furthermore, it must be bound to the same affiliate that was used during the earlier call
-   *  to {@link #tryLock(int, Object)}. Equality is determined by calling {@code equals()} on the affiliates.
-   *  Failure to follow this protocol will result in an {@link IllegalMonitorStateException}.
-   *  
+   *  to {@link #tryLock(long, TimeUnit, Object)}. Equality is determined by calling {@code equals()} on the
+   *  affiliates. Failure to follow this protocol will result in an {@link IllegalMonitorStateException}.
+   *
    *  @param affiliate The affiliate object to use.
    *  @throws IllegalMonitorStateException If the lock is not locked or is bound to a different affiliate.
    */
   public void unlock(Object affiliate) {
     mustExist(affiliate, "Affiliate cannot be null");
-    synchronized (monitor) {
-      mustExist(this.affiliate, withMessage("Not locked", IllegalMonitorStateException::new));
-      mustBeEqual(this.affiliate, affiliate, 
-                  withMessage(() -> "Lock affiliated with " + this.affiliate + " is being unlocked by " + affiliate, IllegalMonitorStateException::new));
-      if (--depth == 0) {
-        this.affiliate = null;
-        monitor.notify();
+    for (;;) {
+      final Hold hold = this.hold.get();
+      mustExist(hold, withMessage("Not locked", IllegalMonitorStateException::new));
+      mustBeEqual(hold.affiliate, affiliate,
+                  withMessage(() -> "Lock affiliated with " + hold.affiliate + " is being unlocked by " + affiliate,
+                              IllegalMonitorStateException::new));
+      if (hold.depth > 1) {
+        if (this.hold.compareAndSet(hold, new Hold(hold.affiliate, hold.depth - 1))) return;
+      } else if (this.hold.compareAndSet(hold, null)) {
+        if (! waiters.isEmpty()) signal();
+        return;
+      }
+    }
+  }
+
+  /**
+   *  The fast path of an acquisition, honouring the fairness policy.
+   *
+   *  @param affiliate The affiliate.
+   *  @return True if the lock was acquired.
+   */
+  private boolean tryAcquire(Object affiliate) {
+    if (fair && ! waiters.isEmpty()) {
+      // only a reentrant acquisition may proceed ahead of the queued waiters
+      for (;;) {
+        final Hold hold = this.hold.get();
+        if (hold == null || ! hold.affiliate.equals(affiliate)) return false;
+        if (this.hold.compareAndSet(hold, new Hold(hold.affiliate, hold.depth + 1))) return true;
+      }
+    } else {
+      return acquire(affiliate);
+    }
+  }
+
+  /**
+   *  Acquires the lock if it is either free or is held by an equal affiliate.
+   *
+   *  @param affiliate The affiliate.
+   *  @return True if the lock was acquired.
+   */
+  private boolean acquire(Object affiliate) {
+    for (;;) {
+      final Hold hold = this.hold.get();
+      final Hold newHold;
+      if (hold == null) {
+        newHold = new Hold(affiliate, 1);
+      } else if (hold.affiliate.equals(affiliate)) {
+        newHold = new Hold(hold.affiliate, hold.depth + 1);
+      } else {
+        return false;
+      }
+      if (this.hold.compareAndSet(hold, newHold)) return true;
+    }
+  }
+
+  /**
+   *  Appends a waiter to the queue, then re-evaluates the lock in case it had been released
+   *  after the failed acquisition attempt but before the waiter became visible to the releaser.
+   *
+   *  @param waiter The waiter to enqueue.
+   */
+  private void enqueue(Waiter waiter) {
+    waiters.add(waiter);
+    signal();
+  }
+
+  /**
+   *  Withdraws a waiter from the queue, passing on any signal that it may have consumed to the
+   *  next waiter.
+   *
+   *  @param waiter The waiter to withdraw.
+   *  @return True if the waiter was withdrawn, or false if it had already been granted the lock.
+   */
+  private boolean withdraw(Waiter waiter) {
+    if (waiter.withdraw()) {
+      waiters.remove(waiter);
+      signal();
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  /**
+   *  Signals the waiter at the head of the queue if the lock is available to it. A non-fair thread
+   *  waiter is merely unparked, contending for the lock alongside any barging acquirers; all other
+   *  waiters are handed the lock directly. Having handed off the lock, the next waiter is considered
+   *  in case it shares the affiliate of its predecessor.
+   */
+  private void signal() {
+    for (Waiter head; (head = waiters.peek()) != null;) {
+      if (head.isWithdrawn()) {
+        waiters.remove(head);
+        continue;
+      }
+
+      final Hold hold = this.hold.get();
+      final Hold newHold;
+      if (hold == null) {
+        if (! fair && head instanceof ThreadWaiter) {
+          LockSupport.unpark(((ThreadWaiter) head).thread);
+          return;
+        }
+        newHold = new Hold(head.affiliate, 1);
+      } else if (hold.affiliate.equals(head.affiliate)) {
+        if (! fair && head instanceof ThreadWaiter) {
+          LockSupport.unpark(((ThreadWaiter) head).thread);
+          return;
+        }
+        newHold = new Hold(hold.affiliate, hold.depth + 1);
+      } else {
+        return;
+      }
+
+      if (this.hold.compareAndSet(hold, newHold)) {
+        waiters.remove(head);
+        if (! head.grant()) {
+          // the waiter withdrew before it could be granted the lock; give back its hold
+          unlock(head.affiliate);
+        }
       }
     }
   }
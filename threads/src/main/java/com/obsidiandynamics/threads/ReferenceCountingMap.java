@@ -1,9 +1,13 @@
 package com.obsidiandynamics.threads;
 
+import static com.obsidiandynamics.func.Functions.*;
+
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.function.*;
 
+import com.obsidiandynamics.threads.RetentionPolicy.*;
+
 /**
  *  A concurrent, automatic reference-counting map. <p>
  *  
@@ -34,7 +38,17 @@ import java.util.function.*;
  *  before calling {@code scope()} or after calling {@code descope()}, as the value may not be
  *  consistent with the current mapping at that point in time. The caller should discard
  *  references when leaving the scope, to avoid inadvertently accessing the values in a manner that
- *  violates safety.
+ *  violates safety. <p>
+ *  
+ *  Optionally, a map may be configured with a {@link RetentionPolicy}, in which case a value
+ *  whose reference count reaches zero is retained in an idle pool (remaining mapped), subject to 
+ *  the bounds of the policy. Scoping an idle entry reclaims the existing value, avoiding the cost
+ *  of re-instantiating it; this is beneficial for expensive values under bursty workloads, where
+ *  the reference count frequently drops to zero. Idle entries are evicted in the order in which 
+ *  they became idle (i.e. least recently used first) when a de-scoped entry takes the idle pool 
+ *  beyond the bounds of the policy, or by calling {@link #cleanUp()}. If the policy specifies a 
+ *  time to idle, expired entries are also evicted on every de-scope, and an expired entry is 
+ *  evicted (rather than reclaimed) when it is scoped. No background thread is employed.
  *
  *  @param <K> Key type.
  *  @param <V> Value type.
@@ -44,17 +58,147 @@ public final class ReferenceCountingMap<K, V> {
   private static final float DEF_LOAD_FACTOR = 0.75f;
   private static final int DEF_CONCURRENCY_LEVEL = 16;
   
-  private static final class Slot<V> {
+  private static final class Slot<K, V> {
+    private final K key;
+    
     private final V value;
     
     private int uses = 1;
+    
+    /* The following fields are guarded by the idle pool. */
+    
+    private boolean idle;
+    
+    private long idleSinceNanos;
+    
+    private long weight;
+    
+    private Slot<K, V> prev, next;
+    
+    private EvictionCause evictionCause;
 
-    Slot(V value) {
+    Slot(K key, V value) {
+      this.key = key;
       this.value = value;
     }
   }
   
-  private final Map<K, Slot<V>> map;
+  /**
+   *  Idle slots, linked in the order in which they became idle. Slots are added and removed 
+   *  within the {@link ConcurrentHashMap} bin lock of their key; hence a bin lock may be acquired
+   *  before the pool's monitor, but never after it.
+   */
+  private final class IdlePool {
+    private final RetentionPolicy<? super K, ? super V> policy;
+    
+    /** Whether idle slots may expire, requiring the pool to be inspected even when no slot is added. */
+    private final boolean expiring;
+    
+    private Slot<K, V> head, tail;
+    
+    private int count;
+    
+    private long weight;
+    
+    IdlePool(RetentionPolicy<? super K, ? super V> policy) {
+      this.policy = policy;
+      expiring = policy.getTimeToIdleNanos() != Long.MAX_VALUE;
+    }
+    
+    void add(Slot<K, V> slot) {
+      // the weigher is invoked outside of the monitor, as it is foreign code
+      final long slotWeight = policy.getWeigher().applyAsLong(slot.key, slot.value);
+      synchronized (this) {
+        slot.idle = true;
+        slot.idleSinceNanos = policy.getNanoClock().getAsLong();
+        slot.weight = slotWeight;
+        slot.prev = tail;
+        if (tail != null) {
+          tail.next = slot;
+        } else {
+          head = slot;
+        }
+        tail = slot;
+        count++;
+        weight += slotWeight;
+      }
+    }
+    
+    /**
+     *  Reclaims a slot for use, removing it from the pool if it is idle.
+     *  
+     *  @param slot The slot to reclaim.
+     *  @return True if the slot was reclaimed, or false if it had expired (in which case it 
+     *          is no longer idle, and must be evicted). 
+     */
+    synchronized boolean reclaim(Slot<K, V> slot) {
+      if (! slot.idle) return true;
+      unlink(slot);
+      return ! isExpired(slot, policy.getNanoClock().getAsLong());
+    }
+    
+    synchronized boolean isIdle(Slot<K, V> slot) {
+      return slot.idle;
+    }
+    
+    synchronized int size() {
+      return count;
+    }
+    
+    /**
+     *  Removes the next slot due for eviction, if there is one, recording the cause in the slot.
+     *  
+     *  @param all Whether all idle slots are to be evicted.
+     *  @return The eviction candidate, or {@code null} if no slot is due for eviction.
+     */
+    synchronized Slot<K, V> pollCandidate(boolean all) {
+      final Slot<K, V> candidate = head;
+      if (candidate == null) return null;
+      
+      final EvictionCause cause;
+      if (all) {
+        cause = EvictionCause.EXPLICIT;
+      } else if (count > policy.getMaxIdleEntries()) {
+        cause = EvictionCause.SIZE;
+      } else if (weight > policy.getMaxIdleWeight()) {
+        cause = EvictionCause.WEIGHT;
+      } else if (isExpired(candidate, policy.getNanoClock().getAsLong())) {
+        cause = EvictionCause.EXPIRED;
+      } else {
+        return null;
+      }
+      
+      unlink(candidate);
+      candidate.evictionCause = cause;
+      return candidate;
+    }
+    
+    private boolean isExpired(Slot<K, V> slot, long nowNanos) {
+      return nowNanos - slot.idleSinceNanos > policy.getTimeToIdleNanos();
+    }
+    
+    private void unlink(Slot<K, V> slot) {
+      if (slot.prev != null) {
+        slot.prev.next = slot.next;
+      } else {
+        head = slot.next;
+      }
+      if (slot.next != null) {
+        slot.next.prev = slot.prev;
+      } else {
+        tail = slot.prev;
+      }
+      slot.prev = slot.next = null;
+      slot.idle = false;
+      count--;
+      weight -= slot.weight;
+    }
+  }
+  
+  private final ConcurrentHashMap<K, Slot<K, V>> map;
+  
+  /** Present only if a {@link RetentionPolicy} was specified. */
+  private final IdlePool idlePool;
   
   /**
    *  Creates a reference-counting map with the default capacity, load factor and concurrency level.
@@ -73,6 +217,19 @@ public final class ReferenceCountingMap<K, V> {
    */
   public ReferenceCountingMap(int initialCapacity, float loadFactor, int concurrencyLevel) {
     map = new ConcurrentHashMap<>(initialCapacity, loadFactor, concurrencyLevel);
+    idlePool = null;
+  }
+  
+  /**
+   *  Creates a reference-counting map with the default capacity, load factor and concurrency level, 
+   *  retaining de-scoped values as per the given {@link RetentionPolicy}.
+   *  
+   *  @param retentionPolicy The retention policy.
+   */
+  public ReferenceCountingMap(RetentionPolicy<? super K, ? super V> retentionPolicy) {
+    mustExist(retentionPolicy, "Retention policy cannot be null");
+    map = new ConcurrentHashMap<>(DEF_CAPACITY, DEF_LOAD_FACTOR, DEF_CONCURRENCY_LEVEL);
+    idlePool = new IdlePool(retentionPolicy);
   }
   
   /**
@@ -85,7 +242,7 @@ public final class ReferenceCountingMap<K, V> {
   }
 
   /**
-   *  Obtains the present size of this map.
+   *  Obtains the present size of this map, including any idle entries.
    *  
    *  @return The size of this map.
    */
@@ -93,6 +250,15 @@ public final class ReferenceCountingMap<K, V> {
     return map.size();
   }
   
+  /**
+   *  Obtains the number of idle entries, which is always zero in the absence of a {@link RetentionPolicy}.
+   *  
+   *  @return The number of idle entries.
+   */
+  public int idleSize() {
+    return idlePool != null ? idlePool.size() : 0;
+  }
+  
   /**
    *  Determines whether the map contains a mapping for the given key.
    *  
@@ -122,10 +288,19 @@ public final class ReferenceCountingMap<K, V> {
    *  @return The value if one is present, or {@code null} otherwise.
    */
   public V tryScope(K key) {
-    final Slot<V> slot = map.computeIfPresent(key, (__, existingSlot) -> {
-      existingSlot.uses++;
-      return existingSlot;
+    final ExpiredSlot<K, V> expired = idlePool != null ? new ExpiredSlot<>() : null;
+    final Slot<K, V> slot = map.computeIfPresent(key, (__, existingSlot) -> {
+      if (tryAcquire(existingSlot)) {
+        return existingSlot;
+      } else {
+        expired.slot = existingSlot;
+        return null;
+      }
     });
+    
+    if (expired != null && expired.slot != null) {
+      notifyEviction(expired.slot);
+    }
     return slot != null ? slot.value : null;
   }
   
@@ -138,45 +313,153 @@ public final class ReferenceCountingMap<K, V> {
    *  @return The mapped value.
    */
   public V scope(K key, Supplier<? extends V> valueMaker) {
-    return map.compute(key, (__, existingSlot) -> {
+    final ExpiredSlot<K, V> expired = idlePool != null ? new ExpiredSlot<>() : null;
+    final V value = map.compute(key, (mappedKey, existingSlot) -> {
       if (existingSlot != null) {
-        existingSlot.uses++;
-        return existingSlot;
-      } else {
-        return new Slot<>(valueMaker.get());
+        if (tryAcquire(existingSlot)) {
+          return existingSlot;
+        } else {
+          expired.slot = existingSlot;
+        }
       }
+      return new Slot<>(mappedKey, valueMaker.get());
     }).value;
+    
+    if (expired != null && expired.slot != null) {
+      notifyEviction(expired.slot);
+    }
+    return value;
+  }
+  
+  /** Captures an idle slot that expired while being scoped, so that its eviction can be notified. */
+  private static final class ExpiredSlot<K, V> {
+    Slot<K, V> slot;
+  }
+  
+  /**
+   *  Increments the reference count of a mapped slot, reclaiming it from the idle pool if it is idle.
+   *  Must be called from within the bin lock of the slot's key.
+   *  
+   *  @param slot The slot.
+   *  @return True if the slot was brought into scope, or false if it is an expired idle slot.
+   */
+  private boolean tryAcquire(Slot<K, V> slot) {
+    if (slot.uses == 0 && ! idlePool.reclaim(slot)) {
+      slot.evictionCause = EvictionCause.EXPIRED;
+      return false;
+    } else {
+      slot.uses++;
+      return true;
+    }
   }
   
   /**
    *  Atomically de-scopes the mapping for the given key, if one exists. Attempting to call
-   *  this method for a non-existent mapping will not have any further impact.
+   *  this method for a non-existent mapping will not have any further impact. <p>
+   *  
+   *  If the map has a {@link RetentionPolicy}, a value that is no longer in scope is moved to 
+   *  the idle pool, and any idle entries that are in excess of the policy's bounds are evicted.
+   *  (Where the policy specifies a time to idle, expired entries are evicted on every call.)
    *  
    *  @param key The key.
    */
   public void descope(K key) {
+    final boolean[] idled = { false };
     map.computeIfPresent(key, (__, existingSlot) -> {
-      existingSlot.uses--;
-      return existingSlot.uses == 0 ? null : existingSlot;
+      if (existingSlot.uses == 0) {
+        // already idle
+        return existingSlot;
+      } else if (--existingSlot.uses != 0) {
+        return existingSlot;
+      } else if (idlePool != null) {
+        idlePool.add(existingSlot);
+        idled[0] = true;
+        return existingSlot;
+      } else {
+        return null;
+      }
     });
+    
+    // the bounds can only have been exceeded if a slot was added; otherwise only expiry is of concern
+    if (idlePool != null && (idled[0] || idlePool.expiring)) {
+      evict(false);
+    }
+  }
+  
+  /**
+   *  Evicts the idle entries that are in excess of the bounds of the {@link RetentionPolicy}, 
+   *  including those that have expired. Has no effect in the absence of a retention policy.
+   */
+  public void cleanUp() {
+    if (idlePool != null) {
+      evict(false);
+    }
+  }
+  
+  /**
+   *  Evicts all idle entries. Has no effect in the absence of a {@link RetentionPolicy}.
+   */
+  public void evictAllIdle() {
+    if (idlePool != null) {
+      evict(true);
+    }
+  }
+  
+  private void evict(boolean all) {
+    for (Slot<K, V> candidate; (candidate = idlePool.pollCandidate(all)) != null;) {
+      final Slot<K, V> _candidate = candidate;
+      final boolean[] evicted = { false };
+      map.computeIfPresent(candidate.key, (__, existingSlot) -> {
+        // the candidate may have since been reclaimed (and possibly returned to the pool), in which case it
+        // stays; having been returned and polled again, whichever evictor gets to it first removes it
+        if (existingSlot == _candidate && existingSlot.uses == 0 && ! idlePool.isIdle(existingSlot)) {
+          evicted[0] = true;
+          return null;
+        } else {
+          return existingSlot;
+        }
+      });
+      
+      if (evicted[0]) {
+        notifyEviction(candidate);
+      }
+    }
+  }
+  
+  private void notifyEviction(Slot<K, V> slot) {
+    idlePool.policy.getEvictionListener().onEviction(slot.key, slot.value, slot.evictionCause);
   }
   
   /**
    *  A scope-aware iterator of the mapped entries. The given {@code action} is invoked sequentially
-   *  for each entry, acquiring a scope reference before calling the action, and de-scoping
-   *  the entry afterwards.
+   *  for each entry. An entry that is in scope has a reference acquired before calling the action,
+   *  and is de-scoped afterwards. An idle entry is presented as-is, without being reclaimed from the
+   *  idle pool — thereby preserving its eviction order and idle time — and may therefore be evicted
+   *  concurrently with the action.
    *  
    *  @param action The action to call for each entry.
    */
   public void forEach(BiConsumer<? super K, ? super V> action) {
     for (K key : map.keySet()) {
-      final V value = tryScope(key);
-      if (value != null) {
+      final boolean[] scoped = { false };
+      final Slot<K, V> slot = map.computeIfPresent(key, (__, existingSlot) -> {
+        if (existingSlot.uses != 0) {
+          existingSlot.uses++;
+          scoped[0] = true;
+        }
+        return existingSlot;
+      });
+      
+      if (slot == null) {
+        continue;
+      } else if (scoped[0]) {
         try {
-          action.accept(key, value);
+          action.accept(key, slot.value);
         } finally {
           descope(key);
         }
+      } else {
+        action.accept(key, slot.value);
       }
     }
   }
@@ -0,0 +1,154 @@
+package com.obsidiandynamics.threads;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ *  Governs the retention of values in a {@link ReferenceCountingMap} once their reference count
+ *  drops to zero (see {@link ReferenceCountingMap#ReferenceCountingMap(RetentionPolicy)}). <p>
+ *
+ *  Rather than being expunged immediately, a de-scoped value is moved to an idle pool, from
+ *  which it may be reclaimed by a subsequent scope without being re-instantiated. The idle pool
+ *  is bounded by the number of idle entries, by their aggregate weight (as determined by a
+ *  weigher), and by the time that an entry may remain idle. When a bound is exceeded, the least
+ *  recently used idle entries are evicted, and the eviction listener is notified. Entries that
+ *  are in scope are never evicted, nor do they count towards the bounds. <p>
+ *
+ *  By default, the pool is unbounded in size and weight, and entries do not expire.
+ *
+ *  @param <K> Key type.
+ *  @param <V> Value type.
+ */
+public final class RetentionPolicy<K, V> {
+  /**
+   *  The reason for evicting an idle entry.
+   */
+  public enum EvictionCause {
+    /** The number of idle entries exceeded the maximum. */
+    SIZE,
+
+    /** The aggregate weight of the idle entries exceeded the maximum. */
+    WEIGHT,
+
+    /** The entry had been idle for longer than the time-to-idle. */
+    EXPIRED,
+
+    /** The idle pool was explicitly purged. */
+    EXPLICIT
+  }
+
+  /**
+   *  Notified of the eviction of an idle entry, once the entry has been removed from the map.
+   *
+   *  @param <K> Key type.
+   *  @param <V> Value type.
+   */
+  @FunctionalInterface
+  public interface EvictionListener<K, V> {
+    void onEviction(K key, V value, EvictionCause cause);
+  }
+
+  private int maxIdleEntries = Integer.MAX_VALUE;
+
+  private long maxIdleWeight = Long.MAX_VALUE;
+
+  private ToLongBiFunction<? super K, ? super V> weigher = (__key, __value) -> 1;
+
+  private long timeToIdleNanos = Long.MAX_VALUE;
+
+  private EvictionListener<? super K, ? super V> evictionListener = (__key, __value, __cause) -> {};
+
+  private LongSupplier nanoClock = System::nanoTime;
+
+  public int getMaxIdleEntries() {
+    return maxIdleEntries;
+  }
+
+  /**
+   *  Sets the maximum number of idle entries; {@code 0} disables retention altogether.
+   *
+   *  @param maxIdleEntries The maximum number of idle entries.
+   *  @return This {@link RetentionPolicy} instance for fluent chaining.
+   */
+  public RetentionPolicy<K, V> withMaxIdleEntries(int maxIdleEntries) {
+    mustBeGreaterOrEqual(maxIdleEntries, 0, illegalArgument("Max idle entries cannot be negative"));
+    this.maxIdleEntries = maxIdleEntries;
+    return this;
+  }
+
+  public long getMaxIdleWeight() {
+    return maxIdleWeight;
+  }
+
+  ToLongBiFunction<? super K, ? super V> getWeigher() {
+    return weigher;
+  }
+
+  /**
+   *  Bounds the aggregate weight of the idle entries, where the weight of each entry is
+   *  determined by the given {@code weigher} at the time the entry becomes idle.
+   *
+   *  @param maxIdleWeight The maximum aggregate weight.
+   *  @param weigher Determines the weight of an entry; must return a non-negative value.
+   *  @return This {@link RetentionPolicy} instance for fluent chaining.
+   */
+  public RetentionPolicy<K, V> withMaxIdleWeight(long maxIdleWeight, ToLongBiFunction<? super K, ? super V> weigher) {
+    mustBeGreaterOrEqual(maxIdleWeight, 0L, illegalArgument("Max idle weight cannot be negative"));
+    mustExist(weigher, "Weigher cannot be null");
+    this.maxIdleWeight = maxIdleWeight;
+    this.weigher = weigher;
+    return this;
+  }
+
+  public long getTimeToIdleNanos() {
+    return timeToIdleNanos;
+  }
+
+  /**
+   *  Sets the maximum time that an entry may remain idle before it expires. An expired entry is
+   *  never reclaimed; it is evicted in the course of a subsequent operation on the map, or by
+   *  {@link ReferenceCountingMap#cleanUp()}.
+   *
+   *  @param duration The time-to-idle.
+   *  @param unit The unit of the duration.
+   *  @return This {@link RetentionPolicy} instance for fluent chaining.
+   */
+  public RetentionPolicy<K, V> withTimeToIdle(long duration, TimeUnit unit) {
+    final long timeToIdleNanos = unit.toNanos(duration);
+    mustBeGreater(timeToIdleNanos, 0L, illegalArgument("Time to idle must be greater than 0"));
+    this.timeToIdleNanos = timeToIdleNanos;
+    return this;
+  }
+
+  EvictionListener<? super K, ? super V> getEvictionListener() {
+    return evictionListener;
+  }
+
+  public RetentionPolicy<K, V> withEvictionListener(EvictionListener<? super K, ? super V> evictionListener) {
+    this.evictionListener = mustExist(evictionListener, "Eviction listener cannot be null");
+    return this;
+  }
+
+  LongSupplier getNanoClock() {
+    return nanoClock;
+  }
+
+  /**
+   *  Substitutes the source of {@link System#nanoTime()}; for testing.
+   *
+   *  @param nanoClock The clock.
+   *  @return This {@link RetentionPolicy} instance for fluent chaining.
+   */
+  RetentionPolicy<K, V> withNanoClock(LongSupplier nanoClock) {
+    this.nanoClock = nanoClock;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return RetentionPolicy.class.getSimpleName() + " [maxIdleEntries=" + maxIdleEntries + ", maxIdleWeight=" + maxIdleWeight +
+        ", timeToIdleNanos=" + timeToIdleNanos + "]";
+  }
+}
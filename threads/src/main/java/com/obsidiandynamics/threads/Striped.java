@@ -16,6 +16,7 @@ import static com.obsidiandynamics.func.Functions.*;
  *  
  *  @see EagerStriped
  *  @see LazyStriped
+ *  @see PaddedStriped
  */
 public interface Striped<S> {
   /**
@@ -38,7 +39,10 @@ public interface Striped<S> {
   
   /**
    *  Obtains stripe number that a particular hash reduces to, given the number
-   *  of stripes.
+   *  of stripes. <p>
+   *  
+   *  When the number of stripes is a power of two, the reduction is a mask rather than a 
+   *  division, yielding the same result.
    *  
    *  @param hash The hash to reduce.
    *  @param stripes The number of stripes.
@@ -47,6 +51,10 @@ public interface Striped<S> {
   static int resolveStripe(int hash, int stripes) {
     // gets a better hash spread (lifted from HashMap), without adversely impacting the quality of already-good hashes
     final int spreadHash = hash ^ (hash >>> 16);
-    return ((spreadHash % stripes) + stripes) % stripes;
+    if (stripes > 0 && (stripes & (stripes - 1)) == 0) {
+      return spreadHash & (stripes - 1);
+    } else {
+      return Math.floorMod(spreadHash, stripes);
+    }
   }
 }
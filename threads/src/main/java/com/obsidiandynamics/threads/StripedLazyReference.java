@@ -0,0 +1,83 @@
+package com.obsidiandynamics.threads;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+import com.obsidiandynamics.func.*;
+
+/**
+ *  A lazily instantiated reference that maintains a separate referent for each of a number of
+ *  stripes, for referents that are costly to create and are contended when shared by all
+ *  threads, but may be freely duplicated. <p>
+ *  
+ *  The stripe is selected by the calling thread's probe (see
+ *  {@link PaddedStriped#getForCurrentThread()}), so that a thread consistently obtains the same
+ *  cached referent, and threads are spread across stripes. Unlike a {@link ThreadLocal}, the number
+ *  of referents is bounded by the number of stripes rather than by the number of threads;
+ *  consequently, a referent may be shared by several threads, and must be thread-safe. A thread
+ *  that experiences contention on its referent may move to another stripe by calling
+ *  {@link PaddedStriped#advanceProbe()}. <p>
+ *  
+ *  Each stripe is an {@link AtomicLazyReference}; once a stripe's referent has been published,
+ *  {@link #get()} never enters a monitor. The referents may be instantiated ahead of first use
+ *  with {@link #warm()}, which allocates them adjacently from the calling thread; referents that are
+ *  mutated in place should pad their hot fields (see {@link PaddedCounter}) to avoid falsely
+ *  sharing cache lines with one another. <p>
+ *  
+ *  This class is thread-safe.
+ *  
+ *  @param <T> Reference type.
+ *  @param <X> Exception type.
+ */
+public final class StripedLazyReference<T, X extends Throwable> {
+  private final PaddedStriped<AtomicLazyReference<T, X>> stripes;
+  
+  /**
+   *  Constructor.
+   *  
+   *  @param stripes The number of stripes, which will be rounded up to a power of two.
+   *  @param supplier The supplier of referents, invoked at least once for each stripe in use.
+   */
+  public StripedLazyReference(int stripes, CheckedSupplier<? extends T, ? extends X> supplier) {
+    mustExist(supplier, "Supplier cannot be null");
+    this.stripes = new PaddedStriped<>(stripes, () -> new AtomicLazyReference<>(supplier));
+  }
+  
+  /**
+   *  Obtains the number of stripes, which is the requested number rounded up to a power of two.
+   *  
+   *  @return The number of stripes.
+   */
+  public int getStripes() {
+    return stripes.getStripes();
+  }
+  
+  /**
+   *  Obtains the referent for the current thread's stripe, instantiating it on the first request.
+   *  
+   *  @return The referent.
+   *  @throws X If an error occurs in the supplier.
+   */
+  public T get() throws X {
+    return stripes.getForCurrentThread().get();
+  }
+  
+  /**
+   *  Instantiates the referents of all stripes that have yet to be instantiated.
+   *  
+   *  @throws X If an error occurs in the supplier.
+   */
+  public void warm() throws X {
+    for (int stripe = 0, numStripes = stripes.getStripes(); stripe < numStripes; stripe++) {
+      stripes.getStripe(stripe).get();
+    }
+  }
+  
+  @Override
+  public String toString() {
+    return StripedLazyReference.class.getSimpleName() + " [stripes=" + stripes.getStripes() + "]";
+  }
+  
+  public static <T, X extends Throwable> StripedLazyReference<T, X> from(int stripes, CheckedSupplier<? extends T, ? extends X> supplier) {
+    return new StripedLazyReference<>(stripes, supplier);
+  }
+}
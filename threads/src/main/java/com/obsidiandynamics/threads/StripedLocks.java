@@ -0,0 +1,228 @@
+package com.obsidiandynamics.threads;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+import java.util.function.*;
+
+import com.obsidiandynamics.func.*;
+
+/**
+ *  A {@link Striped} set of eagerly initialised read-write locks, offering shared and exclusive
+ *  acquisition of the stripe covering a single key, as well as of all the stripes covering a set
+ *  of keys. <p>
+ *
+ *  Bulk acquisition is deadlock-free: the stripes covering the given keys are deduplicated and
+ *  acquired in ascending stripe order, and released in the reverse order. Thus, two threads
+ *  acquiring overlapping key sets (in whatever order the keys were supplied) cannot form a cycle.
+ *  Mixing bulk acquisitions with ad hoc acquisitions of single-key locks while holding others
+ *  voids this guarantee. <p>
+ *
+ *  A bulk lock is a composite {@link Lock} over the individual stripes; it must be released by
+ *  the same {@link Lock} instance, and does not support conditions.
+ *
+ *  @param <L> The type of the striped lock.
+ *
+ *  @see StripedReadWriteLocks
+ *  @see StripedStampedLocks
+ */
+public abstract class StripedLocks<L> implements Striped<L> {
+  private final Object[] locks;
+
+  StripedLocks(int stripes, Supplier<? extends L> lockSupplier) {
+    mustExist(lockSupplier, "Lock supplier cannot be null");
+    mustBeGreater(stripes, 0, illegalArgument("Number of stripes must be greater than 0"));
+    locks = new Object[stripes];
+    for (int stripe = 0; stripe < stripes; stripe++) {
+      locks[stripe] = lockSupplier.get();
+    }
+  }
+
+  /**
+   *  Obtains a view of the given lock for shared acquisition.
+   *
+   *  @param lock The striped lock.
+   *  @return The read {@link Lock} view.
+   */
+  abstract Lock readView(L lock);
+
+  /**
+   *  Obtains a view of the given lock for exclusive acquisition.
+   *
+   *  @param lock The striped lock.
+   *  @return The write {@link Lock} view.
+   */
+  abstract Lock writeView(L lock);
+
+  public final int getStripes() {
+    return locks.length;
+  }
+
+  @Override
+  public final L get(int keyHash) {
+    return getStripe(Striped.resolveStripe(keyHash, locks.length));
+  }
+
+  final L getStripe(int stripe) {
+    return Classes.cast(locks[stripe]);
+  }
+
+  /**
+   *  Obtains the distinct stripes covering the given keys, in ascending order.
+   *
+   *  @param keys The hashable keys.
+   *  @return The sorted array of stripe indexes.
+   */
+  public final int[] stripesOf(Collection<?> keys) {
+    mustExist(keys, "Keys cannot be null");
+    final int[] stripes = new int[keys.size()];
+    int count = 0;
+    for (Object key : keys) {
+      stripes[count++] = Striped.resolveStripe(mustExist(key, "Key cannot be null").hashCode(), locks.length);
+    }
+    Arrays.sort(stripes);
+
+    int distinct = 0;
+    for (int i = 0; i < count; i++) {
+      if (distinct == 0 || stripes[distinct - 1] != stripes[i]) {
+        stripes[distinct++] = stripes[i];
+      }
+    }
+    return distinct == stripes.length ? stripes : Arrays.copyOf(stripes, distinct);
+  }
+
+  /**
+   *  Obtains the shared lock for the stripe covering the given key.
+   *
+   *  @param key The hashable key.
+   *  @return The read {@link Lock}.
+   */
+  public final Lock readLock(Object key) {
+    return readView(get(key));
+  }
+
+  /**
+   *  Obtains the exclusive lock for the stripe covering the given key.
+   *
+   *  @param key The hashable key.
+   *  @return The write {@link Lock}.
+   */
+  public final Lock writeLock(Object key) {
+    return writeView(get(key));
+  }
+
+  /**
+   *  Obtains a composite lock for the shared acquisition of all stripes covering the given keys.
+   *
+   *  @param keys The hashable keys.
+   *  @return The composite read {@link Lock}.
+   */
+  public final Lock readLocks(Collection<?> keys) {
+    final int[] stripes = stripesOf(keys);
+    final Lock[] views = new Lock[stripes.length];
+    for (int i = 0; i < stripes.length; i++) {
+      views[i] = readView(getStripe(stripes[i]));
+    }
+    return new MultiStripeLock(views);
+  }
+
+  /**
+   *  Obtains a composite lock for the exclusive acquisition of all stripes covering the given keys.
+   *
+   *  @param keys The hashable keys.
+   *  @return The composite write {@link Lock}.
+   */
+  public final Lock writeLocks(Collection<?> keys) {
+    final int[] stripes = stripesOf(keys);
+    final Lock[] views = new Lock[stripes.length];
+    for (int i = 0; i < stripes.length; i++) {
+      views[i] = writeView(getStripe(stripes[i]));
+    }
+    return new MultiStripeLock(views);
+  }
+
+  /**
+   *  Acquires the constituent locks in their given order, releasing them in reverse. A failed or
+   *  interrupted acquisition releases the locks acquired thus far.
+   */
+  private static final class MultiStripeLock implements Lock {
+    private final Lock[] locks;
+
+    MultiStripeLock(Lock[] locks) {
+      this.locks = locks;
+    }
+
+    @Override
+    public void lock() {
+      for (Lock lock : locks) {
+        lock.lock();
+      }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+      for (int i = 0; i < locks.length; i++) {
+        try {
+          locks[i].lockInterruptibly();
+        } catch (InterruptedException e) {
+          unlock(i);
+          throw e;
+        }
+      }
+    }
+
+    @Override
+    public boolean tryLock() {
+      for (int i = 0; i < locks.length; i++) {
+        if (! locks[i].tryLock()) {
+          unlock(i);
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+      final long deadline = System.nanoTime() + unit.toNanos(time);
+      for (int i = 0; i < locks.length; i++) {
+        final boolean acquired;
+        try {
+          acquired = locks[i].tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+          unlock(i);
+          throw e;
+        }
+
+        if (! acquired) {
+          unlock(i);
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public void unlock() {
+      unlock(locks.length);
+    }
+
+    /**
+     *  Releases the first {@code count} locks, in reverse order.
+     *
+     *  @param count The number of locks to release.
+     */
+    private void unlock(int count) {
+      for (int i = count; --i >= 0;) {
+        locks[i].unlock();
+      }
+    }
+
+    @Override
+    public Condition newCondition() {
+      throw new UnsupportedOperationException("Conditions are not supported by a multi-stripe lock");
+    }
+  }
+}
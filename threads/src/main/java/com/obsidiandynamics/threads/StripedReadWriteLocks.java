@@ -0,0 +1,39 @@
+package com.obsidiandynamics.threads;
+
+import java.util.concurrent.locks.*;
+
+/**
+ *  {@link StripedLocks} backed by {@link ReentrantReadWriteLock}s. Being reentrant, the stripes
+ *  may be reacquired by a thread that already holds them, including when the covering key sets
+ *  of successive bulk acquisitions overlap.
+ */
+public final class StripedReadWriteLocks extends StripedLocks<ReentrantReadWriteLock> {
+  /**
+   *  Creates a set of non-fair striped locks.
+   *
+   *  @param stripes The number of stripes.
+   */
+  public StripedReadWriteLocks(int stripes) {
+    this(stripes, false);
+  }
+
+  /**
+   *  Creates a set of striped locks with the given fairness policy.
+   *
+   *  @param stripes The number of stripes.
+   *  @param fair Whether the stripes should use a fair ordering policy.
+   */
+  public StripedReadWriteLocks(int stripes, boolean fair) {
+    super(stripes, () -> new ReentrantReadWriteLock(fair));
+  }
+
+  @Override
+  Lock readView(ReentrantReadWriteLock lock) {
+    return lock.readLock();
+  }
+
+  @Override
+  Lock writeView(ReentrantReadWriteLock lock) {
+    return lock.writeLock();
+  }
+}
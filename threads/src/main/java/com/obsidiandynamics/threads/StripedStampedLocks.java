@@ -0,0 +1,99 @@
+package com.obsidiandynamics.threads;
+
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+/**
+ *  {@link StripedLocks} backed by {@link StampedLock}s, additionally supporting optimistic reads
+ *  of the stripes covering a single key or a set of keys. An optimistic read does not block
+ *  writers (nor is it blocked by them); instead, the reader validates its stamps after reading, 
+ *  falling back to a pessimistic read if a write may have intervened. <p>
+ *
+ *  Note, a {@link StampedLock} is not reentrant; a thread must not reacquire a stripe that it
+ *  already holds, which also applies to bulk acquisitions whose covering key sets overlap.
+ */
+public final class StripedStampedLocks extends StripedLocks<StampedLock> {
+  /**
+   *  The stamps of an optimistic read across a set of stripes.
+   */
+  public final class OptimisticRead {
+    private final int[] stripes;
+
+    private final long[] stamps;
+
+    OptimisticRead(int[] stripes, long[] stamps) {
+      this.stripes = stripes;
+      this.stamps = stamps;
+    }
+
+    /**
+     *  Determines whether none of the covered stripes have been exclusively acquired since
+     *  the read began (or at the time the read began).
+     *
+     *  @return True if the data read under this optimistic read is consistent.
+     */
+    public boolean validate() {
+      for (int i = 0; i < stripes.length; i++) {
+        if (! getStripe(stripes[i]).validate(stamps[i])) return false;
+      }
+      return true;
+    }
+  }
+
+  /**
+   *  Creates a set of striped locks.
+   *
+   *  @param stripes The number of stripes.
+   */
+  public StripedStampedLocks(int stripes) {
+    super(stripes, StampedLock::new);
+  }
+
+  @Override
+  Lock readView(StampedLock lock) {
+    return lock.asReadLock();
+  }
+
+  @Override
+  Lock writeView(StampedLock lock) {
+    return lock.asWriteLock();
+  }
+
+  /**
+   *  Begins an optimistic read of the stripe covering the given key.
+   *
+   *  @param key The hashable key.
+   *  @return The stamp, which is zero if the stripe is exclusively held.
+   *  @see StampedLock#tryOptimisticRead()
+   */
+  public long tryOptimisticRead(Object key) {
+    return get(key).tryOptimisticRead();
+  }
+
+  /**
+   *  Validates an optimistic read of the stripe covering the given key.
+   *
+   *  @param key The hashable key.
+   *  @param stamp The stamp obtained from {@link #tryOptimisticRead(Object)}.
+   *  @return True if the stripe has not been exclusively acquired since the stamp was issued.
+   *  @see StampedLock#validate(long)
+   */
+  public boolean validate(Object key, long stamp) {
+    return get(key).validate(stamp);
+  }
+
+  /**
+   *  Begins an optimistic read of all stripes covering the given keys.
+   *
+   *  @param keys The hashable keys.
+   *  @return The {@link OptimisticRead}, to be validated once the read has completed.
+   */
+  public OptimisticRead tryOptimisticReads(Collection<?> keys) {
+    final int[] stripes = stripesOf(keys);
+    final long[] stamps = new long[stripes.length];
+    for (int i = 0; i < stripes.length; i++) {
+      stamps[i] = getStripe(stripes[i]).tryOptimisticRead();
+    }
+    return new OptimisticRead(stripes, stamps);
+  }
+}
@@ -0,0 +1,114 @@
+package com.obsidiandynamics.threads;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+import java.util.concurrent.*;
+
+/**
+ *  Options for the work-stealing mode of {@link Parallel} (see
+ *  {@link Parallel#forRange(int, int, WorkStealingOptions, java.util.function.IntConsumer)}). <p>
+ *
+ *  By default, the workers run on the {@link ForkJoinPool#commonPool()}, their number matches
+ *  the number of available processors, chunks may be as small as a single element, the workers
+ *  start as soon as they are submitted, and {@link Parallel#run()} blocks until they complete.
+ */
+public final class WorkStealingOptions {
+  private Executor executor = ForkJoinPool.commonPool();
+
+  private int parallelism = Runtime.getRuntime().availableProcessors();
+
+  private int minChunkSize = 1;
+
+  private boolean barrierStart;
+
+  private boolean blocking = true;
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   *  Sets the executor that the workers are submitted to. When a barrier start is requested, the
+   *  executor must be capable of running all workers concurrently; a {@link ForkJoinPool}
+   *  compensates for the blocked workers automatically.
+   *
+   *  @param executor The executor.
+   *  @return This {@link WorkStealingOptions} instance for fluent chaining.
+   */
+  public WorkStealingOptions withExecutor(Executor executor) {
+    this.executor = mustExist(executor, "Executor cannot be null");
+    return this;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   *  Sets the maximum number of workers. Fewer workers are used if there is insufficient work
+   *  to give each worker at least one chunk of the minimum size.
+   *
+   *  @param parallelism The maximum number of workers.
+   *  @return This {@link WorkStealingOptions} instance for fluent chaining.
+   */
+  public WorkStealingOptions withParallelism(int parallelism) {
+    mustBeGreater(parallelism, 0, illegalArgument("Parallelism must be greater than 0"));
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  public int getMinChunkSize() {
+    return minChunkSize;
+  }
+
+  /**
+   *  Sets the minimum number of elements that a worker claims (or steals) in one go, amortising
+   *  the cost of claiming over several elements where the per-element work is small.
+   *
+   *  @param minChunkSize The minimum chunk size.
+   *  @return This {@link WorkStealingOptions} instance for fluent chaining.
+   */
+  public WorkStealingOptions withMinChunkSize(int minChunkSize) {
+    mustBeGreater(minChunkSize, 0, illegalArgument("Min chunk size must be greater than 0"));
+    this.minChunkSize = minChunkSize;
+    return this;
+  }
+
+  public boolean isBarrierStart() {
+    return barrierStart;
+  }
+
+  /**
+   *  Determines whether the workers are held back until all of them have started and
+   *  {@link Parallel#run()} has been called, so that they commence processing together.
+   *
+   *  @param barrierStart Whether to start the workers from a barrier.
+   *  @return This {@link WorkStealingOptions} instance for fluent chaining.
+   */
+  public WorkStealingOptions withBarrierStart(boolean barrierStart) {
+    this.barrierStart = barrierStart;
+    return this;
+  }
+
+  public boolean isBlocking() {
+    return blocking;
+  }
+
+  /**
+   *  Determines whether {@link Parallel#run()} waits for the workers to complete, rethrowing the
+   *  first exception thrown by the task.
+   *
+   *  @param blocking Whether to block.
+   *  @return This {@link WorkStealingOptions} instance for fluent chaining.
+   */
+  public WorkStealingOptions withBlocking(boolean blocking) {
+    this.blocking = blocking;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return WorkStealingOptions.class.getSimpleName() + " [executor=" + executor + ", parallelism=" + parallelism +
+        ", minChunkSize=" + minChunkSize + ", barrierStart=" + barrierStart + ", blocking=" + blocking + "]";
+  }
+}
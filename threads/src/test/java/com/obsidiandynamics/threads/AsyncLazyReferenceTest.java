@@ -0,0 +1,157 @@
+package com.obsidiandynamics.threads;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.junit.*;
+
+import com.obsidiandynamics.await.*;
+
+public final class AsyncLazyReferenceTest {
+  private ExecutorService executor;
+
+  @Before
+  public void before() {
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @After
+  public void after() throws InterruptedException {
+    executor.shutdownNow();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testGet() {
+    final AtomicInteger supplied = new AtomicInteger();
+    final AsyncLazyReference<String> ref = AsyncLazyReference.from(executor, () -> {
+      supplied.incrementAndGet();
+      return "str";
+    });
+    assertNull(ref.peek());
+    assertTrue(ref.toString().contains("null"));
+
+    final CompletableFuture<String> future = ref.get();
+    assertEquals("str", future.join());
+    assertSame(future, ref.get());
+    assertEquals("str", ref.peek());
+    assertTrue(ref.toString().contains("str"));
+    assertEquals(1, supplied.get());
+  }
+
+  @Test
+  public void testGetOnCommonPool() {
+    final AsyncLazyReference<String> ref = AsyncLazyReference.from(() -> "str");
+    assertEquals("str", ref.get().join());
+  }
+
+  @Test
+  public void testWarmRunsOnExecutor() throws InterruptedException {
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicReference<Thread> supplyingThread = new AtomicReference<>();
+    final AsyncLazyReference<String> ref = AsyncLazyReference.from(executor, () -> {
+      supplyingThread.set(Thread.currentThread());
+      release.await();
+      return "str";
+    });
+
+    final CompletableFuture<String> warming = ref.warm();
+    assertFalse(warming.isDone());
+    assertSame(warming, ref.get());
+    assertNull(ref.peek());
+
+    release.countDown();
+    assertEquals("str", warming.join());
+    assertNotSame(Thread.currentThread(), supplyingThread.get());
+  }
+
+  @Test
+  public void testGetWithExceptionRetries() {
+    final AtomicInteger attempts = new AtomicInteger();
+    final AsyncLazyReference<String> ref = AsyncLazyReference.from(Runnable::run, () -> {
+      if (attempts.incrementAndGet() == 1) throw new IOException("Simulated");
+      return "str";
+    });
+
+    final CompletableFuture<String> failed = ref.get();
+    assertTrue(failed.isCompletedExceptionally());
+    try {
+      failed.join();
+      fail("Expected an exception");
+    } catch (CompletionException e) {
+      assertEquals(IOException.class, e.getCause().getClass());
+    }
+    assertNull(ref.peek());
+
+    final CompletableFuture<String> retried = ref.get();
+    assertNotSame(failed, retried);
+    assertEquals("str", retried.join());
+    assertEquals(2, attempts.get());
+  }
+
+  @Test
+  public void testGetRejected() {
+    executor.shutdown();
+    final AsyncLazyReference<String> ref = AsyncLazyReference.from(executor, () -> "str");
+    final CompletableFuture<String> future = ref.get();
+    assertTrue(future.isCompletedExceptionally());
+    assertNull(ref.peek());
+  }
+
+  @Test
+  public void testCancelBeforeStartResets() throws InterruptedException {
+    final CountDownLatch blocked = new CountDownLatch(1);
+    executor.execute(() -> Threads.await(blocked));
+    final AtomicInteger supplied = new AtomicInteger();
+    final AsyncLazyReference<String> ref = AsyncLazyReference.from(executor, () -> {
+      supplied.incrementAndGet();
+      return "str";
+    });
+
+    final CompletableFuture<String> cancelled = ref.get();
+    cancelled.cancel(false);
+    assertSame(cancelled, ref.get());
+    
+    // the queued task resets the reference without invoking the supplier
+    blocked.countDown();
+    final CountDownLatch dequeued = new CountDownLatch(1);
+    executor.execute(dequeued::countDown);
+    dequeued.await();
+    assertEquals(0, supplied.get());
+
+    final CompletableFuture<String> retried = ref.get();
+    assertNotSame(cancelled, retried);
+    assertEquals("str", retried.join());
+    assertEquals(1, supplied.get());
+  }
+
+  @Test
+  public void testCancelWhileRunningRetainsReferent() throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger supplied = new AtomicInteger();
+    final AsyncLazyReference<String> ref = AsyncLazyReference.from(executor, () -> {
+      supplied.incrementAndGet();
+      started.countDown();
+      release.await();
+      return "str";
+    });
+
+    final CompletableFuture<String> cancelled = ref.get();
+    started.await();
+    cancelled.cancel(false);
+    
+    // the supplier must not be invoked again while the first invocation is running
+    assertSame(cancelled, ref.get());
+    release.countDown();
+    
+    Timesert.wait(10_000).untilTrue(() -> "str".equals(ref.peek()));
+    final CompletableFuture<String> retained = ref.get();
+    assertNotSame(cancelled, retained);
+    assertEquals("str", retained.join());
+    assertEquals(1, supplied.get());
+  }
+}
@@ -0,0 +1,71 @@
+package com.obsidiandynamics.threads;
+
+import static com.obsidiandynamics.func.Functions.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.junit.*;
+
+public final class AtomicLazyReferenceTest {
+  @Test
+  public void testGet() {
+    final AtomicLazyReference<String, RuntimeException> ref = AtomicLazyReference.from(give("str"));
+    assertNull(ref.peek());
+    assertTrue(ref.toString().contains("null"));
+
+    final String value = ref.get();
+    assertEquals("str", value);
+    assertSame(value, ref.get());
+    assertSame(value, ref.peek());
+    assertTrue(ref.toString().contains("str"));
+  }
+
+  @Test
+  public void testGetRace() throws InterruptedException {
+    final CountDownLatch bothSupplying = new CountDownLatch(2);
+    final AtomicInteger supplied = new AtomicInteger();
+    final AtomicLazyReference<Object, RuntimeException> ref = AtomicLazyReference.from(() -> {
+      supplied.incrementAndGet();
+      bothSupplying.countDown();
+      Threads.await(bothSupplying);
+      return new Object();
+    });
+
+    final AtomicReference<Object> otherValue = new AtomicReference<>();
+    final Thread other = new Thread(() -> otherValue.set(ref.get()));
+    other.start();
+    final Object value = ref.get();
+    other.join();
+
+    assertEquals(2, supplied.get());
+    assertSame(value, otherValue.get());
+    assertSame(value, ref.peek());
+  }
+
+  @Test
+  public void testGetWithException() {
+    final AtomicInteger attempts = new AtomicInteger();
+    final AtomicLazyReference<String, IOException> ref = AtomicLazyReference.from(() -> {
+      if (attempts.incrementAndGet() == 1) throw new IOException("Simulated");
+      return "str";
+    });
+
+    try {
+      ref.get();
+      fail("Expected an exception");
+    } catch (IOException e) {
+      assertEquals("Simulated", e.getMessage());
+    }
+    assertNull(ref.peek());
+
+    try {
+      assertEquals("str", ref.get());
+    } catch (IOException e) {
+      fail("Unexpected exception " + e);
+    }
+    assertEquals(2, attempts.get());
+  }
+}
@@ -65,6 +65,100 @@ public final class ChronoTest {
     Chrono.parkNanos(10_000_000L, 1_000_000_000L, 1_000_000_000L);
   }
 
+  @Test
+  public void testParkNanos_parkYieldAndBusyWait() throws InterruptedException {
+    final Chrono chrono = new Chrono(1_000_000_000L, 100_000L, 1_000L);
+    final long targetSleepTime = 5_000_000L;
+    final long start = System.nanoTime();
+    chrono.parkNanos(targetSleepTime);
+    final long slept = System.nanoTime() - start;
+    assertTrue("slept=" + slept, slept >= targetSleepTime);
+
+    final ChronoCounters counters = chrono.getCounters();
+    assertEquals(1, counters.getCalls());
+    assertEquals(0, counters.getSleeps());
+    assertTrue("counters=" + counters, counters.getParks() >= 1);
+    assertTrue("counters=" + counters, counters.getOvershootNanos() >= 0);
+    assertEquals(counters.getOvershootNanos(), counters.getMaxOvershootNanos());
+  }
+
+  @Test
+  public void testParkUntil() throws InterruptedException {
+    final Chrono chrono = new Chrono(1_000_000L, 10_000L, 1_000L);
+    final long deadline = System.nanoTime() + 5_000_000L;
+    chrono.parkUntil(deadline);
+    assertTrue(System.nanoTime() - deadline >= 0);
+    assertEquals(1, chrono.getCounters().getCalls());
+  }
+
+  @Test
+  public void testParkUntil_passedDeadline() throws InterruptedException {
+    final Chrono chrono = new Chrono(1_000_000L, 10_000L, 1_000L);
+    final long deadline = System.nanoTime() - 1_000_000L;
+    chrono.parkUntil(deadline);
+    final ChronoCounters counters = chrono.getCounters();
+    assertEquals(1, counters.getCalls());
+    assertEquals(0, counters.getSleeps() + counters.getParks() + counters.getYields() + counters.getSpins());
+    assertTrue("counters=" + counters, counters.getMeanOvershootNanos() >= 1_000_000L);
+  }
+
+  @Test
+  public void testCountersReset() throws InterruptedException {
+    final Chrono chrono = new Chrono(1_000_000_000L, 1_000_000_000L, 1_000_000_000L);
+    assertEquals(0, chrono.getCounters().getMeanOvershootNanos(), 0);
+    chrono.parkNanos(100_000L);
+    assertEquals(1, chrono.getCounters().getCalls());
+    assertTrue(chrono.getCounters().getSpins() >= 1);
+    chrono.getCounters().reset();
+    assertEquals(0, chrono.getCounters().getCalls());
+    assertEquals(0, chrono.getCounters().getSpins());
+    assertEquals(0, chrono.getCounters().getOvershootNanos());
+    assertEquals(0, chrono.getCounters().getMaxOvershootNanos());
+  }
+
+  @Test
+  public void testCalibrate() throws InterruptedException {
+    final Chrono chrono = Chrono.calibrate(2, 10, 10);
+    if (PRINT_STATS) System.out.println(chrono);
+    assertTrue("chrono=" + chrono, chrono.getSleepGranularity() >= Chrono.NANOS_IN_MILLISECOND);
+    assertTrue("chrono=" + chrono, chrono.getParkGranularity() >= 1);
+    assertTrue("chrono=" + chrono, chrono.getYieldGranularity() >= 1);
+
+    final long targetSleepTime = 2_000_000L;
+    final long start = System.nanoTime();
+    chrono.parkNanos(targetSleepTime);
+    final long slept = System.nanoTime() - start;
+    assertTrue("slept=" + slept, slept >= targetSleepTime);
+  }
+
+  @Test
+  public void testCalibrate_interrupted() {
+    Thread.currentThread().interrupt();
+    try {
+      Chrono.calibrate(1, 1, 1);
+    } finally {
+      assertTrue(Thread.interrupted());
+    }
+  }
+
+  @Test
+  public void testGetCalibrated() {
+    assertSame(Chrono.getCalibrated(), Chrono.getCalibrated());
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testCalibrate_invalidSamples() {
+    Chrono.calibrate(0, 1, 1);
+  }
+
+  @Test
+  public void testPercentile() {
+    assertEquals(5, Chrono.percentile(new long[] {5}, 0.99));
+    assertEquals(10, Chrono.percentile(new long[] {10, 1, 5, 7, 3, 2, 4, 6, 8, 9}, 0.99));
+    assertEquals(5, Chrono.percentile(new long[] {10, 1, 5, 7, 3, 2, 4, 6, 8, 9}, 0.5));
+    assertEquals(1, Chrono.percentile(new long[] {10, 1, 5, 7, 3, 2, 4, 6, 8, 9}, 0.01));
+  }
+
   @Test(expected=InterruptedException.class)
   public void testParkNanos_interrupted() throws InterruptedException {
     Thread.currentThread().interrupt();
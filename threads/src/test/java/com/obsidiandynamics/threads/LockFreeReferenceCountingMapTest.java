@@ -0,0 +1,164 @@
+package com.obsidiandynamics.threads;
+
+import static com.obsidiandynamics.func.Functions.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.assertj.core.api.*;
+import org.junit.*;
+
+import com.obsidiandynamics.func.tuple.*;
+
+public final class LockFreeReferenceCountingMapTest {
+  @Test
+  public void testMethods_size_isEmpty_keySet_containsKey_toString() {
+    final LockFreeReferenceCountingMap<String, String> map = new LockFreeReferenceCountingMap<>();
+    
+    assertTrue(map.isEmpty());
+    assertEquals(0, map.size());
+    assertFalse(map.containsKey("a"));
+    Assertions.assertThat(map.keySet()).isEmpty();
+    
+    map.tryScope("a");
+    assertTrue(map.isEmpty());
+    assertEquals(0, map.size());
+    assertFalse(map.containsKey("a"));
+    Assertions.assertThat(map.keySet()).isEmpty();
+    
+    map.scope("a", givePlain("alfa"));
+    map.scope("b", givePlain("bravo"));
+    assertFalse(map.isEmpty());
+    assertEquals(2, map.size());
+    assertTrue(map.containsKey("a"));
+    Assertions.assertThat(map.keySet()).containsExactly("a", "b");
+    assertEquals("LockFreeReferenceCountingMap [keySet=[a, b]]", map.toString());
+    
+    map.descope("a");
+    map.descope("b");
+    assertTrue(map.isEmpty());
+    assertEquals(0, map.size());
+    assertFalse(map.containsKey("a"));
+    Assertions.assertThat(map.keySet()).isEmpty();
+  }
+  
+  @Test
+  public void testScopeDescope() {
+    final LockFreeReferenceCountingMap<String, String> map = new LockFreeReferenceCountingMap<>();
+    
+    assertEquals("alfa", map.scope("a", givePlain("alfa")));
+    assertTrue(map.containsKey("a"));
+    
+    assertEquals("alfa", map.scope("a", givePlain("alpha")));
+    assertTrue(map.containsKey("a"));
+    
+    map.descope("a");
+    assertTrue(map.containsKey("a"));
+    
+    map.descope("a");
+    assertEquals(0, map.size());
+    
+    map.descope("a"); // no further impact
+    assertEquals("alpha", map.scope("a", givePlain("alpha")));
+    map.descope("a");
+    assertEquals(0, map.size());
+  }
+  
+  @Test
+  public void testTryScope() {
+    final LockFreeReferenceCountingMap<String, String> map = new LockFreeReferenceCountingMap<>();
+    
+    assertNull(map.tryScope("a"));
+
+    assertEquals("alfa", map.scope("a", givePlain("alfa")));
+    assertTrue(map.containsKey("a"));
+    
+    assertEquals("alfa", map.tryScope("a"));
+    
+    map.descope("a");
+    assertTrue(map.containsKey("a"));
+    
+    map.descope("a");
+    assertEquals(0, map.size());
+  }
+  
+  @Test
+  public void testForEach() {
+    final LockFreeReferenceCountingMap<String, String> map = new LockFreeReferenceCountingMap<>();
+    map.scope("a", givePlain("alfa"));
+    map.scope("b", givePlain("bravo"));
+    map.scope("c", givePlain("charlie"));
+    
+    final List<Pair<String, String>> entries = new ArrayList<>(2);
+    map.forEach((k, v) -> {
+      // disrupt the contents of the map while iterating through the entries
+      if (k.equals("a")) {
+        map.descope("b");
+      }
+      
+      entries.add(Pair.of(k, v));
+    });
+    
+    Assertions.assertThat(entries).containsExactly(Pair.of("a", "alfa"), Pair.of("c", "charlie"));
+    assertEquals(2, map.size());
+    
+    map.descope("a");
+    map.descope("c");
+    assertEquals(0, map.size());
+  }
+  
+  /**
+   *  Threads repeatedly scope and de-scope a single key, such that its reference count frequently 
+   *  drops to zero. Threads that hold overlapping scopes must always observe the same value; a new
+   *  value may only be instantiated once all scopes have been relinquished.
+   */
+  @Test
+  public void testConcurrentScopeDescope() throws InterruptedException {
+    final LockFreeReferenceCountingMap<String, Object> map = new LockFreeReferenceCountingMap<>();
+    final int threads = 4;
+    final int runsPerThread = 10_000;
+    final AtomicInteger instantiations = new AtomicInteger();
+    final Object checkLock = new Object();
+    final Object[] current = new Object[1];
+    final int[] holders = new int[1];
+    final List<Throwable> errors = new CopyOnWriteArrayList<>();
+    final CountDownLatch completedLatch = new CountDownLatch(threads);
+    
+    for (int t = 0; t < threads; t++) {
+      new Thread(() -> {
+        try {
+          for (int r = 0; r < runsPerThread; r++) {
+            final Object value = r % 2 == 0 ? map.scope("key", () -> {
+              instantiations.incrementAndGet();
+              return new Object();
+            }) : map.tryScope("key");
+            if (value == null) continue;
+            
+            synchronized (checkLock) {
+              if (holders[0] != 0) {
+                assertSame(current[0], value);
+              }
+              current[0] = value;
+              holders[0]++;
+            }
+            synchronized (checkLock) {
+              holders[0]--;
+            }
+            map.descope("key");
+          }
+        } catch (Throwable e) {
+          errors.add(e);
+        } finally {
+          completedLatch.countDown();
+        }
+      }).start();
+    }
+    
+    completedLatch.await(60, TimeUnit.SECONDS);
+    Assertions.assertThat(errors).isEmpty();
+    assertTrue(map.isEmpty());
+    Assertions.assertThat(instantiations.get()).isGreaterThanOrEqualTo(1);
+  }
+}
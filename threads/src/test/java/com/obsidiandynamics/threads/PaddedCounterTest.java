@@ -0,0 +1,33 @@
+package com.obsidiandynamics.threads;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+public final class PaddedCounterTest {
+  @Test
+  public void testUpdates() {
+    final PaddedCounter counter = new PaddedCounter();
+    assertEquals(0, counter.get());
+    assertEquals(1, counter.incrementAndGet());
+    assertEquals(4, counter.addAndGet(3));
+    assertFalse(counter.compareAndSet(3, 5));
+    assertTrue(counter.compareAndSet(4, 5));
+    assertEquals(5, counter.get());
+    counter.set(10);
+    assertEquals(10, counter.get());
+    assertEquals("10", counter.toString());
+    assertEquals(7, new PaddedCounter(7).get());
+  }
+
+  @Test
+  public void testConcurrentIncrements() {
+    final PaddedCounter counter = new PaddedCounter();
+    Parallel.blocking(4, __ -> {
+      for (int i = 0; i < 1_000; i++) {
+        counter.incrementAndGet();
+      }
+    }).run();
+    assertEquals(4_000, counter.get());
+  }
+}
@@ -0,0 +1,115 @@
+package com.obsidiandynamics.threads;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.assertj.core.api.*;
+import org.junit.*;
+
+public final class PaddedStripedTest {
+  @Test
+  public void testInvalidStripes() {
+    Assertions.assertThatThrownBy(() -> new PaddedStriped<>(0, Object::new))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Number of stripes must be greater than 0");
+    Assertions.assertThatThrownBy(() -> new PaddedStriped<>(PaddedStriped.MAX_STRIPES + 1, Object::new))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Number of stripes cannot exceed " + PaddedStriped.MAX_STRIPES);
+  }
+  
+  @Test
+  public void testRoundUpToPowerOfTwo() {
+    assertEquals(1, PaddedStriped.roundUpToPowerOfTwo(1));
+    assertEquals(2, PaddedStriped.roundUpToPowerOfTwo(2));
+    assertEquals(4, PaddedStriped.roundUpToPowerOfTwo(3));
+    assertEquals(16, PaddedStriped.roundUpToPowerOfTwo(16));
+    assertEquals(32, PaddedStriped.roundUpToPowerOfTwo(17));
+    assertEquals(16, new PaddedStriped<>(9, Object::new).getStripes());
+  }
+  
+  @Test
+  public void testGet_differentKeys() {
+    final PaddedStriped<Object> striped = new PaddedStriped<>(16, Object::new);
+    assertSame(striped.get(15), striped.get(15));
+    assertSame(striped.get(16), striped.get(16));
+    assertNotSame(striped.get(15), striped.get(16));
+    assertSame(striped.get(0), striped.get(16 << 16 | 16)); // the high-order bits are spread into the low-order bits
+  }
+  
+  @Test
+  public void testGet_consistentWithResolveStripe() {
+    final int stripes = 16;
+    final PaddedStriped<Object> padded = new PaddedStriped<>(stripes, Object::new);
+    final Object[] values = new Object[stripes];
+    final Random random = new Random(0);
+    for (int i = 0; i < 1_000; i++) {
+      final int hash = random.nextInt();
+      final int stripe = Striped.resolveStripe(hash, stripes);
+      if (values[stripe] == null) {
+        values[stripe] = padded.get(hash);
+      } else {
+        assertSame(values[stripe], padded.get(hash));
+      }
+    }
+  }
+  
+  @Test
+  public void testGet_contended() throws InterruptedException {
+    final AtomicInteger invocations = new AtomicInteger();
+    final PaddedStriped<Object> striped = new PaddedStriped<>(4, () -> {
+      invocations.incrementAndGet();
+      return new Object();
+    });
+    final int threads = 4;
+    final Set<Object> values = ConcurrentHashMap.newKeySet();
+    final CyclicBarrier barrier = new CyclicBarrier(threads);
+    final List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      final Thread worker = new Thread(() -> {
+        Threads.await(barrier);
+        values.add(striped.get(42));
+      });
+      workers.add(worker);
+      worker.start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    
+    assertEquals(1, values.size());
+    assertSame(values.iterator().next(), striped.get(42));
+    Assertions.assertThat(invocations.get()).isBetween(1, threads);
+  }
+  
+  @Test
+  public void testGetForCurrentThread() throws InterruptedException {
+    final PaddedStriped<Object> striped = new PaddedStriped<>(1 << 10, Object::new);
+    final Object local = striped.getForCurrentThread();
+    assertSame(local, striped.getForCurrentThread());
+    
+    // advancing the probe is very likely to yield a different stripe among 1024
+    final Set<Object> visited = new HashSet<>();
+    visited.add(local);
+    for (int i = 0; i < 10; i++) {
+      PaddedStriped.advanceProbe();
+      final Object advanced = striped.getForCurrentThread();
+      assertSame(advanced, striped.getForCurrentThread());
+      visited.add(advanced);
+    }
+    Assertions.assertThat(visited.size()).isGreaterThan(1);
+  }
+  
+  @Test
+  public void testGetForCurrentThread_spreadsThreads() throws InterruptedException {
+    final PaddedStriped<Object> striped = new PaddedStriped<>(1 << 10, Object::new);
+    final Set<Object> values = ConcurrentHashMap.newKeySet();
+    final int threads = 8;
+    for (int t = 0; t < threads; t++) {
+      final Thread thread = new Thread(() -> values.add(striped.getForCurrentThread()));
+      thread.start();
+      thread.join();
+    }
+    Assertions.assertThat(values.size()).isGreaterThan(1);
+  }
+}
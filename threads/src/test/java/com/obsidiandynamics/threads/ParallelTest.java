@@ -5,6 +5,7 @@ import static org.junit.Assert.*;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 import java.util.stream.*;
 
 import org.junit.*;
@@ -82,4 +83,203 @@ public class ParallelTest {
       assertTrue("ran=" + ran, ran.contains(s));
     }
   }
+  
+  @Test
+  public void testForRange() {
+    final int start = -50, end = 950;
+    final AtomicIntegerArray counts = new AtomicIntegerArray(end - start);
+    Parallel.forRange(start, end, new WorkStealingOptions().withParallelism(4), i -> {
+      // skew the work towards the start of the range
+      if (i < 0) Threads.sleep(1);
+      counts.incrementAndGet(i - start);
+    }).run();
+    
+    for (int i = 0; i < counts.length(); i++) {
+      assertEquals("i=" + i, 1, counts.get(i));
+    }
+  }
+  
+  @Test
+  public void testForRangeEmpty() {
+    final AtomicInteger ran = new AtomicInteger();
+    Parallel.forRange(5, 5, new WorkStealingOptions().withBarrierStart(true), i -> ran.incrementAndGet()).run();
+    assertEquals(0, ran.get());
+  }
+  
+  @Test
+  public void testForRangeInvalid() {
+    try {
+      Parallel.forRange(5, 4, new WorkStealingOptions(), i -> {});
+      fail("Expected an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("End of range cannot precede its start", e.getMessage());
+    }
+    
+    try {
+      Parallel.forRange(Integer.MIN_VALUE, 1, new WorkStealingOptions(), i -> {});
+      fail("Expected an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Range cannot exceed " + Integer.MAX_VALUE + " elements", e.getMessage());
+    }
+  }
+  
+  @Test
+  public void testForEachLinkedList() {
+    final List<Integer> items = IntStream.range(0, 100).boxed().collect(Collectors.toCollection(LinkedList::new));
+    final Set<Integer> ran = new CopyOnWriteArraySet<>();
+    Parallel.forEach(items, new WorkStealingOptions().withParallelism(3), ran::add).run();
+    assertEquals(new HashSet<>(items), ran);
+  }
+  
+  @Test
+  public void testForEachChunk() {
+    final int numItems = 1_000;
+    final int minChunkSize = 7;
+    final List<Integer> items = IntStream.range(0, numItems).boxed().collect(Collectors.toList());
+    final List<List<Integer>> chunks = new CopyOnWriteArrayList<>();
+    Parallel.forEachChunk(items, new WorkStealingOptions().withParallelism(4).withMinChunkSize(minChunkSize), chunk -> {
+      Threads.sleep(chunk.get(0) < 100 ? 5 : 0);
+      chunks.add(chunk);
+    }).run();
+    
+    final List<Integer> processed = new ArrayList<>();
+    for (List<Integer> chunk : chunks) {
+      assertTrue("chunk=" + chunk, chunk.size() >= minChunkSize);
+      processed.addAll(chunk);
+    }
+    Collections.sort(processed);
+    assertEquals(items, processed);
+  }
+  
+  @Test
+  public void testForEachChunkSmallerThanMinChunkSize() {
+    final List<List<Integer>> chunks = new CopyOnWriteArrayList<>();
+    Parallel.forEachChunk(asList(0, 1, 2), new WorkStealingOptions().withMinChunkSize(10), chunks::add).run();
+    assertEquals(asList(asList(0, 1, 2)), chunks);
+  }
+  
+  @Test
+  public void testForRangeBarrierStart() {
+    final int workers = 4;
+    final Set<Thread> threads = new CopyOnWriteArraySet<>();
+    final AtomicInteger ran = new AtomicInteger();
+    final Parallel parallel = Parallel.forRange(0, workers, new WorkStealingOptions().withParallelism(workers).withBarrierStart(true), i -> {
+      threads.add(Thread.currentThread());
+      ran.incrementAndGet();
+    });
+    Threads.sleep(10);
+    assertEquals(0, ran.get());
+    
+    parallel.run();
+    assertEquals(workers, ran.get());
+    assertEquals(workers, threads.size());
+  }
+  
+  @Test
+  public void testForRangeNonBlockingWithExecutor() throws InterruptedException {
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final Set<Integer> ran = new CopyOnWriteArraySet<>();
+      final WorkStealingOptions options = new WorkStealingOptions()
+          .withExecutor(executor)
+          .withParallelism(2)
+          .withBlocking(false);
+      Parallel.forRange(0, 100, options, ran::add).run();
+      Timesert.wait(10_000).until(() -> {
+        assertEquals(100, ran.size());
+      });
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+  }
+  
+  @Test
+  public void testForRangeRejected() {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    executor.shutdown();
+    try {
+      Parallel.forRange(0, 10, new WorkStealingOptions().withExecutor(executor), i -> {});
+      fail("Expected an exception");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void testForRangeRejectedWithBarrierStart() throws InterruptedException {
+    // two pool threads, with a third accepted worker queued behind them; the fourth is rejected
+    final int accepted = 3;
+    final ExecutorService pool = Executors.newFixedThreadPool(2);
+    final AtomicInteger submitted = new AtomicInteger();
+    final Executor executor = task -> {
+      if (submitted.getAndIncrement() == accepted) throw new RejectedExecutionException("Simulated");
+      pool.execute(task);
+    };
+    final AtomicInteger ran = new AtomicInteger();
+    try {
+      Parallel.forRange(0, 4, new WorkStealingOptions()
+                        .withExecutor(executor)
+                        .withParallelism(4)
+                        .withMinChunkSize(1)
+                        .withBarrierStart(true), i -> ran.incrementAndGet());
+      fail("Expected an exception");
+    } catch (RejectedExecutionException e) {
+      assertEquals("Simulated", e.getMessage());
+    }
+    
+    // all accepted workers, including the queued one, must pass the gate and exit without running
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(0, ran.get());
+  }
+  
+  @Test
+  public void testForRangeError() {
+    final AtomicInteger ran = new AtomicInteger();
+    try {
+      Parallel.forRange(0, 1_000, new WorkStealingOptions().withParallelism(2), i -> {
+        ran.incrementAndGet();
+        if (i == 10) throw new IllegalStateException("Boom");
+      }).run();
+      fail("Expected an exception");
+    } catch (IllegalStateException e) {
+      assertEquals("Boom", e.getMessage());
+    }
+    assertTrue("ran=" + ran, ran.get() < 1_000);
+  }
+  
+  @Test
+  public void testWorkStealingRangesClaim() {
+    final Parallel.WorkStealingRanges ranges = new Parallel.WorkStealingRanges(100, 2, 4);
+    // worker 0 owns [0, 50): claims a chunk of 50 / 8 = 6
+    assertEquals(Parallel.WorkStealingRanges.pack(0, 6), ranges.claim(0));
+    // the chunk size decays as the share drains, bounded below by the minimum
+    long chunk;
+    int last = 6;
+    while ((chunk = ranges.claim(0)) != Parallel.WorkStealingRanges.NONE) {
+      assertEquals(last, Parallel.WorkStealingRanges.from(chunk));
+      assertTrue(Parallel.WorkStealingRanges.to(chunk) - last >= 4);
+      last = Parallel.WorkStealingRanges.to(chunk);
+    }
+    assertEquals(50, last);
+  }
+  
+  @Test
+  public void testWorkStealingRangesSteal() {
+    final Parallel.WorkStealingRanges ranges = new Parallel.WorkStealingRanges(100, 3, 4);
+    // drain worker 0's share [0, 33)
+    while (ranges.claim(0) != Parallel.WorkStealingRanges.NONE);
+    
+    // the largest share is worker 2's [66, 100); worker 0 steals its upper half
+    assertTrue(ranges.steal(0));
+    assertEquals(Parallel.WorkStealingRanges.pack(83, 87), ranges.claim(0));
+    
+    // a share that cannot be halved into chunks of at least the minimum is not stolen
+    final Parallel.WorkStealingRanges small = new Parallel.WorkStealingRanges(7, 2, 3);
+    assertFalse(small.steal(0));
+    assertEquals(Parallel.WorkStealingRanges.pack(3, 7), small.claim(1));
+    assertEquals(Parallel.WorkStealingRanges.pack(0, 3), small.claimOrSteal(0));
+    assertEquals(Parallel.WorkStealingRanges.NONE, small.claimOrSteal(0));
+  }
 }
@@ -0,0 +1,151 @@
+package com.obsidiandynamics.threads;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.obsidiandynamics.dyno.*;
+
+/**
+ *  Measures the acquisition throughput and latency distribution of a {@link ReentrantAffiliateLock}
+ *  that is shared among all benchmark threads, where each cycle acquires the lock, consumes a value
+ *  and releases the lock. For comparison, a baseline lock that waits on a monitor
+ *  (the approach taken by {@link ReentrantAffiliateLock} prior to adopting a parking wait queue) is
+ *  also measured. Run as a standalone application.
+ */
+public final class ReentrantAffiliateLockBenchmark {
+  private static final int BENCHMARK_TIME_MILLIS = 10_000;
+  
+  /**
+   *  Acquires under a monitor, waiting for the lock with {@link Object#wait(long)} and polling the
+   *  system clock for the deadline.
+   */
+  static final class MonitorAffiliateLock {
+    private final Object monitor = new Object();
+
+    private Object affiliate;
+
+    private int depth;
+
+    boolean tryLock(int timeoutMillis, Object affiliate) throws InterruptedException {
+      for (final long deadline = System.currentTimeMillis() + timeoutMillis;;) {
+        synchronized (monitor) {
+          if (this.affiliate != null && ! this.affiliate.equals(affiliate)) {
+            final long timeRemaining = deadline - System.currentTimeMillis();
+            if (timeRemaining > 0) {
+              monitor.wait(timeRemaining);
+            } else {
+              return false;
+            }
+          }
+
+          if (this.affiliate == null || this.affiliate.equals(affiliate)) {
+            this.affiliate = affiliate;
+            depth++;
+            return true;
+          }
+        }
+      }
+    }
+
+    void unlock(Object affiliate) {
+      synchronized (monitor) {
+        mustBeEqual(this.affiliate, affiliate, withMessage("Not locked", IllegalMonitorStateException::new));
+        if (--depth == 0) {
+          this.affiliate = null;
+          monitor.notify();
+        }
+      }
+    }
+  }
+  
+  abstract static class LockTarget implements BenchmarkTarget {
+    abstract boolean tryLock(Object affiliate) throws InterruptedException;
+    
+    abstract void unlock(Object affiliate);
+    
+    @Override
+    public final void cycle(Abyss abyss) throws InterruptedException {
+      final Thread affiliate = Thread.currentThread();
+      mustBeTrue(tryLock(affiliate), IllegalStateException::new);
+      try {
+        abyss.consume(affiliate);
+      } finally {
+        unlock(affiliate);
+      }
+    }
+  }
+  
+  /** The lock is shared among all benchmark threads, each of which receives its own target instance. */
+  public static final class Monitor extends LockTarget {
+    private static final MonitorAffiliateLock lock = new MonitorAffiliateLock();
+    
+    @Override
+    boolean tryLock(Object affiliate) throws InterruptedException {
+      return lock.tryLock(Integer.MAX_VALUE, affiliate);
+    }
+
+    @Override
+    void unlock(Object affiliate) {
+      lock.unlock(affiliate);
+    }
+  }
+  
+  /** The lock is shared among all benchmark threads, each of which receives its own target instance. */
+  public static final class NonFair extends LockTarget {
+    private static final ReentrantAffiliateLock lock = new ReentrantAffiliateLock();
+    
+    @Override
+    boolean tryLock(Object affiliate) throws InterruptedException {
+      return lock.tryLock(Integer.MAX_VALUE, affiliate);
+    }
+
+    @Override
+    void unlock(Object affiliate) {
+      lock.unlock(affiliate);
+    }
+  }
+  
+  /** The lock is shared among all benchmark threads, each of which receives its own target instance. */
+  public static final class Fair extends LockTarget {
+    private static final ReentrantAffiliateLock lock = new ReentrantAffiliateLock(true);
+    
+    @Override
+    boolean tryLock(Object affiliate) throws InterruptedException {
+      return lock.tryLock(Integer.MAX_VALUE, affiliate);
+    }
+
+    @Override
+    void unlock(Object affiliate) {
+      lock.unlock(affiliate);
+    }
+  }
+  
+  static void run(Class<? extends LockTarget> targetClass, int threads, Mode mode) {
+    new Dyno()
+    .withBenchmarkTime(BENCHMARK_TIME_MILLIS)
+    .withThreads(threads)
+    .withTarget(targetClass)
+    .withDriver(new JmhDriver(opts -> opts
+                              .mode(mode)
+                              .timeUnit(mode == Mode.SampleTime ? TimeUnit.MICROSECONDS : TimeUnit.SECONDS)
+                              .forks(1)
+                              .measurementIterations(1)))
+    .withWarmupFraction(0.2)
+    .withOutput(result -> System.out.format("%-8s threads=%-3d %s\n", targetClass.getSimpleName(), threads, result))
+    .run();
+  }
+
+  public static void main(String[] args) {
+    final int maxThreads = Runtime.getRuntime().availableProcessors() * 2;
+    for (Mode mode : new Mode[] { Mode.Throughput, Mode.SampleTime }) {
+      for (int threads = 1; threads <= maxThreads; threads *= 2) {
+        run(Monitor.class, threads, mode);
+        run(NonFair.class, threads, mode);
+        run(Fair.class, threads, mode);
+      }
+    }
+  }
+}
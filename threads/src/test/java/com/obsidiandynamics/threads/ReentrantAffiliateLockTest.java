@@ -41,13 +41,21 @@ public final class ReentrantAffiliateLockTest {
 
   @Test
   public void testContended() throws InterruptedException {
+    testContended(new ReentrantAffiliateLock());
+  }
+
+  @Test
+  public void testContended_fair() throws InterruptedException {
+    testContended(new ReentrantAffiliateLock(true));
+  }
+
+  private static void testContended(ReentrantAffiliateLock lock) throws InterruptedException {
     final int threads = 5;
     final int runsPerThread = 10;
     final int holdTime = 1;
     final String id = "id";
     final int timeout = Integer.MAX_VALUE;
 
-    final ReentrantAffiliateLock lock = new ReentrantAffiliateLock();
     final List<Throwable> errors = new CopyOnWriteArrayList<>();
     final CountDownLatch completedLatch = new CountDownLatch(threads);
     final AtomicInteger acquisitionCount = new AtomicInteger();
@@ -85,6 +93,8 @@ public final class ReentrantAffiliateLockTest {
     completedLatch.await(60, TimeUnit.SECONDS);
     assertThat(errors).isEmpty();
     assertEquals(threads * runsPerThread, unsynchronizedInt.value);
+    assertFalse(lock.isLocked());
+    assertEquals(0, lock.getQueueLength());
   }
 
   @Test
@@ -102,6 +112,58 @@ public final class ReentrantAffiliateLockTest {
     lock.unlock("b");
   }
 
+  @Test
+  public void testTryLock_withNanoTimeout() throws InterruptedException {
+    final ReentrantAffiliateLock lock = new ReentrantAffiliateLock();
+    assertTrue(lock.tryLock(0, TimeUnit.NANOSECONDS, "a"));
+    
+    assertFalse(lock.tryLock(0, TimeUnit.NANOSECONDS, "b"));
+    assertFalse(lock.tryLock(-1, TimeUnit.NANOSECONDS, "b"));
+    final long startNanos = System.nanoTime();
+    assertFalse(lock.tryLock(100, TimeUnit.MICROSECONDS, "b"));
+    assertThat(System.nanoTime() - startNanos).isGreaterThanOrEqualTo(100_000);
+    assertEquals(0, lock.getQueueLength());
+    
+    lock.unlock("a");
+    assertFalse(lock.isLocked());
+  }
+
+  @Test
+  public void testTryLock_wokenByUnlock() throws InterruptedException {
+    testTryLock_wokenByUnlock(new ReentrantAffiliateLock());
+    testTryLock_wokenByUnlock(new ReentrantAffiliateLock(true));
+  }
+  
+  private static void testTryLock_wokenByUnlock(ReentrantAffiliateLock lock) throws InterruptedException {
+    assertTrue(lock.tryLock(Integer.MAX_VALUE, "a"));
+    
+    final CompletableFuture<Boolean> acquired = new CompletableFuture<>();
+    final Thread thread = new Thread(() -> {
+      try {
+        acquired.complete(lock.tryLock(Long.MAX_VALUE, TimeUnit.NANOSECONDS, "b"));
+      } catch (Throwable e) {
+        acquired.completeExceptionally(e);
+      }
+    });
+    thread.start();
+    awaitQueueLength(lock, 1);
+    assertFalse(acquired.isDone());
+    
+    lock.unlock("a");
+    assertTrue(acquired.join());
+    thread.join();
+    assertTrue(lock.isLocked());
+    assertEquals(0, lock.getQueueLength());
+    lock.unlock("b");
+    assertFalse(lock.isLocked());
+  }
+  
+  private static void awaitQueueLength(ReentrantAffiliateLock lock, int queueLength) {
+    while (lock.getQueueLength() != queueLength) {
+      Thread.yield();
+    }
+  }
+
   @Test
   public void testTryLock_withInterrupt() throws InterruptedException {
     final ReentrantAffiliateLock lock = new ReentrantAffiliateLock();
@@ -112,6 +174,170 @@ public final class ReentrantAffiliateLockTest {
       lock.tryLock(Integer.MAX_VALUE, "b");
     }).isExactlyInstanceOf(InterruptedException.class);
     assertFalse(Thread.interrupted());
+    assertEquals(0, lock.getQueueLength());
+  }
+
+  @Test
+  public void testTryLock_withInterruptWhenFree() throws InterruptedException {
+    final ReentrantAffiliateLock lock = new ReentrantAffiliateLock();
+    Thread.currentThread().interrupt();
+    assertTrue(lock.tryLock(Integer.MAX_VALUE, "a")); // the lock is free, so there is no need to wait
+    assertTrue(Thread.interrupted());
+    lock.unlock("a");
+  }
+
+  @Test
+  public void testTryLock_interruptedWhileWaiting() throws InterruptedException {
+    testTryLock_interruptedWhileWaiting(new ReentrantAffiliateLock());
+    testTryLock_interruptedWhileWaiting(new ReentrantAffiliateLock(true));
+  }
+  
+  private static void testTryLock_interruptedWhileWaiting(ReentrantAffiliateLock lock) throws InterruptedException {
+    assertTrue(lock.tryLock(Integer.MAX_VALUE, "a"));
+    
+    final CompletableFuture<Boolean> acquired = new CompletableFuture<>();
+    final Thread thread = new Thread(() -> {
+      try {
+        acquired.complete(lock.tryLock(Integer.MAX_VALUE, "b"));
+      } catch (Throwable e) {
+        acquired.completeExceptionally(e);
+      }
+    });
+    thread.start();
+    awaitQueueLength(lock, 1);
+    thread.interrupt();
+    thread.join();
+    
+    assertThatThrownBy(acquired::get).hasCauseExactlyInstanceOf(InterruptedException.class);
+    assertEquals(0, lock.getQueueLength());
+    lock.unlock("a");
+    assertFalse(lock.isLocked());
+  }
+  
+  @Test
+  public void testFair_noBarging() throws InterruptedException {
+    final ReentrantAffiliateLock lock = new ReentrantAffiliateLock(true);
+    assertTrue(lock.isFair());
+    assertTrue(lock.tryLock(Integer.MAX_VALUE, "x"));
+    final CompletableFuture<Void> a = lock.tryLockAsync("a");
+    final CompletableFuture<Void> b = lock.tryLockAsync("b");
+    assertEquals(2, lock.getQueueLength());
+    
+    assertTrue(lock.tryLock(0, "x"));              // reentrant acquisition may proceed ahead of the queue
+    lock.unlock("x");
+    lock.unlock("x");
+    assertTrue(a.isDone());                        // handed off in the order of arrival
+    assertFalse(b.isDone());
+    assertFalse(lock.tryLock(0, "c"));             // will not barge ahead of b
+    
+    lock.unlock("a");
+    assertTrue(b.isDone());
+    lock.unlock("b");
+    assertFalse(lock.isLocked());
+    assertTrue(lock.tryLock(0, "c"));              // the queue is now empty
+    lock.unlock("c");
+  }
+  
+  @Test
+  public void testNonFair_barging() throws InterruptedException {
+    final ReentrantAffiliateLock lock = new ReentrantAffiliateLock();
+    assertFalse(lock.isFair());
+    assertTrue(lock.tryLock(Integer.MAX_VALUE, "x"));
+    final CompletableFuture<Void> a = lock.tryLockAsync("a");
+    lock.unlock("x");
+    assertTrue(a.isDone());                         // async waiters are always handed the lock
+    lock.unlock("a");
+    assertTrue(lock.tryLock(0, "c"));
+    lock.unlock("c");
+  }
+  
+  @Test
+  public void testAsync_immediateAndReentrant() throws InterruptedException {
+    final ReentrantAffiliateLock lock = new ReentrantAffiliateLock();
+    assertTrue(lock.tryLockAsync("a").isDone());
+    assertTrue(lock.tryLockAsync("a").isDone());
+    assertTrue(lock.tryLock(0, "a"));
+    lock.unlock("a");
+    lock.unlock("a");
+    lock.unlock("a");
+    assertFalse(lock.isLocked());
+  }
+  
+  @Test
+  public void testAsync_handOffToSharedAffiliate() throws InterruptedException {
+    final ReentrantAffiliateLock lock = new ReentrantAffiliateLock();
+    assertTrue(lock.tryLock(0, "x"));
+    final CompletableFuture<Void> a0 = lock.tryLockAsync("a");
+    final CompletableFuture<Void> a1 = lock.tryLockAsync("a");
+    final CompletableFuture<Void> b = lock.tryLockAsync("b");
+    lock.unlock("x");
+    assertTrue(a0.isDone());
+    assertTrue(a1.isDone());
+    assertFalse(b.isDone());
+    
+    lock.unlock("a");
+    assertFalse(b.isDone());
+    lock.unlock("a");
+    assertTrue(b.isDone());
+    lock.unlock("b");
+    assertFalse(lock.isLocked());
+  }
+  
+  @Test
+  public void testAsync_cancel() throws InterruptedException {
+    final ReentrantAffiliateLock lock = new ReentrantAffiliateLock();
+    assertTrue(lock.tryLock(0, "x"));
+    final CompletableFuture<Void> a = lock.tryLockAsync("a");
+    final CompletableFuture<Void> b = lock.tryLockAsync("b");
+    assertTrue(a.cancel(false));
+    b.completeExceptionally(new TimeoutException("Simulated"));
+    assertEquals(0, lock.getQueueLength());
+    
+    lock.unlock("x");
+    assertFalse(lock.isLocked());
+  }
+  
+  @Test
+  public void testAsync_cancelAfterAcquisition() throws InterruptedException {
+    final ReentrantAffiliateLock lock = new ReentrantAffiliateLock();
+    assertTrue(lock.tryLock(0, "x"));
+    final CompletableFuture<Void> a = lock.tryLockAsync("a");
+    lock.unlock("x");
+    assertFalse(a.cancel(false));
+    assertTrue(lock.isLocked());
+    lock.unlock("a");
+    assertFalse(lock.isLocked());
+  }
+  
+  @Test
+  public void testAsync_contended() throws InterruptedException {
+    final int threads = 4;
+    final int runsPerThread = 100;
+    final ReentrantAffiliateLock lock = new ReentrantAffiliateLock();
+    final UnsynchronizedInt unsynchronizedInt = new UnsynchronizedInt();
+    final List<CompletableFuture<Void>> completions = new CopyOnWriteArrayList<>();
+    final CountDownLatch completedLatch = new CountDownLatch(threads);
+    
+    for (int t = 0; t < threads; t++) {
+      new Thread(() -> {
+        try {
+          for (int r = 0; r < runsPerThread; r++) {
+            final Object affiliate = new Object(); // a distinct affiliate for every acquisition
+            completions.add(lock.tryLockAsync(affiliate).thenRun(() -> {
+              unsynchronizedInt.value++;
+              lock.unlock(affiliate);
+            }));
+          }
+        } finally {
+          completedLatch.countDown();
+        }
+      }).start();
+    }
+    
+    completedLatch.await(60, TimeUnit.SECONDS);
+    CompletableFuture.allOf(completions.toArray(new CompletableFuture<?>[0])).join();
+    assertEquals(threads * runsPerThread, unsynchronizedInt.value);
+    assertFalse(lock.isLocked());
   }
 
   @Test
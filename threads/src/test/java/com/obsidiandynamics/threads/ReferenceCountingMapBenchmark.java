@@ -0,0 +1,101 @@
+package com.obsidiandynamics.threads;
+
+import java.util.concurrent.*;
+import java.util.function.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.obsidiandynamics.dyno.*;
+
+/**
+ *  Measures the throughput of scoping and de-scoping a single hot key from multiple threads,
+ *  comparing a {@link ReferenceCountingMap} with a {@link LockFreeReferenceCountingMap}. The
+ *  hot key is pinned by a scope that is held for the lifetime of the benchmark, so that the
+ *  reference count never reaches zero; in the unpinned variants, the count drops to zero whenever
+ *  the threads' scopes do not overlap, exercising the insertion and removal paths. Run as a 
+ *  standalone application.
+ */
+public final class ReferenceCountingMapBenchmark {
+  private static final int BENCHMARK_TIME_MILLIS = 10_000;
+  
+  private static final String HOT_KEY = "hot";
+  
+  private static final Supplier<Object> VALUE_MAKER = Object::new;
+  
+  /** The map is shared among all benchmark threads, each of which receives its own target instance. */
+  public static final class Locking implements BenchmarkTarget {
+    private static final ReferenceCountingMap<String, Object> map = new ReferenceCountingMap<>();
+    
+    static {
+      map.scope(HOT_KEY, VALUE_MAKER);
+    }
+    
+    @Override
+    public void cycle(Abyss abyss) {
+      abyss.consume(map.scope(HOT_KEY, VALUE_MAKER));
+      map.descope(HOT_KEY);
+    }
+  }
+  
+  /** The map is shared among all benchmark threads, each of which receives its own target instance. */
+  public static final class LockFree implements BenchmarkTarget {
+    private static final LockFreeReferenceCountingMap<String, Object> map = new LockFreeReferenceCountingMap<>();
+    
+    static {
+      map.scope(HOT_KEY, VALUE_MAKER);
+    }
+    
+    @Override
+    public void cycle(Abyss abyss) {
+      abyss.consume(map.scope(HOT_KEY, VALUE_MAKER));
+      map.descope(HOT_KEY);
+    }
+  }
+  
+  /** The map is shared among all benchmark threads, each of which receives its own target instance. */
+  public static final class LockingUnpinned implements BenchmarkTarget {
+    private static final ReferenceCountingMap<String, Object> map = new ReferenceCountingMap<>();
+    
+    @Override
+    public void cycle(Abyss abyss) {
+      abyss.consume(map.scope(HOT_KEY, VALUE_MAKER));
+      map.descope(HOT_KEY);
+    }
+  }
+  
+  /** The map is shared among all benchmark threads, each of which receives its own target instance. */
+  public static final class LockFreeUnpinned implements BenchmarkTarget {
+    private static final LockFreeReferenceCountingMap<String, Object> map = new LockFreeReferenceCountingMap<>();
+    
+    @Override
+    public void cycle(Abyss abyss) {
+      abyss.consume(map.scope(HOT_KEY, VALUE_MAKER));
+      map.descope(HOT_KEY);
+    }
+  }
+  
+  static void run(Class<? extends BenchmarkTarget> targetClass, int threads) {
+    new Dyno()
+    .withBenchmarkTime(BENCHMARK_TIME_MILLIS)
+    .withThreads(threads)
+    .withTarget(targetClass)
+    .withDriver(new JmhDriver(opts -> opts
+                              .mode(Mode.Throughput)
+                              .timeUnit(TimeUnit.SECONDS)
+                              .forks(1)
+                              .measurementIterations(1)))
+    .withWarmupFraction(0.2)
+    .withOutput(result -> System.out.format("%-16s threads=%-3d %s\n", targetClass.getSimpleName(), threads, result))
+    .run();
+  }
+
+  public static void main(String[] args) {
+    final int maxThreads = Runtime.getRuntime().availableProcessors();
+    for (int threads = 1; threads <= maxThreads; threads *= 2) {
+      run(Locking.class, threads);
+      run(LockFree.class, threads);
+      run(LockingUnpinned.class, threads);
+      run(LockFreeUnpinned.class, threads);
+    }
+  }
+}
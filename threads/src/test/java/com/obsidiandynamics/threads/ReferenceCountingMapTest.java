@@ -4,11 +4,15 @@ import static com.obsidiandynamics.func.Functions.*;
 import static org.junit.Assert.*;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
 
 import org.assertj.core.api.*;
 import org.junit.*;
 
 import com.obsidiandynamics.func.tuple.*;
+import com.obsidiandynamics.threads.RetentionPolicy.*;
 
 import pl.pojo.tester.internal.assertion.tostring.*;
 
@@ -103,4 +107,280 @@ public final class ReferenceCountingMapTest {
     map.descope("c");
     assertEquals(0, map.size());
   }
+  
+  private static final class Eviction {
+    final String key;
+    final Object value;
+    final EvictionCause cause;
+    
+    Eviction(String key, Object value, EvictionCause cause) {
+      this.key = key;
+      this.value = value;
+      this.cause = cause;
+    }
+  }
+  
+  private static final class CountingMaker implements Supplier<String> {
+    private final String value;
+    
+    int invocations;
+    
+    CountingMaker(String value) {
+      this.value = value;
+    }
+
+    @Override
+    public String get() {
+      invocations++;
+      return new String(value);
+    }
+  }
+  
+  @Test
+  public void testRetention_reclaimIdle() {
+    final List<Eviction> evictions = new ArrayList<>();
+    final ReferenceCountingMap<String, String> map = 
+        new ReferenceCountingMap<>(new RetentionPolicy<String, String>()
+                                   .withEvictionListener((k, v, c) -> evictions.add(new Eviction(k, v, c))));
+    final CountingMaker maker = new CountingMaker("alfa");
+    
+    final String value = map.scope("a", maker);
+    map.scope("a", maker);
+    map.descope("a");
+    assertEquals(0, map.idleSize());
+    map.descope("a");
+    assertEquals(1, map.idleSize());
+    assertEquals(1, map.size());
+    assertTrue(map.containsKey("a"));
+    
+    map.descope("a"); // an idle entry cannot be de-scoped further
+    assertEquals(1, map.idleSize());
+    
+    assertSame(value, map.scope("a", maker));
+    assertEquals(1, maker.invocations);
+    assertEquals(0, map.idleSize());
+    map.descope("a");
+    
+    assertSame(value, map.tryScope("a"));
+    assertEquals(0, map.idleSize());
+    map.descope("a");
+    assertEquals(1, map.idleSize());
+    
+    map.cleanUp();
+    assertEquals(1, map.idleSize());
+    Assertions.assertThat(evictions).isEmpty();
+  }
+  
+  @Test
+  public void testRetention_maxIdleEntries() {
+    final List<Eviction> evictions = new ArrayList<>();
+    final ReferenceCountingMap<String, String> map = 
+        new ReferenceCountingMap<>(new RetentionPolicy<String, String>()
+                                   .withMaxIdleEntries(2)
+                                   .withEvictionListener((k, v, c) -> evictions.add(new Eviction(k, v, c))));
+    for (String key : new String[] { "a", "b", "c" }) {
+      map.scope(key, givePlain(key.toUpperCase()));
+    }
+    map.descope("a");
+    map.descope("b");
+    assertEquals(2, map.idleSize());
+    
+    map.scope("a", givePlain("A"));  // 'a' is reclaimed, so 'b' becomes the least recently used
+    map.descope("a");
+    map.descope("c");
+    assertEquals(2, map.idleSize());
+    assertEquals(1, evictions.size());
+    assertEquals("b", evictions.get(0).key);
+    assertEquals("B", evictions.get(0).value);
+    assertEquals(EvictionCause.SIZE, evictions.get(0).cause);
+    assertFalse(map.containsKey("b"));
+    Assertions.assertThat(map.keySet()).hasSameElementsAs(Arrays.asList("a", "c"));
+  }
+  
+  @Test
+  public void testRetention_noIdleEntries() {
+    final List<Eviction> evictions = new ArrayList<>();
+    final ReferenceCountingMap<String, String> map = 
+        new ReferenceCountingMap<>(new RetentionPolicy<String, String>()
+                                   .withMaxIdleEntries(0)
+                                   .withEvictionListener((k, v, c) -> evictions.add(new Eviction(k, v, c))));
+    map.scope("a", givePlain("alfa"));
+    map.descope("a");
+    assertTrue(map.isEmpty());
+    assertEquals(1, evictions.size());
+    assertEquals(EvictionCause.SIZE, evictions.get(0).cause);
+  }
+  
+  @Test
+  public void testRetention_maxIdleWeight() {
+    final List<Eviction> evictions = new ArrayList<>();
+    final ReferenceCountingMap<String, String> map = 
+        new ReferenceCountingMap<>(new RetentionPolicy<String, String>()
+                                   .withMaxIdleWeight(10, (k, v) -> v.length())
+                                   .withEvictionListener((k, v, c) -> evictions.add(new Eviction(k, v, c))));
+    map.scope("a", givePlain("alfa"));
+    map.scope("b", givePlain("bravo"));
+    map.scope("c", givePlain("charlie"));
+    map.descope("a");
+    map.descope("b");
+    assertEquals(2, map.idleSize());    // 4 + 5 <= 10
+    
+    map.descope("c");                   // 4 + 5 + 7 > 10, evicting 'a'; then 5 + 7 > 10, evicting 'b'
+    assertEquals(1, map.idleSize());
+    assertEquals(2, evictions.size());
+    assertEquals("a", evictions.get(0).key);
+    assertEquals(EvictionCause.WEIGHT, evictions.get(0).cause);
+    assertEquals("b", evictions.get(1).key);
+    assertEquals(EvictionCause.WEIGHT, evictions.get(1).cause);
+    assertTrue(map.containsKey("c"));
+  }
+  
+  @Test
+  public void testRetention_timeToIdle() {
+    final List<Eviction> evictions = new ArrayList<>();
+    final AtomicLong nanoTime = new AtomicLong();
+    final ReferenceCountingMap<String, String> map = 
+        new ReferenceCountingMap<>(new RetentionPolicy<String, String>()
+                                   .withTimeToIdle(10, TimeUnit.NANOSECONDS)
+                                   .withNanoClock(nanoTime::get)
+                                   .withEvictionListener((k, v, c) -> evictions.add(new Eviction(k, v, c))));
+    final CountingMaker maker = new CountingMaker("alfa");
+    final String firstValue = map.scope("a", maker);
+    map.descope("a");
+    
+    nanoTime.set(10);
+    assertSame(firstValue, map.scope("a", maker));   // not yet expired
+    map.descope("a");
+    
+    nanoTime.set(21);
+    final String secondValue = map.scope("a", maker);  // expired, and so re-instantiated
+    assertNotSame(firstValue, secondValue);
+    assertEquals(2, maker.invocations);
+    assertEquals(1, evictions.size());
+    assertSame(firstValue, evictions.get(0).value);
+    assertEquals(EvictionCause.EXPIRED, evictions.get(0).cause);
+    map.descope("a");
+    
+    map.scope("b", givePlain("bravo"));
+    map.descope("b");
+    nanoTime.set(32);
+    assertNull(map.tryScope("a"));                     // expired during tryScope
+    assertEquals(2, evictions.size());
+    assertSame(secondValue, evictions.get(1).value);
+    assertEquals(1, map.idleSize());
+    
+    nanoTime.set(43);
+    map.cleanUp();                                     // 'b' has expired
+    assertTrue(map.isEmpty());
+    assertEquals(3, evictions.size());
+    assertEquals("b", evictions.get(2).key);
+    assertEquals(EvictionCause.EXPIRED, evictions.get(2).cause);
+  }
+  
+  @Test
+  public void testRetention_forEachLeavesIdleEntries() {
+    final List<Eviction> evictions = new ArrayList<>();
+    final AtomicLong nanoTime = new AtomicLong();
+    final ReferenceCountingMap<String, String> map = 
+        new ReferenceCountingMap<>(new RetentionPolicy<String, String>()
+                                   .withTimeToIdle(10, TimeUnit.NANOSECONDS)
+                                   .withNanoClock(nanoTime::get)
+                                   .withEvictionListener((k, v, c) -> evictions.add(new Eviction(k, v, c))));
+    map.scope("a", givePlain("alfa"));
+    map.scope("b", givePlain("bravo"));
+    map.descope("a");
+    
+    nanoTime.set(5);
+    final List<Pair<String, String>> entries = new ArrayList<>(2);
+    map.forEach((k, v) -> entries.add(Pair.of(k, v)));
+    Assertions.assertThat(entries).containsExactlyInAnyOrder(Pair.of("a", "alfa"), Pair.of("b", "bravo"));
+    assertEquals(1, map.idleSize());
+    
+    // iterating must not have refreshed the idle time of 'a'
+    nanoTime.set(11);
+    map.cleanUp();
+    assertEquals(1, evictions.size());
+    assertEquals("a", evictions.get(0).key);
+    assertEquals(EvictionCause.EXPIRED, evictions.get(0).cause);
+    assertTrue(map.containsKey("b"));
+  }
+  
+  @Test
+  public void testRetention_evictAllIdle() {
+    final List<Eviction> evictions = new ArrayList<>();
+    final ReferenceCountingMap<String, String> map = 
+        new ReferenceCountingMap<>(new RetentionPolicy<String, String>()
+                                   .withEvictionListener((k, v, c) -> evictions.add(new Eviction(k, v, c))));
+    map.scope("a", givePlain("alfa"));
+    map.scope("b", givePlain("bravo"));
+    map.descope("a");
+    map.evictAllIdle();
+    assertEquals(1, evictions.size());
+    assertEquals("a", evictions.get(0).key);
+    assertEquals(EvictionCause.EXPLICIT, evictions.get(0).cause);
+    assertEquals(1, map.size());
+    assertTrue(map.containsKey("b"));   // entries in scope are never evicted
+  }
+  
+  @Test
+  public void testWithoutRetention_noIdleEntries() {
+    final ReferenceCountingMap<String, String> map = new ReferenceCountingMap<>();
+    map.scope("a", givePlain("alfa"));
+    map.descope("a");
+    assertEquals(0, map.idleSize());
+    map.cleanUp();
+    map.evictAllIdle();
+    assertTrue(map.isEmpty());
+  }
+  
+  /**
+   *  Threads scope and de-scope a small set of keys with a bounded idle pool. An entry must never be 
+   *  evicted while it is in scope, and every instantiated value must eventually be evicted.
+   */
+  @Test
+  public void testRetention_concurrent() throws InterruptedException {
+    final AtomicInteger instantiations = new AtomicInteger();
+    final AtomicInteger evictions = new AtomicInteger();
+    final List<Throwable> errors = new CopyOnWriteArrayList<>();
+    final ReferenceCountingMap<String, AtomicInteger> map = 
+        new ReferenceCountingMap<>(new RetentionPolicy<String, AtomicInteger>()
+                                   .withMaxIdleEntries(1)
+                                   .withEvictionListener((k, v, c) -> {
+                                     evictions.incrementAndGet();
+                                     if (v.get() != 0) {
+                                       errors.add(new AssertionError("Evicted " + k + " while in scope"));
+                                     }
+                                   }));
+    final int threads = 4;
+    final int runsPerThread = 10_000;
+    final CountDownLatch completedLatch = new CountDownLatch(threads);
+    for (int t = 0; t < threads; t++) {
+      new Thread(() -> {
+        try {
+          final Random random = new Random();
+          for (int r = 0; r < runsPerThread; r++) {
+            final String key = String.valueOf(random.nextInt(4));
+            final AtomicInteger holders = map.scope(key, () -> {
+              instantiations.incrementAndGet();
+              return new AtomicInteger();
+            });
+            holders.incrementAndGet();
+            holders.decrementAndGet();
+            map.descope(key);
+          }
+        } catch (Throwable e) {
+          errors.add(e);
+        } finally {
+          completedLatch.countDown();
+        }
+      }).start();
+    }
+    
+    completedLatch.await(60, TimeUnit.SECONDS);
+    Assertions.assertThat(errors).isEmpty();
+    assertEquals(1, map.idleSize());
+    map.evictAllIdle();
+    assertTrue(map.isEmpty());
+    assertEquals(instantiations.get(), evictions.get());
+  }
 }
@@ -0,0 +1,45 @@
+package com.obsidiandynamics.threads;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+import com.obsidiandynamics.assertion.*;
+
+public final class RetentionPolicyTest {
+  @Test
+  public void testDefaults() {
+    final RetentionPolicy<String, String> policy = new RetentionPolicy<>();
+    assertEquals(Integer.MAX_VALUE, policy.getMaxIdleEntries());
+    assertEquals(Long.MAX_VALUE, policy.getMaxIdleWeight());
+    assertEquals(Long.MAX_VALUE, policy.getTimeToIdleNanos());
+    assertEquals(1, policy.getWeigher().applyAsLong("key", "value"));
+    Assertions.assertToStringOverride(policy);
+  }
+  
+  @Test
+  public void testWith() {
+    final RetentionPolicy<String, String> policy = new RetentionPolicy<String, String>()
+        .withMaxIdleEntries(10)
+        .withMaxIdleWeight(100, (k, v) -> v.length())
+        .withTimeToIdle(5, TimeUnit.SECONDS);
+    assertEquals(10, policy.getMaxIdleEntries());
+    assertEquals(100, policy.getMaxIdleWeight());
+    assertEquals(5, policy.getWeigher().applyAsLong("key", "value"));
+    assertEquals(TimeUnit.SECONDS.toNanos(5), policy.getTimeToIdleNanos());
+  }
+  
+  @Test
+  public void testInvalid() {
+    final RetentionPolicy<String, String> policy = new RetentionPolicy<>();
+    assertThatThrownBy(() -> policy.withMaxIdleEntries(-1))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Max idle entries cannot be negative");
+    assertThatThrownBy(() -> policy.withMaxIdleWeight(-1, (k, v) -> 1))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Max idle weight cannot be negative");
+    assertThatThrownBy(() -> policy.withTimeToIdle(0, TimeUnit.SECONDS))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Time to idle must be greater than 0");
+  }
+}
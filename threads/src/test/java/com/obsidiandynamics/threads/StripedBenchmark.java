@@ -0,0 +1,157 @@
+package com.obsidiandynamics.threads;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.obsidiandynamics.dyno.*;
+
+/**
+ *  Measures the throughput of incrementing striped counters, where each benchmark thread 
+ *  repeatedly increments the counter in its own stripe. As no two threads share a stripe, any
+ *  slowdown with an increasing thread count is attributable to false sharing between neighbouring
+ *  stripes. An {@link EagerStriped} and a {@link LazyStriped} container (with each thread choosing
+ *  a distinct stripe by key) are compared with a {@link PaddedStriped} container, both keyed and 
+ *  with the stripe chosen by the thread's probe. <p>
+ *  
+ *  The padding of a {@link PaddedStriped} container's slots does not extend to the values: when
+ *  the stripes are warmed from a single thread, the counters are allocated adjacently, and will
+ *  falsely share cache lines. The {@code Warmed} targets reproduce this case, contrasting plain
+ *  {@link AtomicLong} counters with {@link PaddedCounter} cells. Run as a standalone application.
+ */
+public final class StripedBenchmark {
+  private static final int BENCHMARK_TIME_MILLIS = 10_000;
+  
+  private static final int STRIPES = 64;
+  
+  /** Assigns each benchmark thread a distinct stripe. */
+  private static final AtomicInteger nextKey = new AtomicInteger();
+  
+  abstract static class StripedTarget implements BenchmarkTarget {
+    private final int key = nextKey.getAndIncrement();
+    
+    abstract long increment(int key);
+    
+    @Override
+    public final void cycle(Abyss abyss) {
+      abyss.consume(increment(key));
+    }
+  }
+  
+  /** 
+   *  Instantiates the values of all stripes from the calling thread, ahead of the benchmark. 
+   *  
+   *  @param <S> The type of striped value.
+   *  @param striped The container.
+   *  @return The container, for chaining.
+   */
+  static <S> PaddedStriped<S> warm(PaddedStriped<S> striped) {
+    for (int stripe = 0; stripe < striped.getStripes(); stripe++) {
+      striped.getStripe(stripe);
+    }
+    return striped;
+  }
+  
+  /** The container is shared among all benchmark threads, each of which receives its own target instance. */
+  public static final class Eager extends StripedTarget {
+    private static final Striped<AtomicLong> striped = new EagerStriped<>(STRIPES, AtomicLong::new);
+    
+    @Override
+    long increment(int key) {
+      return striped.get(key).incrementAndGet();
+    }
+  }
+  
+  /** The container is shared among all benchmark threads, each of which receives its own target instance. */
+  public static final class Lazy extends StripedTarget {
+    private static final Striped<AtomicLong> striped = new LazyStriped<>(STRIPES, AtomicLong::new);
+    
+    @Override
+    long increment(int key) {
+      return striped.get(key).incrementAndGet();
+    }
+  }
+  
+  /** The container is shared among all benchmark threads, each of which receives its own target instance. */
+  public static final class Padded extends StripedTarget {
+    private static final Striped<AtomicLong> striped = new PaddedStriped<>(STRIPES, AtomicLong::new);
+    
+    @Override
+    long increment(int key) {
+      return striped.get(key).incrementAndGet();
+    }
+  }
+  
+  /** 
+   *  As {@link Padded}, but with the stripes warmed from a single thread, such that the counters
+   *  are allocated adjacently.
+   */
+  public static final class PaddedWarmed extends StripedTarget {
+    private static final Striped<AtomicLong> striped = warm(new PaddedStriped<>(STRIPES, AtomicLong::new));
+    
+    @Override
+    long increment(int key) {
+      return striped.get(key).incrementAndGet();
+    }
+  }
+  
+  /** 
+   *  As {@link PaddedWarmed}, but with {@link PaddedCounter} cells, which remain isolated from
+   *  one another despite being allocated adjacently.
+   */
+  public static final class PaddedCounterWarmed extends StripedTarget {
+    private static final Striped<PaddedCounter> striped = warm(new PaddedStriped<>(STRIPES, PaddedCounter::new));
+    
+    @Override
+    long increment(int key) {
+      return striped.get(key).incrementAndGet();
+    }
+  }
+  
+  /** 
+   *  The container is shared among all benchmark threads, each of which receives its own target instance. 
+   *  As stripes are chosen by probe, threads may collide on a stripe, in which case they move on.
+   */
+  public static final class Probed implements BenchmarkTarget {
+    private static final PaddedStriped<AtomicLong> striped = new PaddedStriped<>(STRIPES, AtomicLong::new);
+    
+    @Override
+    public void cycle(Abyss abyss) {
+      final AtomicLong counter = striped.getForCurrentThread();
+      final long value = counter.get();
+      if (! counter.compareAndSet(value, value + 1)) {
+        PaddedStriped.advanceProbe();
+        counter.incrementAndGet();
+      }
+      abyss.consume(value);
+    }
+  }
+  
+  static void run(Class<? extends BenchmarkTarget> targetClass, int threads) {
+    new Dyno()
+    .withBenchmarkTime(BENCHMARK_TIME_MILLIS)
+    .withThreads(threads)
+    .withTarget(targetClass)
+    .withDriver(new JmhDriver(opts -> opts
+                              .mode(Mode.Throughput)
+                              .timeUnit(TimeUnit.SECONDS)
+                              .forks(1)
+                              .measurementIterations(1)))
+    .withWarmupFraction(0.2)
+    .withOutput(result -> System.out.format("%-19s threads=%-3d %s\n", targetClass.getSimpleName(), threads, result))
+    .run();
+  }
+
+  public static void main(String[] args) {
+    final int maxThreads = Math.min(Runtime.getRuntime().availableProcessors(), STRIPES);
+    for (int threads = 1; threads <= maxThreads; threads *= 2) {
+      run(Eager.class, threads);
+      run(Lazy.class, threads);
+      run(Padded.class, threads);
+      run(PaddedWarmed.class, threads);
+      run(PaddedCounterWarmed.class, threads);
+      run(Probed.class, threads);
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package com.obsidiandynamics.threads;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.junit.*;
+
+public final class StripedLazyReferenceTest {
+  @Test
+  public void testGet() {
+    final AtomicInteger supplied = new AtomicInteger();
+    final StripedLazyReference<Object, RuntimeException> ref = StripedLazyReference.from(3, () -> {
+      supplied.incrementAndGet();
+      return new Object();
+    });
+    assertEquals(4, ref.getStripes());
+    assertEquals(0, supplied.get());
+    assertTrue(ref.toString().contains("stripes=4"));
+
+    final Object value = ref.get();
+    assertNotNull(value);
+    assertSame(value, ref.get());
+    assertEquals(1, supplied.get());
+  }
+
+  @Test
+  public void testGetAcrossThreads() {
+    final int stripes = 4;
+    final Set<Object> values = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    final StripedLazyReference<Object, RuntimeException> ref = StripedLazyReference.from(stripes, Object::new);
+    Parallel.blocking(16, __ -> values.add(ref.get())).run();
+    assertTrue("values=" + values.size(), values.size() >= 1 && values.size() <= stripes);
+  }
+
+  @Test
+  public void testAdvanceProbe() {
+    final StripedLazyReference<Object, RuntimeException> ref = StripedLazyReference.from(64, Object::new);
+    final Set<Object> values = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (int i = 0; i < 64; i++) {
+      values.add(ref.get());
+      PaddedStriped.advanceProbe();
+    }
+    assertTrue("values=" + values.size(), values.size() > 1);
+  }
+
+  @Test
+  public void testWarm() {
+    final AtomicInteger supplied = new AtomicInteger();
+    final StripedLazyReference<Object, RuntimeException> ref = StripedLazyReference.from(8, () -> {
+      supplied.incrementAndGet();
+      return new Object();
+    });
+    ref.warm();
+    assertEquals(8, supplied.get());
+
+    ref.get();
+    ref.warm();
+    assertEquals(8, supplied.get());
+  }
+}
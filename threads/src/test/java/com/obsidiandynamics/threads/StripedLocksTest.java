@@ -0,0 +1,167 @@
+package com.obsidiandynamics.threads;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+import org.assertj.core.api.*;
+import org.junit.*;
+
+import com.obsidiandynamics.func.*;
+
+public final class StripedLocksTest {
+  @Test
+  public void testInvalidStripes() {
+    Assertions.assertThatThrownBy(() -> new StripedReadWriteLocks(0))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Number of stripes must be greater than 0");
+  }
+  
+  @Test
+  public void testGet() {
+    final StripedReadWriteLocks locks = new StripedReadWriteLocks(16);
+    assertEquals(16, locks.getStripes());
+    assertSame(locks.get(15), locks.get(15));
+    assertNotSame(locks.get(15), locks.get(16));
+    assertSame(locks.get("key").readLock(), locks.readLock("key"));
+    assertSame(locks.get("key").writeLock(), locks.writeLock("key"));
+    assertFalse(locks.get(0).isFair());
+    assertTrue(new StripedReadWriteLocks(1, true).get(0).isFair());
+  }
+  
+  @Test
+  public void testStripesOf() {
+    final StripedReadWriteLocks locks = new StripedReadWriteLocks(4);
+    assertArrayEquals(new int[] { 1, 2, 3 }, locks.stripesOf(Arrays.asList(3, 1, 2, 5, 1)));
+    assertArrayEquals(new int[0], locks.stripesOf(Collections.emptySet()));
+    Assertions.assertThatThrownBy(() -> locks.stripesOf(Collections.singleton(null)))
+    .isExactlyInstanceOf(NullArgumentException.class).hasMessage("Key cannot be null");
+  }
+  
+  @Test
+  public void testReadLocksShared() throws InterruptedException {
+    final StripedReadWriteLocks locks = new StripedReadWriteLocks(16);
+    final List<Integer> keys = Arrays.asList(1, 2, 3);
+    final Lock readLocks = locks.readLocks(keys);
+    readLocks.lock();
+    try {
+      assertTrue(callInOtherThread(() -> {
+        final Lock otherReadLocks = locks.readLocks(Arrays.asList(3, 4));
+        if (! otherReadLocks.tryLock()) return false;
+        otherReadLocks.unlock();
+        return true;
+      }));
+      assertFalse(callInOtherThread(() -> locks.writeLocks(Arrays.asList(0, 3)).tryLock()));
+      assertFalse(locks.get(0).isWriteLocked()); // must have been released on failure
+      assertTrue(callInOtherThread(() -> {
+        final Lock otherWriteLocks = locks.writeLocks(Arrays.asList(0, 4));
+        if (! otherWriteLocks.tryLock(10, TimeUnit.MILLISECONDS)) return false;
+        otherWriteLocks.unlock();
+        return true;
+      }));
+    } finally {
+      readLocks.unlock();
+    }
+    
+    for (int key : keys) {
+      assertEquals(0, locks.get(key).getReadLockCount());
+    }
+  }
+  
+  @Test
+  public void testWriteLocksExclusive() throws InterruptedException {
+    final StripedReadWriteLocks locks = new StripedReadWriteLocks(16);
+    final Lock writeLocks = locks.writeLocks(Arrays.asList(5, 6));
+    assertTrue(writeLocks.tryLock(10, TimeUnit.MILLISECONDS));
+    try {
+      assertFalse(callInOtherThread(() -> locks.readLocks(Arrays.asList(1, 6)).tryLock(1, TimeUnit.MILLISECONDS)));
+      assertFalse(callInOtherThread(() -> locks.get(1).isWriteLocked() || locks.get(1).getReadLockCount() != 0));
+    } finally {
+      writeLocks.unlock();
+    }
+    assertFalse(locks.get(5).isWriteLocked());
+    assertFalse(locks.get(6).isWriteLocked());
+  }
+  
+  @Test
+  public void testLockInterruptibly() throws InterruptedException {
+    final StripedReadWriteLocks locks = new StripedReadWriteLocks(16);
+    final Lock writeLock = locks.writeLock(7);
+    writeLock.lock();
+    try {
+      final CompletableFuture<Throwable> error = new CompletableFuture<>();
+      final Thread thread = new Thread(() -> {
+        try {
+          locks.writeLocks(Arrays.asList(3, 7)).lockInterruptibly();
+        } catch (Throwable e) {
+          error.complete(e);
+        }
+      });
+      thread.start();
+      while (! locks.get(7).hasQueuedThread(thread)) {
+        Thread.yield();
+      }
+      thread.interrupt();
+      thread.join();
+      assertEquals(InterruptedException.class, error.join().getClass());
+      assertFalse(locks.get(3).isWriteLocked()); // the lower stripe must have been released
+    } finally {
+      writeLock.unlock();
+    }
+  }
+  
+  @Test
+  public void testNewConditionUnsupported() {
+    final StripedReadWriteLocks locks = new StripedReadWriteLocks(4);
+    Assertions.assertThatThrownBy(() -> locks.writeLocks(Arrays.asList(1, 2)).newCondition())
+    .isExactlyInstanceOf(UnsupportedOperationException.class).hasMessage("Conditions are not supported by a multi-stripe lock");
+  }
+  
+  /**
+   *  Threads repeatedly acquire overlapping key sets, supplied in opposing orders; the bulk
+   *  acquisition must not deadlock.
+   */
+  @Test
+  public void testOpposingOrdersDeadlockFree() throws InterruptedException {
+    final StripedReadWriteLocks locks = new StripedReadWriteLocks(8);
+    final int threads = 4;
+    final int runsPerThread = 1_000;
+    final AtomicInteger completed = new AtomicInteger();
+    final List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      final List<Integer> keys = Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7);
+      if (t % 2 == 1) Collections.reverse(keys);
+      final Thread worker = new Thread(() -> {
+        for (int r = 0; r < runsPerThread; r++) {
+          final Lock writeLocks = locks.writeLocks(keys);
+          writeLocks.lock();
+          writeLocks.unlock();
+        }
+        completed.incrementAndGet();
+      });
+      workers.add(worker);
+      worker.start();
+    }
+    
+    for (Thread worker : workers) {
+      worker.join(60_000);
+    }
+    assertEquals(threads, completed.get());
+  }
+  
+  private static boolean callInOtherThread(Callable<Boolean> callable) throws InterruptedException {
+    final CompletableFuture<Boolean> result = new CompletableFuture<>();
+    final Thread thread = new Thread(() -> {
+      try {
+        result.complete(callable.call());
+      } catch (Throwable e) {
+        result.completeExceptionally(e);
+      }
+    });
+    thread.start();
+    thread.join();
+    return result.join();
+  }
+}
@@ -0,0 +1,117 @@
+package com.obsidiandynamics.threads;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+
+import org.junit.*;
+
+public final class StripedStampedLocksTest {
+  @Test
+  public void testOptimisticRead() {
+    final StripedStampedLocks locks = new StripedStampedLocks(16);
+    final long stamp = locks.tryOptimisticRead("key");
+    assertNotEquals(0, stamp);
+    assertTrue(locks.validate("key", stamp));
+    
+    final Lock writeLock = locks.writeLock("key");
+    writeLock.lock();
+    try {
+      assertFalse(locks.validate("key", stamp));
+      assertEquals(0, locks.tryOptimisticRead("key"));
+    } finally {
+      writeLock.unlock();
+    }
+    assertFalse(locks.validate("key", stamp));
+    assertTrue(locks.validate("key", locks.tryOptimisticRead("key")));
+  }
+  
+  @Test
+  public void testOptimisticReads() {
+    final StripedStampedLocks locks = new StripedStampedLocks(16);
+    final StripedStampedLocks.OptimisticRead read = locks.tryOptimisticReads(Arrays.asList(1, 2, 3));
+    assertTrue(read.validate());
+    
+    // a write to an uncovered stripe does not invalidate the read
+    final Lock uncovered = locks.writeLocks(Arrays.asList(4, 5));
+    uncovered.lock();
+    uncovered.unlock();
+    assertTrue(read.validate());
+    
+    // a write to a covered stripe does
+    final Lock covered = locks.writeLocks(Arrays.asList(3, 4));
+    covered.lock();
+    try {
+      assertFalse(locks.tryOptimisticReads(Arrays.asList(1, 3)).validate());
+    } finally {
+      covered.unlock();
+    }
+    assertFalse(read.validate());
+    assertTrue(locks.tryOptimisticReads(Arrays.asList(1, 2, 3)).validate());
+  }
+  
+  @Test
+  public void testPessimisticReadLocks() throws InterruptedException {
+    final StripedStampedLocks locks = new StripedStampedLocks(16);
+    final Lock readLocks = locks.readLocks(Arrays.asList(1, 2));
+    readLocks.lock();
+    try {
+      assertTrue(locks.get(1).isReadLocked());
+      assertTrue(locks.get(2).isReadLocked());
+      assertTrue(locks.tryOptimisticReads(Arrays.asList(2)).validate()); // shared holders do not invalidate
+      assertFalse(locks.writeLocks(Arrays.asList(0, 2)).tryLock(1, TimeUnit.MILLISECONDS));
+      assertFalse(locks.get(0).isWriteLocked());
+    } finally {
+      readLocks.unlock();
+    }
+    assertFalse(locks.get(1).isReadLocked());
+    assertFalse(locks.get(2).isReadLocked());
+  }
+  
+  /**
+   *  Writers maintain an invariant across a pair of stripes, which optimistic readers (falling
+   *  back to a pessimistic read upon a failed validation) must never observe to be broken.
+   */
+  @Test
+  public void testOptimisticReadConsistency() throws InterruptedException {
+    final StripedStampedLocks locks = new StripedStampedLocks(16);
+    final List<Integer> keys = Arrays.asList(1, 9);
+    final int[] values = new int[2];
+    final int writes = 10_000;
+    final CountDownLatch writerDone = new CountDownLatch(1);
+    
+    final Thread writer = new Thread(() -> {
+      final Lock writeLocks = locks.writeLocks(keys);
+      for (int i = 0; i < writes; i++) {
+        writeLocks.lock();
+        try {
+          values[0]++;
+          values[1]--;
+        } finally {
+          writeLocks.unlock();
+        }
+      }
+      writerDone.countDown();
+    });
+    writer.start();
+    
+    final Lock readLocks = locks.readLocks(keys);
+    do {
+      final StripedStampedLocks.OptimisticRead read = locks.tryOptimisticReads(keys);
+      int sum = values[0] + values[1];
+      if (! read.validate()) {
+        readLocks.lock();
+        try {
+          sum = values[0] + values[1];
+        } finally {
+          readLocks.unlock();
+        }
+      }
+      assertEquals(0, sum);
+    } while (writerDone.getCount() != 0);
+    writer.join();
+    assertEquals(writes, values[0]);
+  }
+}
@@ -4,6 +4,8 @@ import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import java.util.*;
+
 import org.assertj.core.api.*;
 import org.junit.*;
 import org.mockito.*;
@@ -31,4 +33,16 @@ public final class StripedTest {
       Assertions.assertThat(stripe).isLessThan(stripes);
     }
   }
+
+  @Test
+  public void testResolveStripe_maskingMatchesModulo() {
+    final Random random = new Random(0);
+    for (int stripes : new int[] { 1, 2, 3, 16, 17, 1 << 20 }) {
+      for (int i = 0; i < 1_000; i++) {
+        final int hash = random.nextInt();
+        final int spreadHash = hash ^ (hash >>> 16);
+        assertEquals(((spreadHash % stripes) + stripes) % stripes, Striped.resolveStripe(hash, stripes));
+      }
+    }
+  }
 }
@@ -0,0 +1,51 @@
+package com.obsidiandynamics.threads;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+import com.obsidiandynamics.assertion.*;
+import com.obsidiandynamics.func.*;
+
+public final class WorkStealingOptionsTest {
+  @Test
+  public void testDefaults() {
+    final WorkStealingOptions options = new WorkStealingOptions();
+    assertSame(ForkJoinPool.commonPool(), options.getExecutor());
+    assertEquals(Runtime.getRuntime().availableProcessors(), options.getParallelism());
+    assertEquals(1, options.getMinChunkSize());
+    assertFalse(options.isBarrierStart());
+    assertTrue(options.isBlocking());
+    Assertions.assertToStringOverride(options);
+  }
+  
+  @Test
+  public void testWith() {
+    final Executor executor = Runnable::run;
+    final WorkStealingOptions options = new WorkStealingOptions()
+        .withExecutor(executor)
+        .withParallelism(3)
+        .withMinChunkSize(16)
+        .withBarrierStart(true)
+        .withBlocking(false);
+    assertSame(executor, options.getExecutor());
+    assertEquals(3, options.getParallelism());
+    assertEquals(16, options.getMinChunkSize());
+    assertTrue(options.isBarrierStart());
+    assertFalse(options.isBlocking());
+  }
+  
+  @Test
+  public void testInvalid() {
+    final WorkStealingOptions options = new WorkStealingOptions();
+    assertThatThrownBy(() -> options.withParallelism(0))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Parallelism must be greater than 0");
+    assertThatThrownBy(() -> options.withMinChunkSize(0))
+    .isExactlyInstanceOf(IllegalArgumentException.class).hasMessage("Min chunk size must be greater than 0");
+    assertThatThrownBy(() -> options.withExecutor(null))
+    .isExactlyInstanceOf(NullArgumentException.class).hasMessage("Executor cannot be null");
+  }
+}
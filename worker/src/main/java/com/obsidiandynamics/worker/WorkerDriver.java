@@ -0,0 +1,210 @@
+package com.obsidiandynamics.worker;
+
+import java.util.concurrent.*;
+
+/**
+ *  Drives the lifecycle of a {@link WorkerThread}, either on a dedicated (platform or virtual)
+ *  thread, or by multiplexing the worker's cycles onto the threads of a shared {@link WorkerPool}.
+ */
+abstract class WorkerDriver {
+  abstract void start();
+
+  /**
+   *  Interrupts the thread that is presently executing the worker's lifecycle, if any.
+   */
+  abstract void interrupt();
+
+  abstract boolean join(long timeoutMillis) throws InterruptedException;
+
+  /**
+   *  Obtains the dedicated thread that drives the worker.
+   *
+   *  @return The driver thread, or {@code null} if the worker does not have a dedicated thread.
+   */
+  abstract Thread getThread();
+
+  abstract String getName();
+
+  abstract boolean isDaemon();
+
+  abstract int getPriority();
+
+  /**
+   *  Runs the entire worker lifecycle on a dedicated thread.
+   */
+  static final class Dedicated extends WorkerDriver {
+    private final Thread thread;
+
+    Dedicated(Thread thread) {
+      this.thread = thread;
+    }
+
+    @Override
+    void start() {
+      thread.start();
+    }
+
+    @Override
+    void interrupt() {
+      thread.interrupt();
+    }
+
+    @Override
+    boolean join(long timeoutMillis) throws InterruptedException {
+      thread.join(timeoutMillis);
+      return ! thread.isAlive();
+    }
+
+    @Override
+    Thread getThread() {
+      return thread;
+    }
+
+    @Override
+    String getName() {
+      return thread.getName();
+    }
+
+    @Override
+    boolean isDaemon() {
+      return thread.isDaemon();
+    }
+
+    @Override
+    int getPriority() {
+      return thread.getPriority();
+    }
+
+    @Override
+    public String toString() {
+      return thread.toString();
+    }
+  }
+
+  /**
+   *  Executes the worker one cycle at a time on a shared pool, resubmitting the worker after
+   *  each cycle so that the pool's threads are fairly shared among its workers. While executing a
+   *  cycle, the pool thread assumes the name of the worker.
+   */
+  static final class Pooled extends WorkerDriver implements Runnable {
+    private final WorkerThread worker;
+
+    private final WorkerPool pool;
+
+    private final WorkerOptions options;
+
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
+    /** Guards {@link #current}, so that an interrupt cannot leak to a subsequent use of the pool thread. */
+    private final Object currentLock = new Object();
+
+    /** The pool thread that is executing the worker; only set for the duration of a slice. */
+    private Thread current;
+
+    /** Whether the startup handler has completed successfully; only accessed from within a slice. */
+    private boolean started;
+
+    Pooled(WorkerThread worker, WorkerPool pool, WorkerOptions options) {
+      this.worker = worker;
+      this.pool = pool;
+      this.options = options;
+    }
+
+    @Override
+    void start() {
+      pool.execute(this);
+    }
+
+    @Override
+    public void run() {
+      final Thread thread = Thread.currentThread();
+      final String poolThreadName = thread.getName();
+      synchronized (currentLock) {
+        current = thread;
+      }
+      if (options.getName() != null) {
+        thread.setName(options.getName());
+      }
+
+      boolean resubmit = false;
+      try {
+        if (! started) {
+          started = worker.startup();
+        }
+        resubmit = started && worker.cycle();
+        if (! resubmit) {
+          worker.shutdown();
+        }
+      } finally {
+        synchronized (currentLock) {
+          current = null;
+          // clear any interrupt that was intended for this worker before relinquishing the thread
+          Thread.interrupted();
+        }
+        thread.setName(poolThreadName);
+
+        if (resubmit) {
+          try {
+            pool.execute(this);
+          } catch (RejectedExecutionException e) {
+            abandon();
+            throw e;
+          }
+        } else {
+          terminated.countDown();
+        }
+      }
+    }
+
+    /**
+     *  Invoked when the pool is terminated ahead of the worker, releasing any joiners.
+     */
+    void abandon() {
+      terminated.countDown();
+    }
+
+    @Override
+    void interrupt() {
+      synchronized (currentLock) {
+        if (current != null) {
+          current.interrupt();
+        }
+      }
+    }
+
+    @Override
+    boolean join(long timeoutMillis) throws InterruptedException {
+      if (timeoutMillis == 0) {
+        terminated.await();
+        return true;
+      } else {
+        return terminated.await(timeoutMillis, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    @Override
+    Thread getThread() {
+      return null;
+    }
+
+    @Override
+    String getName() {
+      return options.getName();
+    }
+
+    @Override
+    boolean isDaemon() {
+      return options.isDaemon();
+    }
+
+    @Override
+    int getPriority() {
+      return options.getPriority();
+    }
+
+    @Override
+    public String toString() {
+      return Pooled.class.getSimpleName() + " [name=" + options.getName() + ", pool=" + pool + "]";
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package com.obsidiandynamics.worker;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+import java.lang.reflect.*;
+
+/**
+ *  Determines how the lifecycle of a {@link WorkerThread} is executed. The following
+ *  strategies are supported: <p>
+ *
+ *  <ul>
+ *  <li>{@link #platform()} — A dedicated platform (OS) thread per worker. This is the default.</li>
+ *  <li>{@link #virtual()} — A dedicated virtual thread per worker, on JDK 21 and newer. The
+ *  availability of virtual threads is determined at runtime; on older runtimes this strategy
+ *  falls back to platform threads.</li>
+ *  <li>{@link #shared(WorkerPool)} — Cooperatively multiplexes the worker's cycles onto the
+ *  threads of a shared {@link WorkerPool}, with no thread dedicated to any one worker. A blocked
+ *  cycle holds on to a pool thread, starving the other workers on the pool; this strategy is
+ *  therefore only suitable for workers whose cycles don't block (or block only briefly), and
+ *  must be opted into on a per-worker basis.</li>
+ *  </ul><p>
+ *
+ *  The {@link Terminable} and {@link Joinable} semantics of a {@link WorkerThread} are the same
+ *  irrespective of the execution strategy. <p>
+ *
+ *  The default strategy may be overridden without code changes by setting the
+ *  {@value #EXECUTION_PROPERTY} system property to either {@code platform} or {@code virtual},
+ *  which applies to all {@link WorkerOptions} that haven't been assigned a strategy explicitly.
+ *  Shared execution cannot be selected this way, as workers that block in their cycles (as many 
+ *  do) would starve the pool.
+ */
+public abstract class WorkerExecution {
+  /** The system property for overriding the default execution strategy. */
+  public static final String EXECUTION_PROPERTY = "fulcrum.worker.execution";
+
+  private static final class Platform extends WorkerExecution {
+    static final Platform INSTANCE = new Platform();
+
+    @Override
+    WorkerDriver newDriver(WorkerThread worker, WorkerOptions options) {
+      final Thread thread = new Thread(worker::run);
+      ifPresentVoid(options.getName(), thread::setName);
+      thread.setDaemon(options.isDaemon());
+      thread.setPriority(options.getPriority());
+      return new WorkerDriver.Dedicated(thread);
+    }
+
+    @Override
+    public String toString() {
+      return "platform";
+    }
+  }
+
+  /**
+   *  Creates virtual threads reflectively, as the codebase targets a runtime that predates them.
+   *  Virtual threads are always daemons and their priority cannot be changed; the corresponding
+   *  options are ignored. <p>
+   *  
+   *  Support is probed by building (but not starting) a virtual thread, as the API may be present
+   *  without being usable — for example, as a preview feature that hasn't been enabled.
+   */
+  private static final class Virtual extends WorkerExecution {
+    static final Virtual INSTANCE = new Virtual();
+
+    private static final Method OF_VIRTUAL;
+
+    private static final Method UNSTARTED;
+
+    static {
+      Method ofVirtual = null, unstarted = null;
+      try {
+        ofVirtual = Thread.class.getMethod("ofVirtual");
+        unstarted = Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class);
+        unstarted.invoke(ofVirtual.invoke(null), (Runnable) () -> {});
+      } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+        ofVirtual = unstarted = null;
+      }
+      OF_VIRTUAL = ofVirtual;
+      UNSTARTED = unstarted;
+    }
+
+    static boolean isSupported() {
+      return OF_VIRTUAL != null;
+    }
+
+    @Override
+    WorkerDriver newDriver(WorkerThread worker, WorkerOptions options) {
+      final Thread thread;
+      try {
+        thread = (Thread) UNSTARTED.invoke(OF_VIRTUAL.invoke(null), (Runnable) worker::run);
+      } catch (IllegalAccessException | InvocationTargetException e) {
+        throw new IllegalStateException("Unable to create a virtual thread", e);
+      }
+      ifPresentVoid(options.getName(), thread::setName);
+      return new WorkerDriver.Dedicated(thread);
+    }
+
+    @Override
+    public String toString() {
+      return "virtual";
+    }
+  }
+
+  private static final class Shared extends WorkerExecution {
+    private final WorkerPool pool;
+
+    Shared(WorkerPool pool) {
+      this.pool = mustExist(pool, "Worker pool cannot be null");
+    }
+
+    @Override
+    WorkerDriver newDriver(WorkerThread worker, WorkerOptions options) {
+      return new WorkerDriver.Pooled(worker, pool, options);
+    }
+
+    @Override
+    public String toString() {
+      return "shared(" + pool + ")";
+    }
+  }
+
+  private static final class DefaultHolder {
+    static final WorkerExecution INSTANCE = forName(System.getProperty(EXECUTION_PROPERTY, "platform"));
+  }
+
+  WorkerExecution() {}
+
+  abstract WorkerDriver newDriver(WorkerThread worker, WorkerOptions options);
+
+  public static WorkerExecution platform() {
+    return Platform.INSTANCE;
+  }
+
+  /**
+   *  Obtains the virtual thread execution strategy if the runtime supports virtual threads;
+   *  otherwise, reverts to {@link #platform()}.
+   *
+   *  @return The {@link WorkerExecution} strategy.
+   */
+  public static WorkerExecution virtual() {
+    return isVirtualSupported() ? Virtual.INSTANCE : platform();
+  }
+
+  public static boolean isVirtualSupported() {
+    return Virtual.isSupported();
+  }
+
+  /**
+   *  Obtains a strategy that multiplexes the worker's cycles onto the given pool. Only suitable 
+   *  for workers with non-blocking cycles; a cycle that blocks occupies a pool thread for the 
+   *  duration (see {@link WorkerPool}).
+   *
+   *  @param pool The pool to execute the worker's cycles on.
+   *  @return The {@link WorkerExecution} strategy.
+   */
+  public static WorkerExecution shared(WorkerPool pool) {
+    return new Shared(pool);
+  }
+
+  /**
+   *  Obtains the default execution strategy, being the {@link #platform()} strategy unless
+   *  overridden by the {@value #EXECUTION_PROPERTY} system property.
+   *
+   *  @return The default {@link WorkerExecution} strategy.
+   */
+  public static WorkerExecution getDefault() {
+    return DefaultHolder.INSTANCE;
+  }
+
+  static WorkerExecution forName(String name) {
+    switch (name) {
+      case "platform":
+        return platform();
+
+      case "virtual":
+        return virtual();
+
+      default:
+        throw new IllegalArgumentException("Unsupported worker execution '" + name + "'");
+    }
+  }
+}
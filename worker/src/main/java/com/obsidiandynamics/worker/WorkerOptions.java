@@ -8,6 +8,8 @@ public final class WorkerOptions {
   private boolean daemon;
   
   private int priority = Thread.NORM_PRIORITY;
+  
+  private WorkerExecution execution = WorkerExecution.getDefault();
 
   public String getName() {
     return name;
@@ -64,8 +66,25 @@ public final class WorkerOptions {
     return this;
   }
 
+  public WorkerExecution getExecution() {
+    return execution;
+  }
+
+  /**
+   *  Assigns the strategy for executing the worker's lifecycle, which defaults to
+   *  {@link WorkerExecution#getDefault()}.
+   *  
+   *  @param execution The execution strategy.
+   *  @return This {@link WorkerOptions} instance for fluent chaining.
+   */
+  public WorkerOptions withExecution(WorkerExecution execution) {
+    this.execution = execution;
+    return this;
+  }
+
   @Override
   public String toString() {
-    return WorkerOptions.class.getSimpleName() + " [name=" + name + ", daemon=" + daemon + ", priority=" + priority + "]";
+    return WorkerOptions.class.getSimpleName() + " [name=" + name + ", daemon=" + daemon + ", priority=" + priority + 
+        ", execution=" + execution + "]";
   }
 }
@@ -0,0 +1,99 @@
+package com.obsidiandynamics.worker;
+
+import static com.obsidiandynamics.func.Functions.*;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ *  A fixed-size pool of platform threads, onto which the cycles of many {@link WorkerThread}s
+ *  may be cooperatively multiplexed (see {@link WorkerExecution#shared(WorkerPool)}). <p>
+ *
+ *  Each worker is executed one cycle at a time, being resubmitted to the back of the pool's
+ *  queue after every cycle. A cycle that blocks (for example, polling a queue with a timeout)
+ *  therefore occupies one of the pool's threads for the duration of the block, and a pool should
+ *  be sized with this in mind. A worker can still be terminated while blocked, as the pool thread
+ *  executing its cycle is interrupted in the same way as a dedicated driver thread would be. <p>
+ *
+ *  A pool should outlive the workers that it drives; workers that are still running when the
+ *  pool is terminated are abandoned without having their shutdown handler invoked (although
+ *  any threads joining on such workers are released).
+ */
+public final class WorkerPool implements Terminable, Joinable {
+  private static final class CommonPoolHolder {
+    static final WorkerPool INSTANCE = new WorkerPool(Runtime.getRuntime().availableProcessors(),
+                                                      new WorkerOptions().withName(WorkerPool.class, "common").daemon());
+  }
+
+  private final ThreadPoolExecutor executor;
+
+  private final WorkerOptions threadOptions;
+
+  /**
+   *  Creates a pool with the given number of daemon threads.
+   *
+   *  @param threads The number of threads.
+   */
+  public WorkerPool(int threads) {
+    this(threads, new WorkerOptions().withName(WorkerPool.class).daemon());
+  }
+
+  /**
+   *  Creates a pool with the given number of threads. The threads are configured from the
+   *  given options, each being named by appending a hyphen and a sequence number to
+   *  {@link WorkerOptions#getName()}.
+   *
+   *  @param threads The number of threads.
+   *  @param threadOptions The options for the pool's threads.
+   */
+  public WorkerPool(int threads, WorkerOptions threadOptions) {
+    mustBeGreater(threads, 0, illegalArgument("Number of threads must be greater than 0"));
+    this.threadOptions = mustExist(threadOptions, "Thread options cannot be null");
+    final AtomicInteger sequence = new AtomicInteger();
+    final ThreadFactory threadFactory = runnable -> {
+      final Thread thread = new Thread(runnable, threadOptions.getName() + "-" + sequence.getAndIncrement());
+      thread.setDaemon(threadOptions.isDaemon());
+      thread.setPriority(threadOptions.getPriority());
+      return thread;
+    };
+    executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
+  }
+
+  /**
+   *  Obtains a lazily-created, process-wide pool of daemon threads, sized to the number of
+   *  available processors.
+   *
+   *  @return The common {@link WorkerPool} instance.
+   */
+  public static WorkerPool common() {
+    return CommonPoolHolder.INSTANCE;
+  }
+
+  void execute(Runnable task) {
+    executor.execute(task);
+  }
+
+  public int getThreads() {
+    return executor.getCorePoolSize();
+  }
+
+  @Override
+  public Joinable terminate() {
+    for (Runnable pending : executor.shutdownNow()) {
+      if (pending instanceof WorkerDriver.Pooled) {
+        ((WorkerDriver.Pooled) pending).abandon();
+      }
+    }
+    return this;
+  }
+
+  @Override
+  public boolean join(long timeoutMillis) throws InterruptedException {
+    return executor.awaitTermination(timeoutMillis == 0 ? Long.MAX_VALUE : timeoutMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public String toString() {
+    return WorkerPool.class.getSimpleName() + " [threads=" + getThreads() + ", threadOptions=" + threadOptions + "]";
+  }
+}
@@ -1,11 +1,9 @@
 package com.obsidiandynamics.worker;
 
-import static com.obsidiandynamics.func.Functions.*;
-
 import java.util.*;
 
 public final class WorkerThread implements Terminable, Joinable {
-  private final Thread driver;
+  private final WorkerDriver driver;
   
   private final WorkerCycle worker;
   
@@ -20,6 +18,9 @@ public final class WorkerThread implements Terminable, Joinable {
   /** Guards the changing of the thread state. */
   private final Object stateLock = new Object();
   
+  /** The exception that terminated the worker; only accessed from the driver. */
+  private Throwable exception;
+  
   WorkerThread(WorkerOptions options, 
                WorkerCycle onCycle, 
                WorkerStartup onStartup, 
@@ -29,16 +30,17 @@ public final class WorkerThread implements Terminable, Joinable {
     this.onStartup = onStartup;
     this.onShutdown = onShutdown;
     this.onUncaughtException = onUncaughtException;
-    driver = new Thread(this::run);
-    
-    ifPresentVoid(options.getName(), driver::setName);
-    
-    driver.setDaemon(options.isDaemon());
-    driver.setPriority(options.getPriority());
+    driver = options.getExecution().newDriver(this, options);
   }
   
+  /**
+   *  Obtains the thread that is dedicated to driving this worker.
+   *  
+   *  @return The driver thread, or {@code null} if the worker is multiplexed onto a shared
+   *          {@link WorkerPool}.
+   */
   public Thread getDriverThread() {
-    return driver;
+    return driver.getThread();
   }
   
   /**
@@ -74,34 +76,74 @@ public final class WorkerThread implements Terminable, Joinable {
     return this;
   }
   
-  private void run() {
-    Throwable exception = null;
+  /**
+   *  Runs the entire lifecycle of the worker on the calling thread.
+   */
+  void run() {
+    if (startup()) {
+      while (cycle()) {}
+    }
+    shutdown();
+  }
+  
+  /**
+   *  Invokes the startup handler.
+   *  
+   *  @return True if the worker may proceed to cycling.
+   */
+  boolean startup() {
     try {
       onStartup.handle(this);
-      while (state == WorkerState.RUNNING) {
-        cycle();
-      }
+      return true;
     } catch (Throwable e) {
-      synchronized (stateLock) {
-        state = WorkerState.TERMINATING;
-      }
-      exception = e;
+      fail(e);
+      return false;
+    }
+  }
+  
+  /**
+   *  Performs a single cycle, provided the worker is still running.
+   *  
+   *  @return True if the worker may continue cycling.
+   */
+  boolean cycle() {
+    if (state != WorkerState.RUNNING) return false;
+    
+    try {
+      worker.cycle(this);
+      return true;
+    } catch (Throwable e) {
+      fail(e);
+      return false;
+    }
+  }
+  
+  private void fail(Throwable e) {
+    synchronized (stateLock) {
+      state = WorkerState.TERMINATING;
+    }
+    exception = e;
+  }
+  
+  /**
+   *  Reports an uncaught exception (if one occurred) and invokes the shutdown handler, 
+   *  transitioning the worker to the {@link WorkerState#TERMINATED} state.
+   */
+  void shutdown() {
+    try {
+      handleUncaughtException(exception);
     } finally {
+      // Interrupt may have been set as part of terminating the thread; clear it before proceeding with the
+      // shutdown handler.
+      Thread.interrupted(); 
+      
       try {
-        handleUncaughtException(exception);
+        onShutdown.handle(this, exception);
+      } catch (Throwable e) {
+        handleUncaughtException(e);
       } finally {
-        // Interrupt may have been set as part of terminating the thread; clear it before proceeding with the
-        // shutdown handler.
-        Thread.interrupted(); 
-        
-        try {
-          onShutdown.handle(this, exception);
-        } catch (Throwable e) {
-          handleUncaughtException(e);
-        } finally {
-          synchronized (stateLock) {
-            state = WorkerState.TERMINATED;
-          }
+        synchronized (stateLock) {
+          state = WorkerState.TERMINATED;
         }
       }
     }
@@ -122,14 +164,9 @@ public final class WorkerThread implements Terminable, Joinable {
     return state;
   }
   
-  private void cycle() throws InterruptedException {
-    worker.cycle(this);
-  }
-  
   @Override
   public boolean join(long timeoutMillis) throws InterruptedException {
-    driver.join(timeoutMillis);
-    return ! driver.isAlive();
+    return driver.join(timeoutMillis);
   }
   
   public String getName() {
@@ -47,6 +47,7 @@ public final class WorkerThreadBuilder {
     mustExist(onShutdown, "On-shutdown handler cannot be null");
     mustExist(onCycle, "On-cycle handler cannot be null");
     mustExist(options, "Options cannot be null");
+    mustExist(options.getExecution(), "Execution cannot be null");
     mustExist(onUncaughtException, "Uncaught exception handler be null");
     return new WorkerThread(options, onCycle, onStartup, onShutdown, onUncaughtException);
   }
@@ -0,0 +1,151 @@
+package com.obsidiandynamics.worker;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.assertj.core.api.*;
+import org.junit.*;
+import org.junit.runner.*;
+import org.junit.runners.*;
+
+import com.obsidiandynamics.await.*;
+
+@RunWith(Parameterized.class)
+public final class WorkerExecutionTest {
+  private static final WorkerPool POOL = new WorkerPool(2, new WorkerOptions().withName("TestPool").daemon());
+
+  @Parameterized.Parameters(name = "{0}")
+  public static List<Object[]> data() {
+    return Arrays.asList(new Object[][] {
+      {WorkerExecution.platform()},
+      {WorkerExecution.virtual()},
+      {WorkerExecution.shared(POOL)}
+    });
+  }
+
+  @Parameterized.Parameter(0)
+  public WorkerExecution execution;
+
+  private final Timesert wait = Timesert.wait(10_000);
+
+  private WorkerThreadBuilder builder() {
+    return WorkerThread.builder().withOptions(new WorkerOptions().withName("TestWorker").daemon().withExecution(execution));
+  }
+
+  @After
+  public void after() {
+    assertFalse(Thread.interrupted());
+  }
+
+  @Test
+  public void testCycleUntilTerminated() {
+    final AtomicInteger counter = new AtomicInteger();
+    final WorkerStartup onStartup = mock(WorkerStartup.class);
+    final WorkerShutdown onShutdown = mock(WorkerShutdown.class);
+    final WorkerThread thread = builder()
+        .onStartup(onStartup)
+        .onCycle(t -> {
+          assertEquals("TestWorker", Thread.currentThread().getName());
+          if (counter.incrementAndGet() == 10) {
+            t.terminate();
+          }
+        })
+        .onShutdown(onShutdown)
+        .buildAndStart();
+    assertTrue(thread.joinSilently(60_000));
+
+    assertEquals(10, counter.get());
+    assertEquals(WorkerState.TERMINATED, thread.getState());
+    verify(onStartup).handle(eq(thread));
+    verify(onShutdown).handle(eq(thread), isNull());
+  }
+
+  @Test
+  public void testTerminateWhileBlocked() {
+    final CountDownLatch entered = new CountDownLatch(1);
+    final WorkerShutdown onShutdown = mock(WorkerShutdown.class);
+    final WorkerThread thread = builder()
+        .onCycle(t -> {
+          entered.countDown();
+          Thread.sleep(Long.MAX_VALUE);
+        })
+        .onShutdown(onShutdown)
+        .buildAndStart();
+    wait.untilTrue(() -> entered.getCount() == 0);
+
+    assertTrue(thread.terminate().joinSilently(60_000));
+    assertEquals(WorkerState.TERMINATED, thread.getState());
+    verify(onShutdown).handle(eq(thread), any(InterruptedException.class));
+  }
+
+  @Test
+  public void testTerminateOnUnhandledException() {
+    final RuntimeException exception = new RuntimeException("Boom");
+    final WorkerExceptionHandler onUncaughtException = mock(WorkerExceptionHandler.class);
+    final WorkerShutdown onShutdown = mock(WorkerShutdown.class);
+    final WorkerThread thread = builder()
+        .onCycle(t -> {
+          throw exception;
+        })
+        .onShutdown(onShutdown)
+        .onUncaughtException(onUncaughtException)
+        .buildAndStart();
+    assertTrue(thread.joinSilently(60_000));
+
+    assertEquals(WorkerState.TERMINATED, thread.getState());
+    verify(onUncaughtException).handle(eq(thread), eq(exception));
+    verify(onShutdown).handle(eq(thread), eq(exception));
+  }
+
+  @Test
+  public void testJoinTimeout() throws InterruptedException {
+    final WorkerThread thread = builder()
+        .onCycle(t -> Thread.sleep(1))
+        .buildAndStart();
+    assertFalse(thread.join(10));
+    assertTrue(thread.terminate().join(60_000));
+  }
+
+  @Test
+  public void testManyWorkers() {
+    final int workers = 50;
+    final AtomicInteger cycles = new AtomicInteger();
+    final List<WorkerThread> threads = new ArrayList<>(workers);
+    for (int i = 0; i < workers; i++) {
+      threads.add(builder()
+                  .onCycle(t -> {
+                    cycles.incrementAndGet();
+                    Thread.sleep(1);
+                  })
+                  .buildAndStart());
+    }
+    wait.untilTrue(() -> cycles.get() >= workers * 10);
+
+    final Joinable joinable = Terminator.of(threads).terminate();
+    assertTrue(joinable.joinSilently(60_000));
+    Assertions.assertThat(threads).allMatch(thread -> thread.getState() == WorkerState.TERMINATED);
+  }
+
+  @Test
+  public void testOptions() {
+    final WorkerThread thread = builder().onCycle(t -> {}).build();
+    assertEquals("TestWorker", thread.getName());
+    assertTrue(thread.isDaemon());
+    Assertions.assertThat(thread.toString()).contains("state=CONCEIVED");
+  }
+
+  @Test
+  public void testForName() {
+    assertSame(WorkerExecution.platform(), WorkerExecution.forName("platform"));
+    assertSame(WorkerExecution.virtual(), WorkerExecution.forName("virtual"));
+    Assertions.assertThatThrownBy(() -> WorkerExecution.forName("shared"))
+    .isInstanceOf(IllegalArgumentException.class).hasMessage("Unsupported worker execution 'shared'");
+    Assertions.assertThatThrownBy(() -> WorkerExecution.forName("green"))
+    .isInstanceOf(IllegalArgumentException.class).hasMessage("Unsupported worker execution 'green'");
+  }
+}
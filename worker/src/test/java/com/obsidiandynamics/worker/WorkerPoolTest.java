@@ -0,0 +1,68 @@
+package com.obsidiandynamics.worker;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.*;
+
+import org.assertj.core.api.*;
+import org.junit.*;
+
+import com.obsidiandynamics.await.*;
+
+public final class WorkerPoolTest {
+  @Test
+  public void testInterruptDoesNotLeakToPoolThread() {
+    final WorkerPool pool = new WorkerPool(1);
+    try {
+      final CountDownLatch entered = new CountDownLatch(1);
+      final WorkerThread blocked = WorkerThread.builder()
+          .withOptions(new WorkerOptions().withExecution(WorkerExecution.shared(pool)))
+          .onCycle(t -> {
+            entered.countDown();
+            Thread.sleep(Long.MAX_VALUE);
+          })
+          .buildAndStart();
+      Timesert.wait(10_000).untilTrue(() -> entered.getCount() == 0);
+      blocked.terminate().joinSilently();
+
+      // a subsequent worker on the same pool thread must not observe the interrupt
+      final boolean[] interrupted = {true};
+      final WorkerThread next = WorkerThread.builder()
+          .withOptions(new WorkerOptions().withExecution(WorkerExecution.shared(pool)))
+          .onCycle(t -> {
+            interrupted[0] = Thread.currentThread().isInterrupted();
+            t.terminate();
+          })
+          .buildAndStart();
+      next.joinSilently();
+      assertFalse(interrupted[0]);
+    } finally {
+      pool.terminate().joinSilently();
+    }
+  }
+
+  @Test
+  public void testTerminatePool_releasesJoiners() {
+    final WorkerPool pool = new WorkerPool(1);
+    final WorkerOptions options = new WorkerOptions().withExecution(WorkerExecution.shared(pool));
+    final WorkerThread first = WorkerThread.builder().withOptions(options).onCycle(t -> Thread.sleep(1)).buildAndStart();
+    final WorkerThread second = WorkerThread.builder().withOptions(options).onCycle(t -> Thread.sleep(1)).buildAndStart();
+
+    assertTrue(pool.terminate().joinSilently(60_000));
+    assertTrue(first.joinSilently(60_000));
+    assertTrue(second.joinSilently(60_000));
+  }
+
+  @Test
+  public void testInvalidThreads() {
+    Assertions.assertThatThrownBy(() -> new WorkerPool(0))
+    .isInstanceOf(IllegalArgumentException.class).hasMessage("Number of threads must be greater than 0");
+  }
+
+  @Test
+  public void testCommon() {
+    assertSame(WorkerPool.common(), WorkerPool.common());
+    assertEquals(Runtime.getRuntime().availableProcessors(), WorkerPool.common().getThreads());
+    Assertions.assertThat(WorkerPool.common().toString()).contains("threads=");
+  }
+}
@@ -199,11 +199,11 @@ public final class WorkerThreadTest {
   @Test
   public void testEqualsHashCode() {
     EqualsVerifier.forClass(WorkerThread.class)
-    .withPrefabValues(Thread.class, new Thread("red") {
+    .withPrefabValues(WorkerDriver.class, new WorkerDriver.Dedicated(new Thread("red") {
       @Override public void run() {}
-    }, new Thread("black") {
+    }), new WorkerDriver.Dedicated(new Thread("black") {
       @Override public void run() {}
-    })
+    }))
     .withOnlyTheseFields("driver")
     .verify();
   }